@@ -0,0 +1,49 @@
+/*
+ *      Copyright (c) 2004-2015 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi;
+
+import java.net.URL;
+import org.yamj.api.common.exception.ApiExceptionType;
+
+/**
+ * Thrown when TMDb is still rate limiting (HTTP 429) a request after the throttling retries have been used up.
+ * <p>
+ * The exception type is {@link ApiExceptionType#HTTP_503_ERROR} so existing error handling still treats it as a temporary
+ * failure, the response code is 429.
+ */
+public class MovieDbRateLimitException extends MovieDbException {
+
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+    private final long retryAfter;
+
+    public MovieDbRateLimitException(String response, URL url, long retryAfter) {
+        super(ApiExceptionType.HTTP_503_ERROR, response, HTTP_TOO_MANY_REQUESTS, url);
+        this.retryAfter = retryAfter;
+    }
+
+    /**
+     * Get the time TMDb asked the client to wait before the next request, from the Retry-After header
+     *
+     * @return The delay in milliseconds
+     */
+    public long getRetryAfter() {
+        return retryAfter;
+    }
+}
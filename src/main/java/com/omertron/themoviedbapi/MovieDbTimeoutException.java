@@ -0,0 +1,53 @@
+/*
+ *      Copyright (c) 2004-2015 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi;
+
+import java.net.URL;
+import org.yamj.api.common.exception.ApiExceptionType;
+
+/**
+ * Thrown when a request times out, either because the connection timed out or because the deadline set in the
+ * {@link com.omertron.themoviedbapi.tools.RequestContext} has passed.
+ * <p>
+ * The exception type is {@link ApiExceptionType#CONNECTION_ERROR} so existing error handling still applies.
+ */
+public class MovieDbTimeoutException extends MovieDbException {
+
+    private final boolean deadlineExceeded;
+
+    public MovieDbTimeoutException(String response, URL url, Throwable cause, boolean deadlineExceeded) {
+        super(ApiExceptionType.CONNECTION_ERROR, response, url, cause);
+        this.deadlineExceeded = deadlineExceeded;
+    }
+
+    public MovieDbTimeoutException(String response, String url, Throwable cause, boolean deadlineExceeded) {
+        super(ApiExceptionType.CONNECTION_ERROR, response, url, cause);
+        this.deadlineExceeded = deadlineExceeded;
+    }
+
+    /**
+     * Was the request stopped because the deadline of the call passed, rather than by a connection timeout
+     *
+     * @return
+     */
+    public boolean isDeadlineExceeded() {
+        return deadlineExceeded;
+    }
+}
@@ -21,6 +21,9 @@ package com.omertron.themoviedbapi;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.omertron.themoviedbapi.cache.ConfigurationCache;
+import com.omertron.themoviedbapi.cache.EntityCache;
+import com.omertron.themoviedbapi.cache.EntityKey;
 import com.omertron.themoviedbapi.model.Account;
 import com.omertron.themoviedbapi.model.AlternativeTitle;
 import com.omertron.themoviedbapi.model.Artwork;
@@ -57,14 +60,17 @@ import com.omertron.themoviedbapi.tools.ApiUrl;
 import com.omertron.themoviedbapi.tools.HttpTools;
 import com.omertron.themoviedbapi.tools.MethodBase;
 import com.omertron.themoviedbapi.tools.MethodSub;
+import com.omertron.themoviedbapi.tools.NegativeCache;
 import com.omertron.themoviedbapi.tools.Param;
+import com.omertron.themoviedbapi.tools.RequestFusion;
+import com.omertron.themoviedbapi.tools.ResponseCache;
 import com.omertron.themoviedbapi.tools.TmdbParameters;
+import com.omertron.themoviedbapi.wrapper.AbstractWrapperId;
 import com.omertron.themoviedbapi.wrapper.WrapperAlternativeTitles;
 import com.omertron.themoviedbapi.wrapper.WrapperChanges;
 import com.omertron.themoviedbapi.wrapper.WrapperCollection;
 import com.omertron.themoviedbapi.wrapper.WrapperCompany;
 import com.omertron.themoviedbapi.wrapper.WrapperCompanyMovies;
-import com.omertron.themoviedbapi.wrapper.WrapperConfig;
 import com.omertron.themoviedbapi.wrapper.WrapperGenres;
 import com.omertron.themoviedbapi.wrapper.WrapperImages;
 import com.omertron.themoviedbapi.wrapper.WrapperJobList;
@@ -90,6 +96,8 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.http.client.HttpClient;
 import org.slf4j.Logger;
@@ -108,8 +116,11 @@ public class TheMovieDbApi {
 
     private static final Logger LOG = LoggerFactory.getLogger(TheMovieDbApi.class);
     private String apiKey;
-    private TmdbConfiguration tmdbConfig;
+    private final ConfigurationCache configurationCache;
     private HttpTools httpTools;
+    private EntityCache entityCache = null;
+    private RequestFusion<MovieDb> movieFusion = null;
+    private RequestFusion<Person> personFusion = null;
     // Jackson JSON configuration
     private static ObjectMapper mapper = new ObjectMapper();
     // Constants
@@ -136,18 +147,22 @@ public class TheMovieDbApi {
      * @throws MovieDbException
      */
     public TheMovieDbApi(String apiKey, HttpClient httpClient) throws MovieDbException {
-        this.apiKey = apiKey;
-        this.httpTools = new HttpTools(httpClient);
-
-        URL configUrl = new ApiUrl(apiKey, MethodBase.CONFIGURATION).buildUrl();
-        String webpage = httpTools.getRequest(configUrl);
+        this(apiKey, new HttpTools(httpClient));
+    }
 
-        try {
-            WrapperConfig wc = mapper.readValue(webpage, WrapperConfig.class);
-            tmdbConfig = wc.getTmdbConfiguration();
-        } catch (IOException ex) {
-            throw new MovieDbException(ApiExceptionType.MAPPING_FAILED, "Failed to read configuration", configUrl, ex);
-        }
+    /**
+     * API for The Movie Db.
+     * <p>
+     * The configuration is loaded when it is first needed, the constructor does not make a request.
+     *
+     * @param apiKey
+     * @param httpTools The configured HTTP tools to use for web requests, for example with a rate limiter shared between instances.
+     * @throws MovieDbException
+     */
+    public TheMovieDbApi(String apiKey, HttpTools httpTools) throws MovieDbException {
+        this.apiKey = apiKey;
+        this.httpTools = httpTools;
+        this.configurationCache = new ConfigurationCache(httpTools, apiKey);
     }
 
     /**
@@ -247,14 +262,107 @@ public class TheMovieDbApi {
         return StringUtils.isNotBlank(year) && !"UNKNOWN".equals(year);
     }
 
-    //<editor-fold defaultstate="collapsed" desc="Configuration Functions">
     /**
-     * Get the configuration information
+     * Set the cache used for parsed movies and people.
+     * <p>
+     * The cached instances are shared between callers and must not be modified.
+     *
+     * @param entityCache The cache to use, or null to disable the cache
+     */
+    public void setEntityCache(EntityCache entityCache) {
+        this.entityCache = entityCache;
+    }
+
+    /**
+     * Get the cache used for parsed movies and people
+     *
+     * @return The cache, or null if it is disabled
+     */
+    public EntityCache getEntityCache() {
+        return entityCache;
+    }
+
+    /**
+     * Fuse the requests for the same movie or person made within the window into a single request.
+     * <p>
+     * While enabled, getMovieInfo and the methods that get a sub-resource of a movie (e.g. getMovieCasts) called for the same movie
+     * within the window share one getMovieInfo request with all of the sub-resources appended, and the same for getPersonInfo,
+     * getPersonCredits and getPersonImages. The sub-resource methods are only fused when they are called without appendToResponse
+     * and the sub-resource is not already cached. Each call waits for the window, so it should be short, e.g. 10ms.
+     *
+     * @param window How long to wait for other requests for the same ID, or zero to disable request fusion
+     * @param unit The unit of the window
+     */
+    public void setRequestFusion(long window, TimeUnit unit) {
+        if (window <= 0) {
+            movieFusion = null;
+            personFusion = null;
+            return;
+        }
+
+        movieFusion = new RequestFusion<MovieDb>(new RequestFusion.Loader<MovieDb>() {
+            @Override
+            public MovieDb load(String id, String language, String[] appendToResponse) throws MovieDbException {
+                return requestMovieInfo(Integer.parseInt(id), language, appendToResponse);
+            }
+        }, window, unit);
+        personFusion = new RequestFusion<Person>(new RequestFusion.Loader<Person>() {
+            @Override
+            public Person load(String id, String language, String[] appendToResponse) throws MovieDbException {
+                return requestPersonInfo(Integer.parseInt(id), appendToResponse);
+            }
+        }, window, unit);
+    }
+
+    /**
+     * Get the request fusion used for movies
+     *
+     * @return The request fusion, or null if it is disabled
+     */
+    public RequestFusion<MovieDb> getMovieFusion() {
+        return movieFusion;
+    }
+
+    /**
+     * Get the request fusion used for people
+     *
+     * @return The request fusion, or null if it is disabled
+     */
+    public RequestFusion<Person> getPersonFusion() {
+        return personFusion;
+    }
+
+    /**
+     * Get the HTTP tools used for the web requests
      *
      * @return
      */
+    public HttpTools getHttpTools() {
+        return httpTools;
+    }
+
+    //<editor-fold defaultstate="collapsed" desc="Configuration Functions">
+    /**
+     * Get the configuration information, loading it if it has not been loaded yet
+     *
+     * @return The configuration, or null if it could not be loaded
+     */
     public TmdbConfiguration getConfiguration() {
-        return tmdbConfig;
+        try {
+            return configurationCache.get();
+        } catch (MovieDbException ex) {
+            LOG.warn("Failed to load configuration: {}", ex.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Get the cache holding the configuration, to seed it from a snapshot file or refresh it on a schedule
+     *
+     * @return
+     */
+    public ConfigurationCache getConfigurationCache() {
+        return configurationCache;
     }
 
     /**
@@ -266,6 +374,7 @@ public class TheMovieDbApi {
      * @throws MovieDbException
      */
     public URL createImageUrl(String imagePath, String requiredSize) throws MovieDbException {
+        TmdbConfiguration tmdbConfig = configurationCache.get();
         if (!tmdbConfig.isValidSize(requiredSize)) {
             throw new MovieDbException(ApiExceptionType.INVALID_IMAGE, requiredSize);
         }
@@ -299,13 +408,14 @@ public class TheMovieDbApi {
         TmdbParameters parameters = new TmdbParameters();
         URL url = new ApiUrl(apiKey, MethodBase.AUTH).setSubMethod(MethodSub.TOKEN_NEW).buildUrl(parameters);
 
-        String webpage = httpTools.getRequest(url);
-
         try {
-            return mapper.readValue(webpage, TokenAuthorisation.class);
-        } catch (IOException ex) {
-            LOG.warn("Failed to get Authorisation Token: {}", ex.getMessage(), ex);
-            throw new MovieDbException(ApiExceptionType.AUTH_FAILURE, webpage, url, ex);
+            return httpTools.getRequest(url, TokenAuthorisation.class);
+        } catch (MovieDbException ex) {
+            if (ex.getExceptionType() != ApiExceptionType.MAPPING_FAILED) {
+                throw ex;
+            }
+            // An unreadable token response has always been reported as an authorisation failure
+            throw new MovieDbException(ApiExceptionType.AUTH_FAILURE, ex.getResponse(), url, ex);
         }
     }
 
@@ -328,14 +438,7 @@ public class TheMovieDbApi {
 
         parameters.add(Param.TOKEN, token.getRequestToken());
         URL url = new ApiUrl(apiKey, MethodBase.AUTH).setSubMethod(MethodSub.SESSION_NEW).buildUrl(parameters);
-        String webpage = httpTools.getRequest(url);
-
-        try {
-            return mapper.readValue(webpage, TokenSession.class);
-        } catch (IOException ex) {
-            LOG.warn("Failed to get Session Token: {}", ex.getMessage(), ex);
-            throw new MovieDbException(ApiExceptionType.MAPPING_FAILED, webpage, url, ex);
-        }
+        return httpTools.getRequest(url, TokenSession.class);
     }
 
     /**
@@ -362,14 +465,7 @@ public class TheMovieDbApi {
         parameters.add(Param.PASSWORD, password);
 
         URL url = new ApiUrl(apiKey, MethodBase.AUTH).setSubMethod(MethodSub.TOKEN_VALIDATE).buildUrl(parameters);
-        String webpage = httpTools.getRequest(url);
-
-        try {
-            return mapper.readValue(webpage, TokenAuthorisation.class);
-        } catch (IOException ex) {
-            LOG.warn("Failed to get Session Token: {}", ex.getMessage(), ex);
-            throw new MovieDbException(ApiExceptionType.MAPPING_FAILED, webpage, url, ex);
-        }
+        return httpTools.getRequest(url, TokenAuthorisation.class);
     }
 
     /**
@@ -389,14 +485,7 @@ public class TheMovieDbApi {
      */
     public TokenSession getGuestSessionToken() throws MovieDbException {
         URL url = new ApiUrl(apiKey, MethodBase.AUTH).setSubMethod(MethodSub.GUEST_SESSION).buildUrl();
-        String webpage = httpTools.getRequest(url);
-
-        try {
-            return mapper.readValue(webpage, TokenSession.class);
-        } catch (IOException ex) {
-            LOG.warn("Failed to get Guest Session Token: {}", ex.getMessage(), ex);
-            throw new MovieDbException(ApiExceptionType.MAPPING_FAILED, webpage, url, ex);
-        }
+        return httpTools.getRequest(url, TokenSession.class);
     }
 
     /**
@@ -411,14 +500,7 @@ public class TheMovieDbApi {
         parameters.add(Param.SESSION, sessionId);
 
         URL url = new ApiUrl(apiKey, MethodBase.ACCOUNT).buildUrl(parameters);
-        String webpage = httpTools.getRequest(url);
-
-        try {
-            return mapper.readValue(webpage, Account.class);
-        } catch (IOException ex) {
-            LOG.warn("Failed to get Account: {}", ex.getMessage(), ex);
-            throw new MovieDbException(ApiExceptionType.MAPPING_FAILED, webpage, url, ex);
-        }
+        return httpTools.getRequest(url, Account.class);
     }
 
     /**
@@ -434,14 +516,7 @@ public class TheMovieDbApi {
         parameters.add(Param.SESSION, sessionId);
 
         URL url = new ApiUrl(apiKey, MethodBase.ACCOUNT).setSubMethod(accountId, MethodSub.FAVORITE_MOVIES).buildUrl(parameters);
-        String webpage = httpTools.getRequest(url);
-
-        try {
-            return mapper.readValue(webpage, WrapperMovie.class).getMovies();
-        } catch (IOException ex) {
-            LOG.warn("Failed to get favorite movies: {}", ex.getMessage(), ex);
-            throw new MovieDbException(ApiExceptionType.MAPPING_FAILED, webpage, url, ex);
-        }
+        return httpTools.getRequest(url, WrapperMovie.class).getMovies();
     }
 
     public StatusCode changeFavoriteStatus(String sessionId, int accountId, Integer movieId, boolean isFavorite) throws MovieDbException {
@@ -519,6 +594,12 @@ public class TheMovieDbApi {
      *
      * ApiExceptionType.MOVIE_ID_NOT_FOUND will be thrown if there are no movies found.
      *
+     * If there is a response cache, the appended casts, images, keywords, releases, videos, translations and alternative titles are
+     * cached for the methods that get them on their own.
+     *
+     * If request fusion is enabled, the request may be shared with other requests for the movie, so the movie returned may have
+     * more appended to it than was asked for.
+     *
      * @param movieId
      * @param language
      * @param appendToResponse
@@ -526,24 +607,122 @@ public class TheMovieDbApi {
      * @throws MovieDbException
      */
     public MovieDb getMovieInfo(int movieId, String language, String... appendToResponse) throws MovieDbException {
+        EntityKey key = null;
+        if (entityCache != null) {
+            key = EntityKey.of(MovieDb.class, movieId, language, appendToResponse);
+            MovieDb cached = entityCache.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        MovieDb movie;
+        if (movieFusion == null || httpTools.isCached(getMovieInfoUrl(movieId, language, appendToResponse))) {
+            // A cached response is returned straight away, there is no request to fuse
+            movie = requestMovieInfo(movieId, language, appendToResponse);
+        } else {
+            movie = movieFusion.execute(String.valueOf(movieId), language, false, appendToResponse);
+        }
+
+        if (key != null) {
+            entityCache.put(key, movie);
+        }
+        return movie;
+    }
+
+    private URL getMovieInfoUrl(int movieId, String language, String... appendToResponse) {
         TmdbParameters parameters = new TmdbParameters();
         parameters.add(Param.ID, movieId);
         parameters.add(Param.LANGUAGE, language);
         parameters.add(Param.APPEND, appendToResponse);
+        return new ApiUrl(apiKey, MethodBase.MOVIE).buildUrl(parameters);
+    }
 
-        URL url = new ApiUrl(apiKey, MethodBase.MOVIE).buildUrl(parameters);
-        String webpage = httpTools.getRequest(url);
-        try {
-            MovieDb movie = mapper.readValue(webpage, MovieDb.class);
-            if (movie == null || movie.getId() == 0) {
-                LOG.warn("No movie found for ID '{}'", movieId);
-                throw new MovieDbException(ApiExceptionType.ID_NOT_FOUND, "No movie found for ID: " + movieId, url);
-            }
-            return movie;
-        } catch (IOException ex) {
-            LOG.warn("Failed to get movie info: {}", ex.getMessage(), ex);
-            throw new MovieDbException(ApiExceptionType.MAPPING_FAILED, webpage, url, ex);
+    private MovieDb requestMovieInfo(int movieId, String language, String... appendToResponse) throws MovieDbException {
+        URL url = getMovieInfoUrl(movieId, language, appendToResponse);
+        // A cached response had its sub-resources cached when it was fetched
+        boolean cached = httpTools.isCached(url);
+        MovieDb movie = httpTools.getRequest(url, MovieDb.class);
+        if (movie == null || movie.getId() == 0) {
+            LOG.warn("No movie found for ID '{}'", movieId);
+            recordMissing(url);
+            throw new MovieDbException(ApiExceptionType.ID_NOT_FOUND, "No movie found for ID: " + movieId, url);
+        }
+
+        if (!cached) {
+            cacheAppended(movieId, language, movie);
+        }
+        return movie;
+    }
+
+    /**
+     * Record an ID that TMDb returned an empty result for in the negative cache, as it would a 404
+     *
+     * @param url The URL of the request for the ID
+     */
+    private void recordMissing(URL url) {
+        NegativeCache negativeCache = httpTools.getNegativeCache();
+        if (negativeCache != null) {
+            negativeCache.put(url);
+        }
+    }
+
+    /**
+     * Get the movie with the sub-resource appended from a fused request
+     *
+     * @param movieId
+     * @param language
+     * @param anyLanguage True if the sub-resource is the same in every language
+     * @param subMethod The sub-resource
+     * @param url The URL of the request for the sub-resource on its own
+     * @param appendToResponse
+     * @return The movie, or null if request fusion is disabled or the sub-resource should be requested on its own
+     * @throws MovieDbException
+     */
+    private MovieDb fuseMovie(int movieId, String language, boolean anyLanguage, MethodSub subMethod, URL url,
+            String... appendToResponse) throws MovieDbException {
+        if (movieFusion == null || ArrayUtils.isNotEmpty(appendToResponse) || httpTools.isCached(url)) {
+            return null;
         }
+        return movieFusion.execute(String.valueOf(movieId), language, anyLanguage, subMethod.getValue());
+    }
+
+    /**
+     * Store the sub-resources appended to a movie in the response cache, so the methods that get them on their own (e.g.
+     * getMovieCasts) do not need a request
+     *
+     * @param movieId
+     * @param language The language of the request, used for the sub-resources that take a language
+     * @param movie
+     */
+    private void cacheAppended(int movieId, String language, MovieDb movie) {
+        ResponseCache responseCache = httpTools.getResponseCache();
+        if (responseCache == null) {
+            return;
+        }
+
+        cacheAppended(responseCache, MethodBase.MOVIE, movieId, null, MethodSub.ALT_TITLES, movie.getAlternativeTitlesWrapper());
+        cacheAppended(responseCache, MethodBase.MOVIE, movieId, null, MethodSub.CASTS, movie.getCastsWrapper());
+        cacheAppended(responseCache, MethodBase.MOVIE, movieId, language, MethodSub.IMAGES, movie.getImagesWrapper());
+        cacheAppended(responseCache, MethodBase.MOVIE, movieId, null, MethodSub.KEYWORDS, movie.getKeywordsWrapper());
+        cacheAppended(responseCache, MethodBase.MOVIE, movieId, language, MethodSub.RELEASES, movie.getReleasesWrapper());
+        cacheAppended(responseCache, MethodBase.MOVIE, movieId, language, MethodSub.VIDEOS, movie.getVideosWrapper());
+        cacheAppended(responseCache, MethodBase.MOVIE, movieId, null, MethodSub.TRANSLATIONS, movie.getTranslationsWrapper());
+    }
+
+    private void cacheAppended(ResponseCache responseCache, MethodBase method, int id, String language, MethodSub subMethod,
+            AbstractWrapperId wrapper) {
+        if (wrapper == null) {
+            return;
+        }
+
+        // The appended responses do not include the ID that the standalone responses have
+        wrapper.setId(id);
+        TmdbParameters parameters = new TmdbParameters();
+        parameters.add(Param.ID, id);
+        parameters.add(Param.LANGUAGE, language);
+        URL url = new ApiUrl(apiKey, method).setSubMethod(subMethod).buildUrl(parameters);
+        responseCache.put(ResponseCache.getKey(url), method, wrapper);
     }
 
     /**
@@ -566,19 +745,13 @@ public class TheMovieDbApi {
         parameters.add(Param.APPEND, appendToResponse);
 
         URL url = new ApiUrl(apiKey, MethodBase.MOVIE).buildUrl(parameters);
-        String webpage = httpTools.getRequest(url);
-
-        try {
-            MovieDb movie = mapper.readValue(webpage, MovieDb.class);
-            if (movie == null || movie.getId() == 0) {
-                LOG.warn("No movie found for IMDB ID: '{}'", imdbId);
-                throw new MovieDbException(ApiExceptionType.ID_NOT_FOUND, "No movie found for IMDB ID: " + imdbId, url);
-            }
-            return movie;
-        } catch (IOException ex) {
-            LOG.warn("Failed to get movie info: {}", ex.getMessage(), ex);
-            throw new MovieDbException(ApiExceptionType.MAPPING_FAILED, "Failed to get movie info", url, ex);
+        MovieDb movie = httpTools.getRequest(url, MovieDb.class);
+        if (movie == null || movie.getId() == 0) {
+            LOG.warn("No movie found for IMDB ID: '{}'", imdbId);
+            recordMissing(url);
+            throw new MovieDbException(ApiExceptionType.ID_NOT_FOUND, "No movie found for IMDB ID: " + imdbId, url);
         }
+        return movie;
     }
 
     /**
@@ -597,16 +770,18 @@ public class TheMovieDbApi {
         parameters.add(Param.APPEND, appendToResponse);
 
         URL url = new ApiUrl(apiKey, MethodBase.MOVIE).setSubMethod(MethodSub.ALT_TITLES).buildUrl(parameters);
-        String webpage = httpTools.getRequest(url);
-        try {
-            WrapperAlternativeTitles wrapper = mapper.readValue(webpage, WrapperAlternativeTitles.class);
-            TmdbResultsList<AlternativeTitle> results = new TmdbResultsList<AlternativeTitle>(wrapper.getTitles());
-            results.copyWrapper(wrapper);
-            return results;
-        } catch (IOException ex) {
-            LOG.warn("Failed to get movie alternative titles: {}", ex.getMessage(), ex);
-            throw new MovieDbException(ApiExceptionType.MAPPING_FAILED, webpage, url, ex);
+        WrapperAlternativeTitles wrapper = null;
+        // The appended titles are for all countries
+        if (StringUtils.isBlank(country)) {
+            MovieDb movie = fuseMovie(movieId, null, true, MethodSub.ALT_TITLES, url, appendToResponse);
+            wrapper = movie == null ? null : movie.getAlternativeTitlesWrapper();
+        }
+        if (wrapper == null) {
+            wrapper = httpTools.getRequest(url, WrapperAlternativeTitles.class);
         }
+        TmdbResultsList<AlternativeTitle> results = new TmdbResultsList<AlternativeTitle>(wrapper.getTitles());
+        results.copyWrapper(wrapper);
+        return results;
     }
 
     /**
@@ -625,17 +800,14 @@ public class TheMovieDbApi {
         parameters.add(Param.APPEND, appendToResponse);
 
         URL url = new ApiUrl(apiKey, MethodBase.MOVIE).setSubMethod(MethodSub.CASTS).buildUrl(parameters);
-        String webpage = httpTools.getRequest(url);
-
-        try {
-            WrapperMovieCasts wrapper = mapper.readValue(webpage, WrapperMovieCasts.class);
-            TmdbResultsList<Person> results = new TmdbResultsList<Person>(wrapper.getAll());
-            results.copyWrapper(wrapper);
-            return results;
-        } catch (IOException ex) {
-            LOG.warn("Failed to get movie casts: {}", ex.getMessage(), ex);
-            throw new MovieDbException(ApiExceptionType.MAPPING_FAILED, webpage, url, ex);
+        MovieDb movie = fuseMovie(movieId, null, true, MethodSub.CASTS, url, appendToResponse);
+        WrapperMovieCasts wrapper = movie == null ? null : movie.getCastsWrapper();
+        if (wrapper == null) {
+            wrapper = httpTools.getRequest(url, WrapperMovieCasts.class);
         }
+        TmdbResultsList<Person> results = new TmdbResultsList<Person>(wrapper.getAll());
+        results.copyWrapper(wrapper);
+        return results;
     }
 
     /**
@@ -654,17 +826,14 @@ public class TheMovieDbApi {
         parameters.add(Param.APPEND, appendToResponse);
 
         URL url = new ApiUrl(apiKey, MethodBase.MOVIE).setSubMethod(MethodSub.IMAGES).buildUrl(parameters);
-        String webpage = httpTools.getRequest(url);
-
-        try {
-            WrapperImages wrapper = mapper.readValue(webpage, WrapperImages.class);
-            TmdbResultsList<Artwork> results = new TmdbResultsList<Artwork>(wrapper.getAll());
-            results.copyWrapper(wrapper);
-            return results;
-        } catch (IOException ex) {
-            LOG.warn("Failed to get movie images: {}", ex.getMessage(), ex);
-            throw new MovieDbException(ApiExceptionType.MAPPING_FAILED, webpage, url, ex);
+        MovieDb movie = fuseMovie(movieId, language, false, MethodSub.IMAGES, url, appendToResponse);
+        WrapperImages wrapper = movie == null ? null : movie.getImagesWrapper();
+        if (wrapper == null) {
+            wrapper = httpTools.getRequest(url, WrapperImages.class);
         }
+        TmdbResultsList<Artwork> results = new TmdbResultsList<Artwork>(wrapper.getAll());
+        results.copyWrapper(wrapper);
+        return results;
     }
 
     /**
@@ -683,17 +852,14 @@ public class TheMovieDbApi {
         parameters.add(Param.APPEND, appendToResponse);
 
         URL url = new ApiUrl(apiKey, MethodBase.MOVIE).setSubMethod(MethodSub.KEYWORDS).buildUrl(parameters);
-        String webpage = httpTools.getRequest(url);
-
-        try {
-            WrapperMovieKeywords wrapper = mapper.readValue(webpage, WrapperMovieKeywords.class);
-            TmdbResultsList<Keyword> results = new TmdbResultsList<Keyword>(wrapper.getKeywords());
-            results.copyWrapper(wrapper);
-            return results;
-        } catch (IOException ex) {
-            LOG.warn("Failed to get movie keywords: {}", ex.getMessage(), ex);
-            throw new MovieDbException(ApiExceptionType.MAPPING_FAILED, webpage, url, ex);
+        MovieDb movie = fuseMovie(movieId, null, true, MethodSub.KEYWORDS, url, appendToResponse);
+        WrapperMovieKeywords wrapper = movie == null ? null : movie.getKeywordsWrapper();
+        if (wrapper == null) {
+            wrapper = httpTools.getRequest(url, WrapperMovieKeywords.class);
         }
+        TmdbResultsList<Keyword> results = new TmdbResultsList<Keyword>(wrapper.getKeywords());
+        results.copyWrapper(wrapper);
+        return results;
     }
 
     /**
@@ -712,17 +878,14 @@ public class TheMovieDbApi {
         parameters.add(Param.APPEND, appendToResponse);
 
         URL url = new ApiUrl(apiKey, MethodBase.MOVIE).setSubMethod(MethodSub.RELEASES).buildUrl(parameters);
-        String webpage = httpTools.getRequest(url);
-
-        try {
-            WrapperReleaseInfo wrapper = mapper.readValue(webpage, WrapperReleaseInfo.class);
-            TmdbResultsList<ReleaseInfo> results = new TmdbResultsList<ReleaseInfo>(wrapper.getCountries());
-            results.copyWrapper(wrapper);
-            return results;
-        } catch (IOException ex) {
-            LOG.warn("Failed to get movie release information: {}", ex.getMessage(), ex);
-            throw new MovieDbException(ApiExceptionType.MAPPING_FAILED, webpage, url, ex);
+        MovieDb movie = fuseMovie(movieId, language, false, MethodSub.RELEASES, url, appendToResponse);
+        WrapperReleaseInfo wrapper = movie == null ? null : movie.getReleasesWrapper();
+        if (wrapper == null) {
+            wrapper = httpTools.getRequest(url, WrapperReleaseInfo.class);
         }
+        TmdbResultsList<ReleaseInfo> results = new TmdbResultsList<ReleaseInfo>(wrapper.getCountries());
+        results.copyWrapper(wrapper);
+        return results;
     }
 
     /**
@@ -743,17 +906,14 @@ public class TheMovieDbApi {
         parameters.add(Param.APPEND, appendToResponse);
 
         URL url = new ApiUrl(apiKey, MethodBase.MOVIE).setSubMethod(MethodSub.VIDEOS).buildUrl(parameters);
-        String webpage = httpTools.getRequest(url);
-
-        try {
-            WrapperVideos wrapper = mapper.readValue(webpage, WrapperVideos.class);
-            TmdbResultsList<Video> results = new TmdbResultsList<Video>(wrapper.getVideos());
-            results.copyWrapper(wrapper);
-            return results;
-        } catch (IOException ex) {
-            LOG.warn("Failed to get movie trailers: {}", ex.getMessage(), ex);
-            throw new MovieDbException(ApiExceptionType.MAPPING_FAILED, webpage, url, ex);
+        MovieDb movie = fuseMovie(movieId, language, false, MethodSub.VIDEOS, url, appendToResponse);
+        WrapperVideos wrapper = movie == null ? null : movie.getVideosWrapper();
+        if (wrapper == null) {
+            wrapper = httpTools.getRequest(url, WrapperVideos.class);
         }
+        TmdbResultsList<Video> results = new TmdbResultsList<Video>(wrapper.getVideos());
+        results.copyWrapper(wrapper);
+        return results;
     }
 
     /**
@@ -770,17 +930,14 @@ public class TheMovieDbApi {
         parameters.add(Param.APPEND, appendToResponse);
 
         URL url = new ApiUrl(apiKey, MethodBase.MOVIE).setSubMethod(MethodSub.TRANSLATIONS).buildUrl(parameters);
-        String webpage = httpTools.getRequest(url);
-
-        try {
-            WrapperTranslations wrapper = mapper.readValue(webpage, WrapperTranslations.class);
-            TmdbResultsList<Translation> results = new TmdbResultsList<Translation>(wrapper.getTranslations());
-            results.copyWrapper(wrapper);
-            return results;
-        } catch (IOException ex) {
-            LOG.warn("Failed to get movie tranlations: {}", ex.getMessage(), ex);
-            throw new MovieDbException(ApiExceptionType.MAPPING_FAILED, webpage, url, ex);
+        MovieDb movie = fuseMovie(movieId, null, true, MethodSub.TRANSLATIONS, url, appendToResponse);
+        WrapperTranslations wrapper = movie == null ? null : movie.getTranslationsWrapper();
+        if (wrapper == null) {
+            wrapper = httpTools.getRequest(url, WrapperTranslations.class);
         }
+        TmdbResultsList<Translation> results = new TmdbResultsList<Translation>(wrapper.getTranslations());
+        results.copyWrapper(wrapper);
+        return results;
     }
 
     /**
@@ -805,17 +962,10 @@ public class TheMovieDbApi {
         parameters.add(Param.APPEND, appendToResponse);
 
         URL url = new ApiUrl(apiKey, MethodBase.MOVIE).setSubMethod(MethodSub.SIMILAR_MOVIES).buildUrl(parameters);
-        String webpage = httpTools.getRequest(url);
-
-        try {
-            WrapperMovie wrapper = mapper.readValue(webpage, WrapperMovie.class);
-            TmdbResultsList<MovieDb> results = new TmdbResultsList<MovieDb>(wrapper.getMovies());
-            results.copyWrapper(wrapper);
-            return results;
-        } catch (IOException ex) {
-            LOG.warn("Failed to get similar movies: {}", ex.getMessage(), ex);
-            throw new MovieDbException(ApiExceptionType.MAPPING_FAILED, webpage, url, ex);
-        }
+        WrapperMovie wrapper = httpTools.getRequest(url, WrapperMovie.class);
+        TmdbResultsList<MovieDb> results = new TmdbResultsList<MovieDb>(wrapper.getMovies());
+        results.copyWrapper(wrapper);
+        return results;
     }
 
     public TmdbResultsList<Reviews> getReviews(int movieId, String language, int page, String... appendToResponse) throws MovieDbException {
@@ -826,17 +976,10 @@ public class TheMovieDbApi {
         parameters.add(Param.APPEND, appendToResponse);
 
         URL url = new ApiUrl(apiKey, MethodBase.MOVIE).setSubMethod(MethodSub.REVIEWS).buildUrl(parameters);
-        String webpage = httpTools.getRequest(url);
-
-        try {
-            WrapperReviews wrapper = mapper.readValue(webpage, WrapperReviews.class);
-            TmdbResultsList<Reviews> results = new TmdbResultsList<Reviews>(wrapper.getReviews());
-            results.copyWrapper(wrapper);
-            return results;
-        } catch (IOException ex) {
-            LOG.warn("Failed to get reviews: {}", ex.getMessage(), ex);
-            throw new MovieDbException(ApiExceptionType.MAPPING_FAILED, webpage, url, ex);
-        }
+        WrapperReviews wrapper = httpTools.getRequest(url, WrapperReviews.class);
+        TmdbResultsList<Reviews> results = new TmdbResultsList<Reviews>(wrapper.getReviews());
+        results.copyWrapper(wrapper);
+        return results;
     }
 
     /**
@@ -857,17 +1000,10 @@ public class TheMovieDbApi {
         parameters.add(Param.APPEND, appendToResponse);
 
         URL url = new ApiUrl(apiKey, MethodBase.MOVIE).setSubMethod(MethodSub.LISTS).buildUrl(parameters);
-        String webpage = httpTools.getRequest(url);
-
-        try {
-            WrapperMovieList wrapper = mapper.readValue(webpage, WrapperMovieList.class);
-            TmdbResultsList<MovieList> results = new TmdbResultsList<MovieList>(wrapper.getMovieList());
-            results.copyWrapper(wrapper);
-            return results;
-        } catch (IOException ex) {
-            LOG.warn("Failed to get movie lists: {}", ex.getMessage(), ex);
-            throw new MovieDbException(ApiExceptionType.MAPPING_FAILED, webpage, url, ex);
-        }
+        WrapperMovieList wrapper = httpTools.getRequest(url, WrapperMovieList.class);
+        TmdbResultsList<MovieList> results = new TmdbResultsList<MovieList>(wrapper.getMovieList());
+        results.copyWrapper(wrapper);
+        return results;
     }
 
     /**
@@ -896,21 +1032,15 @@ public class TheMovieDbApi {
         parameters.add(Param.END_DATE, endDate);
 
         URL url = new ApiUrl(apiKey, MethodBase.MOVIE).setSubMethod(MethodSub.CHANGES).buildUrl(parameters);
-        String webpage = httpTools.getRequest(url);
-        try {
-            WrapperChanges wrapper = mapper.readValue(webpage, WrapperChanges.class);
+        WrapperChanges wrapper = httpTools.getRequest(url, WrapperChanges.class);
 
-            Map<String, List<ChangedItem>> results = new HashMap<String, List<ChangedItem>>();
-            for (ChangeKeyItem changeItem : wrapper.getChangedItems()) {
-                results.put(changeItem.getKey(), changeItem.getChangedItems());
-            }
-
-            return new TmdbResultsMap<String, List<ChangedItem>>(results);
-        } catch (IOException ex) {
-            LOG.warn("Failed to get movie changes: {}", ex.getMessage(), ex);
-            throw new MovieDbException(ApiExceptionType.MAPPING_FAILED, webpage, url, ex);
+        Map<String, List<ChangedItem>> results = new HashMap<String, List<ChangedItem>>();
+        for (ChangeKeyItem changeItem : wrapper.getChangedItems()) {
+            results.put(changeItem.getKey(), changeItem.getChangedItems());
         }
 
+        return new TmdbResultsMap<String, List<ChangedItem>>(results);
+
     }
 
     /**
@@ -921,14 +1051,7 @@ public class TheMovieDbApi {
      */
     public MovieDb getLatestMovie() throws MovieDbException {
         URL url = new ApiUrl(apiKey, MethodBase.MOVIE).setSubMethod(MethodSub.LATEST).buildUrl();
-        String webpage = httpTools.getRequest(url);
-
-        try {
-            return mapper.readValue(webpage, MovieDb.class);
-        } catch (IOException ex) {
-            LOG.warn("Failed to get latest movie: {}", ex.getMessage(), ex);
-            throw new MovieDbException(ApiExceptionType.MAPPING_FAILED, webpage, url, ex);
-        }
+        return httpTools.getRequest(url, MovieDb.class);
     }
 
     /**
@@ -949,17 +1072,10 @@ public class TheMovieDbApi {
         parameters.add(Param.PAGE, page);
 
         URL url = new ApiUrl(apiKey, MethodBase.MOVIE).setSubMethod(MethodSub.UPCOMING).buildUrl(parameters);
-        String webpage = httpTools.getRequest(url);
-
-        try {
-            WrapperMovie wrapper = mapper.readValue(webpage, WrapperMovie.class);
-            TmdbResultsList<MovieDb> results = new TmdbResultsList<MovieDb>(wrapper.getMovies());
-            results.copyWrapper(wrapper);
-            return results;
-        } catch (IOException ex) {
-            LOG.warn("Failed to get upcoming movies: {}", ex.getMessage(), ex);
-            throw new MovieDbException(ApiExceptionType.MAPPING_FAILED, webpage, url, ex);
-        }
+        WrapperMovie wrapper = httpTools.getRequest(url, WrapperMovie.class);
+        TmdbResultsList<MovieDb> results = new TmdbResultsList<MovieDb>(wrapper.getMovies());
+        results.copyWrapper(wrapper);
+        return results;
 
     }
 
@@ -981,17 +1097,10 @@ public class TheMovieDbApi {
         parameters.add(Param.PAGE, page);
 
         URL url = new ApiUrl(apiKey, MethodBase.MOVIE).setSubMethod(MethodSub.NOW_PLAYING).buildUrl(parameters);
-        String webpage = httpTools.getRequest(url);
-
-        try {
-            WrapperMovie wrapper = mapper.readValue(webpage, WrapperMovie.class);
-            TmdbResultsList<MovieDb> results = new TmdbResultsList<MovieDb>(wrapper.getMovies());
-            results.copyWrapper(wrapper);
-            return results;
-        } catch (IOException ex) {
-            LOG.warn("Failed to get now playing movies: {}", ex.getMessage(), ex);
-            throw new MovieDbException(ApiExceptionType.MAPPING_FAILED, webpage, url, ex);
-        }
+        WrapperMovie wrapper = httpTools.getRequest(url, WrapperMovie.class);
+        TmdbResultsList<MovieDb> results = new TmdbResultsList<MovieDb>(wrapper.getMovies());
+        results.copyWrapper(wrapper);
+        return results;
     }
 
     /**
@@ -1012,17 +1121,10 @@ public class TheMovieDbApi {
         parameters.add(Param.PAGE, page);
 
         URL url = new ApiUrl(apiKey, MethodBase.MOVIE).setSubMethod(MethodSub.POPULAR).buildUrl(parameters);
-        String webpage = httpTools.getRequest(url);
-
-        try {
-            WrapperMovie wrapper = mapper.readValue(webpage, WrapperMovie.class);
-            TmdbResultsList<MovieDb> results = new TmdbResultsList<MovieDb>(wrapper.getMovies());
-            results.copyWrapper(wrapper);
-            return results;
-        } catch (IOException ex) {
-            LOG.warn("Failed to get popular movie list: {}", ex.getMessage(), ex);
-            throw new MovieDbException(ApiExceptionType.MAPPING_FAILED, webpage, url, ex);
-        }
+        WrapperMovie wrapper = httpTools.getRequest(url, WrapperMovie.class);
+        TmdbResultsList<MovieDb> results = new TmdbResultsList<MovieDb>(wrapper.getMovies());
+        results.copyWrapper(wrapper);
+        return results;
     }
 
     /**
@@ -1043,17 +1145,10 @@ public class TheMovieDbApi {
         parameters.add(Param.PAGE, page);
 
         URL url = new ApiUrl(apiKey, MethodBase.MOVIE).setSubMethod(MethodSub.TOP_RATED).buildUrl(parameters);
-        String webpage = httpTools.getRequest(url);
-
-        try {
-            WrapperMovie wrapper = mapper.readValue(webpage, WrapperMovie.class);
-            TmdbResultsList<MovieDb> results = new TmdbResultsList<MovieDb>(wrapper.getMovies());
-            results.copyWrapper(wrapper);
-            return results;
-        } catch (IOException ex) {
-            LOG.warn("Failed to get top rated movies: {}", ex.getMessage(), ex);
-            throw new MovieDbException(ApiExceptionType.MAPPING_FAILED, webpage, url, ex);
-        }
+        WrapperMovie wrapper = httpTools.getRequest(url, WrapperMovie.class);
+        TmdbResultsList<MovieDb> results = new TmdbResultsList<MovieDb>(wrapper.getMovies());
+        results.copyWrapper(wrapper);
+        return results;
     }
 
     /**
@@ -1069,14 +1164,7 @@ public class TheMovieDbApi {
         parameters.add(Param.SESSION, sessionId);
 
         URL url = new ApiUrl(apiKey, MethodBase.ACCOUNT).setSubMethod(accountId, MethodSub.RATED_MOVIES).buildUrl(parameters);
-        String webpage = httpTools.getRequest(url);
-
-        try {
-            return mapper.readValue(webpage, WrapperMovie.class).getMovies();
-        } catch (IOException ex) {
-            LOG.warn("Failed to get rated movies: {}", ex.getMessage(), ex);
-            throw new MovieDbException(ApiExceptionType.MAPPING_FAILED, webpage, url, ex);
-        }
+        return httpTools.getRequest(url, WrapperMovie.class).getMovies();
     }
 
     /**
@@ -1132,14 +1220,7 @@ public class TheMovieDbApi {
         parameters.add(Param.LANGUAGE, language);
 
         URL url = new ApiUrl(apiKey, MethodBase.COLLECTION).buildUrl(parameters);
-        String webpage = httpTools.getRequest(url);
-
-        try {
-            return mapper.readValue(webpage, CollectionInfo.class);
-        } catch (IOException ex) {
-            LOG.warn("Failed to get collection information: {}", ex.getMessage(), ex);
-            throw new MovieDbException(ApiExceptionType.MAPPING_FAILED, webpage, url, ex);
-        }
+        return httpTools.getRequest(url, CollectionInfo.class);
     }
 
     /**
@@ -1156,17 +1237,10 @@ public class TheMovieDbApi {
         parameters.add(Param.LANGUAGE, language);
 
         URL url = new ApiUrl(apiKey, MethodBase.COLLECTION).setSubMethod(MethodSub.IMAGES).buildUrl(parameters);
-        String webpage = httpTools.getRequest(url);
-
-        try {
-            WrapperImages wrapper = mapper.readValue(webpage, WrapperImages.class);
-            TmdbResultsList<Artwork> results = new TmdbResultsList<Artwork>(wrapper.getAll(ArtworkType.POSTER, ArtworkType.BACKDROP));
-            results.copyWrapper(wrapper);
-            return results;
-        } catch (IOException ex) {
-            LOG.warn("Failed to get collection images: {}", ex.getMessage(), ex);
-            throw new MovieDbException(ApiExceptionType.MAPPING_FAILED, webpage, url, ex);
-        }
+        WrapperImages wrapper = httpTools.getRequest(url, WrapperImages.class);
+        TmdbResultsList<Artwork> results = new TmdbResultsList<Artwork>(wrapper.getAll(ArtworkType.POSTER, ArtworkType.BACKDROP));
+        results.copyWrapper(wrapper);
+        return results;
     }
     //</editor-fold>
 
@@ -1176,25 +1250,74 @@ public class TheMovieDbApi {
      *
      * It will return the single highest rated profile image.
      *
+     * If request fusion is enabled, the request may be shared with other requests for the person, so the person returned may have
+     * more appended to it than was asked for.
+     *
      * @param personId
      * @param appendToResponse
      * @return
      * @throws MovieDbException
      */
     public Person getPersonInfo(int personId, String... appendToResponse) throws MovieDbException {
+        EntityKey key = null;
+        if (entityCache != null) {
+            key = EntityKey.of(Person.class, personId, null, appendToResponse);
+            Person cached = entityCache.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        Person person;
+        if (personFusion == null || httpTools.isCached(getPersonInfoUrl(personId, appendToResponse))) {
+            // A cached response is returned straight away, there is no request to fuse
+            person = requestPersonInfo(personId, appendToResponse);
+        } else {
+            person = personFusion.execute(String.valueOf(personId), null, true, appendToResponse);
+        }
+
+        if (key != null) {
+            entityCache.put(key, person);
+        }
+        return person;
+    }
+
+    private URL getPersonInfoUrl(int personId, String... appendToResponse) {
         TmdbParameters parameters = new TmdbParameters();
         parameters.add(Param.ID, personId);
         parameters.add(Param.APPEND, appendToResponse);
+        return new ApiUrl(apiKey, MethodBase.PERSON).buildUrl(parameters);
+    }
 
-        URL url = new ApiUrl(apiKey, MethodBase.PERSON).buildUrl(parameters);
-        String webpage = httpTools.getRequest(url);
+    private Person requestPersonInfo(int personId, String... appendToResponse) throws MovieDbException {
+        URL url = getPersonInfoUrl(personId, appendToResponse);
+        // A cached response had its sub-resources cached when it was fetched
+        boolean cached = httpTools.isCached(url);
+        Person person = httpTools.getRequest(url, Person.class);
 
-        try {
-            return mapper.readValue(webpage, Person.class);
-        } catch (IOException ex) {
-            LOG.warn("Failed to get person info: {}", ex.getMessage(), ex);
-            throw new MovieDbException(ApiExceptionType.MAPPING_FAILED, webpage, url, ex);
+        ResponseCache responseCache = httpTools.getResponseCache();
+        if (responseCache != null && person != null && !cached) {
+            cacheAppended(responseCache, MethodBase.PERSON, personId, null, MethodSub.CREDITS, person.getCreditsWrapper());
+            cacheAppended(responseCache, MethodBase.PERSON, personId, null, MethodSub.IMAGES, person.getImagesWrapper());
         }
+        return person;
+    }
+
+    /**
+     * Get the person with the sub-resource appended from a fused request
+     *
+     * @param personId
+     * @param subMethod The sub-resource
+     * @param url The URL of the request for the sub-resource on its own
+     * @param appendToResponse
+     * @return The person, or null if request fusion is disabled or the sub-resource should be requested on its own
+     * @throws MovieDbException
+     */
+    private Person fusePerson(int personId, MethodSub subMethod, URL url, String... appendToResponse) throws MovieDbException {
+        if (personFusion == null || ArrayUtils.isNotEmpty(appendToResponse) || httpTools.isCached(url)) {
+            return null;
+        }
+        return personFusion.execute(String.valueOf(personId), null, true, subMethod.getValue());
     }
 
     /**
@@ -1213,17 +1336,14 @@ public class TheMovieDbApi {
         parameters.add(Param.APPEND, appendToResponse);
 
         URL url = new ApiUrl(apiKey, MethodBase.PERSON).setSubMethod(MethodSub.CREDITS).buildUrl(parameters);
-        String webpage = httpTools.getRequest(url);
-
-        try {
-            WrapperPersonCredits wrapper = mapper.readValue(webpage, WrapperPersonCredits.class);
-            TmdbResultsList<PersonCredit> results = new TmdbResultsList<PersonCredit>(wrapper.getAll());
-            results.copyWrapper(wrapper);
-            return results;
-        } catch (IOException ex) {
-            LOG.warn("Failed to get person credits: {}", ex.getMessage(), ex);
-            throw new MovieDbException(ApiExceptionType.MAPPING_FAILED, webpage, url, ex);
+        Person person = fusePerson(personId, MethodSub.CREDITS, url, appendToResponse);
+        WrapperPersonCredits wrapper = person == null ? null : person.getCreditsWrapper();
+        if (wrapper == null) {
+            wrapper = httpTools.getRequest(url, WrapperPersonCredits.class);
         }
+        TmdbResultsList<PersonCredit> results = new TmdbResultsList<PersonCredit>(wrapper.getAll());
+        results.copyWrapper(wrapper);
+        return results;
     }
 
     /**
@@ -1238,17 +1358,14 @@ public class TheMovieDbApi {
         parameters.add(Param.ID, personId);
 
         URL url = new ApiUrl(apiKey, MethodBase.PERSON).setSubMethod(MethodSub.IMAGES).buildUrl(parameters);
-        String webpage = httpTools.getRequest(url);
-
-        try {
-            WrapperImages wrapper = mapper.readValue(webpage, WrapperImages.class);
-            TmdbResultsList<Artwork> results = new TmdbResultsList<Artwork>(wrapper.getAll(ArtworkType.PROFILE));
-            results.copyWrapper(wrapper);
-            return results;
-        } catch (IOException ex) {
-            LOG.warn("Failed to get person images: {}", ex.getMessage(), ex);
-            throw new MovieDbException(ApiExceptionType.MAPPING_FAILED, webpage, url, ex);
+        Person person = fusePerson(personId, MethodSub.IMAGES, url);
+        WrapperImages wrapper = person == null ? null : person.getImagesWrapper();
+        if (wrapper == null) {
+            wrapper = httpTools.getRequest(url, WrapperImages.class);
         }
+        TmdbResultsList<Artwork> results = new TmdbResultsList<Artwork>(wrapper.getAll(ArtworkType.PROFILE));
+        results.copyWrapper(wrapper);
+        return results;
     }
 
     /**
@@ -1298,17 +1415,10 @@ public class TheMovieDbApi {
         parameters.add(Param.PAGE, page);
 
         URL url = new ApiUrl(apiKey, MethodBase.PERSON).setSubMethod(MethodSub.POPULAR).buildUrl(parameters);
-        String webpage = httpTools.getRequest(url);
-
-        try {
-            WrapperPersonList wrapper = mapper.readValue(webpage, WrapperPersonList.class);
-            TmdbResultsList<Person> results = new TmdbResultsList<Person>(wrapper.getPersonList());
-            results.copyWrapper(wrapper);
-            return results;
-        } catch (IOException ex) {
-            LOG.warn("Failed to get popular person: {}", ex.getMessage(), ex);
-            throw new MovieDbException(ApiExceptionType.MAPPING_FAILED, webpage, url, ex);
-        }
+        WrapperPersonList wrapper = httpTools.getRequest(url, WrapperPersonList.class);
+        TmdbResultsList<Person> results = new TmdbResultsList<Person>(wrapper.getPersonList());
+        results.copyWrapper(wrapper);
+        return results;
     }
 
     /**
@@ -1319,14 +1429,7 @@ public class TheMovieDbApi {
      */
     public Person getPersonLatest() throws MovieDbException {
         URL url = new ApiUrl(apiKey, MethodBase.PERSON).setSubMethod(MethodSub.LATEST).buildUrl();
-        String webpage = httpTools.getRequest(url);
-
-        try {
-            return mapper.readValue(webpage, Person.class);
-        } catch (IOException ex) {
-            LOG.warn("Failed to get latest person: {}", ex.getMessage(), ex);
-            throw new MovieDbException(ApiExceptionType.MAPPING_FAILED, webpage, url, ex);
-        }
+        return httpTools.getRequest(url, Person.class);
     }
     //</editor-fold>
 
@@ -1343,14 +1446,7 @@ public class TheMovieDbApi {
         parameters.add(Param.ID, companyId);
 
         URL url = new ApiUrl(apiKey, MethodBase.COMPANY).buildUrl(parameters);
-        String webpage = httpTools.getRequest(url);
-
-        try {
-            return mapper.readValue(webpage, Company.class);
-        } catch (IOException ex) {
-            LOG.warn("Failed to get company information: {}", ex.getMessage(), ex);
-            throw new MovieDbException(ApiExceptionType.MAPPING_FAILED, webpage, url, ex);
-        }
+        return httpTools.getRequest(url, Company.class);
     }
 
     /**
@@ -1373,17 +1469,10 @@ public class TheMovieDbApi {
         parameters.add(Param.PAGE, page);
 
         URL url = new ApiUrl(apiKey, MethodBase.COMPANY).setSubMethod(MethodSub.MOVIES).buildUrl(parameters);
-        String webpage = httpTools.getRequest(url);
-
-        try {
-            WrapperCompanyMovies wrapper = mapper.readValue(webpage, WrapperCompanyMovies.class);
-            TmdbResultsList<MovieDb> results = new TmdbResultsList<MovieDb>(wrapper.getResults());
-            results.copyWrapper(wrapper);
-            return results;
-        } catch (IOException ex) {
-            LOG.warn("Failed to get company movies: {}", ex.getMessage(), ex);
-            throw new MovieDbException(ApiExceptionType.MAPPING_FAILED, webpage, url, ex);
-        }
+        WrapperCompanyMovies wrapper = httpTools.getRequest(url, WrapperCompanyMovies.class);
+        TmdbResultsList<MovieDb> results = new TmdbResultsList<MovieDb>(wrapper.getResults());
+        results.copyWrapper(wrapper);
+        return results;
     }
     //</editor-fold>
 
@@ -1402,17 +1491,10 @@ public class TheMovieDbApi {
         parameters.add(Param.LANGUAGE, language);
 
         URL url = new ApiUrl(apiKey, MethodBase.GENRE).setSubMethod(MethodSub.LIST).buildUrl(parameters);
-        String webpage = httpTools.getRequest(url);
-
-        try {
-            WrapperGenres wrapper = mapper.readValue(webpage, WrapperGenres.class);
-            TmdbResultsList<Genre> results = new TmdbResultsList<Genre>(wrapper.getGenres());
-            results.copyWrapper(wrapper);
-            return results;
-        } catch (IOException ex) {
-            LOG.warn("Failed to get genre list: {}", ex.getMessage(), ex);
-            throw new MovieDbException(ApiExceptionType.MAPPING_FAILED, webpage, url, ex);
-        }
+        WrapperGenres wrapper = httpTools.getRequest(url, WrapperGenres.class);
+        TmdbResultsList<Genre> results = new TmdbResultsList<Genre>(wrapper.getGenres());
+        results.copyWrapper(wrapper);
+        return results;
     }
 
     /**
@@ -1437,17 +1519,10 @@ public class TheMovieDbApi {
         parameters.add(Param.INCLUDE_ALL_MOVIES, includeAllMovies);
 
         URL url = new ApiUrl(apiKey, MethodBase.GENRE).setSubMethod(MethodSub.MOVIES).buildUrl(parameters);
-        String webpage = httpTools.getRequest(url);
-
-        try {
-            WrapperMovie wrapper = mapper.readValue(webpage, WrapperMovie.class);
-            TmdbResultsList<MovieDb> results = new TmdbResultsList<MovieDb>(wrapper.getMovies());
-            results.copyWrapper(wrapper);
-            return results;
-        } catch (IOException ex) {
-            LOG.warn("Failed to get genre movie list: {}", ex.getMessage(), ex);
-            throw new MovieDbException(ApiExceptionType.MAPPING_FAILED, webpage, url, ex);
-        }
+        WrapperMovie wrapper = httpTools.getRequest(url, WrapperMovie.class);
+        TmdbResultsList<MovieDb> results = new TmdbResultsList<MovieDb>(wrapper.getMovies());
+        results.copyWrapper(wrapper);
+        return results;
     }
     //</editor-fold>
 
@@ -1472,17 +1547,10 @@ public class TheMovieDbApi {
         parameters.add(Param.PAGE, page);
 
         URL url = new ApiUrl(apiKey, MethodBase.SEARCH).setSubMethod(MethodSub.MOVIE).buildUrl(parameters);
-        String webpage = httpTools.getRequest(url);
-
-        try {
-            WrapperMovie wrapper = mapper.readValue(webpage, WrapperMovie.class);
-            TmdbResultsList<MovieDb> results = new TmdbResultsList<MovieDb>(wrapper.getMovies());
-            results.copyWrapper(wrapper);
-            return results;
-        } catch (IOException ex) {
-            LOG.warn("Failed to find movie: {}", ex.getMessage(), ex);
-            throw new MovieDbException(ApiExceptionType.MAPPING_FAILED, webpage, url, ex);
-        }
+        WrapperMovie wrapper = httpTools.getRequest(url, WrapperMovie.class);
+        TmdbResultsList<MovieDb> results = new TmdbResultsList<MovieDb>(wrapper.getMovies());
+        results.copyWrapper(wrapper);
+        return results;
 
     }
 
@@ -1502,17 +1570,10 @@ public class TheMovieDbApi {
         parameters.add(Param.PAGE, page);
 
         URL url = new ApiUrl(apiKey, MethodBase.SEARCH).setSubMethod(MethodSub.COLLECTION).buildUrl(parameters);
-        String webpage = httpTools.getRequest(url);
-
-        try {
-            WrapperCollection wrapper = mapper.readValue(webpage, WrapperCollection.class);
-            TmdbResultsList<Collection> results = new TmdbResultsList<Collection>(wrapper.getResults());
-            results.copyWrapper(wrapper);
-            return results;
-        } catch (IOException ex) {
-            LOG.warn("Failed to find collection: {}", ex.getMessage(), ex);
-            throw new MovieDbException(ApiExceptionType.MAPPING_FAILED, webpage, url, ex);
-        }
+        WrapperCollection wrapper = httpTools.getRequest(url, WrapperCollection.class);
+        TmdbResultsList<Collection> results = new TmdbResultsList<Collection>(wrapper.getResults());
+        results.copyWrapper(wrapper);
+        return results;
     }
 
     /**
@@ -1533,17 +1594,10 @@ public class TheMovieDbApi {
         parameters.add(Param.PAGE, page);
 
         URL url = new ApiUrl(apiKey, MethodBase.SEARCH).setSubMethod(MethodSub.PERSON).buildUrl(parameters);
-        String webpage = httpTools.getRequest(url);
-
-        try {
-            WrapperPerson wrapper = mapper.readValue(webpage, WrapperPerson.class);
-            TmdbResultsList<Person> results = new TmdbResultsList<Person>(wrapper.getResults());
-            results.copyWrapper(wrapper);
-            return results;
-        } catch (IOException ex) {
-            LOG.warn("Failed to find person: {}", ex.getMessage(), ex);
-            throw new MovieDbException(ApiExceptionType.MAPPING_FAILED, webpage, url, ex);
-        }
+        WrapperPerson wrapper = httpTools.getRequest(url, WrapperPerson.class);
+        TmdbResultsList<Person> results = new TmdbResultsList<Person>(wrapper.getResults());
+        results.copyWrapper(wrapper);
+        return results;
     }
 
     /**
@@ -1562,17 +1616,10 @@ public class TheMovieDbApi {
         parameters.add(Param.PAGE, page);
 
         URL url = new ApiUrl(apiKey, MethodBase.SEARCH).setSubMethod(MethodSub.LIST).buildUrl(parameters);
-        String webpage = httpTools.getRequest(url);
-
-        try {
-            WrapperMovieList wrapper = mapper.readValue(webpage, WrapperMovieList.class);
-            TmdbResultsList<MovieList> results = new TmdbResultsList<MovieList>(wrapper.getMovieList());
-            results.copyWrapper(wrapper);
-            return results;
-        } catch (IOException ex) {
-            LOG.warn("Failed to find list: {}", ex.getMessage(), ex);
-            throw new MovieDbException(ApiExceptionType.MAPPING_FAILED, webpage, url, ex);
-        }
+        WrapperMovieList wrapper = httpTools.getRequest(url, WrapperMovieList.class);
+        TmdbResultsList<MovieList> results = new TmdbResultsList<MovieList>(wrapper.getMovieList());
+        results.copyWrapper(wrapper);
+        return results;
     }
 
     /**
@@ -1594,17 +1641,10 @@ public class TheMovieDbApi {
         parameters.add(Param.PAGE, page);
 
         URL url = new ApiUrl(apiKey, MethodBase.SEARCH).setSubMethod(MethodSub.COMPANY).buildUrl(parameters);
-        String webpage = httpTools.getRequest(url);
-
-        try {
-            WrapperCompany wrapper = mapper.readValue(webpage, WrapperCompany.class);
-            TmdbResultsList<Company> results = new TmdbResultsList<Company>(wrapper.getResults());
-            results.copyWrapper(wrapper);
-            return results;
-        } catch (IOException ex) {
-            LOG.warn("Failed to find company: {}", ex.getMessage(), ex);
-            throw new MovieDbException(ApiExceptionType.MAPPING_FAILED, webpage, url, ex);
-        }
+        WrapperCompany wrapper = httpTools.getRequest(url, WrapperCompany.class);
+        TmdbResultsList<Company> results = new TmdbResultsList<Company>(wrapper.getResults());
+        results.copyWrapper(wrapper);
+        return results;
     }
 
     /**
@@ -1621,17 +1661,10 @@ public class TheMovieDbApi {
         parameters.add(Param.PAGE, page);
 
         URL url = new ApiUrl(apiKey, MethodBase.SEARCH).setSubMethod(MethodSub.KEYWORD).buildUrl(parameters);
-        String webpage = httpTools.getRequest(url);
-
-        try {
-            WrapperKeywords wrapper = mapper.readValue(webpage, WrapperKeywords.class);
-            TmdbResultsList<Keyword> results = new TmdbResultsList<Keyword>(wrapper.getResults());
-            results.copyWrapper(wrapper);
-            return results;
-        } catch (IOException ex) {
-            LOG.warn("Failed to find keyword: {}", ex.getMessage(), ex);
-            throw new MovieDbException(ApiExceptionType.MAPPING_FAILED, webpage, url, ex);
-        }
+        WrapperKeywords wrapper = httpTools.getRequest(url, WrapperKeywords.class);
+        TmdbResultsList<Keyword> results = new TmdbResultsList<Keyword>(wrapper.getResults());
+        results.copyWrapper(wrapper);
+        return results;
     }
     //</editor-fold>
 
@@ -1648,14 +1681,7 @@ public class TheMovieDbApi {
         parameters.add(Param.ID, listId);
 
         URL url = new ApiUrl(apiKey, MethodBase.LIST).buildUrl(parameters);
-        String webpage = httpTools.getRequest(url);
-
-        try {
-            return mapper.readValue(webpage, MovieDbList.class);
-        } catch (IOException ex) {
-            LOG.warn("Failed to get list: {}", ex.getMessage(), ex);
-            throw new MovieDbException(ApiExceptionType.MAPPING_FAILED, webpage, url, ex);
-        }
+        return httpTools.getRequest(url, MovieDbList.class);
     }
 
     /**
@@ -1671,14 +1697,7 @@ public class TheMovieDbApi {
         parameters.add(Param.SESSION, sessionId);
 
         URL url = new ApiUrl(apiKey, MethodBase.ACCOUNT).setSubMethod(accountID, MethodSub.LISTS).buildUrl(parameters);
-        String webpage = httpTools.getRequest(url);
-
-        try {
-            return mapper.readValue(webpage, WrapperMovieDbList.class).getLists();
-        } catch (IOException ex) {
-            LOG.warn("Failed to get user list: {}", ex.getMessage(), ex);
-            throw new MovieDbException(ApiExceptionType.MAPPING_FAILED, webpage, url, ex);
-        }
+        return httpTools.getRequest(url, WrapperMovieDbList.class).getLists();
     }
 
     /**
@@ -1723,14 +1742,7 @@ public class TheMovieDbApi {
         parameters.add(Param.ID, movieId);
 
         URL url = new ApiUrl(apiKey, MethodBase.LIST).setSubMethod(listId, MethodSub.ITEM_STATUS).buildUrl(parameters);
-        String webpage = httpTools.getRequest(url);
-
-        try {
-            return mapper.readValue(webpage, ListItemStatus.class).isItemPresent();
-        } catch (IOException ex) {
-            LOG.warn("Failed to get item status: {}", ex.getMessage(), ex);
-            throw new MovieDbException(ApiExceptionType.MAPPING_FAILED, webpage, url, ex);
-        }
+        return httpTools.getRequest(url, ListItemStatus.class).isItemPresent();
     }
 
     /**
@@ -1789,14 +1801,7 @@ public class TheMovieDbApi {
         parameters.add(Param.SESSION, sessionId);
 
         URL url = new ApiUrl(apiKey, MethodBase.ACCOUNT).setSubMethod(accountId, MethodSub.MOVIE_WATCHLIST).buildUrl(parameters);
-        String webpage = httpTools.getRequest(url);
-
-        try {
-            return mapper.readValue(webpage, WrapperMovie.class).getMovies();
-        } catch (IOException ex) {
-            LOG.warn("Failed to get watch list: {}", ex.getMessage(), ex);
-            throw new MovieDbException(ApiExceptionType.MAPPING_FAILED, webpage, url, ex);
-        }
+        return httpTools.getRequest(url, WrapperMovie.class).getMovies();
     }
 
     /**
@@ -1837,14 +1842,7 @@ public class TheMovieDbApi {
         parameters.add(Param.ID, keywordId);
 
         URL url = new ApiUrl(apiKey, MethodBase.KEYWORD).buildUrl(parameters);
-        String webpage = httpTools.getRequest(url);
-
-        try {
-            return mapper.readValue(webpage, Keyword.class);
-        } catch (IOException ex) {
-            LOG.warn("Failed to get keyword: {}", ex.getMessage(), ex);
-            throw new MovieDbException(ApiExceptionType.MAPPING_FAILED, webpage, url, ex);
-        }
+        return httpTools.getRequest(url, Keyword.class);
 
     }
 
@@ -1864,17 +1862,10 @@ public class TheMovieDbApi {
         parameters.add(Param.PAGE, page);
 
         URL url = new ApiUrl(apiKey, MethodBase.KEYWORD).setSubMethod(MethodSub.MOVIES).buildUrl(parameters);
-        String webpage = httpTools.getRequest(url);
-
-        try {
-            WrapperKeywordMovies wrapper = mapper.readValue(webpage, WrapperKeywordMovies.class);
-            TmdbResultsList<KeywordMovie> results = new TmdbResultsList<KeywordMovie>(wrapper.getResults());
-            results.copyWrapper(wrapper);
-            return results;
-        } catch (IOException ex) {
-            LOG.warn("Failed to get keyword movies: {}", ex.getMessage(), ex);
-            throw new MovieDbException(ApiExceptionType.MAPPING_FAILED, webpage, url, ex);
-        }
+        WrapperKeywordMovies wrapper = httpTools.getRequest(url, WrapperKeywordMovies.class);
+        TmdbResultsList<KeywordMovie> results = new TmdbResultsList<KeywordMovie>(wrapper.getResults());
+        results.copyWrapper(wrapper);
+        return results;
 
     }
     //</editor-fold>
@@ -1899,18 +1890,11 @@ public class TheMovieDbApi {
         params.add(Param.END_DATE, endDate);
 
         URL url = new ApiUrl(apiKey, MethodBase.MOVIE).setSubMethod(MethodSub.CHANGES).buildUrl(params);
-        String webpage = httpTools.getRequest(url);
-
-        try {
-            WrapperMovieChanges wrapper = mapper.readValue(webpage, WrapperMovieChanges.class);
+        WrapperMovieChanges wrapper = httpTools.getRequest(url, WrapperMovieChanges.class);
 
-            TmdbResultsList<ChangedMovie> results = new TmdbResultsList<ChangedMovie>(wrapper.getResults());
-            results.copyWrapper(wrapper);
-            return results;
-        } catch (IOException ex) {
-            LOG.warn("Failed to get movie changes: {}", ex.getMessage(), ex);
-            throw new MovieDbException(ApiExceptionType.MAPPING_FAILED, webpage, url, ex);
-        }
+        TmdbResultsList<ChangedMovie> results = new TmdbResultsList<ChangedMovie>(wrapper.getResults());
+        results.copyWrapper(wrapper);
+        return results;
     }
 
     public void getPersonChangesList(int page, String startDate, String endDate) throws MovieDbException {
@@ -1922,17 +1906,10 @@ public class TheMovieDbApi {
     //<editor-fold defaultstate="collapsed" desc="Jobs">
     public TmdbResultsList<JobDepartment> getJobs() throws MovieDbException {
         URL url = new ApiUrl(apiKey, MethodBase.JOB).setSubMethod(MethodSub.LIST).buildUrl();
-        String webpage = httpTools.getRequest(url);
-
-        try {
-            WrapperJobList wrapper = mapper.readValue(webpage, WrapperJobList.class);
-            TmdbResultsList<JobDepartment> results = new TmdbResultsList<JobDepartment>(wrapper.getJobs());
-            results.copyWrapper(wrapper);
-            return results;
-        } catch (IOException ex) {
-            LOG.warn("Failed to get job list: {}", ex.getMessage(), ex);
-            throw new MovieDbException(ApiExceptionType.MAPPING_FAILED, webpage, url, ex);
-        }
+        WrapperJobList wrapper = httpTools.getRequest(url, WrapperJobList.class);
+        TmdbResultsList<JobDepartment> results = new TmdbResultsList<JobDepartment>(wrapper.getJobs());
+        results.copyWrapper(wrapper);
+        return results;
     }
     //</editor-fold>
 
@@ -1997,17 +1974,10 @@ public class TheMovieDbApi {
      */
     public TmdbResultsList<MovieDb> getDiscover(Discover discover) throws MovieDbException {
         URL url = new ApiUrl(apiKey, MethodBase.DISCOVER).setSubMethod(MethodSub.MOVIE).buildUrl(discover.getParams());
-        String webpage = httpTools.getRequest(url);
-
-        try {
-            WrapperMovie wrapper = mapper.readValue(webpage, WrapperMovie.class);
-            TmdbResultsList<MovieDb> results = new TmdbResultsList<MovieDb>(wrapper.getMovies());
-            results.copyWrapper(wrapper);
-            return results;
-        } catch (IOException ex) {
-            LOG.warn("Failed to get discover list: {}", ex.getMessage(), ex);
-            throw new MovieDbException(ApiExceptionType.MAPPING_FAILED, webpage, url, ex);
-        }
+        WrapperMovie wrapper = httpTools.getRequest(url, WrapperMovie.class);
+        TmdbResultsList<MovieDb> results = new TmdbResultsList<MovieDb>(wrapper.getMovies());
+        results.copyWrapper(wrapper);
+        return results;
     }
     //</editor-fold>
 
@@ -0,0 +1,1316 @@
+/*
+ *      Copyright (c) 2004-2015 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi;
+
+import com.omertron.themoviedbapi.model.Account;
+import com.omertron.themoviedbapi.model.AlternativeTitle;
+import com.omertron.themoviedbapi.model.Artwork;
+import com.omertron.themoviedbapi.model.ChangedItem;
+import com.omertron.themoviedbapi.model.ChangedMovie;
+import com.omertron.themoviedbapi.model.CollectionInfo;
+import com.omertron.themoviedbapi.model.Company;
+import com.omertron.themoviedbapi.model.Discover;
+import com.omertron.themoviedbapi.model.Genre;
+import com.omertron.themoviedbapi.model.JobDepartment;
+import com.omertron.themoviedbapi.model.Keyword;
+import com.omertron.themoviedbapi.model.KeywordMovie;
+import com.omertron.themoviedbapi.model.MovieDb;
+import com.omertron.themoviedbapi.model.MovieDbList;
+import com.omertron.themoviedbapi.model.MovieList;
+import com.omertron.themoviedbapi.model.Person;
+import com.omertron.themoviedbapi.model.PersonCredit;
+import com.omertron.themoviedbapi.model.ReleaseInfo;
+import com.omertron.themoviedbapi.model.Reviews;
+import com.omertron.themoviedbapi.model.StatusCode;
+import com.omertron.themoviedbapi.model.TokenAuthorisation;
+import com.omertron.themoviedbapi.model.TokenSession;
+import com.omertron.themoviedbapi.model.Translation;
+import com.omertron.themoviedbapi.model.Video;
+import com.omertron.themoviedbapi.results.BulkResults;
+import com.omertron.themoviedbapi.results.PagedResults;
+import com.omertron.themoviedbapi.results.TmdbResultsList;
+import com.omertron.themoviedbapi.results.TmdbResultsMap;
+import com.omertron.themoviedbapi.tools.RequestContext;
+import com.omertron.themoviedbapi.tools.RequestPriority;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Asynchronous facade over The MovieDb API
+ * <p>
+ * Each method submits the matching {@link TheMovieDbApi} call to the supplied executor and returns a {@link Future} for the result.
+ * URL building and JSON mapping are shared with the synchronous API, so the results are identical.
+ * <p>
+ * Any {@link MovieDbException} thrown by the call is available as the cause of the {@link java.util.concurrent.ExecutionException}
+ * thrown by {@link Future#get()}.
+ * <p>
+ * The calls are not non-blocking: the transports read the response on the thread making the request, so each call in flight
+ * occupies a thread of the executor until its response has been read. The number of requests in flight is therefore limited by the
+ * size of the executor, not just by the rate limiter; size the executor for the concurrency wanted rather than expecting a small
+ * pool to carry hundreds of requests.
+ *
+ * @author Stuart
+ */
+public class TheMovieDbApiAsync {
+
+    private final TheMovieDbApi api;
+    private final ExecutorService executor;
+
+    /**
+     * Create an asynchronous facade
+     *
+     * @param api The synchronous API to delegate the calls to
+     * @param executor The executor to run the calls on
+     */
+    public TheMovieDbApiAsync(TheMovieDbApi api, ExecutorService executor) {
+        this.api = api;
+        this.executor = executor;
+    }
+
+    /**
+     * Get the synchronous API used by this facade
+     *
+     * @return
+     */
+    public TheMovieDbApi getApi() {
+        return api;
+    }
+
+    /**
+     * Get the executor the calls are run on
+     *
+     * @return
+     */
+    public ExecutorService getExecutor() {
+        return executor;
+    }
+
+    /**
+     * Submit a custom call to the executor
+     * <p>
+     * The call is run with the {@link RequestContext} of the calling thread.
+     *
+     * @param <T>
+     * @param task
+     * @return
+     */
+    public <T> Future<T> submit(final Callable<T> task) {
+        final RequestContext context = RequestContext.capture();
+        return executor.submit(new Callable<T>() {
+            @Override
+            public T call() throws Exception {
+                RequestContext previous = RequestContext.restore(context);
+                try {
+                    return task.call();
+                } finally {
+                    RequestContext.restore(previous);
+                }
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link TheMovieDbApi#getAuthorisationToken()}
+     *
+     * @return
+     */
+    public Future<TokenAuthorisation> getAuthorisationToken() {
+        return submit(new Callable<TokenAuthorisation>() {
+            @Override
+            public TokenAuthorisation call() throws MovieDbException {
+                return api.getAuthorisationToken();
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link TheMovieDbApi#getSessionToken(TokenAuthorisation)}
+     *
+     * @param token
+     * @return
+     */
+    public Future<TokenSession> getSessionToken(final TokenAuthorisation token) {
+        return submit(new Callable<TokenSession>() {
+            @Override
+            public TokenSession call() throws MovieDbException {
+                return api.getSessionToken(token);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link TheMovieDbApi#getSessionTokenLogin(TokenAuthorisation, String, String)}
+     *
+     * @param token
+     * @param username
+     * @param password
+     * @return
+     */
+    public Future<TokenAuthorisation> getSessionTokenLogin(final TokenAuthorisation token, final String username, final String password) {
+        return submit(new Callable<TokenAuthorisation>() {
+            @Override
+            public TokenAuthorisation call() throws MovieDbException {
+                return api.getSessionTokenLogin(token, username, password);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link TheMovieDbApi#getGuestSessionToken()}
+     *
+     * @return
+     */
+    public Future<TokenSession> getGuestSessionToken() {
+        return submit(new Callable<TokenSession>() {
+            @Override
+            public TokenSession call() throws MovieDbException {
+                return api.getGuestSessionToken();
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link TheMovieDbApi#getAccount(String)}
+     *
+     * @param sessionId
+     * @return
+     */
+    public Future<Account> getAccount(final String sessionId) {
+        return submit(new Callable<Account>() {
+            @Override
+            public Account call() throws MovieDbException {
+                return api.getAccount(sessionId);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link TheMovieDbApi#getFavoriteMovies(String, int)}
+     *
+     * @param sessionId
+     * @param accountId
+     * @return
+     */
+    public Future<List<MovieDb>> getFavoriteMovies(final String sessionId, final int accountId) {
+        return submit(new Callable<List<MovieDb>>() {
+            @Override
+            public List<MovieDb> call() throws MovieDbException {
+                return api.getFavoriteMovies(sessionId, accountId);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link TheMovieDbApi#changeFavoriteStatus(String, int, Integer, boolean)}
+     *
+     * @param sessionId
+     * @param accountId
+     * @param movieId
+     * @param isFavorite
+     * @return
+     */
+    public Future<StatusCode> changeFavoriteStatus(final String sessionId, final int accountId, final Integer movieId, final boolean isFavorite) {
+        return submit(new Callable<StatusCode>() {
+            @Override
+            public StatusCode call() throws MovieDbException {
+                return api.changeFavoriteStatus(sessionId, accountId, movieId, isFavorite);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link TheMovieDbApi#addToWatchList(String, int, Integer)}
+     *
+     * @param sessionId
+     * @param accountId
+     * @param movieId
+     * @return
+     */
+    public Future<StatusCode> addToWatchList(final String sessionId, final int accountId, final Integer movieId) {
+        return submit(new Callable<StatusCode>() {
+            @Override
+            public StatusCode call() throws MovieDbException {
+                return api.addToWatchList(sessionId, accountId, movieId);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link TheMovieDbApi#removeFromWatchList(String, int, Integer)}
+     *
+     * @param sessionId
+     * @param accountId
+     * @param movieId
+     * @return
+     */
+    public Future<StatusCode> removeFromWatchList(final String sessionId, final int accountId, final Integer movieId) {
+        return submit(new Callable<StatusCode>() {
+            @Override
+            public StatusCode call() throws MovieDbException {
+                return api.removeFromWatchList(sessionId, accountId, movieId);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link TheMovieDbApi#getMovieInfo(int, String, String...)}
+     *
+     * @param movieId
+     * @param language
+     * @param appendToResponse
+     * @return
+     */
+    public Future<MovieDb> getMovieInfo(final int movieId, final String language, final String... appendToResponse) {
+        return submit(new Callable<MovieDb>() {
+            @Override
+            public MovieDb call() throws MovieDbException {
+                return api.getMovieInfo(movieId, language, appendToResponse);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link TheMovieDbApi#getMovieInfoImdb(String, String, String...)}
+     *
+     * @param imdbId
+     * @param language
+     * @param appendToResponse
+     * @return
+     */
+    public Future<MovieDb> getMovieInfoImdb(final String imdbId, final String language, final String... appendToResponse) {
+        return submit(new Callable<MovieDb>() {
+            @Override
+            public MovieDb call() throws MovieDbException {
+                return api.getMovieInfoImdb(imdbId, language, appendToResponse);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link TheMovieDbApi#getMovieAlternativeTitles(int, String, String...)}
+     *
+     * @param movieId
+     * @param country
+     * @param appendToResponse
+     * @return
+     */
+    public Future<TmdbResultsList<AlternativeTitle>> getMovieAlternativeTitles(final int movieId, final String country, final String... appendToResponse) {
+        return submit(new Callable<TmdbResultsList<AlternativeTitle>>() {
+            @Override
+            public TmdbResultsList<AlternativeTitle> call() throws MovieDbException {
+                return api.getMovieAlternativeTitles(movieId, country, appendToResponse);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link TheMovieDbApi#getMovieCasts(int, String...)}
+     *
+     * @param movieId
+     * @param appendToResponse
+     * @return
+     */
+    public Future<TmdbResultsList<Person>> getMovieCasts(final int movieId, final String... appendToResponse) {
+        return submit(new Callable<TmdbResultsList<Person>>() {
+            @Override
+            public TmdbResultsList<Person> call() throws MovieDbException {
+                return api.getMovieCasts(movieId, appendToResponse);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link TheMovieDbApi#getMovieImages(int, String, String...)}
+     *
+     * @param movieId
+     * @param language
+     * @param appendToResponse
+     * @return
+     */
+    public Future<TmdbResultsList<Artwork>> getMovieImages(final int movieId, final String language, final String... appendToResponse) {
+        return submit(new Callable<TmdbResultsList<Artwork>>() {
+            @Override
+            public TmdbResultsList<Artwork> call() throws MovieDbException {
+                return api.getMovieImages(movieId, language, appendToResponse);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link TheMovieDbApi#getMovieKeywords(int, String...)}
+     *
+     * @param movieId
+     * @param appendToResponse
+     * @return
+     */
+    public Future<TmdbResultsList<Keyword>> getMovieKeywords(final int movieId, final String... appendToResponse) {
+        return submit(new Callable<TmdbResultsList<Keyword>>() {
+            @Override
+            public TmdbResultsList<Keyword> call() throws MovieDbException {
+                return api.getMovieKeywords(movieId, appendToResponse);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link TheMovieDbApi#getMovieReleaseInfo(int, String, String...)}
+     *
+     * @param movieId
+     * @param language
+     * @param appendToResponse
+     * @return
+     */
+    public Future<TmdbResultsList<ReleaseInfo>> getMovieReleaseInfo(final int movieId, final String language, final String... appendToResponse) {
+        return submit(new Callable<TmdbResultsList<ReleaseInfo>>() {
+            @Override
+            public TmdbResultsList<ReleaseInfo> call() throws MovieDbException {
+                return api.getMovieReleaseInfo(movieId, language, appendToResponse);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link TheMovieDbApi#getMovieTrailers(int, String, String...)}
+     *
+     * @param movieId
+     * @param language
+     * @param appendToResponse
+     * @return
+     */
+    public Future<TmdbResultsList<Video>> getMovieTrailers(final int movieId, final String language, final String... appendToResponse) {
+        return submit(new Callable<TmdbResultsList<Video>>() {
+            @Override
+            public TmdbResultsList<Video> call() throws MovieDbException {
+                return api.getMovieTrailers(movieId, language, appendToResponse);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link TheMovieDbApi#getMovieTranslations(int, String...)}
+     *
+     * @param movieId
+     * @param appendToResponse
+     * @return
+     */
+    public Future<TmdbResultsList<Translation>> getMovieTranslations(final int movieId, final String... appendToResponse) {
+        return submit(new Callable<TmdbResultsList<Translation>>() {
+            @Override
+            public TmdbResultsList<Translation> call() throws MovieDbException {
+                return api.getMovieTranslations(movieId, appendToResponse);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link TheMovieDbApi#getSimilarMovies(int, String, int, String...)}
+     *
+     * @param movieId
+     * @param language
+     * @param page
+     * @param appendToResponse
+     * @return
+     */
+    public Future<TmdbResultsList<MovieDb>> getSimilarMovies(final int movieId, final String language, final int page, final String... appendToResponse) {
+        return submit(new Callable<TmdbResultsList<MovieDb>>() {
+            @Override
+            public TmdbResultsList<MovieDb> call() throws MovieDbException {
+                return api.getSimilarMovies(movieId, language, page, appendToResponse);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link TheMovieDbApi#getReviews(int, String, int, String...)}
+     *
+     * @param movieId
+     * @param language
+     * @param page
+     * @param appendToResponse
+     * @return
+     */
+    public Future<TmdbResultsList<Reviews>> getReviews(final int movieId, final String language, final int page, final String... appendToResponse) {
+        return submit(new Callable<TmdbResultsList<Reviews>>() {
+            @Override
+            public TmdbResultsList<Reviews> call() throws MovieDbException {
+                return api.getReviews(movieId, language, page, appendToResponse);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link TheMovieDbApi#getMovieLists(int, String, int, String...)}
+     *
+     * @param movieId
+     * @param language
+     * @param page
+     * @param appendToResponse
+     * @return
+     */
+    public Future<TmdbResultsList<MovieList>> getMovieLists(final int movieId, final String language, final int page, final String... appendToResponse) {
+        return submit(new Callable<TmdbResultsList<MovieList>>() {
+            @Override
+            public TmdbResultsList<MovieList> call() throws MovieDbException {
+                return api.getMovieLists(movieId, language, page, appendToResponse);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link TheMovieDbApi#getMovieChanges(int, String, String)}
+     *
+     * @param movieId
+     * @param startDate
+     * @param endDate
+     * @return
+     */
+    public Future<TmdbResultsMap<String, List<ChangedItem>>> getMovieChanges(final int movieId, final String startDate, final String endDate) {
+        return submit(new Callable<TmdbResultsMap<String, List<ChangedItem>>>() {
+            @Override
+            public TmdbResultsMap<String, List<ChangedItem>> call() throws MovieDbException {
+                return api.getMovieChanges(movieId, startDate, endDate);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link TheMovieDbApi#getLatestMovie()}
+     *
+     * @return
+     */
+    public Future<MovieDb> getLatestMovie() {
+        return submit(new Callable<MovieDb>() {
+            @Override
+            public MovieDb call() throws MovieDbException {
+                return api.getLatestMovie();
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link TheMovieDbApi#getUpcoming(String, int)}
+     *
+     * @param language
+     * @param page
+     * @return
+     */
+    public Future<TmdbResultsList<MovieDb>> getUpcoming(final String language, final int page) {
+        return submit(new Callable<TmdbResultsList<MovieDb>>() {
+            @Override
+            public TmdbResultsList<MovieDb> call() throws MovieDbException {
+                return api.getUpcoming(language, page);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link TheMovieDbApi#getNowPlayingMovies(String, int)}
+     *
+     * @param language
+     * @param page
+     * @return
+     */
+    public Future<TmdbResultsList<MovieDb>> getNowPlayingMovies(final String language, final int page) {
+        return submit(new Callable<TmdbResultsList<MovieDb>>() {
+            @Override
+            public TmdbResultsList<MovieDb> call() throws MovieDbException {
+                return api.getNowPlayingMovies(language, page);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link TheMovieDbApi#getPopularMovieList(String, int)}
+     *
+     * @param language
+     * @param page
+     * @return
+     */
+    public Future<TmdbResultsList<MovieDb>> getPopularMovieList(final String language, final int page) {
+        return submit(new Callable<TmdbResultsList<MovieDb>>() {
+            @Override
+            public TmdbResultsList<MovieDb> call() throws MovieDbException {
+                return api.getPopularMovieList(language, page);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link TheMovieDbApi#getTopRatedMovies(String, int)}
+     *
+     * @param language
+     * @param page
+     * @return
+     */
+    public Future<TmdbResultsList<MovieDb>> getTopRatedMovies(final String language, final int page) {
+        return submit(new Callable<TmdbResultsList<MovieDb>>() {
+            @Override
+            public TmdbResultsList<MovieDb> call() throws MovieDbException {
+                return api.getTopRatedMovies(language, page);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link TheMovieDbApi#getRatedMovies(String, int)}
+     *
+     * @param sessionId
+     * @param accountId
+     * @return
+     */
+    public Future<List<MovieDb>> getRatedMovies(final String sessionId, final int accountId) {
+        return submit(new Callable<List<MovieDb>>() {
+            @Override
+            public List<MovieDb> call() throws MovieDbException {
+                return api.getRatedMovies(sessionId, accountId);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link TheMovieDbApi#postMovieRating(String, Integer, Integer)}
+     *
+     * @param sessionId
+     * @param movieId
+     * @param rating
+     * @return
+     */
+    public Future<Boolean> postMovieRating(final String sessionId, final Integer movieId, final Integer rating) {
+        return submit(new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws MovieDbException {
+                return api.postMovieRating(sessionId, movieId, rating);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link TheMovieDbApi#getCollectionInfo(int, String)}
+     *
+     * @param collectionId
+     * @param language
+     * @return
+     */
+    public Future<CollectionInfo> getCollectionInfo(final int collectionId, final String language) {
+        return submit(new Callable<CollectionInfo>() {
+            @Override
+            public CollectionInfo call() throws MovieDbException {
+                return api.getCollectionInfo(collectionId, language);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link TheMovieDbApi#getCollectionImages(int, String)}
+     *
+     * @param collectionId
+     * @param language
+     * @return
+     */
+    public Future<TmdbResultsList<Artwork>> getCollectionImages(final int collectionId, final String language) {
+        return submit(new Callable<TmdbResultsList<Artwork>>() {
+            @Override
+            public TmdbResultsList<Artwork> call() throws MovieDbException {
+                return api.getCollectionImages(collectionId, language);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link TheMovieDbApi#getPersonInfo(int, String...)}
+     *
+     * @param personId
+     * @param appendToResponse
+     * @return
+     */
+    public Future<Person> getPersonInfo(final int personId, final String... appendToResponse) {
+        return submit(new Callable<Person>() {
+            @Override
+            public Person call() throws MovieDbException {
+                return api.getPersonInfo(personId, appendToResponse);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link TheMovieDbApi#getPersonCredits(int, String...)}
+     *
+     * @param personId
+     * @param appendToResponse
+     * @return
+     */
+    public Future<TmdbResultsList<PersonCredit>> getPersonCredits(final int personId, final String... appendToResponse) {
+        return submit(new Callable<TmdbResultsList<PersonCredit>>() {
+            @Override
+            public TmdbResultsList<PersonCredit> call() throws MovieDbException {
+                return api.getPersonCredits(personId, appendToResponse);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link TheMovieDbApi#getPersonImages(int)}
+     *
+     * @param personId
+     * @return
+     */
+    public Future<TmdbResultsList<Artwork>> getPersonImages(final int personId) {
+        return submit(new Callable<TmdbResultsList<Artwork>>() {
+            @Override
+            public TmdbResultsList<Artwork> call() throws MovieDbException {
+                return api.getPersonImages(personId);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link TheMovieDbApi#getPersonPopular()}
+     *
+     * @return
+     */
+    public Future<TmdbResultsList<Person>> getPersonPopular() {
+        return submit(new Callable<TmdbResultsList<Person>>() {
+            @Override
+            public TmdbResultsList<Person> call() throws MovieDbException {
+                return api.getPersonPopular();
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link TheMovieDbApi#getPersonPopular(int)}
+     *
+     * @param page
+     * @return
+     */
+    public Future<TmdbResultsList<Person>> getPersonPopular(final int page) {
+        return submit(new Callable<TmdbResultsList<Person>>() {
+            @Override
+            public TmdbResultsList<Person> call() throws MovieDbException {
+                return api.getPersonPopular(page);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link TheMovieDbApi#getPersonLatest()}
+     *
+     * @return
+     */
+    public Future<Person> getPersonLatest() {
+        return submit(new Callable<Person>() {
+            @Override
+            public Person call() throws MovieDbException {
+                return api.getPersonLatest();
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link TheMovieDbApi#getCompanyInfo(int)}
+     *
+     * @param companyId
+     * @return
+     */
+    public Future<Company> getCompanyInfo(final int companyId) {
+        return submit(new Callable<Company>() {
+            @Override
+            public Company call() throws MovieDbException {
+                return api.getCompanyInfo(companyId);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link TheMovieDbApi#getCompanyMovies(int, String, int)}
+     *
+     * @param companyId
+     * @param language
+     * @param page
+     * @return
+     */
+    public Future<TmdbResultsList<MovieDb>> getCompanyMovies(final int companyId, final String language, final int page) {
+        return submit(new Callable<TmdbResultsList<MovieDb>>() {
+            @Override
+            public TmdbResultsList<MovieDb> call() throws MovieDbException {
+                return api.getCompanyMovies(companyId, language, page);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link TheMovieDbApi#getGenreList(String)}
+     *
+     * @param language
+     * @return
+     */
+    public Future<TmdbResultsList<Genre>> getGenreList(final String language) {
+        return submit(new Callable<TmdbResultsList<Genre>>() {
+            @Override
+            public TmdbResultsList<Genre> call() throws MovieDbException {
+                return api.getGenreList(language);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link TheMovieDbApi#getGenreMovies(int, String, int, boolean)}
+     *
+     * @param genreId
+     * @param language
+     * @param page
+     * @param includeAllMovies
+     * @return
+     */
+    public Future<TmdbResultsList<MovieDb>> getGenreMovies(final int genreId, final String language, final int page, final boolean includeAllMovies) {
+        return submit(new Callable<TmdbResultsList<MovieDb>>() {
+            @Override
+            public TmdbResultsList<MovieDb> call() throws MovieDbException {
+                return api.getGenreMovies(genreId, language, page, includeAllMovies);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link TheMovieDbApi#searchMovie(String, int, String, boolean, int)}
+     *
+     * @param movieName
+     * @param searchYear
+     * @param language
+     * @param includeAdult
+     * @param page
+     * @return
+     */
+    public Future<TmdbResultsList<MovieDb>> searchMovie(final String movieName, final int searchYear, final String language, final boolean includeAdult, final int page) {
+        return submit(new Callable<TmdbResultsList<MovieDb>>() {
+            @Override
+            public TmdbResultsList<MovieDb> call() throws MovieDbException {
+                return api.searchMovie(movieName, searchYear, language, includeAdult, page);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link TheMovieDbApi#searchCollection(String, String, int)}
+     *
+     * @param query
+     * @param language
+     * @param page
+     * @return
+     */
+    public Future<TmdbResultsList<com.omertron.themoviedbapi.model.Collection>> searchCollection(final String query, final String language, final int page) {
+        return submit(new Callable<TmdbResultsList<com.omertron.themoviedbapi.model.Collection>>() {
+            @Override
+            public TmdbResultsList<com.omertron.themoviedbapi.model.Collection> call() throws MovieDbException {
+                return api.searchCollection(query, language, page);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link TheMovieDbApi#searchPeople(String, boolean, int)}
+     *
+     * @param personName
+     * @param includeAdult
+     * @param page
+     * @return
+     */
+    public Future<TmdbResultsList<Person>> searchPeople(final String personName, final boolean includeAdult, final int page) {
+        return submit(new Callable<TmdbResultsList<Person>>() {
+            @Override
+            public TmdbResultsList<Person> call() throws MovieDbException {
+                return api.searchPeople(personName, includeAdult, page);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link TheMovieDbApi#searchList(String, String, int)}
+     *
+     * @param query
+     * @param language
+     * @param page
+     * @return
+     */
+    public Future<TmdbResultsList<MovieList>> searchList(final String query, final String language, final int page) {
+        return submit(new Callable<TmdbResultsList<MovieList>>() {
+            @Override
+            public TmdbResultsList<MovieList> call() throws MovieDbException {
+                return api.searchList(query, language, page);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link TheMovieDbApi#searchCompanies(String, int)}
+     *
+     * @param companyName
+     * @param page
+     * @return
+     */
+    public Future<TmdbResultsList<Company>> searchCompanies(final String companyName, final int page) {
+        return submit(new Callable<TmdbResultsList<Company>>() {
+            @Override
+            public TmdbResultsList<Company> call() throws MovieDbException {
+                return api.searchCompanies(companyName, page);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link TheMovieDbApi#searchKeyword(String, int)}
+     *
+     * @param query
+     * @param page
+     * @return
+     */
+    public Future<TmdbResultsList<Keyword>> searchKeyword(final String query, final int page) {
+        return submit(new Callable<TmdbResultsList<Keyword>>() {
+            @Override
+            public TmdbResultsList<Keyword> call() throws MovieDbException {
+                return api.searchKeyword(query, page);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link TheMovieDbApi#getList(String)}
+     *
+     * @param listId
+     * @return
+     */
+    public Future<MovieDbList> getList(final String listId) {
+        return submit(new Callable<MovieDbList>() {
+            @Override
+            public MovieDbList call() throws MovieDbException {
+                return api.getList(listId);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link TheMovieDbApi#getUserLists(String, int)}
+     *
+     * @param sessionId
+     * @param accountID
+     * @return
+     */
+    public Future<List<MovieDbList>> getUserLists(final String sessionId, final int accountID) {
+        return submit(new Callable<List<MovieDbList>>() {
+            @Override
+            public List<MovieDbList> call() throws MovieDbException {
+                return api.getUserLists(sessionId, accountID);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link TheMovieDbApi#createList(String, String, String)}
+     *
+     * @param sessionId
+     * @param name
+     * @param description
+     * @return
+     */
+    public Future<String> createList(final String sessionId, final String name, final String description) {
+        return submit(new Callable<String>() {
+            @Override
+            public String call() throws MovieDbException {
+                return api.createList(sessionId, name, description);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link TheMovieDbApi#isMovieOnList(String, Integer)}
+     *
+     * @param listId
+     * @param movieId
+     * @return
+     */
+    public Future<Boolean> isMovieOnList(final String listId, final Integer movieId) {
+        return submit(new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws MovieDbException {
+                return api.isMovieOnList(listId, movieId);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link TheMovieDbApi#addMovieToList(String, String, Integer)}
+     *
+     * @param sessionId
+     * @param listId
+     * @param movieId
+     * @return
+     */
+    public Future<StatusCode> addMovieToList(final String sessionId, final String listId, final Integer movieId) {
+        return submit(new Callable<StatusCode>() {
+            @Override
+            public StatusCode call() throws MovieDbException {
+                return api.addMovieToList(sessionId, listId, movieId);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link TheMovieDbApi#removeMovieFromList(String, String, Integer)}
+     *
+     * @param sessionId
+     * @param listId
+     * @param movieId
+     * @return
+     */
+    public Future<StatusCode> removeMovieFromList(final String sessionId, final String listId, final Integer movieId) {
+        return submit(new Callable<StatusCode>() {
+            @Override
+            public StatusCode call() throws MovieDbException {
+                return api.removeMovieFromList(sessionId, listId, movieId);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link TheMovieDbApi#getWatchList(String, int)}
+     *
+     * @param sessionId
+     * @param accountId
+     * @return
+     */
+    public Future<List<MovieDb>> getWatchList(final String sessionId, final int accountId) {
+        return submit(new Callable<List<MovieDb>>() {
+            @Override
+            public List<MovieDb> call() throws MovieDbException {
+                return api.getWatchList(sessionId, accountId);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link TheMovieDbApi#deleteMovieList(String, String)}
+     *
+     * @param sessionId
+     * @param listId
+     * @return
+     */
+    public Future<StatusCode> deleteMovieList(final String sessionId, final String listId) {
+        return submit(new Callable<StatusCode>() {
+            @Override
+            public StatusCode call() throws MovieDbException {
+                return api.deleteMovieList(sessionId, listId);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link TheMovieDbApi#getKeyword(String)}
+     *
+     * @param keywordId
+     * @return
+     */
+    public Future<Keyword> getKeyword(final String keywordId) {
+        return submit(new Callable<Keyword>() {
+            @Override
+            public Keyword call() throws MovieDbException {
+                return api.getKeyword(keywordId);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link TheMovieDbApi#getKeywordMovies(String, String, int)}
+     *
+     * @param keywordId
+     * @param language
+     * @param page
+     * @return
+     */
+    public Future<TmdbResultsList<KeywordMovie>> getKeywordMovies(final String keywordId, final String language, final int page) {
+        return submit(new Callable<TmdbResultsList<KeywordMovie>>() {
+            @Override
+            public TmdbResultsList<KeywordMovie> call() throws MovieDbException {
+                return api.getKeywordMovies(keywordId, language, page);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link TheMovieDbApi#getMovieChangesList(int, String, String)}
+     *
+     * @param page
+     * @param startDate
+     * @param endDate
+     * @return
+     */
+    public Future<TmdbResultsList<ChangedMovie>> getMovieChangesList(final int page, final String startDate, final String endDate) {
+        return submit(new Callable<TmdbResultsList<ChangedMovie>>() {
+            @Override
+            public TmdbResultsList<ChangedMovie> call() throws MovieDbException {
+                return api.getMovieChangesList(page, startDate, endDate);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link TheMovieDbApi#getJobs()}
+     *
+     * @return
+     */
+    public Future<TmdbResultsList<JobDepartment>> getJobs() {
+        return submit(new Callable<TmdbResultsList<JobDepartment>>() {
+            @Override
+            public TmdbResultsList<JobDepartment> call() throws MovieDbException {
+                return api.getJobs();
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link TheMovieDbApi#getDiscover(int, String, String, boolean, int, int, int, float, String, String, String, String, String, String)}
+     *
+     * @param page
+     * @param language
+     * @param sortBy
+     * @param includeAdult
+     * @param year
+     * @param primaryReleaseYear
+     * @param voteCountGte
+     * @param voteAverageGte
+     * @param withGenres
+     * @param releaseDateGte
+     * @param releaseDateLte
+     * @param certificationCountry
+     * @param certificationLte
+     * @param withCompanies
+     * @return
+     */
+    public Future<TmdbResultsList<MovieDb>> getDiscover(final int page, final String language, final String sortBy, final boolean includeAdult,
+            final int year, final int primaryReleaseYear, final int voteCountGte, final float voteAverageGte, final String withGenres,
+            final String releaseDateGte, final String releaseDateLte, final String certificationCountry, final String certificationLte,
+            final String withCompanies) {
+        return submit(new Callable<TmdbResultsList<MovieDb>>() {
+            @Override
+            public TmdbResultsList<MovieDb> call() throws MovieDbException {
+                return api.getDiscover(page, language, sortBy, includeAdult, year, primaryReleaseYear, voteCountGte, voteAverageGte,
+                        withGenres, releaseDateGte, releaseDateLte, certificationCountry, certificationLte, withCompanies);
+            }
+        });
+    }
+
+    /**
+     * Asynchronous version of {@link TheMovieDbApi#getDiscover(Discover)}
+     *
+     * @param discover
+     * @return
+     */
+    public Future<TmdbResultsList<MovieDb>> getDiscover(final Discover discover) {
+        return submit(new Callable<TmdbResultsList<MovieDb>>() {
+            @Override
+            public TmdbResultsList<MovieDb> call() throws MovieDbException {
+                return api.getDiscover(discover);
+            }
+        });
+    }
+
+    /**
+     * Create the pages for a paginated method, prefetching the next page on the executor.
+     * <p>
+     * The pages are loaded with the {@link RequestContext} of the calling thread.
+     *
+     * @param <T>
+     * @param loader
+     * @return
+     */
+    public <T> PagedResults<T> pages(final PagedResults.PageLoader<T> loader) {
+        final RequestContext context = RequestContext.capture();
+        return new PagedResults<T>(new PagedResults.PageLoader<T>() {
+            @Override
+            public TmdbResultsList<T> getPage(int page) throws MovieDbException {
+                RequestContext previous = RequestContext.restore(context);
+                try {
+                    return loader.getPage(page);
+                } finally {
+                    RequestContext.restore(previous);
+                }
+            }
+        }, executor);
+    }
+
+    /**
+     * Paged version of {@link TheMovieDbApi#getCompanyMovies(int, String, int)}
+     *
+     * @param companyId
+     * @param language
+     * @return
+     */
+    public PagedResults<MovieDb> getCompanyMoviesPages(final int companyId, final String language) {
+        return pages(new PagedResults.PageLoader<MovieDb>() {
+            @Override
+            public TmdbResultsList<MovieDb> getPage(int page) throws MovieDbException {
+                return api.getCompanyMovies(companyId, language, page);
+            }
+        });
+    }
+
+    /**
+     * Paged version of {@link TheMovieDbApi#getGenreMovies(int, String, int, boolean)}
+     *
+     * @param genreId
+     * @param language
+     * @param includeAllMovies
+     * @return
+     */
+    public PagedResults<MovieDb> getGenreMoviesPages(final int genreId, final String language, final boolean includeAllMovies) {
+        return pages(new PagedResults.PageLoader<MovieDb>() {
+            @Override
+            public TmdbResultsList<MovieDb> getPage(int page) throws MovieDbException {
+                return api.getGenreMovies(genreId, language, page, includeAllMovies);
+            }
+        });
+    }
+
+    /**
+     * Paged version of {@link TheMovieDbApi#searchMovie(String, int, String, boolean, int)}
+     *
+     * @param movieName
+     * @param searchYear
+     * @param language
+     * @param includeAdult
+     * @return
+     */
+    public PagedResults<MovieDb> searchMoviePages(final String movieName, final int searchYear, final String language, final boolean includeAdult) {
+        return pages(new PagedResults.PageLoader<MovieDb>() {
+            @Override
+            public TmdbResultsList<MovieDb> getPage(int page) throws MovieDbException {
+                return api.searchMovie(movieName, searchYear, language, includeAdult, page);
+            }
+        });
+    }
+
+    /**
+     * Paged version of {@link TheMovieDbApi#getKeywordMovies(String, String, int)}
+     *
+     * @param keywordId
+     * @param language
+     * @return
+     */
+    public PagedResults<KeywordMovie> getKeywordMoviesPages(final String keywordId, final String language) {
+        return pages(new PagedResults.PageLoader<KeywordMovie>() {
+            @Override
+            public TmdbResultsList<KeywordMovie> getPage(int page) throws MovieDbException {
+                return api.getKeywordMovies(keywordId, language, page);
+            }
+        });
+    }
+
+    /**
+     * Paged version of {@link TheMovieDbApi#getMovieChangesList(int, String, String)}
+     *
+     * @param startDate
+     * @param endDate
+     * @return
+     */
+    public PagedResults<ChangedMovie> getMovieChangesListPages(final String startDate, final String endDate) {
+        return pages(new PagedResults.PageLoader<ChangedMovie>() {
+            @Override
+            public TmdbResultsList<ChangedMovie> getPage(int page) throws MovieDbException {
+                return api.getMovieChangesList(page, startDate, endDate);
+            }
+        });
+    }
+
+    /**
+     * Paged version of {@link TheMovieDbApi#getDiscover(Discover)}
+     * <p>
+     * The discover parameters are copied when this is called, so later changes to them do not affect the pages loaded.
+     *
+     * @param discover
+     * @return
+     */
+    public PagedResults<MovieDb> getDiscoverPages(Discover discover) {
+        final Discover parameters = new Discover(discover);
+        return pages(new PagedResults.PageLoader<MovieDb>() {
+            @Override
+            public TmdbResultsList<MovieDb> getPage(int page) throws MovieDbException {
+                // Each page gets its own copy, as pages can be loaded on different threads
+                return api.getDiscover(new Discover(parameters).page(page));
+            }
+        });
+    }
+
+    /**
+     * Load the results for a collection of IDs on the executor, with at most parallelism IDs loading at the same time.
+     * <p>
+     * The IDs are loaded with the {@link RequestContext} of the calling thread, and with {@link RequestPriority#BATCH} if it has
+     * no priority. Use {@link BulkResults#await()} to wait for them all to be passed to the callback.
+     *
+     * @param <K>
+     * @param <T>
+     * @param ids The IDs to load
+     * @param parallelism The maximum number of IDs to load at the same time
+     * @param ordered True to pass the results to the callback in the order of the IDs, false to pass them as they are loaded
+     * @param callback The callback for the results and failures
+     * @param loader The loader for each ID
+     * @return
+     */
+    public <K, T> BulkResults<K, T> bulk(final Collection<? extends K> ids, final int parallelism, final boolean ordered,
+            final BulkResults.Callback<K, T> callback, final BulkResults.Loader<K, T> loader) {
+        final RequestContext context = RequestContext.capture();
+        return new BulkResults<K, T>(ids, new BulkResults.Loader<K, T>() {
+            @Override
+            public T load(K id) throws MovieDbException {
+                RequestContext previous = RequestContext.restore(context);
+                try {
+                    if (RequestContext.getPriority() == null) {
+                        RequestContext.setPriority(RequestPriority.BATCH);
+                    }
+                    return loader.load(id);
+                } finally {
+                    RequestContext.restore(previous);
+                }
+            }
+        }, callback, ordered).start(executor, parallelism);
+    }
+
+    /**
+     * Bulk version of {@link TheMovieDbApi#getMovieInfo(int, String, String...)}
+     *
+     * @param movieIds
+     * @param language
+     * @param parallelism The maximum number of movies to load at the same time
+     * @param ordered True to pass the movies to the callback in the order of the IDs, false to pass them as they are loaded
+     * @param callback The callback for the movies and failures
+     * @param appendToResponse
+     * @return
+     */
+    public BulkResults<Integer, MovieDb> getMovieInfoBulk(final Collection<Integer> movieIds, final String language, final int parallelism,
+            final boolean ordered, final BulkResults.Callback<Integer, MovieDb> callback, final String... appendToResponse) {
+        return bulk(movieIds, parallelism, ordered, callback, new BulkResults.Loader<Integer, MovieDb>() {
+            @Override
+            public MovieDb load(Integer movieId) throws MovieDbException {
+                return api.getMovieInfo(movieId, language, appendToResponse);
+            }
+        });
+    }
+}
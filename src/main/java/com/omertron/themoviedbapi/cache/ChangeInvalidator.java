@@ -0,0 +1,292 @@
+/*
+ *      Copyright (c) 2004-2015 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.cache;
+
+import com.omertron.themoviedbapi.MovieDbException;
+import com.omertron.themoviedbapi.TheMovieDbApi;
+import com.omertron.themoviedbapi.model.ChangedMovie;
+import com.omertron.themoviedbapi.model.MovieDb;
+import com.omertron.themoviedbapi.results.TmdbResultsList;
+import com.omertron.themoviedbapi.tools.DiskCache;
+import com.omertron.themoviedbapi.tools.HttpTools;
+import com.omertron.themoviedbapi.tools.MethodBase;
+import com.omertron.themoviedbapi.tools.NegativeCache;
+import com.omertron.themoviedbapi.tools.ResponseCache;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Removes the movies that have changed on TMDb from the caches, so the cached movies can use long times to live and still be
+ * up to date.
+ * <p>
+ * Each poll walks every page of the movie change list from the date of the last successful poll, and removes the changed movies
+ * from the API's {@link EntityCache} and the {@link ResponseCache}, {@link DiskCache} and {@link NegativeCache} of its HTTP tools,
+ * in all languages and with all appended sub-resources. The change list only has dates, so a movie changed today is removed on
+ * every poll today.
+ * <p>
+ * Optionally the removed entities are loaded again straight away, so the next caller does not wait for them.
+ *
+ * @author Stuart
+ */
+public class ChangeInvalidator {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ChangeInvalidator.class);
+    private static final String DATE_FORMAT = "yyyy-MM-dd";
+    private final TheMovieDbApi api;
+    private boolean refresh = false;
+    private ScheduledExecutorService executor = null;
+    // Guarded by this
+    private String startDate;
+    // Metrics
+    private final AtomicLong pollCount = new AtomicLong(0);
+    private final AtomicLong failedPollCount = new AtomicLong(0);
+    private final AtomicLong changedCount = new AtomicLong(0);
+    private final AtomicLong removedCount = new AtomicLong(0);
+    private final AtomicLong refreshedCount = new AtomicLong(0);
+
+    /**
+     * Create an invalidator that looks for changes from today
+     *
+     * @param api The API whose caches are invalidated, also used to read the change list
+     */
+    public ChangeInvalidator(TheMovieDbApi api) {
+        this.api = api;
+        this.startDate = formatDate(new Date());
+    }
+
+    /**
+     * Load the removed movies again after they have been removed from the entity cache
+     *
+     * @param refresh
+     * @return
+     */
+    public ChangeInvalidator setRefresh(boolean refresh) {
+        this.refresh = refresh;
+        return this;
+    }
+
+    /**
+     * Poll the change list in the background
+     *
+     * @param period The time between the polls
+     * @param unit The unit of the period
+     */
+    public synchronized void start(long period, TimeUnit unit) {
+        if (executor != null) {
+            throw new IllegalStateException("Invalidator already started");
+        }
+
+        executor = Executors.newSingleThreadScheduledExecutor(new InvalidatorThreadFactory());
+        executor.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    poll();
+                } catch (MovieDbException ex) {
+                    LOG.warn("Failed to read the movie change list: {}", ex.getMessage());
+                } catch (RuntimeException ex) {
+                    // Do not let an unexpected error stop the polling
+                    LOG.warn("Failed to invalidate the changed movies: {}", ex.getMessage(), ex);
+                }
+            }
+        }, period, period, unit);
+    }
+
+    /**
+     * Stop polling the change list
+     */
+    public synchronized void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    /**
+     * Read the change list and remove the changed movies from the caches
+     *
+     * @return The number of changed movies
+     * @throws MovieDbException If the change list could not be read, the start date is not moved on so the changes are read again
+     * on the next poll
+     */
+    public synchronized int poll() throws MovieDbException {
+        String pollDate = formatDate(new Date());
+        Set<String> ids;
+        try {
+            ids = getChangedIds(startDate);
+        } catch (MovieDbException ex) {
+            failedPollCount.incrementAndGet();
+            throw ex;
+        }
+        pollCount.incrementAndGet();
+        changedCount.addAndGet(ids.size());
+
+        if (!ids.isEmpty()) {
+            invalidate(ids);
+        }
+        startDate = pollDate;
+        return ids.size();
+    }
+
+    /**
+     * Get the IDs of the movies changed since the date, from all of the pages of the change list
+     *
+     * @param startDate
+     * @return
+     * @throws MovieDbException
+     */
+    private Set<String> getChangedIds(String startDate) throws MovieDbException {
+        Set<String> ids = new HashSet<String>();
+        int page = 1;
+        TmdbResultsList<ChangedMovie> results;
+        do {
+            results = api.getMovieChangesList(page, startDate, null);
+            List<ChangedMovie> changes = results.getResults();
+            if (changes == null || changes.isEmpty()) {
+                break;
+            }
+            for (ChangedMovie change : changes) {
+                if (StringUtils.isNotBlank(change.getId())) {
+                    ids.add(change.getId());
+                }
+            }
+        } while (page++ < results.getTotalPages());
+
+        LOG.debug("{} movies changed since {} ({} pages)", ids.size(), startDate, page);
+        return ids;
+    }
+
+    /**
+     * Remove the movies from the caches, loading the entities again if required
+     *
+     * @param ids The movie IDs
+     */
+    private void invalidate(Set<String> ids) {
+        long removed = 0;
+        List<EntityKey> keys = null;
+        EntityCache entityCache = api.getEntityCache();
+        if (entityCache != null) {
+            keys = entityCache.removeAll(MovieDb.class, ids);
+            removed += keys.size();
+        }
+
+        HttpTools httpTools = api.getHttpTools();
+        ResponseCache responseCache = httpTools.getResponseCache();
+        if (responseCache != null) {
+            removed += responseCache.removeAll(MethodBase.MOVIE, ids);
+        }
+        DiskCache diskCache = httpTools.getDiskCache();
+        if (diskCache != null) {
+            removed += diskCache.removeAll(MethodBase.MOVIE, ids);
+        }
+        NegativeCache negativeCache = httpTools.getNegativeCache();
+        if (negativeCache != null) {
+            // A new movie can be given an ID that was looked up before it existed
+            removed += negativeCache.removeAll(MethodBase.MOVIE, ids);
+        }
+        removedCount.addAndGet(removed);
+        LOG.debug("Removed {} cached responses for {} changed movies", removed, ids.size());
+
+        if (refresh && keys != null) {
+            for (EntityKey key : keys) {
+                refresh(key);
+            }
+        }
+    }
+
+    private void refresh(EntityKey key) {
+        String[] append = StringUtils.isEmpty(key.getAppend()) ? new String[0] : StringUtils.split(key.getAppend(), ',');
+        try {
+            api.getMovieInfo(Integer.parseInt(key.getId()), StringUtils.trimToNull(key.getLanguage()), append);
+            refreshedCount.incrementAndGet();
+        } catch (MovieDbException ex) {
+            LOG.debug("Failed to refresh {}: {}", key, ex.getMessage());
+        } catch (NumberFormatException ex) {
+            LOG.debug("Invalid movie ID for {}", key);
+        }
+    }
+
+    private static String formatDate(Date date) {
+        SimpleDateFormat format = new SimpleDateFormat(DATE_FORMAT);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return format.format(date);
+    }
+
+    /**
+     * The date the next poll reads the changes from
+     *
+     * @return
+     */
+    public synchronized String getStartDate() {
+        return startDate;
+    }
+
+    public long getPollCount() {
+        return pollCount.get();
+    }
+
+    public long getFailedPollCount() {
+        return failedPollCount.get();
+    }
+
+    /**
+     * The total number of changed movies found by the polls
+     *
+     * @return
+     */
+    public long getChangedCount() {
+        return changedCount.get();
+    }
+
+    /**
+     * The total number of cache entries removed
+     *
+     * @return
+     */
+    public long getRemovedCount() {
+        return removedCount.get();
+    }
+
+    public long getRefreshedCount() {
+        return refreshedCount.get();
+    }
+
+    private static final class InvalidatorThreadFactory implements ThreadFactory {
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "tmdb-change-invalidator");
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,265 @@
+/*
+ *      Copyright (c) 2004-2015 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.omertron.themoviedbapi.MovieDbException;
+import com.omertron.themoviedbapi.model.TmdbConfiguration;
+import com.omertron.themoviedbapi.tools.ApiUrl;
+import com.omertron.themoviedbapi.tools.HttpTools;
+import com.omertron.themoviedbapi.tools.MethodBase;
+import com.omertron.themoviedbapi.wrapper.WrapperConfig;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.yamj.api.common.exception.ApiExceptionType;
+
+/**
+ * Holds the TMDb configuration, loading it when it is first needed rather than when the API is created.
+ * <p>
+ * The configuration can be seeded from a snapshot file, which is written again each time the configuration is loaded, so a restart
+ * does not need a request before image URLs can be created. It can also be refreshed in the background on a schedule; if a refresh
+ * fails the last known configuration is kept.
+ * <p>
+ * The loads and refreshes of all instances run on one shared daemon thread.
+ *
+ * @author Stuart
+ */
+public class ConfigurationCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ConfigurationCache.class);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final ScheduledExecutorService EXECUTOR;
+    private final HttpTools httpTools;
+    private final URL url;
+    private final Object loadLock = new Object();
+    private volatile TmdbConfiguration configuration = null;
+    // Guarded by this
+    private File snapshot = null;
+    private ScheduledFuture<?> refreshTask = null;
+    // Metrics
+    private final AtomicLong loadCount = new AtomicLong(0);
+    private final AtomicLong failedLoadCount = new AtomicLong(0);
+
+    static {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "tmdb-configuration");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        EXECUTOR = executor;
+    }
+
+    /**
+     * Create the cache, nothing is loaded until the configuration is needed
+     *
+     * @param httpTools The HTTP tools to load the configuration with
+     * @param apiKey
+     */
+    public ConfigurationCache(HttpTools httpTools, String apiKey) {
+        this.httpTools = httpTools;
+        this.url = new ApiUrl(apiKey, MethodBase.CONFIGURATION).buildUrl();
+    }
+
+    /**
+     * Set the file the configuration is saved to. If no configuration has been loaded yet, it is read from the file if it exists.
+     *
+     * @param snapshot
+     * @return
+     */
+    public synchronized ConfigurationCache setSnapshot(File snapshot) {
+        this.snapshot = snapshot;
+        if (configuration == null) {
+            if (snapshot.isFile()) {
+                try {
+                    configuration = MAPPER.readValue(snapshot, TmdbConfiguration.class);
+                    LOG.debug("Read configuration from {}", snapshot);
+                } catch (IOException ex) {
+                    LOG.warn("Failed to read configuration from {}: {}", snapshot, ex.getMessage());
+                }
+            }
+        } else {
+            save(configuration);
+        }
+        return this;
+    }
+
+    /**
+     * Get the configuration, loading it if there is none yet
+     *
+     * @return
+     * @throws MovieDbException If there was no configuration and it could not be loaded
+     */
+    public TmdbConfiguration get() throws MovieDbException {
+        TmdbConfiguration current = configuration;
+        if (current != null) {
+            return current;
+        }
+
+        synchronized (loadLock) {
+            // Another thread may have loaded it while this one waited
+            if (configuration != null) {
+                return configuration;
+            }
+            return load();
+        }
+    }
+
+    /**
+     * Get the last configuration loaded, without loading it
+     *
+     * @return The configuration, or null if none has been loaded
+     */
+    public TmdbConfiguration getLastKnown() {
+        return configuration;
+    }
+
+    /**
+     * Load the configuration from TMDb, replacing the current one and saving it to the snapshot file
+     * <p>
+     * Any configuration held in the response or disk cache of the HTTP tools is ignored, so a refresh sees the current one.
+     *
+     * @return The new configuration
+     * @throws MovieDbException If it could not be loaded, the current configuration is kept
+     */
+    public TmdbConfiguration load() throws MovieDbException {
+        synchronized (loadLock) {
+            TmdbConfiguration loaded;
+            try {
+                WrapperConfig wrapper = httpTools.refreshRequest(url, WrapperConfig.class);
+                loaded = wrapper.getTmdbConfiguration();
+                if (loaded == null) {
+                    throw new MovieDbException(ApiExceptionType.MAPPING_FAILED, "No image configuration returned", url);
+                }
+            } catch (MovieDbException ex) {
+                failedLoadCount.incrementAndGet();
+                throw ex;
+            }
+
+            loadCount.incrementAndGet();
+            configuration = loaded;
+            synchronized (this) {
+                save(loaded);
+            }
+            return loaded;
+        }
+    }
+
+    /**
+     * Load the configuration in the background if there is none yet
+     *
+     * @return The result of the load
+     */
+    public Future<TmdbConfiguration> loadAsync() {
+        return EXECUTOR.submit(new Callable<TmdbConfiguration>() {
+            @Override
+            public TmdbConfiguration call() throws MovieDbException {
+                try {
+                    return get();
+                } catch (MovieDbException ex) {
+                    LOG.debug("Failed to load configuration: {}", ex.getMessage());
+                    throw ex;
+                }
+            }
+        });
+    }
+
+    /**
+     * Load the configuration again in the background on a schedule
+     *
+     * @param period The time between the loads
+     * @param unit The unit of the period
+     */
+    public synchronized void start(long period, TimeUnit unit) {
+        if (refreshTask != null) {
+            throw new IllegalStateException("Refresh already started");
+        }
+
+        refreshTask = EXECUTOR.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    load();
+                } catch (MovieDbException ex) {
+                    LOG.warn("Failed to refresh configuration, keeping the last known: {}", ex.getMessage());
+                } catch (RuntimeException ex) {
+                    // Do not let an unexpected error stop the refreshes
+                    LOG.warn("Failed to refresh configuration: {}", ex.getMessage(), ex);
+                }
+            }
+        }, period, period, unit);
+    }
+
+    /**
+     * Stop the background loads
+     */
+    public synchronized void stop() {
+        if (refreshTask != null) {
+            refreshTask.cancel(false);
+            refreshTask = null;
+        }
+    }
+
+    /**
+     * Write the configuration to the snapshot file, using a temporary file so a crash does not leave a partly written snapshot
+     */
+    private void save(TmdbConfiguration config) {
+        if (snapshot == null) {
+            return;
+        }
+
+        File temp = new File(snapshot.getPath() + ".tmp");
+        try {
+            MAPPER.writeValue(temp, config);
+            if (!temp.renameTo(snapshot) && !(snapshot.delete() && temp.renameTo(snapshot))) {
+                LOG.warn("Failed to replace configuration snapshot {}", snapshot);
+            }
+        } catch (IOException ex) {
+            LOG.warn("Failed to write configuration to {}: {}", snapshot, ex.getMessage());
+        }
+    }
+
+    /**
+     * The number of times the configuration has been loaded from TMDb
+     *
+     * @return
+     */
+    public long getLoadCount() {
+        return loadCount.get();
+    }
+
+    public long getFailedLoadCount() {
+        return failedLoadCount.get();
+    }
+}
@@ -0,0 +1,345 @@
+/*
+ *      Copyright (c) 2004-2015 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.cache;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of parsed entities (MovieDb, Person, etc) using W-TinyLFU admission.
+ * <p>
+ * New entries go into a small LRU "window". When an entry leaves the window it is only admitted to the main cache if it has been
+ * used more often than the entry it would evict, according to a {@link FrequencySketch}. This stops a scan of one-off lookups
+ * (e.g. walking a change list) from flushing out the popular entries.
+ * <p>
+ * The main cache is a segmented LRU: entries start in "probation" and move to "protected" when they are used again.
+ * <p>
+ * Each entry expires a fixed time after it was added, by default the same hour that the response cache keeps the movie, person
+ * and other entity methods for, so that changes made on TMDb are eventually seen.
+ * <p>
+ * The cached instances are shared between all callers and must be treated as read only.
+ *
+ * @author Stuart
+ */
+public class EntityCache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 1000;
+    public static final long DEFAULT_TTL_MINUTES = 60;
+    private static final double WINDOW_SHARE = 0.01;
+    private static final double PROTECTED_SHARE = 0.8;
+    private final int maxEntries;
+    private final int windowMax;
+    private final int protectedMax;
+    private final long ttl;
+    // Insertion ordered, the first entry is the least recently used
+    private final Map<EntityKey, Entry> window = new LinkedHashMap<EntityKey, Entry>();
+    private final Map<EntityKey, Entry> probation = new LinkedHashMap<EntityKey, Entry>();
+    private final Map<EntityKey, Entry> protect = new LinkedHashMap<EntityKey, Entry>();
+    private final FrequencySketch sketch;
+    // Metrics
+    private final AtomicLong hitCount = new AtomicLong(0);
+    private final AtomicLong missCount = new AtomicLong(0);
+    private final AtomicLong admittedCount = new AtomicLong(0);
+    private final AtomicLong rejectedCount = new AtomicLong(0);
+    private final AtomicLong expiredCount = new AtomicLong(0);
+
+    /**
+     * Create a cache with the default size
+     */
+    public EntityCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * Create a cache with the default time to live
+     *
+     * @param maxEntries The maximum number of entities to hold
+     */
+    public EntityCache(int maxEntries) {
+        this(maxEntries, DEFAULT_TTL_MINUTES, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Create a cache
+     *
+     * @param maxEntries The maximum number of entities to hold
+     * @param ttl The time an entity is kept for after it is added
+     * @param unit The unit of the time to live
+     */
+    public EntityCache(int maxEntries, long ttl, TimeUnit unit) {
+        if (maxEntries < 2) {
+            throw new IllegalArgumentException("Maximum entries must be at least 2");
+        }
+        if (ttl <= 0) {
+            throw new IllegalArgumentException("Time to live must be greater than 0");
+        }
+        this.maxEntries = maxEntries;
+        this.ttl = unit.toNanos(ttl);
+        this.windowMax = Math.max(1, (int) (maxEntries * WINDOW_SHARE));
+        this.protectedMax = (int) ((maxEntries - windowMax) * PROTECTED_SHARE);
+        this.sketch = new FrequencySketch(maxEntries);
+    }
+
+    /**
+     * Get an entity from the cache
+     *
+     * @param <T>
+     * @param key
+     * @return The entity or null if it is not cached or has expired
+     */
+    public synchronized <T> T get(EntityKey key) {
+        sketch.increment(key);
+
+        Map<EntityKey, Entry> segment = window;
+        Entry entry = window.remove(key);
+        if (entry == null) {
+            segment = protect;
+            entry = protect.remove(key);
+        }
+        if (entry == null) {
+            segment = probation;
+            entry = probation.remove(key);
+        }
+
+        if (entry != null && entry.isExpired()) {
+            // Already taken out of its segment above, so it is dropped
+            expiredCount.incrementAndGet();
+            entry = null;
+        }
+        if (entry == null) {
+            missCount.incrementAndGet();
+            return null;
+        }
+
+        if (segment == probation) {
+            promote(key, entry);
+        } else {
+            segment.put(key, entry);
+        }
+        hitCount.incrementAndGet();
+        @SuppressWarnings("unchecked")
+        T entity = (T) key.getType().cast(entry.value);
+        return entity;
+    }
+
+    /**
+     * Add an entity to the cache
+     *
+     * @param key
+     * @param value
+     */
+    public synchronized void put(EntityKey key, Object value) {
+        if (value == null) {
+            return;
+        }
+        if (!key.getType().isInstance(value)) {
+            throw new IllegalArgumentException("Value is not a " + key.getType().getSimpleName());
+        }
+
+        Entry entry = new Entry(value, System.nanoTime() + ttl);
+        if (window.containsKey(key)) {
+            window.put(key, entry);
+        } else if (protect.containsKey(key)) {
+            protect.put(key, entry);
+        } else if (probation.containsKey(key)) {
+            probation.put(key, entry);
+        } else {
+            window.put(key, entry);
+            if (window.size() > windowMax) {
+                Map.Entry<EntityKey, Entry> candidate = removeEldest(window);
+                if (candidate.getValue().isExpired()) {
+                    expiredCount.incrementAndGet();
+                } else {
+                    admit(candidate.getKey(), candidate.getValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * Move an entry that has been used again from probation to protected
+     */
+    private void promote(EntityKey key, Entry entry) {
+        protect.put(key, entry);
+        if (protect.size() > protectedMax) {
+            Map.Entry<EntityKey, Entry> demoted = removeEldest(protect);
+            probation.put(demoted.getKey(), demoted.getValue());
+        }
+    }
+
+    /**
+     * Decide whether an entry leaving the window should replace the main cache's victim
+     */
+    private void admit(EntityKey key, Entry entry) {
+        if (window.size() + probation.size() + protect.size() < maxEntries) {
+            probation.put(key, entry);
+            return;
+        }
+
+        Map<EntityKey, Entry> victims = probation.isEmpty() ? protect : probation;
+        Map.Entry<EntityKey, Entry> eldest = victims.entrySet().iterator().next();
+        EntityKey victim = eldest.getKey();
+        if (eldest.getValue().isExpired()) {
+            // An expired victim is replaced whatever its frequency
+            victims.remove(victim);
+            probation.put(key, entry);
+            expiredCount.incrementAndGet();
+        } else if (sketch.frequency(key) > sketch.frequency(victim)) {
+            victims.remove(victim);
+            probation.put(key, entry);
+            admittedCount.incrementAndGet();
+        } else {
+            rejectedCount.incrementAndGet();
+        }
+    }
+
+    private static Map.Entry<EntityKey, Entry> removeEldest(Map<EntityKey, Entry> map) {
+        Iterator<Map.Entry<EntityKey, Entry>> iterator = map.entrySet().iterator();
+        Map.Entry<EntityKey, Entry> eldest = iterator.next();
+        iterator.remove();
+        return eldest;
+    }
+
+    /**
+     * Remove an entity from the cache
+     *
+     * @param key
+     */
+    public synchronized void remove(EntityKey key) {
+        if (window.remove(key) == null && protect.remove(key) == null) {
+            probation.remove(key);
+        }
+    }
+
+    /**
+     * Remove an entity from the cache in all languages and with any appended sub-resources
+     *
+     * @param type The class of the entity
+     * @param id The ID of the entity
+     * @return The number of entries removed
+     */
+    public int removeAll(Class<?> type, Object id) {
+        return removeAll(type, Collections.singleton(String.valueOf(id))).size();
+    }
+
+    /**
+     * Remove the entities from the cache in all languages and with any appended sub-resources
+     *
+     * @param type The class of the entities
+     * @param ids The IDs of the entities
+     * @return The keys of the entries removed
+     */
+    public synchronized List<EntityKey> removeAll(Class<?> type, Set<String> ids) {
+        List<EntityKey> removed = new ArrayList<EntityKey>();
+        removeAll(window, type, ids, removed);
+        removeAll(probation, type, ids, removed);
+        removeAll(protect, type, ids, removed);
+        return removed;
+    }
+
+    private static void removeAll(Map<EntityKey, Entry> map, Class<?> type, Set<String> ids, List<EntityKey> removed) {
+        Iterator<EntityKey> iterator = map.keySet().iterator();
+        while (iterator.hasNext()) {
+            EntityKey key = iterator.next();
+            if (key.getType() == type && ids.contains(key.getId())) {
+                iterator.remove();
+                removed.add(key);
+            }
+        }
+    }
+
+    /**
+     * Remove all of the entities from the cache
+     */
+    public synchronized void clear() {
+        window.clear();
+        probation.clear();
+        protect.clear();
+    }
+
+    public synchronized int size() {
+        return window.size() + probation.size() + protect.size();
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public long getTtl(TimeUnit unit) {
+        return unit.convert(ttl, TimeUnit.NANOSECONDS);
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * The number of entries that replaced a less frequently used entry in the main cache
+     *
+     * @return
+     */
+    public long getAdmittedCount() {
+        return admittedCount.get();
+    }
+
+    /**
+     * The number of entries that were dropped when leaving the window because they were used less than the main cache's victim
+     *
+     * @return
+     */
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    /**
+     * The number of entries dropped because they had expired
+     *
+     * @return
+     */
+    public long getExpiredCount() {
+        return expiredCount.get();
+    }
+
+    private static final class Entry {
+
+        private final Object value;
+        private final long expires;
+
+        Entry(Object value, long expires) {
+            this.value = value;
+            this.expires = expires;
+        }
+
+        boolean isExpired() {
+            return System.nanoTime() - expires >= 0;
+        }
+    }
+}
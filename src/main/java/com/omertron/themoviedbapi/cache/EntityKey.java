@@ -0,0 +1,112 @@
+/*
+ *      Copyright (c) 2004-2015 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.cache;
+
+import java.util.Arrays;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Key of an entity in the {@link EntityCache}: the type, ID, language and the appended sub-resources.
+ * <p>
+ * The appended sub-resources are sorted so the order they were requested in does not matter.
+ *
+ * @author Stuart
+ */
+public final class EntityKey {
+
+    private final Class<?> type;
+    private final String id;
+    private final String language;
+    private final String append;
+    private final int hash;
+
+    private EntityKey(Class<?> type, String id, String language, String append) {
+        this.type = type;
+        this.id = id;
+        this.language = language;
+        this.append = append;
+        int result = type.hashCode();
+        result = 31 * result + id.hashCode();
+        result = 31 * result + language.hashCode();
+        result = 31 * result + append.hashCode();
+        this.hash = result;
+    }
+
+    /**
+     * Create a key
+     *
+     * @param type The class of the entity
+     * @param id The ID of the entity
+     * @param language The language, can be null
+     * @param appendToResponse The appended sub-resources, can be null or empty
+     * @return
+     */
+    public static EntityKey of(Class<?> type, Object id, String language, String... appendToResponse) {
+        String append = StringUtils.EMPTY;
+        if (appendToResponse != null && appendToResponse.length > 0) {
+            String[] sorted = appendToResponse.clone();
+            Arrays.sort(sorted);
+            append = StringUtils.join(sorted, ',');
+        }
+        return new EntityKey(type, String.valueOf(id), StringUtils.trimToEmpty(language), append);
+    }
+
+    public Class<?> getType() {
+        return type;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getLanguage() {
+        return language;
+    }
+
+    public String getAppend() {
+        return append;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof EntityKey)) {
+            return false;
+        }
+        EntityKey other = (EntityKey) obj;
+        return hash == other.hash
+                && type == other.type
+                && id.equals(other.id)
+                && language.equals(other.language)
+                && append.equals(other.append);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return type.getSimpleName() + "[" + id + "," + language + "," + append + "]";
+    }
+}
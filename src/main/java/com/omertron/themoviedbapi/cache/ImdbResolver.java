@@ -0,0 +1,256 @@
+/*
+ *      Copyright (c) 2004-2015 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.cache;
+
+import com.omertron.themoviedbapi.MovieDbException;
+import com.omertron.themoviedbapi.TheMovieDbApi;
+import com.omertron.themoviedbapi.model.MovieDb;
+import com.omertron.themoviedbapi.results.BulkResults;
+import com.omertron.themoviedbapi.tools.SingleFlight;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.yamj.api.common.exception.ApiExceptionType;
+
+/**
+ * Resolves IMDb IDs to TMDb movie IDs, remembering each mapping since it never changes.
+ * <p>
+ * The mappings can be kept in a store file, which is read when it is set and appended to as new IDs are resolved, so later runs
+ * only make requests for IDs they have not seen before. Concurrent lookups of the same IMDb ID share one request. The movie
+ * downloaded by a lookup is put into the API's {@link EntityCache} if it has one, so getting it straight afterwards is free.
+ * <p>
+ * The resolver is a {@link BulkResults.Loader}, so many IDs can be resolved concurrently with, for example, the
+ * {@link com.omertron.themoviedbapi.TheMovieDbApiAsync} bulk method:
+ * <pre>
+ * async.bulk(imdbIds, 8, false, callback, resolver).await();
+ * </pre>
+ *
+ * @author Stuart
+ */
+public class ImdbResolver implements BulkResults.Loader<String, Integer>, Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ImdbResolver.class);
+    private static final Charset CHARSET = Charset.forName("UTF-8");
+    private static final char SEPARATOR = '\t';
+    private final TheMovieDbApi api;
+    private final ConcurrentMap<String, Integer> mappings = new ConcurrentHashMap<String, Integer>();
+    private final SingleFlight inFlight = new SingleFlight();
+    // Guarded by this
+    private Writer writer = null;
+    // Metrics
+    private final AtomicLong hitCount = new AtomicLong(0);
+    private final AtomicLong failedCount = new AtomicLong(0);
+
+    /**
+     * Create the resolver without a store, the mappings are only kept in memory
+     *
+     * @param api The API used to look up the IDs
+     */
+    public ImdbResolver(TheMovieDbApi api) {
+        this.api = api;
+    }
+
+    /**
+     * Set the file the mappings are kept in, reading the mappings already in it
+     *
+     * @param store
+     * @return
+     * @throws IOException
+     */
+    public synchronized ImdbResolver setStore(File store) throws IOException {
+        close();
+
+        if (store.isFile()) {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(store), CHARSET));
+            try {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    int split = line.indexOf(SEPARATOR);
+                    int tmdbId = split > 0 ? NumberUtils.toInt(line.substring(split + 1), 0) : 0;
+                    // Skip anything damaged, such as a line cut short when the last run stopped
+                    if (tmdbId > 0) {
+                        mappings.put(line.substring(0, split), tmdbId);
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+            LOG.debug("Read {} IMDb mappings from {}", mappings.size(), store);
+        }
+
+        writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(store, true), CHARSET));
+        return this;
+    }
+
+    /**
+     * Get the TMDb ID for the IMDb ID if it has already been resolved
+     *
+     * @param imdbId
+     * @return The TMDb ID, or null if it has not been resolved
+     */
+    public Integer getCached(String imdbId) {
+        return mappings.get(StringUtils.trimToEmpty(imdbId));
+    }
+
+    /**
+     * Get the TMDb ID for the IMDb ID, looking it up if it has not been resolved
+     *
+     * @param imdbId
+     * @return
+     * @throws MovieDbException
+     */
+    public int resolve(String imdbId) throws MovieDbException {
+        final String id = StringUtils.trimToEmpty(imdbId);
+        Integer tmdbId = mappings.get(id);
+        if (tmdbId != null) {
+            hitCount.incrementAndGet();
+            return tmdbId;
+        }
+
+        try {
+            return inFlight.execute(id, "movie/" + id, new Callable<Integer>() {
+                @Override
+                public Integer call() throws MovieDbException {
+                    return lookup(id);
+                }
+            });
+        } catch (MovieDbException ex) {
+            failedCount.incrementAndGet();
+            throw ex;
+        }
+    }
+
+    @Override
+    public Integer load(String imdbId) throws MovieDbException {
+        return resolve(imdbId);
+    }
+
+    private Integer lookup(String imdbId) throws MovieDbException {
+        // A caller that was waiting for the same ID may have just stored it
+        Integer tmdbId = mappings.get(imdbId);
+        if (tmdbId != null) {
+            return tmdbId;
+        }
+
+        if (StringUtils.isBlank(imdbId)) {
+            throw new MovieDbException(ApiExceptionType.INVALID_URL, "No IMDb ID", imdbId);
+        }
+
+        MovieDb movie = api.getMovieInfoImdb(imdbId, null);
+        EntityCache entityCache = api.getEntityCache();
+        if (entityCache != null) {
+            entityCache.put(EntityKey.of(MovieDb.class, movie.getId(), null), movie);
+        }
+
+        mappings.put(imdbId, movie.getId());
+        store(imdbId, movie.getId());
+        return movie.getId();
+    }
+
+    private synchronized void store(String imdbId, int tmdbId) {
+        if (writer == null) {
+            return;
+        }
+
+        try {
+            writer.write(imdbId + SEPARATOR + tmdbId + "\n");
+            writer.flush();
+        } catch (IOException ex) {
+            // The mapping is still held in memory
+            LOG.warn("Failed to store IMDb mapping '{}': {}", imdbId, ex.getMessage());
+        }
+    }
+
+    /**
+     * Close the store, the mappings are still held in memory
+     */
+    @Override
+    public synchronized void close() {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException ex) {
+                LOG.warn("Failed to close IMDb mapping store: {}", ex.getMessage());
+            }
+            writer = null;
+        }
+    }
+
+    /**
+     * The number of IMDb IDs resolved
+     *
+     * @return
+     */
+    public int size() {
+        return mappings.size();
+    }
+
+    /**
+     * The number of IDs resolved without a request
+     *
+     * @return
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * The number of lookups made
+     *
+     * @return
+     */
+    public long getLookupCount() {
+        return inFlight.getRequestCount();
+    }
+
+    /**
+     * The number of callers that shared a lookup made by another caller
+     *
+     * @return
+     */
+    public long getSharedCount() {
+        return inFlight.getSharedCount();
+    }
+
+    /**
+     * The number of IDs that could not be resolved
+     *
+     * @return
+     */
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+}
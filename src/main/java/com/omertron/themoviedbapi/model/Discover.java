@@ -31,11 +31,27 @@ import com.omertron.themoviedbapi.tools.TmdbParameters;
  */
 public class Discover {
 
-    private final TmdbParameters params = new TmdbParameters();
+    private final TmdbParameters params;
 
     private static final int YEAR_MIN = 1900;
     private static final int YEAR_MAX = 2100;
 
+    /**
+     * Create an empty discover object
+     */
+    public Discover() {
+        params = new TmdbParameters();
+    }
+
+    /**
+     * Create a copy of the discover object, which can be changed without affecting the original
+     *
+     * @param other The discover object to copy
+     */
+    public Discover(Discover other) {
+        params = new TmdbParameters(other.params);
+    }
+
     /**
      * Get the parameters
      * <p/>
@@ -19,6 +19,7 @@
  */
 package com.omertron.themoviedbapi.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.omertron.themoviedbapi.wrapper.WrapperAlternativeTitles;
 import com.omertron.themoviedbapi.wrapper.WrapperImages;
@@ -105,6 +106,8 @@ public class MovieDb extends AbstractJsonMapping {
     private WrapperReleaseInfo releases;
     @JsonProperty("trailers")
     private WrapperVideos trailers;
+    @JsonProperty("videos")
+    private WrapperVideos videos;
     @JsonProperty("translations")
     private WrapperTranslations translations;
     @JsonProperty("similar_movies")
@@ -354,6 +357,9 @@ public class MovieDb extends AbstractJsonMapping {
     }
 
     public List<Video> getVideos() {
+        if (videos != null) {
+            return videos.getVideos();
+        }
         return trailers.getVideos();
     }
 
@@ -374,6 +380,46 @@ public class MovieDb extends AbstractJsonMapping {
     }
     // </editor-fold>
 
+    //<editor-fold defaultstate="collapsed" desc="AppendToResponse Wrappers">
+    /*
+     * The appended responses as they were returned, null if they were not requested
+     */
+    @JsonIgnore
+    public WrapperAlternativeTitles getAlternativeTitlesWrapper() {
+        return alternativeTitles;
+    }
+
+    @JsonIgnore
+    public WrapperMovieCasts getCastsWrapper() {
+        return casts;
+    }
+
+    @JsonIgnore
+    public WrapperImages getImagesWrapper() {
+        return images;
+    }
+
+    @JsonIgnore
+    public WrapperMovieKeywords getKeywordsWrapper() {
+        return keywords;
+    }
+
+    @JsonIgnore
+    public WrapperReleaseInfo getReleasesWrapper() {
+        return releases;
+    }
+
+    @JsonIgnore
+    public WrapperVideos getVideosWrapper() {
+        return videos;
+    }
+
+    @JsonIgnore
+    public WrapperTranslations getTranslationsWrapper() {
+        return translations;
+    }
+    // </editor-fold>
+
     //<editor-fold defaultstate="collapsed" desc="AppendToResponse Setters">
     public void setAlternativeTitles(WrapperAlternativeTitles alternativeTitles) {
         this.alternativeTitles = alternativeTitles;
@@ -399,6 +445,10 @@ public class MovieDb extends AbstractJsonMapping {
         this.trailers = trailers;
     }
 
+    public void setVideos(WrapperVideos videos) {
+        this.videos = videos;
+    }
+
     public void setTranslations(WrapperTranslations translations) {
         this.translations = translations;
     }
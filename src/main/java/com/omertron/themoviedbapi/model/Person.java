@@ -19,7 +19,10 @@
  */
 package com.omertron.themoviedbapi.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.omertron.themoviedbapi.wrapper.WrapperImages;
+import com.omertron.themoviedbapi.wrapper.WrapperPersonCredits;
 import java.util.ArrayList;
 import java.util.List;
 import org.apache.commons.lang3.StringUtils;
@@ -78,6 +81,11 @@ public class Person extends AbstractJsonMapping {
     private float popularity = 0.0f;
     @JsonProperty("known_for")
     private List<PersonCredit> knownFor;
+    // AppendToResponse Properties
+    @JsonProperty("credits")
+    private WrapperPersonCredits credits;
+    @JsonProperty("images")
+    private WrapperImages images;
 
     /**
      * Add a crew member
@@ -263,6 +271,27 @@ public class Person extends AbstractJsonMapping {
         this.knownFor = knownFor;
     }
 
+    /*
+     * The appended responses as they were returned, null if they were not requested
+     */
+    @JsonIgnore
+    public WrapperPersonCredits getCreditsWrapper() {
+        return credits;
+    }
+
+    public void setCredits(WrapperPersonCredits credits) {
+        this.credits = credits;
+    }
+
+    @JsonIgnore
+    public WrapperImages getImagesWrapper() {
+        return images;
+    }
+
+    public void setImages(WrapperImages images) {
+        this.images = images;
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (obj instanceof Person) {
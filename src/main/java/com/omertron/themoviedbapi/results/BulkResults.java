@@ -0,0 +1,391 @@
+/*
+ *      Copyright (c) 2004-2015 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.results;
+
+import com.omertron.themoviedbapi.MovieDbException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.yamj.api.common.exception.ApiExceptionType;
+
+/**
+ * Loads the results for a collection of IDs with a bounded number of requests in flight, passing each result to a callback as it
+ * is loaded.
+ * <p>
+ * A failure to load an ID is passed to the callback and recorded, and the rest of the IDs are still loaded. The requests go through
+ * the same HTTP tools as any other call, so the rate limiter, scheduler and caches all apply.
+ * <p>
+ * In completion order the callback is called as soon as each result is loaded, possibly from several threads at once. In input
+ * order the callback is called for each ID in the order of the collection, one at a time; a result loaded early is held until the
+ * results before it have been passed on, and loading pauses if too many are held.
+ *
+ * @author Stuart
+ * @param <K> The type of the ID
+ * @param <T> The type of the result
+ */
+public class BulkResults<K, T> {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BulkResults.class);
+    // How many results per worker can be held waiting for an earlier result in input order
+    private static final int ORDERED_AHEAD = 4;
+
+    /**
+     * Loads the result for one ID
+     *
+     * @param <K>
+     * @param <T>
+     */
+    public interface Loader<K, T> {
+
+        /**
+         * Load the result
+         *
+         * @param id
+         * @return
+         * @throws MovieDbException
+         */
+        T load(K id) throws MovieDbException;
+    }
+
+    /**
+     * Receives the results as they are loaded
+     *
+     * @param <K>
+     * @param <T>
+     */
+    public interface Callback<K, T> {
+
+        /**
+         * The result for the ID was loaded
+         *
+         * @param id
+         * @param result
+         */
+        void onResult(K id, T result);
+
+        /**
+         * The result for the ID could not be loaded
+         *
+         * @param id
+         * @param error
+         */
+        void onFailure(K id, MovieDbException error);
+    }
+
+    private final List<K> ids;
+    private final Loader<K, T> loader;
+    private final Callback<K, T> callback;
+    private final boolean ordered;
+    private final AtomicInteger succeeded = new AtomicInteger(0);
+    private final ConcurrentMap<K, MovieDbException> failures = new ConcurrentHashMap<K, MovieDbException>();
+    private volatile boolean cancelled = false;
+    private volatile CountDownLatch done = null;
+    // Guarded by lock
+    private final Object lock = new Object();
+    private int next = 0;
+    private int delivered = 0;
+    private int maxAhead = 0;
+    // True while a worker is passing results to the callback in input order
+    private boolean delivering = false;
+    private final Map<Integer, Outcome<T>> held = new HashMap<Integer, Outcome<T>>();
+
+    /**
+     * Create the bulk load
+     *
+     * @param ids The IDs to load
+     * @param loader The loader for each ID
+     * @param callback The callback for the results
+     * @param ordered True to pass the results to the callback in the order of the IDs, false to pass them as they are loaded
+     */
+    public BulkResults(Collection<? extends K> ids, Loader<K, T> loader, Callback<K, T> callback, boolean ordered) {
+        this.ids = new ArrayList<K>(ids);
+        this.loader = loader;
+        this.callback = callback;
+        this.ordered = ordered;
+    }
+
+    /**
+     * Start loading the IDs.
+     * <p>
+     * Each worker occupies a thread of the executor until there are no more IDs to load.
+     *
+     * @param executor The executor to run the workers on
+     * @param parallelism The maximum number of IDs to load at the same time
+     * @return This bulk load, so it can be waited for
+     */
+    public BulkResults<K, T> start(ExecutorService executor, int parallelism) {
+        int workers = Math.min(Math.max(1, parallelism), ids.size());
+        synchronized (lock) {
+            if (done != null) {
+                throw new IllegalStateException("Bulk load already started");
+            }
+            done = new CountDownLatch(workers);
+            maxAhead = workers * ORDERED_AHEAD;
+        }
+
+        for (int started = 0; started < workers; started++) {
+            try {
+                executor.execute(new Worker());
+            } catch (RejectedExecutionException ex) {
+                // Let the workers already running finish what they have, and release the waiters for the rest
+                cancel();
+                for (int count = started; count < workers; count++) {
+                    done.countDown();
+                }
+                throw ex;
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Stop loading any more IDs, the IDs already being loaded are still passed to the callback
+     */
+    public void cancel() {
+        cancelled = true;
+        synchronized (lock) {
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Check to see if the bulk load was cancelled
+     *
+     * @return
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Check to see if all of the results have been passed to the callback
+     *
+     * @return
+     */
+    public boolean isDone() {
+        return done != null && done.getCount() == 0;
+    }
+
+    /**
+     * Wait for all of the results to be passed to the callback
+     *
+     * @throws InterruptedException
+     */
+    public void await() throws InterruptedException {
+        getDone().await();
+    }
+
+    /**
+     * Wait for all of the results to be passed to the callback
+     *
+     * @param timeout
+     * @param unit
+     * @return True if the bulk load is done, false if the timeout passed first
+     * @throws InterruptedException
+     */
+    public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+        return getDone().await(timeout, unit);
+    }
+
+    private CountDownLatch getDone() {
+        synchronized (lock) {
+            if (done == null) {
+                throw new IllegalStateException("Bulk load not started");
+            }
+            return done;
+        }
+    }
+
+    /**
+     * The number of IDs to load
+     *
+     * @return
+     */
+    public int getTotal() {
+        return ids.size();
+    }
+
+    /**
+     * The number of IDs loaded successfully so far
+     *
+     * @return
+     */
+    public int getSucceeded() {
+        return succeeded.get();
+    }
+
+    /**
+     * The number of IDs that failed to load so far
+     *
+     * @return
+     */
+    public int getFailed() {
+        return failures.size();
+    }
+
+    /**
+     * The IDs that failed to load so far and the reason
+     *
+     * @return
+     */
+    public Map<K, MovieDbException> getFailures() {
+        return Collections.unmodifiableMap(failures);
+    }
+
+    /**
+     * Claim the next ID to load
+     *
+     * @return The index of the ID, or -1 if there are no more or the load has been cancelled
+     */
+    private int claim() {
+        synchronized (lock) {
+            try {
+                while (ordered && next >= delivered + maxAhead && !cancelled) {
+                    // The result for the ID at "delivered" is being loaded and will wake us up
+                    lock.wait();
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                cancelled = true;
+            }
+
+            if (cancelled || next >= ids.size()) {
+                return -1;
+            }
+            return next++;
+        }
+    }
+
+    /**
+     * Record the outcome of loading the ID and pass it on to the callback
+     */
+    private void complete(int index, Outcome<T> outcome) {
+        K id = ids.get(index);
+        if (outcome.error == null) {
+            succeeded.incrementAndGet();
+        } else {
+            failures.put(id, outcome.error);
+        }
+
+        if (!ordered) {
+            deliver(id, outcome);
+            return;
+        }
+
+        synchronized (lock) {
+            held.put(index, outcome);
+            if (delivering) {
+                // The worker that is delivering passes this on when it reaches it
+                return;
+            }
+            delivering = true;
+        }
+
+        // The callback is called outside the lock so a slow callback does not block the other workers
+        List<Outcome<T>> run = new ArrayList<Outcome<T>>();
+        for (;;) {
+            int start;
+            synchronized (lock) {
+                start = delivered;
+                Outcome<T> first;
+                while ((first = held.remove(delivered)) != null) {
+                    run.add(first);
+                    delivered++;
+                }
+                if (run.isEmpty()) {
+                    delivering = false;
+                    return;
+                }
+                lock.notifyAll();
+            }
+
+            for (int offset = 0; offset < run.size(); offset++) {
+                deliver(ids.get(start + offset), run.get(offset));
+            }
+            run.clear();
+        }
+    }
+
+    private void deliver(K id, Outcome<T> outcome) {
+        try {
+            if (outcome.error == null) {
+                callback.onResult(id, outcome.result);
+            } else {
+                callback.onFailure(id, outcome.error);
+            }
+        } catch (RuntimeException ex) {
+            LOG.warn("Bulk load callback failed for ID '{}': {}", id, ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Loads IDs until there are none left
+     */
+    private final class Worker implements Runnable {
+
+        @Override
+        public void run() {
+            try {
+                int index;
+                while ((index = claim()) >= 0) {
+                    complete(index, load(ids.get(index)));
+                }
+            } finally {
+                done.countDown();
+            }
+        }
+
+        private Outcome<T> load(K id) {
+            try {
+                return new Outcome<T>(loader.load(id), null);
+            } catch (MovieDbException ex) {
+                return new Outcome<T>(null, ex);
+            } catch (RuntimeException ex) {
+                return new Outcome<T>(null, new MovieDbException(ApiExceptionType.UNKNOWN_CAUSE, ex.getMessage(), String.valueOf(id), ex));
+            }
+        }
+    }
+
+    /**
+     * The result or error for an ID
+     */
+    private static final class Outcome<T> {
+
+        private final T result;
+        private final MovieDbException error;
+
+        Outcome(T result, MovieDbException error) {
+            this.result = result;
+            this.error = error;
+        }
+    }
+}
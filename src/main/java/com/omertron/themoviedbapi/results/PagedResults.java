@@ -0,0 +1,210 @@
+/*
+ *      Copyright (c) 2004-2015 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.results;
+
+import com.omertron.themoviedbapi.MovieDbException;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import org.yamj.api.common.exception.ApiExceptionType;
+
+/**
+ * Pages through the results of a paginated method, fetching each page only when it is needed.
+ * <p>
+ * The results are pulled one at a time (or a page at a time) so the caller controls the rate at which pages are fetched. When an
+ * executor is supplied the next page is fetched in the background while the current page is being consumed. Paging stops at the
+ * total pages reported by the first page, or at the first empty page.
+ *
+ * @author Stuart
+ * @param <T>
+ */
+public class PagedResults<T> {
+
+    /**
+     * Loads one page of results
+     *
+     * @param <T>
+     */
+    public interface PageLoader<T> {
+
+        /**
+         * Load the page
+         *
+         * @param page The page number, starting at 1
+         * @return
+         * @throws MovieDbException
+         */
+        TmdbResultsList<T> getPage(int page) throws MovieDbException;
+    }
+
+    private final PageLoader<T> loader;
+    private final ExecutorService executor;
+    private int nextPage = 1;
+    private int totalPages = -1;
+    private Future<TmdbResultsList<T>> prefetch = null;
+    // The page currently being consumed by next()
+    private List<T> current = null;
+    private int index = 0;
+
+    /**
+     * Create the pages without prefetching
+     *
+     * @param loader
+     */
+    public PagedResults(PageLoader<T> loader) {
+        this(loader, null);
+    }
+
+    /**
+     * Create the pages
+     *
+     * @param loader
+     * @param executor The executor used to prefetch the next page, or null to fetch each page when it is needed
+     */
+    public PagedResults(PageLoader<T> loader, ExecutorService executor) {
+        this.loader = loader;
+        this.executor = executor;
+    }
+
+    /**
+     * Check to see if there are any more pages to fetch
+     *
+     * @return
+     */
+    public boolean hasNextPage() {
+        return totalPages < 0 || nextPage <= totalPages;
+    }
+
+    /**
+     * Get the next page of results
+     *
+     * @return
+     * @throws MovieDbException
+     */
+    public TmdbResultsList<T> nextPage() throws MovieDbException {
+        if (!hasNextPage()) {
+            throw new NoSuchElementException("No more pages");
+        }
+
+        TmdbResultsList<T> results;
+        if (prefetch == null) {
+            results = loader.getPage(nextPage);
+        } else {
+            results = getPrefetched();
+        }
+
+        if (totalPages < 0) {
+            totalPages = results.getTotalPages();
+        }
+        if (results.getResults().isEmpty()) {
+            // Nothing more to come, whatever the total pages said
+            totalPages = nextPage - 1;
+        }
+        nextPage++;
+        startPrefetch();
+        return results;
+    }
+
+    /**
+     * Check to see if there are any more results.
+     * <p>
+     * This fetches the next page if the current page has been consumed.
+     *
+     * @return
+     * @throws MovieDbException
+     */
+    public boolean hasNext() throws MovieDbException {
+        while (current == null || index >= current.size()) {
+            if (!hasNextPage()) {
+                return false;
+            }
+            current = nextPage().getResults();
+            index = 0;
+        }
+        return true;
+    }
+
+    /**
+     * Get the next result
+     *
+     * @return
+     * @throws MovieDbException
+     */
+    public T next() throws MovieDbException {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No more results");
+        }
+        return current.get(index++);
+    }
+
+    /**
+     * Get the total number of pages, or -1 if the first page has not been fetched
+     *
+     * @return
+     */
+    public int getTotalPages() {
+        return totalPages;
+    }
+
+    /**
+     * Stop paging and cancel any page being prefetched
+     */
+    public void cancel() {
+        totalPages = nextPage - 1;
+        current = null;
+        if (prefetch != null) {
+            prefetch.cancel(true);
+            prefetch = null;
+        }
+    }
+
+    private void startPrefetch() {
+        if (executor == null || !hasNextPage()) {
+            return;
+        }
+
+        final int page = nextPage;
+        prefetch = executor.submit(new Callable<TmdbResultsList<T>>() {
+            @Override
+            public TmdbResultsList<T> call() throws MovieDbException {
+                return loader.getPage(page);
+            }
+        });
+    }
+
+    private TmdbResultsList<T> getPrefetched() throws MovieDbException {
+        try {
+            return prefetch.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new MovieDbException(ApiExceptionType.CONNECTION_ERROR, "Interrupted waiting for page " + nextPage, "", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof MovieDbException) {
+                throw (MovieDbException) ex.getCause();
+            }
+            throw new MovieDbException(ApiExceptionType.UNKNOWN_CAUSE, ex.getCause().getMessage(), "", ex.getCause());
+        } finally {
+            prefetch = null;
+        }
+    }
+}
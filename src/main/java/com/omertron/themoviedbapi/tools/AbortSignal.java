@@ -0,0 +1,103 @@
+/*
+ *      Copyright (c) 2004-2015 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+/**
+ * Lets a request that is in progress on one thread be aborted from another.
+ * <p>
+ * A signal is set for the thread around a transport call. A transport that can abort its request registers how to do so with
+ * {@link #onAbort(Runnable)}, and aborting the signal then runs that action, e.g. closing the connection so a blocked read returns
+ * straight away. Interrupting the thread is not enough, as blocking socket reads ignore interrupts.
+ *
+ * @author Stuart
+ */
+public final class AbortSignal {
+
+    private static final ThreadLocal<AbortSignal> CURRENT = new ThreadLocal<AbortSignal>();
+    private Runnable action = null;
+    private boolean aborted = false;
+
+    /**
+     * Get the signal for the request being made by the current thread
+     *
+     * @return The signal, or null if the request cannot be aborted
+     */
+    public static AbortSignal current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Set the signal for the requests made by the current thread
+     *
+     * @param signal The signal, or null to remove it
+     * @return The signal the thread had before, to be restored afterwards
+     */
+    static AbortSignal set(AbortSignal signal) {
+        AbortSignal previous = CURRENT.get();
+        if (signal == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(signal);
+        }
+        return previous;
+    }
+
+    /**
+     * Register the action that aborts the request, it is run straight away if the signal has already been aborted
+     *
+     * @param action
+     */
+    public void onAbort(Runnable action) {
+        synchronized (this) {
+            if (!aborted) {
+                this.action = action;
+                return;
+            }
+        }
+        action.run();
+    }
+
+    /**
+     * Abort the request, only the first call has any effect
+     */
+    public void abort() {
+        Runnable run;
+        synchronized (this) {
+            if (aborted) {
+                return;
+            }
+            aborted = true;
+            run = action;
+            action = null;
+        }
+        if (run != null) {
+            run.run();
+        }
+    }
+
+    /**
+     * Check to see if the request has been aborted
+     *
+     * @return
+     */
+    public synchronized boolean isAborted() {
+        return aborted;
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ *      Copyright (c) 2004-2015 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.util.Map;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpDelete;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.methods.Configurable;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.entity.ContentType;
+import org.apache.http.entity.StringEntity;
+import org.apache.http.util.EntityUtils;
+
+/**
+ * Transport using an Apache HttpClient
+ * <p>
+ * The automatic decompression of the client is turned off for each request, so that HttpTools decodes the content and can record
+ * both the compressed and uncompressed sizes in its transfer statistics. This needs the configuration of the client to be readable
+ * ({@link Configurable}, as the clients from HttpClientBuilder are), otherwise the client keeps its own settings and decodes the
+ * content itself, in which case both sizes are the decoded size.
+ *
+ * @author Stuart
+ */
+public class ApacheHttpTransport implements HttpTransport {
+
+    private final HttpClient httpClient;
+
+    public ApacheHttpTransport(HttpClient httpClient) {
+        this.httpClient = httpClient;
+    }
+
+    public HttpClient getHttpClient() {
+        return httpClient;
+    }
+
+    @Override
+    public TransportResponse get(URL url, Map<String, String> headers, int timeout) throws IOException {
+        return execute(new HttpGet(toUri(url)), headers, timeout);
+    }
+
+    @Override
+    public TransportResponse post(URL url, Map<String, String> headers, String jsonBody, int timeout) throws IOException {
+        HttpPost httpPost = new HttpPost(toUri(url));
+        httpPost.setEntity(new StringEntity(jsonBody, ContentType.APPLICATION_JSON));
+        return execute(httpPost, headers, timeout);
+    }
+
+    @Override
+    public TransportResponse delete(URL url, Map<String, String> headers, int timeout) throws IOException {
+        return execute(new HttpDelete(toUri(url)), headers, timeout);
+    }
+
+    private TransportResponse execute(final HttpRequestBase request, Map<String, String> headers, int timeout) throws IOException {
+        AbortSignal signal = AbortSignal.current();
+        if (signal != null) {
+            signal.onAbort(new Runnable() {
+                @Override
+                public void run() {
+                    request.abort();
+                }
+            });
+        }
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            request.addHeader(header.getKey(), header.getValue());
+        }
+        RequestConfig config = getConfig(timeout);
+        if (config != null) {
+            request.setConfig(config);
+        }
+        return new ApacheResponse(request, httpClient.execute(request));
+    }
+
+    /**
+     * Get the request configuration of the client with decompression turned off and the timeouts limited to the timeout
+     *
+     * @param timeout Timeout in milliseconds, or zero for no limit
+     * @return The configuration, or null to use the configuration of the client
+     */
+    private RequestConfig getConfig(int timeout) {
+        RequestConfig config = null;
+        if (httpClient instanceof Configurable) {
+            config = ((Configurable) httpClient).getConfig();
+        }
+        if (config == null) {
+            if (timeout <= 0) {
+                // Replacing a configuration that cannot be read would lose the settings of the client
+                return null;
+            }
+            config = RequestConfig.DEFAULT;
+        }
+
+        RequestConfig.Builder builder = RequestConfig.copy(config).setDecompressionEnabled(false);
+        if (timeout > 0) {
+            builder.setConnectionRequestTimeout(limit(config.getConnectionRequestTimeout(), timeout))
+                    .setConnectTimeout(limit(config.getConnectTimeout(), timeout))
+                    .setSocketTimeout(limit(config.getSocketTimeout(), timeout));
+        }
+        return builder.build();
+    }
+
+    private static int limit(int configured, int timeout) {
+        return configured <= 0 ? timeout : Math.min(configured, timeout);
+    }
+
+    private static URI toUri(URL url) throws IOException {
+        try {
+            return url.toURI();
+        } catch (URISyntaxException ex) {
+            throw new IOException("Invalid URL: " + url, ex);
+        }
+    }
+
+    /**
+     * Response wrapping the Apache response.
+     * <p>
+     * Closing it after the body has been read to the end, or after the content stream has been closed by the reader, releases the
+     * connection back to the pool. Closing it before then aborts the request and discards the connection, rather than downloading
+     * the rest of a body nobody will read.
+     */
+    private static final class ApacheResponse implements TransportResponse {
+
+        private final HttpRequestBase request;
+        private final HttpResponse response;
+        private EndInputStream content = null;
+
+        ApacheResponse(HttpRequestBase request, HttpResponse response) {
+            this.request = request;
+            this.response = response;
+        }
+
+        @Override
+        public int getStatusCode() {
+            return response.getStatusLine().getStatusCode();
+        }
+
+        @Override
+        public String getHeader(String name) {
+            Header header = response.getFirstHeader(name);
+            return header == null ? null : header.getValue();
+        }
+
+        @Override
+        public InputStream getContent() throws IOException {
+            HttpEntity entity = response.getEntity();
+            if (entity == null) {
+                return null;
+            }
+            if (content == null) {
+                content = new EndInputStream(entity.getContent());
+            }
+            return content;
+        }
+
+        @Override
+        public void close() {
+            HttpEntity entity = response.getEntity();
+            if (entity == null || entity.getContentLength() == 0 || (content != null && content.isDone())) {
+                // Nothing left to read, so the connection can be reused
+                EntityUtils.consumeQuietly(entity);
+            } else {
+                request.abort();
+            }
+        }
+    }
+
+    /**
+     * Stream that records when the end of the content has been reached or the reader has closed it
+     */
+    private static final class EndInputStream extends FilterInputStream {
+
+        private volatile boolean done = false;
+
+        EndInputStream(InputStream in) {
+            super(in);
+        }
+
+        boolean isDone() {
+            return done;
+        }
+
+        @Override
+        public void close() throws IOException {
+            done = true;
+            super.close();
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value < 0) {
+                done = true;
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int count = super.read(b, off, len);
+            if (count < 0) {
+                done = true;
+            }
+            return count;
+        }
+    }
+}
@@ -21,17 +21,20 @@ package com.omertron.themoviedbapi.tools;
 
 import java.io.UnsupportedEncodingException;
 import java.net.MalformedURLException;
+import java.net.URI;
 import java.net.URL;
 import java.net.URLEncoder;
 import java.util.Map;
-import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.builder.ToStringBuilder;
-import org.apache.commons.lang3.builder.ToStringStyle;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * The API URL that is used to construct the API call
+ * <p>
+ * The fixed parts of the URL (the base and method paths, the sub-method paths and the encoded API key) are built once and reused,
+ * so building a URL only appends the ID and parameters to a correctly sized buffer.
  *
  * @author Stuart
  */
@@ -43,10 +46,27 @@ public class ApiUrl {
     // Parameter configuration
     private static final String DELIMITER_FIRST = "?";
     private static final String DELIMITER_SUBSEQUENT = "&";
+    private static final String ENCODING = "UTF-8";
+    // Rough allowance for the length of each parameter when sizing the buffer
+    private static final int PARAM_LENGTH = 24;
+    // Precompiled URL templates
+    private static final String[] METHOD_PATHS = new String[MethodBase.values().length];
+    private static final String[] SUB_PATHS = new String[MethodSub.values().length];
+    private static final ConcurrentMap<String, String> KEY_QUERIES = new ConcurrentHashMap<String, String>();
     // Properties
-    private final String apiKey;
-    private final String method;
-    private String submethod = StringUtils.EMPTY;
+    private final String keyQuery;
+    private final MethodBase method;
+    private MethodSub submethod = null;
+    private String subId = null;
+
+    static {
+        for (MethodBase mb : MethodBase.values()) {
+            METHOD_PATHS[mb.ordinal()] = TMDB_API_BASE + mb.getValue();
+        }
+        for (MethodSub ms : MethodSub.values()) {
+            SUB_PATHS[ms.ordinal()] = "/" + ms.getValue();
+        }
+    }
 
     /**
      * Constructor for the simple API URL method without a sub-method
@@ -55,8 +75,23 @@ public class ApiUrl {
      * @param method
      */
     public ApiUrl(String apiKey, MethodBase method) {
-        this.apiKey = apiKey;
-        this.method = method.getValue();
+        this.keyQuery = getKeyQuery(apiKey);
+        this.method = method;
+    }
+
+    /**
+     * Get the encoded API key part of the URL, creating it the first time the key is used
+     *
+     * @param apiKey
+     * @return
+     */
+    private static String getKeyQuery(String apiKey) {
+        String keyQuery = KEY_QUERIES.get(apiKey);
+        if (keyQuery == null) {
+            keyQuery = DELIMITER_FIRST + Param.API_KEY.getValue() + encode(apiKey);
+            KEY_QUERIES.putIfAbsent(apiKey, keyQuery);
+        }
+        return keyQuery;
     }
 
     /**
@@ -66,7 +101,8 @@ public class ApiUrl {
      * @return
      */
     public ApiUrl setSubMethod(MethodSub submethod) {
-        this.submethod = submethod.getValue();
+        this.submethod = submethod;
+        this.subId = null;
         return this;
     }
 
@@ -89,13 +125,32 @@ public class ApiUrl {
      * @return
      */
     public ApiUrl setSubMethod(String someId, MethodSub submethod) {
-        StringBuilder sm = new StringBuilder(someId);
-        sm.append("/");
-        sm.append(submethod.getValue());
-        this.submethod = sm.toString();
+        this.submethod = submethod;
+        this.subId = someId;
         return this;
     }
 
+    /**
+     * Get the ID from an API URL for the method, e.g. "http://api.themoviedb.org/3/movie/78/images" returns "78" for MOVIE
+     *
+     * @param url The URL, with or without the parameters
+     * @param method The method of the URL
+     * @return The ID, or null if the URL is not for the method or has no ID
+     */
+    public static String getId(String url, MethodBase method) {
+        String prefix = METHOD_PATHS[method.ordinal()];
+        int start = prefix.length() + 1;
+        if (url.length() <= start || !url.startsWith(prefix) || url.charAt(start - 1) != '/') {
+            return null;
+        }
+
+        int end = start;
+        while (end < url.length() && url.charAt(end) != '/' && url.charAt(end) != '?') {
+            end++;
+        }
+        return end > start ? url.substring(start, end) : null;
+    }
+
     /**
      * Build the URL with the default parameters
      *
@@ -112,53 +167,75 @@ public class ApiUrl {
      * @return
      */
     public URL buildUrl(final TmdbParameters params) {
-        StringBuilder urlString = new StringBuilder(TMDB_API_BASE);
+        String urlString = buildString(params);
+        try {
+            return new URL(urlString);
+        } catch (MalformedURLException ex) {
+            LOG.warn("Failed to create URL {} - {}", urlString, ex.getMessage());
+            return null;
+        }
+    }
 
-        LOG.trace("Method: '{}', Sub-method: '{}', Params: {}", method, submethod,
-                ToStringBuilder.reflectionToString(params, ToStringStyle.SHORT_PREFIX_STYLE));
+    /**
+     * Build the URI from the pre-created parameters.
+     * <p>
+     * The URI can be passed straight to an HTTP client without converting it from a URL. The requests made by the API use
+     * {@link #buildUrl(TmdbParameters)}, as the transports take a URL.
+     *
+     * @param params
+     * @return
+     */
+    public URI buildUri(final TmdbParameters params) {
+        String urlString = buildString(params);
+        try {
+            return URI.create(urlString);
+        } catch (IllegalArgumentException ex) {
+            LOG.warn("Failed to create URI {} - {}", urlString, ex.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Build the URL string from the templates and the parameters
+     *
+     * @param params
+     * @return
+     */
+    private String buildString(final TmdbParameters params) {
+        if (LOG.isTraceEnabled()) {
+            LOG.trace("Method: '{}', Sub-method: '{}', Params: {}", method.getValue(), getSubMethodPath(), params);
+        }
+
+        String methodPath = METHOD_PATHS[method.ordinal()];
+        String subPath = submethod == null ? "" : SUB_PATHS[submethod.ordinal()];
+        StringBuilder urlString = new StringBuilder(methodPath.length() + subPath.length() + keyQuery.length()
+                + PARAM_LENGTH * (params.getEntries().size() + 1));
 
         // Get the start of the URL
-        urlString.append(method);
+        urlString.append(methodPath);
 
         // We have either a queury, or a direct request
         if (params.has(Param.QUERY)) {
             // Append the suffix of the API URL
-            if (StringUtils.isNotBlank(submethod)) {
-                urlString.append("/").append(submethod);
-            }
+            appendSubMethod(urlString, subPath);
 
             // Append the key information
-            urlString.append(DELIMITER_FIRST)
-                    .append(Param.API_KEY.getValue())
-                    .append(apiKey);
+            urlString.append(keyQuery);
 
             // Append the search term
-            urlString.append(DELIMITER_SUBSEQUENT);
-            urlString.append(Param.QUERY.getValue());
-
-            String query = (String) params.get(Param.QUERY);
-
-            try {
-                urlString.append(URLEncoder.encode(query, "UTF-8"));
-            } catch (UnsupportedEncodingException ex) {
-                LOG.trace("Unable to encode query: '{}' trying raw.", query, ex);
-                // If we can't encode it, try it raw
-                urlString.append(query);
-            }
+            urlString.append(DELIMITER_SUBSEQUENT)
+                    .append(Param.QUERY.getValue())
+                    .append(encode((String) params.get(Param.QUERY)));
         } else {
             // Append the ID if provided
             if (params.has(Param.ID)) {
                 urlString.append("/").append(params.get(Param.ID));
             }
 
-            if (StringUtils.isNotBlank(submethod)) {
-                urlString.append("/").append(submethod);
-            }
+            appendSubMethod(urlString, subPath);
 
             // Append the key information
-            urlString.append(DELIMITER_FIRST)
-                    .append(Param.API_KEY.getValue())
-                    .append(apiKey);
+            urlString.append(keyQuery);
         }
 
         // Append remaining parameters
@@ -173,12 +250,38 @@ public class ApiUrl {
                     .append(argEntry.getValue());
         }
 
+        String result = urlString.toString();
+        LOG.trace("URL: {}", result);
+        return result;
+    }
+
+    private void appendSubMethod(StringBuilder urlString, String subPath) {
+        if (subId != null) {
+            urlString.append("/").append(subId);
+        }
+        urlString.append(subPath);
+    }
+
+    private String getSubMethodPath() {
+        if (submethod == null) {
+            return "";
+        }
+        return subId == null ? submethod.getValue() : subId + "/" + submethod.getValue();
+    }
+
+    /**
+     * URL encode the value
+     *
+     * @param value
+     * @return
+     */
+    private static String encode(String value) {
         try {
-            LOG.trace("URL: {}", urlString.toString());
-            return new URL(urlString.toString());
-        } catch (MalformedURLException ex) {
-            LOG.warn("Failed to create URL {} - {}", urlString.toString(), ex.getMessage());
-            return null;
+            return URLEncoder.encode(value, ENCODING);
+        } catch (UnsupportedEncodingException ex) {
+            LOG.trace("Unable to encode: '{}' trying raw.", value, ex);
+            // If we can't encode it, try it raw
+            return value;
         }
     }
 }
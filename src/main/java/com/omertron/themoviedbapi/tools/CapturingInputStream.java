@@ -0,0 +1,94 @@
+/*
+ *      Copyright (c) 2004-2015 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+/**
+ * Input stream that keeps a copy of the first bytes read through it.
+ * <p>
+ * Used when streaming a response into the JSON parser so that the start of the body is still available for an exception message
+ * if the mapping fails, without holding the whole response in memory.
+ *
+ * @author Stuart
+ */
+public class CapturingInputStream extends FilterInputStream {
+
+    private final byte[] captured;
+    private int count = 0;
+
+    /**
+     * Create the stream
+     *
+     * @param in The stream to read from
+     * @param maxCapture The maximum number of bytes to keep
+     */
+    public CapturingInputStream(InputStream in, int maxCapture) {
+        super(in);
+        this.captured = new byte[maxCapture];
+    }
+
+    @Override
+    public int read() throws IOException {
+        int value = super.read();
+        if (value >= 0 && count < captured.length) {
+            captured[count++] = (byte) value;
+        }
+        return value;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int read = super.read(b, off, len);
+        if (read > 0 && count < captured.length) {
+            int copy = Math.min(read, captured.length - count);
+            System.arraycopy(b, off, captured, count, copy);
+            count += copy;
+        }
+        return read;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    /**
+     * Get the captured bytes as a string
+     *
+     * @param charset
+     * @return
+     */
+    public String getCaptured(Charset charset) {
+        return new String(captured, 0, count, charset);
+    }
+
+    /**
+     * Has the capture buffer been filled (the content is likely to be truncated)
+     *
+     * @return
+     */
+    public boolean isTruncated() {
+        return count >= captured.length;
+    }
+}
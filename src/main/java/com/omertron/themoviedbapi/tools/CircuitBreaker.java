@@ -0,0 +1,238 @@
+/*
+ *      Copyright (c) 2004-2015 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Circuit breaker used to fail fast when TMDb is unavailable.
+ * <p>
+ * The breaker opens after a number of consecutive failures, then rejects all requests until the open time has passed. It then lets a
+ * limited number of probe requests through (half open): a successful probe closes the breaker, a failed probe opens it again.
+ * <p>
+ * Only connection errors and server errors count as failures; a response from the server (even an error such as 404) shows that
+ * the server is available.
+ *
+ * @author Stuart
+ */
+public class CircuitBreaker {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CircuitBreaker.class);
+    public static final int DEFAULT_FAILURE_THRESHOLD = 5;
+    public static final long DEFAULT_OPEN_SECONDS = 30;
+    public static final int DEFAULT_HALF_OPEN_PROBES = 1;
+
+    /**
+     * The state of the breaker
+     */
+    public enum State {
+
+        /**
+         * Requests are allowed
+         */
+        CLOSED,
+        /**
+         * Requests are rejected
+         */
+        OPEN,
+        /**
+         * A limited number of probe requests are allowed
+         */
+        HALF_OPEN;
+    }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openNanos;
+    private final int halfOpenProbes;
+    // State, guarded by this
+    private State state = State.CLOSED;
+    private int consecutiveFailures = 0;
+    private int probesInFlight = 0;
+    private long openedAt = 0;
+    // Metrics, guarded by this
+    private long openedCount = 0;
+    private long halfOpenedCount = 0;
+    private long closedCount = 0;
+    private long rejectedCount = 0;
+
+    /**
+     * Create a circuit breaker with the default settings
+     *
+     * @param name The name used in the log messages
+     */
+    public CircuitBreaker(String name) {
+        this(name, DEFAULT_FAILURE_THRESHOLD, DEFAULT_OPEN_SECONDS, TimeUnit.SECONDS, DEFAULT_HALF_OPEN_PROBES);
+    }
+
+    /**
+     * Create a circuit breaker
+     *
+     * @param name The name used in the log messages
+     * @param failureThreshold The number of consecutive failures that open the breaker
+     * @param openTime How long the breaker stays open before letting probe requests through
+     * @param unit The unit of the open time
+     * @param halfOpenProbes The number of probe requests allowed at the same time when half open
+     */
+    public CircuitBreaker(String name, int failureThreshold, long openTime, TimeUnit unit, int halfOpenProbes) {
+        if (failureThreshold < 1 || halfOpenProbes < 1) {
+            throw new IllegalArgumentException("Failure threshold and half open probes must be at least 1");
+        }
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openNanos = unit.toNanos(openTime);
+        this.halfOpenProbes = halfOpenProbes;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Check to see if a request is allowed.
+     * <p>
+     * Each allowed request must be followed by a call to {@link #recordSuccess()}, {@link #recordFailure()} or
+     * {@link #recordAbandoned()}.
+     *
+     * @return True if the request can be made, false if it should fail fast
+     */
+    public synchronized boolean allowRequest() {
+        if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+            transition(State.HALF_OPEN);
+        }
+
+        switch (state) {
+            case CLOSED:
+                return true;
+            case HALF_OPEN:
+                if (probesInFlight < halfOpenProbes) {
+                    probesInFlight++;
+                    return true;
+                }
+                break;
+            default:
+                break;
+        }
+        rejectedCount++;
+        return false;
+    }
+
+    /**
+     * Record a request that reached the server
+     */
+    public synchronized void recordSuccess() {
+        consecutiveFailures = 0;
+        if (state == State.HALF_OPEN) {
+            transition(State.CLOSED);
+        }
+    }
+
+    /**
+     * Record a request that failed with a connection or server error
+     */
+    public synchronized void recordFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            transition(State.OPEN);
+        }
+    }
+
+    /**
+     * Record a request that ended without showing whether the server is available, such as when the deadline of the
+     * caller passed first. Only the probe slot of a half-open breaker is released.
+     */
+    public synchronized void recordAbandoned() {
+        if (state == State.HALF_OPEN && probesInFlight > 0) {
+            probesInFlight--;
+        }
+    }
+
+    private void transition(State newState) {
+        LOG.info("Circuit breaker '{}' changed from {} to {}", name, state, newState);
+        state = newState;
+        probesInFlight = 0;
+
+        switch (newState) {
+            case OPEN:
+                openedAt = System.nanoTime();
+                openedCount++;
+                break;
+            case HALF_OPEN:
+                halfOpenedCount++;
+                break;
+            default:
+                consecutiveFailures = 0;
+                closedCount++;
+                break;
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public synchronized int getConsecutiveFailures() {
+        return consecutiveFailures;
+    }
+
+    /**
+     * The number of times the breaker has opened
+     *
+     * @return
+     */
+    public synchronized long getOpenedCount() {
+        return openedCount;
+    }
+
+    /**
+     * The number of times the breaker has moved to half open
+     *
+     * @return
+     */
+    public synchronized long getHalfOpenedCount() {
+        return halfOpenedCount;
+    }
+
+    /**
+     * The number of times the breaker has closed again
+     *
+     * @return
+     */
+    public synchronized long getClosedCount() {
+        return closedCount;
+    }
+
+    /**
+     * The number of requests that were rejected
+     *
+     * @return
+     */
+    public synchronized long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "CircuitBreaker[" + name + ", state=" + state + ", failures=" + consecutiveFailures + ", opened=" + openedCount
+                + ", halfOpened=" + halfOpenedCount + ", closed=" + closedCount + ", rejected=" + rejectedCount + "]";
+    }
+}
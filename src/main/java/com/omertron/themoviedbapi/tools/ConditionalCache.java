@@ -0,0 +1,183 @@
+/*
+ *      Copyright (c) 2004-2015 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Cache of parsed responses and their validators (ETag and Last-Modified) used for HTTP conditional requests.
+ * <p>
+ * When a cached response exists the request is sent with If-None-Match/If-Modified-Since and a 304 (Not Modified) response is
+ * answered with the cached object, saving the download and the parsing.
+ * <p>
+ * Only the methods that have been enabled are cached, by default the reference data (configuration, genres, jobs and
+ * collections).
+ * <p>
+ * After a 304 every caller gets the same instance of the cached object, the one parsed from the last full response, so the
+ * returned objects are shared between all callers and must be treated as read only.
+ *
+ * @author Stuart
+ */
+public class ConditionalCache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 100;
+    private final Set<MethodBase> methods;
+    private final Map<String, Entry> entries;
+    private final AtomicLong notModifiedCount = new AtomicLong(0);
+    private final AtomicLong storedCount = new AtomicLong(0);
+
+    /**
+     * Create a cache for the reference data methods
+     */
+    public ConditionalCache() {
+        this(DEFAULT_MAX_ENTRIES, EnumSet.of(MethodBase.CONFIGURATION, MethodBase.GENRE, MethodBase.JOB, MethodBase.COLLECTION));
+    }
+
+    /**
+     * Create a cache
+     *
+     * @param maxEntries The maximum number of responses to keep, the least recently used is removed first
+     * @param methods The methods to cache the responses of
+     */
+    public ConditionalCache(final int maxEntries, Set<MethodBase> methods) {
+        this.methods = methods.isEmpty() ? EnumSet.noneOf(MethodBase.class) : EnumSet.copyOf(methods);
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ConditionalCache.Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Check to see if the responses for the method are cached
+     *
+     * @param method
+     * @return
+     */
+    public boolean isCached(MethodBase method) {
+        return method != null && methods.contains(method);
+    }
+
+    /**
+     * Get the cached response for the key
+     *
+     * @param key
+     * @return The entry or null if there is none
+     */
+    public synchronized Entry get(String key) {
+        return entries.get(key);
+    }
+
+    /**
+     * Store a parsed response with its validators.
+     * <p>
+     * Responses without any validators are not stored as they can never be revalidated.
+     *
+     * @param key
+     * @param etag The ETag header value, can be null
+     * @param lastModified The Last-Modified header value, can be null
+     * @param value The parsed response
+     */
+    public void put(String key, String etag, String lastModified, Object value) {
+        if (StringUtils.isBlank(etag) && StringUtils.isBlank(lastModified)) {
+            return;
+        }
+
+        Entry entry = new Entry(etag, lastModified, value);
+        synchronized (this) {
+            entries.put(key, entry);
+        }
+        storedCount.incrementAndGet();
+    }
+
+    /**
+     * Remove the cached response for the key
+     *
+     * @param key
+     */
+    public synchronized void remove(String key) {
+        entries.remove(key);
+    }
+
+    /**
+     * Record that a cached response was confirmed by a 304 response
+     */
+    public void recordNotModified() {
+        notModifiedCount.incrementAndGet();
+    }
+
+    /**
+     * The number of requests answered from the cache after a 304 response
+     *
+     * @return
+     */
+    public long getNotModifiedCount() {
+        return notModifiedCount.get();
+    }
+
+    /**
+     * The number of responses stored in the cache
+     *
+     * @return
+     */
+    public long getStoredCount() {
+        return storedCount.get();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * A cached response
+     */
+    public static final class Entry {
+
+        private final String etag;
+        private final String lastModified;
+        private final Object value;
+
+        private Entry(String etag, String lastModified, Object value) {
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.value = value;
+        }
+
+        public String getEtag() {
+            return etag;
+        }
+
+        public String getLastModified() {
+            return lastModified;
+        }
+
+        public Object getValue() {
+            return value;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ *      Copyright (c) 2004-2015 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Input stream that fails once the deadline has passed, so the mapping of a slow response is stopped rather than taking longer
+ * than the time allowed for the call.
+ *
+ * @author Stuart
+ */
+public class DeadlineInputStream extends FilterInputStream {
+
+    private final long deadline;
+
+    /**
+     * Create the stream
+     *
+     * @param in The stream to read from
+     * @param timeout The time allowed to read the stream
+     * @param unit The unit of the timeout
+     */
+    public DeadlineInputStream(InputStream in, long timeout, TimeUnit unit) {
+        super(in);
+        this.deadline = System.nanoTime() + unit.toNanos(timeout);
+    }
+
+    @Override
+    public int read() throws IOException {
+        checkDeadline();
+        return super.read();
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        checkDeadline();
+        return super.read(b, off, len);
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        checkDeadline();
+        return super.skip(n);
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    private void checkDeadline() throws SocketTimeoutException {
+        if (System.nanoTime() - deadline >= 0) {
+            throw new SocketTimeoutException("Deadline exceeded reading response");
+        }
+    }
+}
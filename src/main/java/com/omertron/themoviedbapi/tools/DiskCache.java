@@ -0,0 +1,589 @@
+/*
+ *      Copyright (c) 2004-2015 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Persistent cache of response bodies, so that a restart does not download the same responses again.
+ * <p>
+ * Responses are appended to memory mapped segment files of a fixed size, with an in-memory index from the hash of the key to the
+ * record. Each record holds its expiry time and a checksum; the index is rebuilt by scanning the segments when the cache is opened,
+ * stopping at the first record that is incomplete or damaged, so a crash loses at most the last records written.
+ * <p>
+ * When the number of segments would exceed the size cap, the oldest segment is compacted: entries that have not expired and have
+ * been read since they were written are copied into the new segment, then the old segment is deleted. The copies are written (and
+ * forced to disk) before the old segment is deleted, and later segments win when the index is rebuilt, so a crash during compaction
+ * loses nothing.
+ * <p>
+ * The cache key is the request URL without the api_key parameter, the same as the {@link ResponseCache}. Errors reading or writing
+ * the cache are logged and treated as a miss, they never fail a request.
+ *
+ * @author Stuart
+ */
+public class DiskCache implements Closeable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DiskCache.class);
+    public static final int DEFAULT_SEGMENT_SIZE = 16 * 1024 * 1024;
+    public static final long DEFAULT_MAX_SIZE = 256L * 1024 * 1024;
+    private static final Charset CHARSET = Charset.forName("UTF-8");
+    private static final String CHANGES = "/changes";
+    private static final Pattern SEGMENT_NAME = Pattern.compile("segment-(\\d+)\\.dat");
+    // Record: magic, key length, value length (-1 for a removal), expiry time (epoch ms), CRC of the key and value, key, value
+    private static final int MAGIC = 0x544d4442;
+    private static final int HEADER_SIZE = 24;
+    private static final int REMOVED = -1;
+    private final File directory;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final Map<MethodBase, Long> ttls = new EnumMap<MethodBase, Long>(MethodBase.class);
+    // Guarded by this
+    private final TreeMap<Integer, Segment> segments = new TreeMap<Integer, Segment>();
+    private final Map<Long, Location> index = new HashMap<Long, Location>();
+    private Segment active;
+    private boolean closed = false;
+    // Metrics
+    private final AtomicLong hitCount = new AtomicLong(0);
+    private final AtomicLong missCount = new AtomicLong(0);
+    private final AtomicLong writeCount = new AtomicLong(0);
+    private final AtomicLong compactionCount = new AtomicLong(0);
+    private final AtomicLong evictionCount = new AtomicLong(0);
+
+    /**
+     * Open a cache in the directory with the default sizes
+     *
+     * @param directory
+     * @throws IOException
+     */
+    public DiskCache(File directory) throws IOException {
+        this(directory, DEFAULT_SEGMENT_SIZE, DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Open a cache in the directory, loading the index from any existing segments
+     *
+     * @param directory The directory for the segment files, created if needed
+     * @param segmentSize The size of each segment file in bytes
+     * @param maxSize The maximum size of all of the segment files in bytes, at least two segments are kept
+     * @throws IOException If the directory or a segment could not be opened
+     */
+    public DiskCache(File directory, int segmentSize, long maxSize) throws IOException {
+        if (segmentSize < 4096) {
+            throw new IllegalArgumentException("Segment size must be at least 4096 bytes");
+        }
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Unable to create cache directory: " + directory);
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxSegments = (int) Math.max(2, Math.min(Integer.MAX_VALUE, maxSize / segmentSize));
+
+        setTtl(MethodBase.CONFIGURATION, 1, TimeUnit.DAYS);
+        setTtl(MethodBase.GENRE, 1, TimeUnit.DAYS);
+        setTtl(MethodBase.JOB, 1, TimeUnit.DAYS);
+        setTtl(MethodBase.MOVIE, 1, TimeUnit.DAYS);
+        setTtl(MethodBase.PERSON, 1, TimeUnit.DAYS);
+        setTtl(MethodBase.COLLECTION, 1, TimeUnit.DAYS);
+        setTtl(MethodBase.COMPANY, 1, TimeUnit.DAYS);
+        setTtl(MethodBase.KEYWORD, 1, TimeUnit.DAYS);
+
+        open();
+    }
+
+    /**
+     * Map the existing segments and rebuild the index
+     */
+    private void open() throws IOException {
+        File[] files = directory.listFiles(new FilenameFilter() {
+            @Override
+            public boolean accept(File dir, String name) {
+                return SEGMENT_NAME.matcher(name).matches();
+            }
+        });
+
+        List<Integer> ids = new ArrayList<Integer>();
+        if (files != null) {
+            for (File file : files) {
+                Matcher matcher = SEGMENT_NAME.matcher(file.getName());
+                if (matcher.matches()) {
+                    ids.add(Integer.valueOf(matcher.group(1)));
+                }
+            }
+        }
+
+        Integer[] sorted = ids.toArray(new Integer[ids.size()]);
+        Arrays.sort(sorted);
+        for (Integer id : sorted) {
+            Segment segment = map(id);
+            segments.put(id, segment);
+            scan(segment);
+        }
+
+        if (segments.isEmpty()) {
+            active = map(0);
+            segments.put(0, active);
+        } else {
+            active = segments.lastEntry().getValue();
+            // Clear anything left after the last complete record so it is not mistaken for a record later
+            for (int pos = active.position; pos < active.buffer.capacity(); pos++) {
+                active.buffer.put(pos, (byte) 0);
+            }
+        }
+        LOG.debug("Opened disk cache {} with {} entries in {} segments", directory, index.size(), segments.size());
+    }
+
+    private Segment map(int id) throws IOException {
+        File file = new File(directory, "segment-" + id + ".dat");
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            FileChannel channel = raf.getChannel();
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            return new Segment(id, file, buffer);
+        } finally {
+            // The mapping stays valid after the file is closed
+            raf.close();
+        }
+    }
+
+    /**
+     * Add the records in the segment to the index
+     */
+    private void scan(Segment segment) {
+        ByteBuffer buffer = segment.buffer;
+        long now = System.currentTimeMillis();
+        int pos = 0;
+        while (pos + HEADER_SIZE <= buffer.capacity() && buffer.getInt(pos) == MAGIC) {
+            int keyLength = buffer.getInt(pos + 4);
+            int valueLength = buffer.getInt(pos + 8);
+            long length = (long) HEADER_SIZE + keyLength + Math.max(0, valueLength);
+            if (keyLength <= 0 || valueLength < REMOVED || pos + length > buffer.capacity()) {
+                break;
+            }
+
+            byte[] key = read(buffer, pos + HEADER_SIZE, keyLength);
+            byte[] value = valueLength > 0 ? read(buffer, pos + HEADER_SIZE + keyLength, valueLength) : new byte[0];
+            if (buffer.getInt(pos + 20) != checksum(key, value)) {
+                LOG.debug("Damaged record at {} in {}, ignoring the rest of the segment", pos, segment.file.getName());
+                break;
+            }
+
+            Long hash = hash(key);
+            long expires = buffer.getLong(pos + 12);
+            if (valueLength == REMOVED || expires <= now) {
+                index.remove(hash);
+            } else {
+                index.put(hash, new Location(segment.id, pos, (int) length, expires));
+            }
+            pos += length;
+        }
+        segment.position = pos;
+    }
+
+    /**
+     * Set the time to live of the responses for a method
+     *
+     * @param method
+     * @param ttl The time to live, zero to stop caching the method
+     * @param unit The unit of the time to live
+     * @return
+     */
+    public final synchronized DiskCache setTtl(MethodBase method, long ttl, TimeUnit unit) {
+        if (ttl > 0) {
+            ttls.put(method, unit.toMillis(ttl));
+        } else {
+            ttls.remove(method);
+        }
+        return this;
+    }
+
+    /**
+     * Get the time to live of the responses for a method
+     *
+     * @param method
+     * @param unit
+     * @return The time to live, zero if the method is not cached
+     */
+    public synchronized long getTtl(MethodBase method, TimeUnit unit) {
+        Long ttl = ttls.get(method);
+        return ttl == null ? 0 : unit.convert(ttl, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Check to see if the response for the URL can be cached
+     *
+     * @param url
+     * @return
+     */
+    public boolean isCached(URL url) {
+        return getTtl(MethodBase.fromUrl(url), TimeUnit.MILLISECONDS) > 0 && !url.getPath().endsWith(CHANGES);
+    }
+
+    /**
+     * Check to see if there is a body for the key that has not expired, without reading it
+     *
+     * @param key
+     * @return
+     */
+    public synchronized boolean contains(String key) {
+        Location location = closed ? null : index.get(hash(key.getBytes(CHARSET)));
+        return location != null && location.expires > System.currentTimeMillis();
+    }
+
+    /**
+     * Get the cached response body
+     *
+     * @param key
+     * @return The body, or null if it is not cached or has expired
+     */
+    public synchronized String get(String key) {
+        byte[] keyBytes = key.getBytes(CHARSET);
+        Location location = closed ? null : index.get(hash(keyBytes));
+        if (location != null && location.expires <= System.currentTimeMillis()) {
+            index.remove(hash(keyBytes));
+            location = null;
+        }
+
+        if (location != null) {
+            ByteBuffer buffer = segments.get(location.segment).buffer;
+            int keyLength = buffer.getInt(location.offset + 4);
+            // Check the key in case of a hash collision
+            if (Arrays.equals(keyBytes, read(buffer, location.offset + HEADER_SIZE, keyLength))) {
+                location.used = true;
+                hitCount.incrementAndGet();
+                int valueLength = buffer.getInt(location.offset + 8);
+                return new String(read(buffer, location.offset + HEADER_SIZE + keyLength, valueLength), CHARSET);
+            }
+        }
+
+        missCount.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Store a response body with the time to live of its method
+     *
+     * @param key
+     * @param method The method of the request
+     * @param value The response body
+     */
+    public void put(String key, MethodBase method, String value) {
+        long ttl = getTtl(method, TimeUnit.MILLISECONDS);
+        if (ttl <= 0 || value == null) {
+            return;
+        }
+
+        byte[] keyBytes = key.getBytes(CHARSET);
+        byte[] valueBytes = value.getBytes(CHARSET);
+        if (HEADER_SIZE + keyBytes.length + valueBytes.length > segmentSize / 2) {
+            LOG.debug("Response too large for the disk cache: {}", key);
+            return;
+        }
+
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            try {
+                index.put(hash(keyBytes), append(keyBytes, valueBytes, System.currentTimeMillis() + ttl));
+                writeCount.incrementAndGet();
+            } catch (IOException ex) {
+                LOG.warn("Failed to write to disk cache: {}", ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Remove the cached response for the key
+     *
+     * @param key
+     */
+    public synchronized void remove(String key) {
+        byte[] keyBytes = key.getBytes(CHARSET);
+        if (closed || index.remove(hash(keyBytes)) == null) {
+            return;
+        }
+
+        try {
+            // Record the removal so the entry is not restored when the cache is opened again
+            append(keyBytes, null, 0);
+        } catch (IOException ex) {
+            LOG.warn("Failed to write to disk cache: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Remove all of the cached responses for the IDs of the method, e.g. all of the responses for the movies that have changed
+     *
+     * @param method The method of the responses
+     * @param ids The IDs to remove
+     * @return The number of responses removed
+     */
+    public synchronized int removeAll(MethodBase method, Set<String> ids) {
+        if (closed) {
+            return 0;
+        }
+
+        List<byte[]> removed = new ArrayList<byte[]>();
+        for (Iterator<Location> iter = index.values().iterator(); iter.hasNext();) {
+            Location location = iter.next();
+            ByteBuffer buffer = segments.get(location.segment).buffer;
+            byte[] key = read(buffer, location.offset + HEADER_SIZE, buffer.getInt(location.offset + 4));
+            String id = ApiUrl.getId(new String(key, CHARSET), method);
+            if (id != null && ids.contains(id)) {
+                iter.remove();
+                removed.add(key);
+            }
+        }
+
+        try {
+            for (byte[] key : removed) {
+                append(key, null, 0);
+            }
+        } catch (IOException ex) {
+            LOG.warn("Failed to write to disk cache: {}", ex.getMessage());
+        }
+        return removed.size();
+    }
+
+    /**
+     * Append a record to the active segment, starting a new segment if it is full
+     *
+     * @return The location of the record
+     */
+    private Location append(byte[] key, byte[] value, long expires) throws IOException {
+        int length = HEADER_SIZE + key.length + (value == null ? 0 : value.length);
+        if (active.position + length > segmentSize) {
+            roll();
+        }
+
+        ByteBuffer buffer = active.buffer;
+        int pos = active.position;
+        buffer.putInt(pos + 4, key.length);
+        buffer.putInt(pos + 8, value == null ? REMOVED : value.length);
+        buffer.putLong(pos + 12, expires);
+        buffer.putInt(pos + 20, checksum(key, value == null ? new byte[0] : value));
+        write(buffer, pos + HEADER_SIZE, key);
+        if (value != null) {
+            write(buffer, pos + HEADER_SIZE + key.length, value);
+        }
+        // The magic number is written last so a partly written record is not read
+        buffer.putInt(pos, MAGIC);
+        active.position += length;
+        return new Location(active.id, pos, length, expires);
+    }
+
+    /**
+     * Start a new segment, compacting the oldest segment if there are too many
+     */
+    private void roll() throws IOException {
+        active.buffer.force();
+        int id = active.id + 1;
+        active = map(id);
+        segments.put(id, active);
+
+        if (segments.size() > maxSegments) {
+            compact(segments.firstEntry().getValue());
+        }
+    }
+
+    /**
+     * Copy the live entries that have been used from the segment into the active segment, then delete it
+     */
+    private void compact(Segment segment) {
+        long now = System.currentTimeMillis();
+        int limit = segmentSize / 2;
+        for (Iterator<Map.Entry<Long, Location>> iter = index.entrySet().iterator(); iter.hasNext();) {
+            Map.Entry<Long, Location> entry = iter.next();
+            Location location = entry.getValue();
+            if (location.segment != segment.id) {
+                continue;
+            }
+
+            if (location.used && location.expires > now && active.position + location.length <= limit) {
+                // Copy the whole record, it is already checksummed
+                byte[] record = read(segment.buffer, location.offset, location.length);
+                write(active.buffer, active.position, record);
+                entry.setValue(new Location(active.id, active.position, location.length, location.expires));
+                active.position += location.length;
+            } else {
+                iter.remove();
+                evictionCount.incrementAndGet();
+            }
+        }
+        active.buffer.force();
+
+        segments.remove(segment.id);
+        if (!segment.file.delete()) {
+            LOG.warn("Failed to delete disk cache segment: {}", segment.file);
+            segment.file.deleteOnExit();
+        }
+        compactionCount.incrementAndGet();
+    }
+
+    /**
+     * Write the segments to disk and stop using the cache
+     */
+    @Override
+    public synchronized void close() {
+        if (!closed) {
+            closed = true;
+            active.buffer.force();
+            index.clear();
+        }
+    }
+
+    public synchronized int size() {
+        return index.size();
+    }
+
+    /**
+     * The number of segment files in use
+     *
+     * @return
+     */
+    public synchronized int getSegmentCount() {
+        return segments.size();
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public long getWriteCount() {
+        return writeCount.get();
+    }
+
+    /**
+     * The number of segments that have been compacted to keep the cache within its size
+     *
+     * @return
+     */
+    public long getCompactionCount() {
+        return compactionCount.get();
+    }
+
+    /**
+     * The number of entries dropped when their segment was compacted
+     *
+     * @return
+     */
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    @Override
+    public String toString() {
+        return "DiskCache[directory=" + directory + ", size=" + size() + ", segments=" + getSegmentCount() + ", hits="
+                + hitCount.get() + ", misses=" + missCount.get() + "]";
+    }
+
+    private static byte[] read(ByteBuffer buffer, int position, int length) {
+        byte[] bytes = new byte[length];
+        ByteBuffer view = buffer.duplicate();
+        view.position(position);
+        view.get(bytes);
+        return bytes;
+    }
+
+    private static void write(ByteBuffer buffer, int position, byte[] bytes) {
+        ByteBuffer view = buffer.duplicate();
+        view.position(position);
+        view.put(bytes);
+    }
+
+    private static int checksum(byte[] key, byte[] value) {
+        CRC32 crc = new CRC32();
+        crc.update(key);
+        crc.update(value);
+        return (int) crc.getValue();
+    }
+
+    /**
+     * 64 bit FNV-1a hash of the key
+     */
+    private static Long hash(byte[] key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    private static final class Segment {
+
+        private final int id;
+        private final File file;
+        private final MappedByteBuffer buffer;
+        private int position = 0;
+
+        Segment(int id, File file, MappedByteBuffer buffer) {
+            this.id = id;
+            this.file = file;
+            this.buffer = buffer;
+        }
+    }
+
+    private static final class Location {
+
+        private final int segment;
+        private final int offset;
+        private final int length;
+        private final long expires;
+        // Read since it was written, so worth keeping when the segment is compacted
+        private boolean used = false;
+
+        Location(int segment, int offset, int length, long expires) {
+            this.segment = segment;
+            this.offset = offset;
+            this.length = length;
+            this.expires = expires;
+        }
+    }
+}
@@ -0,0 +1,378 @@
+/*
+ *      Copyright (c) 2004-2015 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import com.omertron.themoviedbapi.MovieDbException;
+import com.omertron.themoviedbapi.MovieDbTimeoutException;
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.yamj.api.common.exception.ApiExceptionType;
+
+/**
+ * Hedging for GET requests, used to cut the tail latency.
+ * <p>
+ * If the first attempt has not responded within the hedge delay, a second attempt is sent and whichever responds first is used. The
+ * other attempt is aborted through its {@link AbortSignal}, closing its connection, and any response it has is closed. The hedge
+ * delay is a percentile of the recent response times, so only the slowest requests are hedged, and the number of hedges is capped
+ * at a fraction of the requests made.
+ * <p>
+ * The attempts run with the {@link RequestContext} of the calling thread, so they keep its priority and deadline.
+ *
+ * @author Stuart
+ */
+public class HedgingPolicy {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HedgingPolicy.class);
+    public static final double DEFAULT_PERCENTILE = 95.0;
+    public static final double DEFAULT_BUDGET = 0.05;
+    public static final long DEFAULT_MIN_DELAY_MS = 50;
+    public static final long DEFAULT_MAX_DELAY_MS = 1000;
+    // The number of response times kept to calculate the percentile
+    private static final int SAMPLE_SIZE = 100;
+    // The maximum delay is used until there are this many response times
+    private static final int MIN_SAMPLES = 20;
+    private final double percentile;
+    private final double budget;
+    private final long minDelayNanos;
+    private final long maxDelayNanos;
+    private final ExecutorService executor;
+    // Response times, guarded by samples
+    private final long[] samples = new long[SAMPLE_SIZE];
+    private int sampleCount = 0;
+    // Metrics
+    private final AtomicLong requestCount = new AtomicLong(0);
+    private final AtomicLong hedgeCount = new AtomicLong(0);
+    private final AtomicLong hedgeWinCount = new AtomicLong(0);
+
+    /**
+     * Create a hedging policy with the default settings
+     */
+    public HedgingPolicy() {
+        this(DEFAULT_PERCENTILE, DEFAULT_BUDGET, DEFAULT_MIN_DELAY_MS, DEFAULT_MAX_DELAY_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Create a hedging policy
+     *
+     * @param percentile The percentile of the response times used for the hedge delay (e.g. 95)
+     * @param budget The maximum number of hedges as a fraction of the requests (e.g. 0.05 for 5%)
+     * @param minDelay The minimum hedge delay
+     * @param maxDelay The maximum hedge delay, also used until enough response times have been recorded
+     * @param unit The unit of the delays
+     */
+    public HedgingPolicy(double percentile, double budget, long minDelay, long maxDelay, TimeUnit unit) {
+        this(percentile, budget, minDelay, maxDelay, unit, Executors.newCachedThreadPool(new HedgeThreadFactory()));
+    }
+
+    /**
+     * Create a hedging policy
+     *
+     * @param percentile The percentile of the response times used for the hedge delay (e.g. 95)
+     * @param budget The maximum number of hedges as a fraction of the requests (e.g. 0.05 for 5%)
+     * @param minDelay The minimum hedge delay
+     * @param maxDelay The maximum hedge delay, also used until enough response times have been recorded
+     * @param unit The unit of the delays
+     * @param executor The executor used to run the attempts
+     */
+    public HedgingPolicy(double percentile, double budget, long minDelay, long maxDelay, TimeUnit unit, ExecutorService executor) {
+        if (percentile <= 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be greater than 0 and no more than 100");
+        }
+        if (budget < 0 || minDelay < 0 || maxDelay < minDelay) {
+            throw new IllegalArgumentException("Invalid budget or delays");
+        }
+        this.percentile = percentile;
+        this.budget = budget;
+        this.minDelayNanos = unit.toNanos(minDelay);
+        this.maxDelayNanos = unit.toNanos(maxDelay);
+        this.executor = executor;
+    }
+
+    /**
+     * Send the request, hedging it if the response is slow
+     *
+     * @param request The first attempt
+     * @param hedgeRequest The hedged attempt
+     * @param url URL for notification purposes
+     * @return The first response received
+     * @throws IOException If all of the attempts failed to connect
+     * @throws MovieDbException If all of the attempts failed, or the deadline of the call passed
+     */
+    public TransportResponse execute(final Callable<TransportResponse> request, final Callable<TransportResponse> hedgeRequest,
+            final URL url) throws IOException, MovieDbException {
+        requestCount.incrementAndGet();
+        long start = System.nanoTime();
+        Race race = new Race();
+        List<Future<?>> attempts = new ArrayList<Future<?>>(2);
+        attempts.add(executor.submit(race.attempt(request, 0)));
+
+        boolean completed = false;
+        try {
+            race.await(attempts.size(), Math.min(getDelay(), RequestContext.getRemaining(TimeUnit.NANOSECONDS)));
+            if (!race.isDecided(attempts.size()) && RequestContext.getRemaining(TimeUnit.NANOSECONDS) > 0 && tryHedge()) {
+                LOG.trace("Hedging request after {}ms: {}", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), url);
+                attempts.add(executor.submit(race.attempt(hedgeRequest, 1)));
+            }
+            race.await(attempts.size(), RequestContext.getRemaining(TimeUnit.NANOSECONDS));
+            if (!race.isDecided(attempts.size())) {
+                throw new MovieDbTimeoutException("Deadline exceeded waiting for response", url, null, true);
+            }
+
+            TransportResponse response = race.getResponse();
+            if (response == null) {
+                throw race.getFailure(url);
+            }
+            recordResponseTime(System.nanoTime() - start);
+            if (race.getWinner() > 0) {
+                hedgeWinCount.incrementAndGet();
+            }
+            completed = true;
+            return response;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new MovieDbException(ApiExceptionType.CONNECTION_ERROR, "Interrupted waiting for response", url, ex);
+        } finally {
+            if (!completed) {
+                race.abandon();
+            }
+            // Abort the losing attempts, the interrupt stops any that are still waiting for a permit
+            int winner = race.getWinner();
+            for (int index = 0; index < attempts.size(); index++) {
+                if (index != winner) {
+                    race.abort(index);
+                    attempts.get(index).cancel(true);
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the current hedge delay
+     *
+     * @return The delay in nanoseconds
+     */
+    public long getDelay() {
+        long[] sorted;
+        synchronized (samples) {
+            if (sampleCount < MIN_SAMPLES) {
+                return maxDelayNanos;
+            }
+            sorted = Arrays.copyOf(samples, Math.min(sampleCount, SAMPLE_SIZE));
+        }
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        long delay = sorted[Math.max(0, index)];
+        return Math.min(maxDelayNanos, Math.max(minDelayNanos, delay));
+    }
+
+    /**
+     * Check the budget and take a hedge from it if there is one available
+     *
+     * @return
+     */
+    private boolean tryHedge() {
+        if (hedgeCount.get() + 1 > requestCount.get() * budget) {
+            return false;
+        }
+        hedgeCount.incrementAndGet();
+        return true;
+    }
+
+    void recordResponseTime(long nanos) {
+        synchronized (samples) {
+            samples[sampleCount % SAMPLE_SIZE] = nanos;
+            sampleCount++;
+        }
+    }
+
+    /**
+     * The number of requests made
+     *
+     * @return
+     */
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * The number of requests that were hedged
+     *
+     * @return
+     */
+    public long getHedgeCount() {
+        return hedgeCount.get();
+    }
+
+    /**
+     * The number of hedged attempts that responded first
+     *
+     * @return
+     */
+    public long getHedgeWinCount() {
+        return hedgeWinCount.get();
+    }
+
+    /**
+     * Stop the threads used for the attempts
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * The attempts of one request; the first response wins and any later response is closed
+     */
+    private static final class Race {
+
+        private final AbortSignal[] signals = {new AbortSignal(), new AbortSignal()};
+        private TransportResponse response = null;
+        private int winner = -1;
+        private int failures = 0;
+        private Exception failure = null;
+        private boolean abandoned = false;
+
+        /**
+         * Create an attempt, only called on the thread making the request so the attempt can use a copy of its context
+         */
+        Runnable attempt(final Callable<TransportResponse> request, final int index) {
+            final RequestContext context = RequestContext.capture();
+            return new Runnable() {
+                @Override
+                public void run() {
+                    RequestContext previousContext = RequestContext.restore(context);
+                    AbortSignal previousSignal = AbortSignal.set(signals[index]);
+                    TransportResponse result;
+                    try {
+                        result = request.call();
+                    } catch (Exception ex) {
+                        failed(ex);
+                        return;
+                    } finally {
+                        AbortSignal.set(previousSignal);
+                        RequestContext.restore(previousContext);
+                    }
+                    if (!won(result, index)) {
+                        closeQuietly(result);
+                    }
+                }
+            };
+        }
+
+        void abort(int index) {
+            signals[index].abort();
+        }
+
+        private synchronized boolean won(TransportResponse result, int index) {
+            if (response != null || abandoned) {
+                return false;
+            }
+            response = result;
+            winner = index;
+            notifyAll();
+            return true;
+        }
+
+        private synchronized void failed(Exception ex) {
+            failures++;
+            if (failure == null) {
+                failure = ex;
+            }
+            notifyAll();
+        }
+
+        synchronized boolean isDecided(int attempts) {
+            return response != null || failures >= attempts;
+        }
+
+        synchronized void await(int attempts, long timeoutNanos) throws InterruptedException {
+            long deadline = System.nanoTime() + timeoutNanos;
+            while (!isDecided(attempts)) {
+                long remaining = timeoutNanos == Long.MAX_VALUE ? Long.MAX_VALUE : deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return;
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            }
+        }
+
+        synchronized TransportResponse getResponse() {
+            return response;
+        }
+
+        synchronized int getWinner() {
+            return winner;
+        }
+
+        synchronized IOException getFailure(URL url) throws MovieDbException {
+            if (failure instanceof IOException) {
+                return (IOException) failure;
+            } else if (failure instanceof MovieDbException) {
+                throw (MovieDbException) failure;
+            }
+            throw new MovieDbException(ApiExceptionType.UNKNOWN_CAUSE, failure == null ? null : failure.getMessage(), url, failure);
+        }
+
+        synchronized void abandon() {
+            abandoned = true;
+            closeQuietly(response);
+            response = null;
+            winner = -1;
+        }
+
+        private static void closeQuietly(TransportResponse result) {
+            if (result == null) {
+                return;
+            }
+            try {
+                result.close();
+            } catch (IOException ex) {
+                LOG.trace("Failed to close hedged response: {}", ex.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Daemon threads so the attempts never stop the JVM from exiting
+     */
+    private static final class HedgeThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger(0);
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "tmdb-hedge-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
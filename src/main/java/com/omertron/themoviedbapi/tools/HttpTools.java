@@ -1,22 +1,35 @@
 package com.omertron.themoviedbapi.tools;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.omertron.themoviedbapi.MovieDbException;
+import com.omertron.themoviedbapi.MovieDbRateLimitException;
+import com.omertron.themoviedbapi.MovieDbTimeoutException;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.net.URISyntaxException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.net.URL;
 import java.nio.charset.Charset;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.math.NumberUtils;
 import org.apache.http.HttpHeaders;
 import org.apache.http.HttpStatus;
 import org.apache.http.client.HttpClient;
-import org.apache.http.client.methods.HttpDelete;
-import org.apache.http.client.methods.HttpGet;
-import org.apache.http.client.methods.HttpPost;
-import org.apache.http.entity.ContentType;
-import org.apache.http.entity.StringEntity;
+import org.apache.http.client.utils.DateUtils;
 import org.apache.http.protocol.HTTP;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.yamj.api.common.exception.ApiExceptionType;
-import org.yamj.api.common.http.DigestedResponse;
-import org.yamj.api.common.http.DigestedResponseReader;
 
 /**
  * HTTP tools to aid in processing web requests
@@ -25,12 +38,327 @@ import org.yamj.api.common.http.DigestedResponseReader;
  */
 public class HttpTools {
 
-    private final HttpClient httpClient;
+    private static final Logger LOG = LoggerFactory.getLogger(HttpTools.class);
+    private final HttpTransport transport;
     private static final Charset CHARSET = Charset.forName("UTF-8");
     private static final String APPLICATION_JSON = "application/json";
+    private static final String ACCEPT_ENCODING = "gzip, deflate";
+    // Maximum amount of the response body to keep for exception messages
+    private static final int MAX_ERROR_CONTENT = 4096;
+    // Jackson JSON configuration
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    // Throttling
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+    private static final int MAX_THROTTLE_RETRIES = 3;
+    private static final long DEFAULT_RETRY_AFTER_MS = 1000;
+    private RateLimiter rateLimiter = new RateLimiter();
+    private RetryPolicy retryPolicy = new RetryPolicy();
+    private ConditionalCache conditionalCache = new ConditionalCache();
+    private final TransferStatistics transferStatistics = new TransferStatistics();
+    private SingleFlight singleFlight = new SingleFlight();
+    private CircuitBreaker circuitBreaker = null;
+    private HedgingPolicy hedgingPolicy = null;
+    private RequestScheduler scheduler = null;
+    private ResponseCache responseCache = null;
+    private DiskCache diskCache = null;
+    private NegativeCache negativeCache = null;
+    private final Map<MethodBase, CircuitBreaker> methodCircuitBreakers = new ConcurrentHashMap<MethodBase, CircuitBreaker>();
 
+    /**
+     * The outcome of a request for the circuit breaker
+     */
+    private enum Outcome {
+
+        /**
+         * The server sent a response, even if it was an error
+         */
+        RESPONDED,
+        /**
+         * The server could not be reached or returned a 503
+         */
+        UNAVAILABLE,
+        /**
+         * The request ended before the server had answered, for example because the deadline passed
+         */
+        ABANDONED
+    }
+
+    /**
+     * Create the tools using an Apache HttpClient for the requests
+     *
+     * @param httpClient
+     */
     public HttpTools(HttpClient httpClient) {
-        this.httpClient = httpClient;
+        this(new ApacheHttpTransport(httpClient));
+    }
+
+    /**
+     * Create the tools using the transport for the requests
+     *
+     * @param transport
+     */
+    public HttpTools(HttpTransport transport) {
+        this.transport = transport;
+    }
+
+    /**
+     * Get the transport used for the requests
+     *
+     * @return
+     */
+    public HttpTransport getTransport() {
+        return transport;
+    }
+
+    /**
+     * Set the rate limiter that all requests pass through.
+     * <p>
+     * The same limiter can be shared between several instances using the same API key. Set to null to disable rate limiting.
+     *
+     * @param rateLimiter
+     * @return
+     */
+    public HttpTools setRateLimiter(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+        return this;
+    }
+
+    /**
+     * Get the rate limiter that all requests pass through
+     *
+     * @return
+     */
+    public RateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    /**
+     * Set the retry policy used for GET requests
+     *
+     * @param retryPolicy
+     * @return
+     */
+    public HttpTools setRetryPolicy(RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy == null ? RetryPolicy.none() : retryPolicy;
+        return this;
+    }
+
+    /**
+     * Get the retry policy used for GET requests
+     *
+     * @return
+     */
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    /**
+     * Set the cache used for conditional (ETag/Last-Modified) requests. Set to null to disable it.
+     *
+     * @param conditionalCache
+     * @return
+     */
+    public HttpTools setConditionalCache(ConditionalCache conditionalCache) {
+        this.conditionalCache = conditionalCache;
+        return this;
+    }
+
+    /**
+     * Get the cache used for conditional (ETag/Last-Modified) requests
+     *
+     * @return
+     */
+    public ConditionalCache getConditionalCache() {
+        return conditionalCache;
+    }
+
+    /**
+     * Set the coalescing of identical GET requests that are in flight at the same time. Set to null to disable it.
+     * <p>
+     * Callers sharing a request receive the same result object.
+     *
+     * @param singleFlight
+     * @return
+     */
+    public HttpTools setSingleFlight(SingleFlight singleFlight) {
+        this.singleFlight = singleFlight;
+        return this;
+    }
+
+    /**
+     * Get the coalescing of identical GET requests
+     *
+     * @return
+     */
+    public SingleFlight getSingleFlight() {
+        return singleFlight;
+    }
+
+    /**
+     * Set the circuit breaker used for all requests that do not have their own breaker. Set to null to disable it.
+     *
+     * @param circuitBreaker
+     * @return
+     */
+    public HttpTools setCircuitBreaker(CircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+        return this;
+    }
+
+    /**
+     * Set the circuit breaker used for the requests to one method. Set to null to use the global breaker.
+     *
+     * @param method
+     * @param circuitBreaker
+     * @return
+     */
+    public HttpTools setCircuitBreaker(MethodBase method, CircuitBreaker circuitBreaker) {
+        if (circuitBreaker == null) {
+            methodCircuitBreakers.remove(method);
+        } else {
+            methodCircuitBreakers.put(method, circuitBreaker);
+        }
+        return this;
+    }
+
+    /**
+     * Get the circuit breaker used for the requests to the method
+     *
+     * @param method The method, can be null
+     * @return The breaker or null if there is none
+     */
+    public CircuitBreaker getCircuitBreaker(MethodBase method) {
+        if (method != null) {
+            CircuitBreaker breaker = methodCircuitBreakers.get(method);
+            if (breaker != null) {
+                return breaker;
+            }
+        }
+        return circuitBreaker;
+    }
+
+    /**
+     * Set the hedging policy used for GET requests. Set to null (the default) to disable hedging.
+     *
+     * @param hedgingPolicy
+     * @return
+     */
+    public HttpTools setHedgingPolicy(HedgingPolicy hedgingPolicy) {
+        this.hedgingPolicy = hedgingPolicy;
+        return this;
+    }
+
+    /**
+     * Get the hedging policy used for GET requests
+     *
+     * @return
+     */
+    public HedgingPolicy getHedgingPolicy() {
+        return hedgingPolicy;
+    }
+
+    /**
+     * Set the scheduler that limits the requests in flight and orders them by priority. Set to null (the default) to disable it.
+     *
+     * @param scheduler
+     * @return
+     */
+    public HttpTools setScheduler(RequestScheduler scheduler) {
+        this.scheduler = scheduler;
+        return this;
+    }
+
+    /**
+     * Get the scheduler that limits the requests in flight
+     *
+     * @return
+     */
+    public RequestScheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * Set the in-memory cache of responses. Set to null (the default) to disable it.
+     *
+     * @param responseCache
+     * @return
+     */
+    public HttpTools setResponseCache(ResponseCache responseCache) {
+        this.responseCache = responseCache;
+        return this;
+    }
+
+    /**
+     * Get the in-memory cache of responses
+     *
+     * @return
+     */
+    public ResponseCache getResponseCache() {
+        return responseCache;
+    }
+
+    /**
+     * Set the persistent cache of response bodies, used when a response is not in the in-memory cache. Set to null (the default) to
+     * disable it.
+     *
+     * @param diskCache
+     * @return
+     */
+    public HttpTools setDiskCache(DiskCache diskCache) {
+        this.diskCache = diskCache;
+        return this;
+    }
+
+    /**
+     * Get the persistent cache of response bodies
+     *
+     * @return
+     */
+    public DiskCache getDiskCache() {
+        return diskCache;
+    }
+
+    /**
+     * Set the cache of IDs that do not exist on TMDb. Set to null (the default) to disable it.
+     *
+     * @param negativeCache
+     * @return
+     */
+    public HttpTools setNegativeCache(NegativeCache negativeCache) {
+        this.negativeCache = negativeCache;
+        return this;
+    }
+
+    /**
+     * Get the cache of IDs that do not exist on TMDb
+     *
+     * @return
+     */
+    public NegativeCache getNegativeCache() {
+        return negativeCache;
+    }
+
+    /**
+     * Get the byte counters for the responses read, per API method
+     *
+     * @return
+     */
+    public TransferStatistics getTransferStatistics() {
+        return transferStatistics;
+    }
+
+    /**
+     * Check to see if the response for the URL is held in the response or disk cache, so getting it does not need a request
+     *
+     * @param url
+     * @return
+     */
+    public boolean isCached(URL url) {
+        String key = ResponseCache.getKey(url);
+        if (responseCache != null && responseCache.isCached(url) && responseCache.contains(key)) {
+            return true;
+        }
+        return diskCache != null && diskCache.isCached(url) && diskCache.contains(key);
     }
 
     /**
@@ -41,17 +369,709 @@ public class HttpTools {
      * @throws MovieDbException
      */
     public String getRequest(final URL url) throws MovieDbException {
+        return getRequest(url, String.class);
+    }
+
+    /**
+     * GET data from the URL and map it directly from the response stream to the required class
+     * <p>
+     * The response body is never held in memory as a whole, only the start of it is kept for the exception message if the mapping
+     * fails. A compressed response is decompressed as it is read.
+     * <p>
+     * Responses held in the response cache are returned without a request. Identical requests that are made at the same time share a
+     * single request to the server. IDs held in the negative cache fail with a 404 without a request.
+     * <p>
+     * If the response cache allows it, an expired response is returned while it is refreshed in the background, or when the request
+     * fails because TMDb is unavailable.
+     * <p>
+     * If the {@link RequestContext} has a deadline, the request fails with a {@link MovieDbTimeoutException} once it has passed.
+     *
+     * @param <T>
+     * @param url URL to use in the request
+     * @param valueType The class to map the response to
+     * @return The mapped object
+     * @throws MovieDbException
+     */
+    public <T> T getRequest(final URL url, final Class<T> valueType) throws MovieDbException {
+        if (negativeCache != null && negativeCache.isMissing(url)) {
+            throw new MovieDbException(ApiExceptionType.HTTP_404_ERROR, "ID not found (cached)", HttpStatus.SC_NOT_FOUND, url);
+        }
+
+        String cacheKey = null;
+        if (responseCache != null && responseCache.isCached(url)) {
+            cacheKey = ResponseCache.getKey(url);
+            Object cached = responseCache.get(cacheKey);
+            if (valueType.isInstance(cached)) {
+                LOG.trace("Using cached response: {}", cacheKey);
+                return valueType.cast(cached);
+            }
+
+            cached = responseCache.getStale(cacheKey);
+            if (valueType.isInstance(cached)) {
+                LOG.trace("Using stale response while it is refreshed: {}", cacheKey);
+                revalidate(url, valueType, cacheKey);
+                return valueType.cast(cached);
+            }
+        }
+
+        try {
+            return share(url, valueType, cacheKey);
+        } catch (MovieDbException ex) {
+            if (cacheKey != null && isUnavailable(ex)) {
+                Object cached = responseCache.getIfError(cacheKey);
+                if (valueType.isInstance(cached)) {
+                    LOG.debug("Using stale response, request failed: {} - {}", cacheKey, ex.getMessage());
+                    return valueType.cast(cached);
+                }
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * GET data from the URL, ignoring any response held in the response or disk cache
+     * <p>
+     * The new response replaces the cached one. Use this to refresh data that must be current, such as the configuration.
+     *
+     * @param <T>
+     * @param url URL to use in the request
+     * @param valueType The class to map the response to
+     * @return The mapped object
+     * @throws MovieDbException
+     */
+    public <T> T refreshRequest(final URL url, final Class<T> valueType) throws MovieDbException {
+        String cacheKey = responseCache != null && responseCache.isCached(url) ? ResponseCache.getKey(url) : null;
+        return load(url, valueType, cacheKey, true);
+    }
+
+    /**
+     * Load the response, sharing the request with any identical requests made at the same time
+     *
+     * @param <T>
+     * @param url URL to use in the request
+     * @param valueType The class to map the response to
+     * @param cacheKey The response cache key, or null if the response is not cached
+     * @return The mapped object
+     * @throws MovieDbException
+     */
+    private <T> T share(final URL url, final Class<T> valueType, final String cacheKey) throws MovieDbException {
+        if (singleFlight == null) {
+            return load(url, valueType, cacheKey, false);
+        }
+
+        return singleFlight.execute(valueType.getName() + " " + url, url, new Callable<T>() {
+            @Override
+            public T call() throws MovieDbException {
+                return load(url, valueType, cacheKey, false);
+            }
+        });
+    }
+
+    /**
+     * Refresh a stale cached response in the background
+     * <p>
+     * The refresh does not inherit the caller's deadline and runs at batch priority, as nobody is waiting for it.
+     *
+     * @param <T>
+     * @param url URL to use in the request
+     * @param valueType The class to map the response to
+     * @param cacheKey The response cache key
+     */
+    private <T> void revalidate(final URL url, final Class<T> valueType, final String cacheKey) {
+        responseCache.revalidate(cacheKey, new Runnable() {
+            @Override
+            public void run() {
+                RequestContext.clear();
+                RequestContext.setPriority(RequestPriority.BATCH);
+                try {
+                    share(url, valueType, cacheKey);
+                } catch (MovieDbException ex) {
+                    LOG.debug("Failed to refresh stale response: {} - {}", cacheKey, ex.getMessage());
+                } finally {
+                    RequestContext.clear();
+                }
+            }
+        });
+    }
+
+    /**
+     * Make the GET request and store the response in the cache
+     *
+     * @param <T>
+     * @param url URL to use in the request
+     * @param valueType The class to map the response to
+     * @param cacheKey The response cache key, or null if the response is not cached
+     * @param refresh True to ignore any body in the disk cache
+     * @return The mapped object
+     * @throws MovieDbException
+     */
+    private <T> T load(final URL url, final Class<T> valueType, final String cacheKey, final boolean refresh) throws MovieDbException {
+        T result;
         try {
-            HttpGet httpGet = new HttpGet(url.toURI());
-            httpGet.addHeader(HttpHeaders.ACCEPT, APPLICATION_JSON);
-            return validateResponse(DigestedResponseReader.requestContent(httpClient, httpGet, CHARSET), url);
-        } catch (URISyntaxException ex) {
-            throw new MovieDbException(ApiExceptionType.CONNECTION_ERROR, null, url, ex);
+            if (diskCache != null && diskCache.isCached(url)) {
+                result = loadDisk(url, valueType, refresh);
+            } else {
+                result = fetch(url, valueType);
+            }
+        } catch (MovieDbException ex) {
+            if (negativeCache != null && ex.getResponseCode() == HttpStatus.SC_NOT_FOUND) {
+                negativeCache.put(url);
+            }
+            throw ex;
+        }
+
+        if (cacheKey != null) {
+            responseCache.put(cacheKey, MethodBase.fromUrl(url), result);
+        }
+        return result;
+    }
+
+    /**
+     * Get the response body from the disk cache, or make the GET request and store the body in the disk cache, then map it
+     *
+     * @param <T>
+     * @param url URL to use in the request
+     * @param valueType The class to map the response to
+     * @param refresh True to ignore any body in the disk cache
+     * @return The mapped object
+     * @throws MovieDbException
+     */
+    private <T> T loadDisk(final URL url, final Class<T> valueType, final boolean refresh) throws MovieDbException {
+        String key = ResponseCache.getKey(url);
+        String body = refresh ? null : diskCache.get(key);
+        if (body != null) {
+            try {
+                LOG.trace("Using disk cached response: {}", key);
+                return map(body, valueType, url);
+            } catch (MovieDbException ex) {
+                LOG.debug("Failed to map disk cached response, removing it: {}", key);
+                diskCache.remove(key);
+            }
+        }
+
+        body = fetch(url, String.class);
+        T result = map(body, valueType, url);
+        diskCache.put(key, MethodBase.fromUrl(url), body);
+        return result;
+    }
+
+    /**
+     * Map a response body to the required class
+     *
+     * @param <T>
+     * @param body The response body
+     * @param valueType The class to map the response to
+     * @param url URL for notification purposes
+     * @return The mapped object
+     * @throws MovieDbException If the body could not be mapped
+     */
+    private static <T> T map(final String body, final Class<T> valueType, final URL url) throws MovieDbException {
+        if (valueType == String.class) {
+            return valueType.cast(body);
+        }
+
+        try {
+            return MAPPER.readValue(body, valueType);
+        } catch (IOException ex) {
+            LOG.warn("Failed to map response to {}: {}", valueType.getSimpleName(), ex.getMessage());
+            throw new MovieDbException(ApiExceptionType.MAPPING_FAILED, StringUtils.left(body, MAX_ERROR_CONTENT), url, ex);
+        }
+    }
+
+    /**
+     * Make the GET request and map the response
+     *
+     * @param <T>
+     * @param url URL to use in the request
+     * @param valueType The class to map the response to
+     * @return The mapped object
+     * @throws MovieDbException
+     */
+    private <T> T fetch(final URL url, final Class<T> valueType) throws MovieDbException {
+        checkDeadline(url);
+        MethodBase method = MethodBase.fromUrl(url);
+        CircuitBreaker breaker = checkCircuitBreaker(method, url);
+        Outcome outcome = Outcome.UNAVAILABLE;
+        boolean scheduled = false;
+        try {
+            scheduled = schedule(url);
+            T result = fetch(url, valueType, method);
+            outcome = Outcome.RESPONDED;
+            return result;
+        } catch (MovieDbException ex) {
+            outcome = getOutcome(ex);
+            throw ex;
+        } finally {
+            if (scheduled) {
+                scheduler.release();
+            }
+            recordCircuitBreaker(breaker, outcome);
+        }
+    }
+
+    /**
+     * Make the GET request, with any retries, and map the response
+     *
+     * @param <T>
+     * @param url URL to use in the request
+     * @param valueType The class to map the response to
+     * @param method The method of the request
+     * @return The mapped object
+     * @throws MovieDbException
+     */
+    private <T> T fetch(final URL url, final Class<T> valueType, final MethodBase method) throws MovieDbException {
+        Map<String, String> headers = new HashMap<String, String>();
+        headers.put(HttpHeaders.ACCEPT, APPLICATION_JSON);
+        headers.put(HttpHeaders.ACCEPT_ENCODING, ACCEPT_ENCODING);
+
+        // Revalidate any cached copy of the response rather than downloading it again
+        String cacheKey = null;
+        ConditionalCache.Entry cached = null;
+        if (conditionalCache != null && conditionalCache.isCached(method)) {
+            cacheKey = url.toString();
+            cached = conditionalCache.get(cacheKey);
+            if (cached != null && valueType.isInstance(cached.getValue())) {
+                if (StringUtils.isNotBlank(cached.getEtag())) {
+                    headers.put(HttpHeaders.IF_NONE_MATCH, cached.getEtag());
+                }
+                if (StringUtils.isNotBlank(cached.getLastModified())) {
+                    headers.put(HttpHeaders.IF_MODIFIED_SINCE, cached.getLastModified());
+                }
+            } else {
+                cached = null;
+            }
+        }
+
+        int throttles = 0;
+        for (int attempt = 1;; attempt++) {
+            acquirePermit(url);
+
+            TransportResponse response = null;
+            try {
+                response = sendGet(url, headers);
+                int statusCode = response.getStatusCode();
+
+                if (statusCode == HTTP_TOO_MANY_REQUESTS) {
+                    long delay = getRetryAfter(response);
+                    throttled(delay);
+                    if (throttles++ < MAX_THROTTLE_RETRIES) {
+                        LOG.debug("Request throttled, retrying in {}ms: {}", delay, url);
+                        // Throttling is handled by the rate limiter and does not use up an attempt
+                        attempt--;
+                        continue;
+                    }
+                    throw new MovieDbRateLimitException(readErrorContent(response), url, delay);
+                } else if (retryPolicy.isRetryable(statusCode) && retryPolicy.canRetry(attempt)) {
+                    LOG.debug("Server error {} on attempt {}: {}", statusCode, attempt, url);
+                    retryDelay(attempt, true, url);
+                    continue;
+                }
+
+                if (statusCode == HttpStatus.SC_NOT_MODIFIED && cached != null) {
+                    LOG.trace("Not modified, using cached response: {}", url);
+                    conditionalCache.recordNotModified();
+                    retryPolicy.recordSuccess(attempt);
+                    return valueType.cast(cached.getValue());
+                }
+                validateStatus(response, url);
+
+                InputStream content = response.getContent();
+                if (content == null) {
+                    throw new MovieDbException(ApiExceptionType.MAPPING_FAILED, "No content returned", statusCode, url);
+                }
+                T result = readContent(response, content, valueType, method, url);
+                retryPolicy.recordSuccess(attempt);
+
+                if (cacheKey != null) {
+                    conditionalCache.put(cacheKey, response.getHeader(HttpHeaders.ETAG),
+                            response.getHeader(HttpHeaders.LAST_MODIFIED), result);
+                }
+                return result;
+            } catch (IOException ex) {
+                if (RequestContext.getRemaining(TimeUnit.NANOSECONDS) <= 0) {
+                    retryPolicy.recordFailure(attempt);
+                    throw new MovieDbTimeoutException("Deadline exceeded", url, ex, true);
+                }
+                if (retryPolicy.canRetry(attempt)) {
+                    LOG.debug("Connection error on attempt {}: {} - {}", attempt, url, ex.getMessage());
+                    retryDelay(attempt, false, url);
+                    continue;
+                }
+                retryPolicy.recordFailure(attempt);
+                throw connectionError(url, ex);
+            } catch (MovieDbException ex) {
+                retryPolicy.recordFailure(attempt);
+                throw ex;
+            } catch (RuntimeException ex) {
+                retryPolicy.recordFailure(attempt);
+                throw new MovieDbException(ApiExceptionType.HTTP_503_ERROR, "Service Unavailable", url, ex);
+            } finally {
+                closeQuietly(response);
+            }
+        }
+    }
+
+    /**
+     * Send the GET request, hedging it if there is a hedging policy
+     *
+     * @param url URL to use in the request
+     * @param headers Request headers
+     * @return The response
+     * @throws IOException
+     * @throws MovieDbException
+     */
+    private TransportResponse sendGet(final URL url, final Map<String, String> headers) throws IOException, MovieDbException {
+        final int timeout = getTimeout(url);
+        if (hedgingPolicy == null) {
+            return transport.get(url, headers, timeout);
+        }
+
+        return hedgingPolicy.execute(new Callable<TransportResponse>() {
+            @Override
+            public TransportResponse call() throws IOException {
+                return transport.get(url, headers, timeout);
+            }
+        }, new Callable<TransportResponse>() {
+            @Override
+            public TransportResponse call() throws IOException, MovieDbException {
+                // The hedged attempt is an extra request so it needs its own permit
+                acquirePermit(url);
+                return transport.get(url, headers, timeout);
+            }
+        }, url);
+    }
+
+    /**
+     * Wait for the scheduler to start the request
+     *
+     * @param url URL of the request
+     * @return True if a slot was acquired and must be released, false if there is no scheduler
+     * @throws MovieDbException If the thread is interrupted or the deadline passes while waiting
+     */
+    private boolean schedule(final URL url) throws MovieDbException {
+        if (scheduler == null) {
+            return false;
+        }
+
+        try {
+            long remaining = RequestContext.getRemaining(TimeUnit.NANOSECONDS);
+            if (!scheduler.tryAcquire(scheduler.getPriority(url), remaining, TimeUnit.NANOSECONDS)) {
+                throw new MovieDbTimeoutException("Deadline exceeded waiting for scheduler", url, null, true);
+            }
+            return true;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new MovieDbException(ApiExceptionType.CONNECTION_ERROR, "Interrupted waiting for scheduler", url, ex);
+        }
+    }
+
+    /**
+     * Check that the circuit breaker for the method allows the request
+     *
+     * @param method The method of the request
+     * @param url URL for notification purposes
+     * @return The circuit breaker, which must be passed to {@link #recordCircuitBreaker}, or null if there is none
+     * @throws MovieDbException If the breaker is open
+     */
+    private CircuitBreaker checkCircuitBreaker(final MethodBase method, final URL url) throws MovieDbException {
+        CircuitBreaker breaker = getCircuitBreaker(method);
+        if (breaker != null && !breaker.allowRequest()) {
+            throw new MovieDbException(ApiExceptionType.HTTP_503_ERROR, "Circuit breaker '" + breaker.getName() + "' is open",
+                    HttpStatus.SC_SERVICE_UNAVAILABLE, url);
+        }
+        return breaker;
+    }
+
+    /**
+     * Record the outcome of a request with the circuit breaker
+     *
+     * @param breaker The breaker, can be null
+     * @param outcome The outcome of the request
+     */
+    private static void recordCircuitBreaker(final CircuitBreaker breaker, final Outcome outcome) {
+        if (breaker == null) {
+            return;
+        }
+
+        switch (outcome) {
+            case RESPONDED:
+                breaker.recordSuccess();
+                break;
+            case UNAVAILABLE:
+                breaker.recordFailure();
+                break;
+            default:
+                breaker.recordAbandoned();
+                break;
+        }
+    }
+
+    /**
+     * Get the outcome of a failed request for the circuit breaker
+     *
+     * @param ex
+     * @return
+     */
+    private static Outcome getOutcome(final MovieDbException ex) {
+        if (ex instanceof MovieDbTimeoutException && ((MovieDbTimeoutException) ex).isDeadlineExceeded()) {
+            // The caller ran out of time, which says nothing about the server
+            return Outcome.ABANDONED;
+        }
+        if (ex.getCause() instanceof InterruptedException) {
+            // Interrupted while queued for the scheduler, rate limiter or a retry
+            return Outcome.ABANDONED;
+        }
+        if (isUnavailable(ex)) {
+            return Outcome.UNAVAILABLE;
+        }
+        return Outcome.RESPONDED;
+    }
+
+    /**
+     * Check to see if the exception shows that the server is unavailable
+     *
+     * @param ex
+     * @return
+     */
+    private static boolean isUnavailable(final MovieDbException ex) {
+        if (ex instanceof MovieDbTimeoutException && ((MovieDbTimeoutException) ex).isDeadlineExceeded()) {
+            // The caller ran out of time, which says nothing about the server
+            return false;
+        }
+        if (ex instanceof MovieDbRateLimitException) {
+            // The server answered, it is only limiting this client
+            return false;
+        }
+        return ex.getExceptionType() == ApiExceptionType.CONNECTION_ERROR || ex.getExceptionType() == ApiExceptionType.HTTP_503_ERROR;
+    }
+
+    /**
+     * Wait before the next attempt of a request
+     *
+     * @param attempt The attempt that has just failed
+     * @param serverError True if the attempt failed with a server error, false for a connection error
+     * @param url URL for notification purposes
+     * @throws MovieDbException If the thread is interrupted while waiting, or the deadline would pass first
+     */
+    private void retryDelay(final int attempt, final boolean serverError, final URL url) throws MovieDbException {
+        long delay = retryPolicy.getDelay(attempt);
+        if (delay >= RequestContext.getRemaining(TimeUnit.MILLISECONDS)) {
+            retryPolicy.recordFailure(attempt);
+            throw new MovieDbTimeoutException("Deadline exceeded before retry", url, null, true);
+        }
+        if (serverError) {
+            retryPolicy.recordServerErrorRetry(delay);
+        } else {
+            retryPolicy.recordConnectionErrorRetry(delay);
+        }
+
+        try {
+            TimeUnit.MILLISECONDS.sleep(delay);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            retryPolicy.recordFailure(attempt);
+            throw new MovieDbException(ApiExceptionType.CONNECTION_ERROR, "Interrupted waiting to retry", url, ex);
+        }
+    }
+
+    /**
+     * Wait for a permit from the rate limiter
+     *
+     * @param url URL for notification purposes
+     * @throws MovieDbException If the thread is interrupted while waiting, or the deadline would pass first
+     */
+    private void acquirePermit(final URL url) throws MovieDbException {
+        if (rateLimiter == null) {
+            return;
+        }
+
+        try {
+            if (!RequestContext.hasDeadline()) {
+                rateLimiter.acquire();
+            } else if (!rateLimiter.tryAcquire(RequestContext.getRemaining(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS)) {
+                throw new MovieDbTimeoutException("Deadline exceeded waiting for rate limiter", url, null, true);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new MovieDbException(ApiExceptionType.CONNECTION_ERROR, "Interrupted waiting for rate limiter", url, ex);
+        }
+    }
+
+    /**
+     * Tell the rate limiter that the server has throttled the requests
+     *
+     * @param delay The time in milliseconds to back off for
+     */
+    private void throttled(final long delay) {
+        if (rateLimiter != null) {
+            rateLimiter.backOff(delay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Check that the deadline of the call has not passed
+     *
+     * @param url URL for notification purposes
+     * @throws MovieDbTimeoutException If the deadline has passed
+     */
+    private static void checkDeadline(final URL url) throws MovieDbTimeoutException {
+        if (RequestContext.getRemaining(TimeUnit.NANOSECONDS) <= 0) {
+            throw new MovieDbTimeoutException("Deadline exceeded", url, null, true);
+        }
+    }
+
+    /**
+     * Get the timeout for the transport from the deadline of the call
+     *
+     * @param url URL for notification purposes
+     * @return The timeout in milliseconds, or zero if there is no deadline
+     * @throws MovieDbTimeoutException If the deadline has passed
+     */
+    private static int getTimeout(final URL url) throws MovieDbTimeoutException {
+        if (!RequestContext.hasDeadline()) {
+            return 0;
+        }
+        checkDeadline(url);
+        // Round up so that a transport timeout always ends after the deadline and is reported as the deadline
+        long remaining = RequestContext.getRemaining(TimeUnit.NANOSECONDS);
+        long timeout = (remaining + TimeUnit.MILLISECONDS.toNanos(1) - 1) / TimeUnit.MILLISECONDS.toNanos(1);
+        return (int) Math.max(1L, Math.min(Integer.MAX_VALUE, timeout));
+    }
+
+    /**
+     * Create the exception for a failed connection
+     *
+     * @param url URL for notification purposes
+     * @param ex The cause of the failure
+     * @return
+     */
+    private static MovieDbException connectionError(final URL url, final IOException ex) {
+        if (ex instanceof InterruptedIOException) {
+            // Connect and read timeouts
+            return new MovieDbTimeoutException(ex.getMessage(), url, ex, false);
+        }
+        return new MovieDbException(ApiExceptionType.CONNECTION_ERROR, null, url, ex);
+    }
+
+    /**
+     * Close the response, releasing the connection
+     *
+     * @param response The response, can be null
+     */
+    private static void closeQuietly(final TransportResponse response) {
+        if (response == null) {
+            return;
+        }
+
+        try {
+            response.close();
         } catch (IOException ex) {
-            throw new MovieDbException(ApiExceptionType.CONNECTION_ERROR, null, url, ex);
-        } catch (RuntimeException ex) {
-            throw new MovieDbException(ApiExceptionType.HTTP_503_ERROR, "Service Unavailable", url, ex);
+            LOG.trace("Failed to close response: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Get the delay from the Retry-After header of a response.
+     * <p>
+     * The header can either be a number of seconds or a HTTP date.
+     *
+     * @param response
+     * @return The delay in milliseconds
+     */
+    static long getRetryAfter(final TransportResponse response) {
+        String value = StringUtils.trimToNull(response.getHeader(HttpHeaders.RETRY_AFTER));
+        if (value == null) {
+            return DEFAULT_RETRY_AFTER_MS;
+        }
+
+        if (NumberUtils.isDigits(value)) {
+            return TimeUnit.SECONDS.toMillis(Long.parseLong(value));
+        }
+
+        Date date = DateUtils.parseDate(value);
+        if (date == null) {
+            return DEFAULT_RETRY_AFTER_MS;
         }
+        return Math.max(0L, date.getTime() - System.currentTimeMillis());
+    }
+
+    /**
+     * Map the content stream to the required class
+     * <p>
+     * If the content is still compressed (the transport has not already decoded it) it is decompressed as it is read
+     *
+     * If the content cannot be read to the end the response is closed before the stream, so the transport can abort the request
+     * rather than download the rest of the body.
+     *
+     * @param <T>
+     * @param response The response
+     * @param content The response stream
+     * @param valueType The class to map the response to
+     * @param method The method of the request, for the transfer statistics
+     * @param url URL for notification purposes
+     * @return The mapped object
+     * @throws IOException If the stream could not be read
+     * @throws MovieDbException If the content could not be mapped
+     */
+    private <T> T readContent(final TransportResponse response, final InputStream content, final Class<T> valueType,
+            final MethodBase method, final URL url) throws IOException, MovieDbException {
+        InputStream source = content;
+        if (RequestContext.hasDeadline()) {
+            source = new DeadlineInputStream(content, RequestContext.getRemaining(TimeUnit.NANOSECONDS), TimeUnit.NANOSECONDS);
+        }
+        CountingInputStream compressed = new CountingInputStream(source);
+        CountingInputStream uncompressed = compressed;
+        InputStream decoded = decode(response, compressed);
+        if (decoded != compressed) {
+            uncompressed = new CountingInputStream(decoded);
+        }
+
+        CapturingInputStream stream = new CapturingInputStream(uncompressed, MAX_ERROR_CONTENT);
+        boolean complete = false;
+        try {
+            T result;
+            if (valueType == String.class) {
+                result = valueType.cast(readString(stream));
+            } else {
+                result = MAPPER.readValue(stream, valueType);
+            }
+            complete = true;
+            return result;
+        } catch (JsonProcessingException ex) {
+            LOG.warn("Failed to map response to {}: {}", valueType.getSimpleName(), ex.getMessage());
+            throw new MovieDbException(ApiExceptionType.MAPPING_FAILED, stream.getCaptured(CHARSET), url, ex);
+        } finally {
+            if (!complete) {
+                closeQuietly(response);
+            }
+            stream.close();
+            transferStatistics.record(method, compressed.getCount(), uncompressed.getCount());
+        }
+    }
+
+    /**
+     * Decode the content stream using the Content-Encoding of the response.
+     * <p>
+     * Transports that have already decoded the content remove the header, so the stream is returned unchanged.
+     *
+     * @param response The response
+     * @param content The response stream
+     * @return The decoded stream
+     * @throws IOException If the compressed stream has an invalid header
+     */
+    private static InputStream decode(final TransportResponse response, final InputStream content) throws IOException {
+        String encoding = StringUtils.trimToNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        if (encoding == null) {
+            return content;
+        }
+
+        String coding = encoding.toLowerCase(Locale.ENGLISH);
+        if ("gzip".equals(coding) || "x-gzip".equals(coding)) {
+            return new GZIPInputStream(content);
+        } else if ("deflate".equals(coding)) {
+            return new InflaterInputStream(content);
+        }
+        return content;
     }
 
     /**
@@ -62,13 +1082,34 @@ public class HttpTools {
      * @throws MovieDbException
      */
     public String deleteRequest(final URL url) throws MovieDbException {
+        Map<String, String> headers = new HashMap<String, String>();
+        headers.put(HttpHeaders.ACCEPT, APPLICATION_JSON);
+
+        CircuitBreaker breaker = checkCircuitBreaker(MethodBase.fromUrl(url), url);
+        Outcome outcome = Outcome.UNAVAILABLE;
+        boolean scheduled = false;
+        TransportResponse response = null;
         try {
-            HttpDelete httpDel = new HttpDelete(url.toURI());
-            return validateResponse(DigestedResponseReader.deleteContent(httpClient, httpDel, CHARSET), url);
-        } catch (URISyntaxException ex) {
-            throw new MovieDbException(ApiExceptionType.CONNECTION_ERROR, null, url, ex);
+            scheduled = schedule(url);
+            acquirePermit(url);
+            response = transport.delete(url, headers, getTimeout(url));
+            String content = validateResponse(response, url);
+            outcome = Outcome.RESPONDED;
+            return content;
         } catch (IOException ex) {
-            throw new MovieDbException(ApiExceptionType.CONNECTION_ERROR, null, url, ex);
+            MovieDbException error = RequestContext.getRemaining(TimeUnit.NANOSECONDS) <= 0
+                    ? new MovieDbTimeoutException("Deadline exceeded", url, ex, true) : connectionError(url, ex);
+            outcome = getOutcome(error);
+            throw error;
+        } catch (MovieDbException ex) {
+            outcome = getOutcome(ex);
+            throw ex;
+        } finally {
+            closeQuietly(response);
+            if (scheduled) {
+                scheduler.release();
+            }
+            recordCircuitBreaker(breaker, outcome);
         }
     }
 
@@ -81,37 +1122,131 @@ public class HttpTools {
      * @throws MovieDbException
      */
     public String postRequest(final URL url, final String jsonBody) throws MovieDbException {
+        Map<String, String> headers = new HashMap<String, String>();
+        headers.put(HTTP.CONTENT_TYPE, APPLICATION_JSON);
+        headers.put(HttpHeaders.ACCEPT, APPLICATION_JSON);
+
+        CircuitBreaker breaker = checkCircuitBreaker(MethodBase.fromUrl(url), url);
+        Outcome outcome = Outcome.UNAVAILABLE;
+        boolean scheduled = false;
+        TransportResponse response = null;
         try {
-            HttpPost httpPost = new HttpPost(url.toURI());
-            httpPost.addHeader(HTTP.CONTENT_TYPE, APPLICATION_JSON);
-            httpPost.addHeader(HttpHeaders.ACCEPT, APPLICATION_JSON);
-            StringEntity params = new StringEntity(jsonBody, ContentType.APPLICATION_JSON);
-            httpPost.setEntity(params);
-
-            return validateResponse(DigestedResponseReader.postContent(httpClient, httpPost, CHARSET), url);
-        } catch (URISyntaxException ex) {
-            throw new MovieDbException(ApiExceptionType.CONNECTION_ERROR, null, url, ex);
+            scheduled = schedule(url);
+            acquirePermit(url);
+            response = transport.post(url, headers, jsonBody, getTimeout(url));
+            String content = validateResponse(response, url);
+            outcome = Outcome.RESPONDED;
+            return content;
         } catch (IOException ex) {
-            throw new MovieDbException(ApiExceptionType.CONNECTION_ERROR, null, url, ex);
+            MovieDbException error = RequestContext.getRemaining(TimeUnit.NANOSECONDS) <= 0
+                    ? new MovieDbTimeoutException("Deadline exceeded", url, ex, true) : connectionError(url, ex);
+            outcome = getOutcome(error);
+            throw error;
+        } catch (MovieDbException ex) {
+            outcome = getOutcome(ex);
+            throw ex;
+        } finally {
+            closeQuietly(response);
+            if (scheduled) {
+                scheduler.release();
+            }
+            recordCircuitBreaker(breaker, outcome);
         }
     }
 
     /**
      * Check the status codes of the response and throw exceptions if needed
      *
-     * @param response DigestedResponse to process
+     * @param response The response to process
      * @param url URL for notification purposes
      * @return String content
+     * @throws IOException If the content could not be read
+     * @throws MovieDbException
+     */
+    private String validateResponse(final TransportResponse response, final URL url) throws IOException, MovieDbException {
+        int statusCode = response.getStatusCode();
+        long retryAfter = 0;
+        if (statusCode == HTTP_TOO_MANY_REQUESTS) {
+            retryAfter = getRetryAfter(response);
+            throttled(retryAfter);
+        }
+
+        InputStream content = response.getContent();
+        String body = content == null ? null : readString(decode(response, content));
+        if (statusCode == HTTP_TOO_MANY_REQUESTS) {
+            throw new MovieDbRateLimitException(body, url, retryAfter);
+        } else if (statusCode >= HttpStatus.SC_INTERNAL_SERVER_ERROR) {
+            throw new MovieDbException(ApiExceptionType.HTTP_503_ERROR, body, statusCode, url, null);
+        } else if (statusCode >= HttpStatus.SC_MULTIPLE_CHOICES) {
+            throw new MovieDbException(ApiExceptionType.HTTP_404_ERROR, body, statusCode, url, null);
+        }
+
+        return body;
+    }
+
+    /**
+     * Read the whole of a stream as a string
+     *
+     * @param stream
+     * @return
+     * @throws IOException
+     */
+    private static String readString(final InputStream stream) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[MAX_ERROR_CONTENT];
+        int read;
+        while ((read = stream.read(buffer)) >= 0) {
+            out.write(buffer, 0, read);
+        }
+        return new String(out.toByteArray(), CHARSET);
+    }
+
+    /**
+     * Check the status code of a streamed response and throw exceptions if needed
+     * <p>
+     * The body is only read (up to a limit) when the status is an error, so it can be included in the exception.
+     *
+     * @param response The response to check
+     * @param url URL for notification purposes
      * @throws MovieDbException
      */
-    private String validateResponse(final DigestedResponse response, final URL url) throws MovieDbException {
-        if (response.getStatusCode() >= HttpStatus.SC_INTERNAL_SERVER_ERROR) {
-            throw new MovieDbException(ApiExceptionType.HTTP_503_ERROR, response.getContent(), response.getStatusCode(), url, null);
-        } else if (response.getStatusCode() >= HttpStatus.SC_MULTIPLE_CHOICES) {
-            throw new MovieDbException(ApiExceptionType.HTTP_404_ERROR, response.getContent(), response.getStatusCode(), url, null);
+    private void validateStatus(final TransportResponse response, final URL url) throws MovieDbException {
+        int statusCode = response.getStatusCode();
+        if (statusCode < HttpStatus.SC_MULTIPLE_CHOICES) {
+            return;
         }
 
-        return response.getContent();
+        String body = readErrorContent(response);
+        if (statusCode >= HttpStatus.SC_INTERNAL_SERVER_ERROR) {
+            throw new MovieDbException(ApiExceptionType.HTTP_503_ERROR, body, statusCode, url, null);
+        }
+        throw new MovieDbException(ApiExceptionType.HTTP_404_ERROR, body, statusCode, url, null);
+    }
+
+    /**
+     * Read the start of an error response for use in the exception message, decoding it if it is compressed
+     *
+     * @param response The response
+     * @return The start of the body, or null if there is no body or it cannot be read
+     */
+    private String readErrorContent(final TransportResponse response) {
+        try {
+            InputStream content = response.getContent();
+            if (content == null) {
+                return null;
+            }
+            InputStream stream = decode(response, content);
+            byte[] buffer = new byte[MAX_ERROR_CONTENT];
+            int total = 0;
+            int read;
+            while (total < buffer.length && (read = stream.read(buffer, total, buffer.length - total)) > 0) {
+                total += read;
+            }
+            return new String(buffer, 0, total, CHARSET);
+        } catch (IOException ex) {
+            LOG.trace("Failed to read error response: {}", ex.getMessage());
+            return null;
+        }
     }
 
 }
@@ -0,0 +1,72 @@
+/*
+ *      Copyright (c) 2004-2015 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import java.io.IOException;
+import java.net.URL;
+import java.util.Map;
+
+/**
+ * The transport used to send the HTTP requests to TMDb.
+ * <p>
+ * Implementations only have to send the request and return the response; status checking, retries, throttling and mapping are all
+ * done by {@link HttpTools}.
+ * <p>
+ * The timeout passed with each request is the time left before the deadline of the call. It should be used to limit the connect
+ * and read timeouts, when it is zero the transport's own timeouts are used.
+ *
+ * @author Stuart
+ */
+public interface HttpTransport {
+
+    /**
+     * Send a GET request
+     *
+     * @param url URL to use in the request
+     * @param headers Request headers
+     * @param timeout Timeout in milliseconds, zero for the default
+     * @return The response, which must be closed by the caller
+     * @throws IOException
+     */
+    TransportResponse get(URL url, Map<String, String> headers, int timeout) throws IOException;
+
+    /**
+     * Send a POST request
+     *
+     * @param url URL to use in the request
+     * @param headers Request headers
+     * @param jsonBody Body to use in the request
+     * @param timeout Timeout in milliseconds, zero for the default
+     * @return The response, which must be closed by the caller
+     * @throws IOException
+     */
+    TransportResponse post(URL url, Map<String, String> headers, String jsonBody, int timeout) throws IOException;
+
+    /**
+     * Send a DELETE request
+     *
+     * @param url URL to use in the request
+     * @param headers Request headers
+     * @param timeout Timeout in milliseconds, zero for the default
+     * @return The response, which must be closed by the caller
+     * @throws IOException
+     */
+    TransportResponse delete(URL url, Map<String, String> headers, int timeout) throws IOException;
+}
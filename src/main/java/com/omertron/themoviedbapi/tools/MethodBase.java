@@ -19,6 +19,7 @@
  */
 package com.omertron.themoviedbapi.tools;
 
+import java.net.URL;
 import java.util.EnumSet;
 import org.apache.commons.lang3.StringUtils;
 
@@ -71,4 +72,29 @@ public enum MethodBase {
         // We've not found the type!
         throw new IllegalArgumentException("Method '" + value + "' not recognised");
     }
+
+    /**
+     * Get the method from an API URL, e.g. "http://api.themoviedb.org/3/movie/78" returns MOVIE
+     *
+     * @param url
+     * @return The method, or null if the URL is not an API URL
+     */
+    public static MethodBase fromUrl(URL url) {
+        if (url == null) {
+            return null;
+        }
+
+        // The path is "/3/<method>/..."
+        String[] segments = StringUtils.split(url.getPath(), '/');
+        if (segments.length < 2) {
+            return null;
+        }
+
+        for (final MethodBase method : EnumSet.allOf(MethodBase.class)) {
+            if (segments[1].equals(method.value)) {
+                return method;
+            }
+        }
+        return null;
+    }
 }
@@ -0,0 +1,251 @@
+/*
+ *      Copyright (c) 2004-2015 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import java.net.URL;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache of the IDs that TMDb has said do not exist (HTTP 404), so looking them up again fails without a request.
+ * <p>
+ * The IDs are held in a map with their expiry time, behind a {@link BloomFilter}. The filter answers "not missing" for almost every
+ * ID that has not been cached without touching the map. As the filter can not remove entries, it is rebuilt from the map when the
+ * expired or removed IDs are purged.
+ * <p>
+ * When the cache is full an arbitrary ID is evicted to make room. The expired IDs are purged at most once per purge interval, so a
+ * full cache does not scan the map and rebuild the filter for every ID added.
+ * <p>
+ * The key is the method and ID of the URL (e.g. "movie/550"), so every sub-resource of a missing ID is treated as missing. Only a
+ * request for the ID itself records it, as a 404 for a sub-resource does not show that the ID is missing.
+ *
+ * @author Stuart
+ */
+public class NegativeCache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 100000;
+    public static final long DEFAULT_TTL_HOURS = 6;
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    private static final long MAX_PURGE_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final Set<MethodBase> METHODS = EnumSet.of(MethodBase.MOVIE, MethodBase.PERSON, MethodBase.COLLECTION,
+            MethodBase.COMPANY, MethodBase.KEYWORD, MethodBase.LIST);
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final long purgeIntervalNanos;
+    private volatile long nextPurge = System.nanoTime();
+    private final ConcurrentMap<String, Long> entries = new ConcurrentHashMap<String, Long>();
+    private final BloomFilter filter;
+    // Metrics
+    private final AtomicLong hitCount = new AtomicLong(0);
+    private final AtomicLong filteredCount = new AtomicLong(0);
+    private final AtomicLong falsePositiveCount = new AtomicLong(0);
+    private final AtomicLong evictionCount = new AtomicLong(0);
+
+    /**
+     * Create a cache with the default size and time to live
+     */
+    public NegativeCache() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_TTL_HOURS, TimeUnit.HOURS);
+    }
+
+    /**
+     * Create a cache
+     *
+     * @param maxEntries The maximum number of missing IDs to hold
+     * @param ttl How long an ID is treated as missing
+     * @param unit The unit of the time to live
+     */
+    public NegativeCache(int maxEntries, long ttl, TimeUnit unit) {
+        if (maxEntries < 1 || ttl <= 0) {
+            throw new IllegalArgumentException("Maximum entries and time to live must be greater than zero");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlNanos = unit.toNanos(ttl);
+        this.purgeIntervalNanos = Math.min(ttlNanos, MAX_PURGE_INTERVAL_NANOS);
+        this.filter = new BloomFilter(maxEntries, FALSE_POSITIVE_RATE);
+    }
+
+    /**
+     * Get the key for the URL
+     *
+     * @param url
+     * @return The key, or null if the URL is not for an ID
+     */
+    private static String getKey(URL url) {
+        MethodBase method = MethodBase.fromUrl(url);
+        if (method == null || !METHODS.contains(method)) {
+            return null;
+        }
+        String id = ApiUrl.getId(url.toString(), method);
+        return id == null ? null : method.getValue() + "/" + id;
+    }
+
+    /**
+     * Check to see if the ID of the URL is known to be missing
+     *
+     * @param url
+     * @return
+     */
+    public boolean isMissing(URL url) {
+        String key = getKey(url);
+        if (key == null || !filter.mightContain(key)) {
+            filteredCount.incrementAndGet();
+            return false;
+        }
+
+        Long expires = entries.get(key);
+        if (expires == null) {
+            falsePositiveCount.incrementAndGet();
+            return false;
+        }
+        if (System.nanoTime() - expires >= 0) {
+            entries.remove(key, expires);
+            return false;
+        }
+        hitCount.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * Record that the ID of the URL is missing
+     * <p>
+     * The URL must be the request for the ID itself (e.g. "movie/550"), a URL for a sub-resource is ignored.
+     *
+     * @param url
+     */
+    public void put(URL url) {
+        String key = getKey(url);
+        if (key == null || !url.getPath().endsWith("/" + key)) {
+            return;
+        }
+
+        if (entries.size() >= maxEntries) {
+            if (System.nanoTime() - nextPurge >= 0) {
+                purge();
+            }
+            evict();
+        }
+        entries.put(key, System.nanoTime() + ttlNanos);
+        filter.put(key);
+    }
+
+    /**
+     * Remove arbitrary IDs until there is room for another one
+     * <p>
+     * The evicted IDs stay in the filter until the next purge, which only costs a map lookup if they are checked.
+     */
+    private void evict() {
+        Iterator<String> iter = entries.keySet().iterator();
+        while (entries.size() >= maxEntries && iter.hasNext()) {
+            iter.next();
+            iter.remove();
+            evictionCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Remove the IDs of the method, e.g. for the movies that have changed
+     *
+     * @param method
+     * @param ids
+     * @return The number of IDs removed
+     */
+    public int removeAll(MethodBase method, Set<String> ids) {
+        int count = 0;
+        for (String id : ids) {
+            if (entries.remove(method.getValue() + "/" + id) != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Remove the expired IDs and rebuild the filter from the IDs left
+     */
+    public synchronized void purge() {
+        long now = System.nanoTime();
+        nextPurge = now + purgeIntervalNanos;
+        for (Iterator<Long> iter = entries.values().iterator(); iter.hasNext();) {
+            if (now - iter.next() >= 0) {
+                iter.remove();
+            }
+        }
+
+        // A lookup between clearing and refilling the filter can miss a cached ID, which only costs a request
+        filter.clear();
+        for (String key : entries.keySet()) {
+            filter.put(key);
+        }
+    }
+
+    /**
+     * Remove all of the IDs
+     */
+    public synchronized void clear() {
+        entries.clear();
+        filter.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * The number of lookups that found a missing ID
+     *
+     * @return
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * The number of lookups answered by the filter alone
+     *
+     * @return
+     */
+    public long getFilteredCount() {
+        return filteredCount.get();
+    }
+
+    /**
+     * The number of lookups the filter passed that were not in the cache
+     *
+     * @return
+     */
+    public long getFalsePositiveCount() {
+        return falsePositiveCount.get();
+    }
+
+    /**
+     * The number of IDs removed to make room for new ones
+     *
+     * @return
+     */
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+}
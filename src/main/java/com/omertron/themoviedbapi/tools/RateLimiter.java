@@ -0,0 +1,164 @@
+/*
+ *      Copyright (c) 2004-2015 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock free token bucket used to keep the requests within the TMDb quota.
+ * <p>
+ * The bucket is held as a single "theoretical arrival time" that is advanced with a compare-and-set for each permit, so any number
+ * of threads (or API instances sharing the limiter) can acquire permits without locking.
+ * <p>
+ * When the server responds with a 429 the limiter can be told to back off, which blocks all callers until the Retry-After time has
+ * passed.
+ *
+ * @author Stuart
+ */
+public class RateLimiter {
+
+    // The TMDb quota is 40 requests every 10 seconds
+    public static final int DEFAULT_REQUESTS = 40;
+    public static final long DEFAULT_PERIOD_SECONDS = 10;
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final AtomicLong arrivalTime;
+    private final AtomicLong throttledCount = new AtomicLong(0);
+    private final AtomicLong waitedNanos = new AtomicLong(0);
+
+    /**
+     * Create a rate limiter using the TMDb default quota
+     */
+    public RateLimiter() {
+        this(DEFAULT_REQUESTS, DEFAULT_PERIOD_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Create a rate limiter that allows the number of requests in the period.
+     * <p>
+     * The full number of requests can be made as a burst.
+     *
+     * @param requests Number of requests allowed in the period
+     * @param period The length of the period
+     * @param unit The unit of the period
+     */
+    public RateLimiter(int requests, long period, TimeUnit unit) {
+        if (requests <= 0 || period <= 0) {
+            throw new IllegalArgumentException("Requests and period must be greater than zero");
+        }
+        this.intervalNanos = Math.max(1L, unit.toNanos(period) / requests);
+        this.burstNanos = intervalNanos * (requests - 1);
+        this.arrivalTime = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * Acquire a permit, waiting if the bucket is empty
+     *
+     * @throws InterruptedException
+     */
+    public void acquire() throws InterruptedException {
+        sleep(reserve(Long.MAX_VALUE));
+    }
+
+    /**
+     * Acquire a permit if it is available within the timeout, waiting for it if needed
+     *
+     * @param timeout The maximum time to wait
+     * @param unit The unit of the timeout
+     * @return True if the permit was acquired, false if it would not be available in time (no permit is used)
+     * @throws InterruptedException
+     */
+    public boolean tryAcquire(long timeout, TimeUnit unit) throws InterruptedException {
+        long wait = reserve(unit.toNanos(timeout));
+        if (wait == Long.MAX_VALUE) {
+            return false;
+        }
+        sleep(wait);
+        return true;
+    }
+
+    private void sleep(long wait) throws InterruptedException {
+        if (wait > 0) {
+            waitedNanos.addAndGet(wait);
+            TimeUnit.NANOSECONDS.sleep(wait);
+        }
+    }
+
+    /**
+     * Reserve the next permit and return how long the caller must wait before using it
+     *
+     * @param maxWait The maximum wait in nanoseconds
+     * @return The wait in nanoseconds, zero or less if the permit is available now, or Long.MAX_VALUE if the wait would be longer
+     * than the maximum (the permit is not reserved)
+     */
+    private long reserve(long maxWait) {
+        while (true) {
+            long now = System.nanoTime();
+            long current = arrivalTime.get();
+            long wait = current - burstNanos - now;
+            if (wait > maxWait) {
+                return Long.MAX_VALUE;
+            }
+            long next = Math.max(current, now) + intervalNanos;
+            if (arrivalTime.compareAndSet(current, next)) {
+                return wait;
+            }
+        }
+    }
+
+    /**
+     * Stop all permits from being issued for the specified time.
+     * <p>
+     * Called when the server has responded with a 429 (Too Many Requests), the delay should be taken from the Retry-After header.
+     *
+     * @param delay The time to wait
+     * @param unit The unit of the delay
+     */
+    public void backOff(long delay, TimeUnit unit) {
+        throttledCount.incrementAndGet();
+        long resume = System.nanoTime() + unit.toNanos(delay) + burstNanos;
+        while (true) {
+            long current = arrivalTime.get();
+            if (current >= resume || arrivalTime.compareAndSet(current, resume)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * The number of times the server has throttled the requests
+     *
+     * @return
+     */
+    public long getThrottledCount() {
+        return throttledCount.get();
+    }
+
+    /**
+     * The total time callers have waited for a permit
+     *
+     * @param unit
+     * @return
+     */
+    public long getWaitedTime(TimeUnit unit) {
+        return unit.convert(waitedNanos.get(), TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ *      Copyright (c) 2004-2015 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Settings for the requests made by the current thread.
+ * <p>
+ * The context is held in a thread local, so it applies to all of the API calls made by the thread until it is cleared. For example:
+ * <pre>
+ * RequestContext.setPriority(RequestPriority.BATCH);
+ * try {
+ *     api.getMovieChangeList(page, startDate, endDate);
+ * } finally {
+ *     RequestContext.clear();
+ * }
+ * </pre>
+ * A deadline set with {@link #setTimeout(long, TimeUnit)} covers all of the time spent in the calls made until it is cleared:
+ * waiting for the scheduler and rate limiter, connecting, reading and mapping the response, and any retries. Once it has passed the
+ * calls fail with a {@link com.omertron.themoviedbapi.MovieDbTimeoutException}.
+ *
+ * @author Stuart
+ */
+public final class RequestContext {
+
+    private static final ThreadLocal<RequestContext> CURRENT = new ThreadLocal<RequestContext>();
+    private RequestPriority priority = null;
+    // Deadline as a System.nanoTime() value, only valid if hasDeadline is true
+    private boolean hasDeadline = false;
+    private long deadline = 0;
+
+    private RequestContext() {
+    }
+
+    private RequestContext(RequestContext source) {
+        this.priority = source.priority;
+        this.hasDeadline = source.hasDeadline;
+        this.deadline = source.deadline;
+    }
+
+    /**
+     * Get the context for the current thread, creating it if needed
+     *
+     * @return
+     */
+    private static RequestContext get() {
+        RequestContext context = CURRENT.get();
+        if (context == null) {
+            context = new RequestContext();
+            CURRENT.set(context);
+        }
+        return context;
+    }
+
+    /**
+     * Set the priority of the requests made by the current thread
+     *
+     * @param priority The priority or null to use the default priority of each request
+     */
+    public static void setPriority(RequestPriority priority) {
+        get().priority = priority;
+    }
+
+    /**
+     * Get the priority of the requests made by the current thread
+     *
+     * @return The priority or null if it has not been set
+     */
+    public static RequestPriority getPriority() {
+        RequestContext context = CURRENT.get();
+        return context == null ? null : context.priority;
+    }
+
+    /**
+     * Set a deadline for the requests made by the current thread
+     *
+     * @param timeout The time from now until the deadline
+     * @param unit The unit of the timeout
+     */
+    public static void setTimeout(long timeout, TimeUnit unit) {
+        RequestContext context = get();
+        context.deadline = System.nanoTime() + unit.toNanos(timeout);
+        context.hasDeadline = true;
+    }
+
+    /**
+     * Remove the deadline for the requests made by the current thread
+     */
+    public static void clearTimeout() {
+        RequestContext context = CURRENT.get();
+        if (context != null) {
+            context.hasDeadline = false;
+        }
+    }
+
+    /**
+     * Check to see if the current thread has a deadline
+     *
+     * @return
+     */
+    public static boolean hasDeadline() {
+        RequestContext context = CURRENT.get();
+        return context != null && context.hasDeadline;
+    }
+
+    /**
+     * Get the time left until the deadline of the current thread
+     *
+     * @param unit
+     * @return The time left, zero or less if the deadline has passed, or Long.MAX_VALUE if there is no deadline
+     */
+    public static long getRemaining(TimeUnit unit) {
+        RequestContext context = CURRENT.get();
+        if (context == null || !context.hasDeadline) {
+            return Long.MAX_VALUE;
+        }
+        return unit.convert(context.deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Clear the context of the current thread
+     */
+    public static void clear() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Take a copy of the context of the current thread so it can be used by another thread
+     *
+     * @return The copy, or null if the current thread has no context
+     */
+    public static RequestContext capture() {
+        RequestContext context = CURRENT.get();
+        return context == null ? null : new RequestContext(context);
+    }
+
+    /**
+     * Use a captured context for the current thread
+     *
+     * @param context The captured context, or null to clear the context
+     * @return The context the thread had before, to be restored afterwards
+     */
+    public static RequestContext restore(RequestContext context) {
+        RequestContext previous = CURRENT.get();
+        if (context == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(context);
+        }
+        return previous;
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ *      Copyright (c) 2004-2015 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import com.omertron.themoviedbapi.MovieDbException;
+import com.omertron.themoviedbapi.MovieDbTimeoutException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.apache.commons.lang3.StringUtils;
+import org.yamj.api.common.exception.ApiExceptionType;
+
+/**
+ * Fuses the requests for the same ID made within a short window into a single request using append_to_response.
+ * <p>
+ * The first caller for an ID opens a batch and waits for the window to pass; any caller for the same ID arriving in that time adds
+ * its appended resources to the batch and waits for it. The first caller then makes one request with all of the appended resources
+ * and every caller gets the same result, from which it takes the part it asked for.
+ * <p>
+ * Some resources (e.g. the cast of a movie) are the same in every language, so can join a batch for any language; the others only
+ * join a batch for the same language and are requested on their own if the batch is for a different one.
+ *
+ * @param <T> The type of the result
+ * @author Stuart
+ */
+public class RequestFusion<T> {
+
+    private final Loader<T> loader;
+    private final long windowNanos;
+    private final Map<String, Batch<T>> open = new HashMap<String, Batch<T>>();
+    private final AtomicLong requestCount = new AtomicLong(0);
+    private final AtomicLong fusedCount = new AtomicLong(0);
+
+    /**
+     * Loads the result for an ID with the appended resources
+     *
+     * @param <T>
+     */
+    public interface Loader<T> {
+
+        /**
+         * Make the request
+         *
+         * @param id
+         * @param language The language of the request, or null for the default
+         * @param appendToResponse The resources to append to the response
+         * @return
+         * @throws MovieDbException
+         */
+        T load(String id, String language, String[] appendToResponse) throws MovieDbException;
+    }
+
+    /**
+     * Create the request fusion
+     *
+     * @param loader The loader used to make the fused requests
+     * @param window How long to wait for other requests for the same ID
+     * @param unit The unit of the window
+     */
+    public RequestFusion(Loader<T> loader, long window, TimeUnit unit) {
+        this.loader = loader;
+        this.windowNanos = unit.toNanos(window);
+    }
+
+    /**
+     * Get the result for the ID, fused with any other requests for the same ID made within the window
+     *
+     * @param id
+     * @param language The language of the request, or null for the default
+     * @param anyLanguage True if the appended resources are the same in every language
+     * @param appendToResponse The resources to append to the response
+     * @return The result, which may have more resources appended than were asked for
+     * @throws MovieDbException
+     */
+    public T execute(String id, String language, boolean anyLanguage, String... appendToResponse) throws MovieDbException {
+        String lang = StringUtils.trimToEmpty(language);
+        Batch<T> batch;
+        boolean leader = false;
+
+        synchronized (open) {
+            batch = open.get(id);
+            if (batch == null) {
+                batch = new Batch<T>();
+                open.put(id, batch);
+                leader = true;
+            } else if (batch.accepts(lang, anyLanguage)) {
+                fusedCount.incrementAndGet();
+            } else {
+                batch = null;
+            }
+
+            if (batch != null) {
+                batch.add(lang, anyLanguage, appendToResponse);
+            }
+        }
+
+        if (batch == null) {
+            // The open batch is for a different language
+            requestCount.incrementAndGet();
+            return loader.load(id, StringUtils.trimToNull(lang), appendToResponse);
+        }
+
+        if (leader) {
+            waitForWindow();
+            synchronized (open) {
+                open.remove(id);
+            }
+            requestCount.incrementAndGet();
+            batch.run(id, loader);
+        }
+        return batch.await(id);
+    }
+
+    /**
+     * Wait for other requests to join the batch, but not past the deadline of the call
+     */
+    private void waitForWindow() {
+        long wait = Math.min(windowNanos, RequestContext.getRemaining(TimeUnit.NANOSECONDS));
+        if (wait <= 0) {
+            return;
+        }
+
+        try {
+            TimeUnit.NANOSECONDS.sleep(wait);
+        } catch (InterruptedException ex) {
+            // Make the request now rather than leave the batch waiting
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * The number of requests that were actually made
+     *
+     * @return
+     */
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * The number of callers that joined a request made by another caller
+     *
+     * @return
+     */
+    public long getFusedCount() {
+        return fusedCount.get();
+    }
+
+    /**
+     * The number of IDs that have a batch waiting for its window to pass
+     *
+     * @return
+     */
+    public int getOpen() {
+        synchronized (open) {
+            return open.size();
+        }
+    }
+
+    /**
+     * The requests fused for an ID
+     */
+    private static final class Batch<T> {
+
+        // The language of the batch, null until a request that needs a language joins
+        private String language = null;
+        private final Set<String> appends = new TreeSet<String>();
+        private final CountDownLatch done = new CountDownLatch(1);
+        private T result = null;
+        private MovieDbException exception = null;
+        private RuntimeException runtimeException = null;
+
+        /**
+         * Can a request join the batch, only called while it is open
+         */
+        boolean accepts(String lang, boolean anyLanguage) {
+            return anyLanguage || language == null || language.equals(lang);
+        }
+
+        /**
+         * Add a request to the batch, only called while it is open
+         */
+        void add(String lang, boolean anyLanguage, String[] appendToResponse) {
+            if (!anyLanguage) {
+                language = lang;
+            }
+            if (appendToResponse != null) {
+                for (String append : appendToResponse) {
+                    // Allow for comma separated lists
+                    for (String value : StringUtils.split(append, ',')) {
+                        if (StringUtils.isNotBlank(value)) {
+                            appends.add(value.trim());
+                        }
+                    }
+                }
+            }
+        }
+
+        void run(String id, Loader<T> loader) {
+            try {
+                result = loader.load(id, StringUtils.trimToNull(language), appends.toArray(new String[appends.size()]));
+            } catch (MovieDbException ex) {
+                exception = ex;
+            } catch (RuntimeException ex) {
+                runtimeException = ex;
+            } finally {
+                done.countDown();
+            }
+        }
+
+        T await(String id) throws MovieDbException {
+            try {
+                long remaining = RequestContext.getRemaining(TimeUnit.NANOSECONDS);
+                if (remaining == Long.MAX_VALUE) {
+                    done.await();
+                } else if (!done.await(remaining, TimeUnit.NANOSECONDS)) {
+                    throw new MovieDbTimeoutException("Deadline exceeded waiting for fused request", id, null, true);
+                }
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new MovieDbException(ApiExceptionType.CONNECTION_ERROR, "Interrupted waiting for fused request", id, ex);
+            }
+
+            if (exception != null) {
+                throw exception;
+            } else if (runtimeException != null) {
+                throw runtimeException;
+            }
+            return result;
+        }
+    }
+}
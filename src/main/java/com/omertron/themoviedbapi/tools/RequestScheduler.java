@@ -0,0 +1,286 @@
+/*
+ *      Copyright (c) 2004-2015 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scheduler that limits the number of requests in flight and decides which waiting request goes next.
+ * <p>
+ * Interactive requests are always taken before waiting batch requests, except that batch requests are guaranteed a minimum share of
+ * the slots so they are never starved.
+ * <p>
+ * The priority of a request is taken from the {@link RequestContext} of the calling thread. If none has been set the request is
+ * batch if it is for a batch method (discover by default) or a change list, and interactive otherwise.
+ *
+ * @author Stuart
+ */
+public class RequestScheduler {
+
+    public static final int DEFAULT_MAX_CONCURRENT = 8;
+    public static final double DEFAULT_BATCH_SHARE = 0.1;
+    private static final String CHANGES = "/changes";
+    private final int maxConcurrent;
+    // The number of interactive requests that can be started in a row while batch requests are waiting
+    private final int interactivePerBatch;
+    private final Set<MethodBase> batchMethods = EnumSet.of(MethodBase.DISCOVER);
+    // State, guarded by this
+    private final Map<RequestPriority, Queue<Waiter>> queues = new EnumMap<RequestPriority, Queue<Waiter>>(RequestPriority.class);
+    private int running = 0;
+    private int interactiveInRow = 0;
+    // Metrics, guarded by this
+    private final Map<RequestPriority, long[]> metrics = new EnumMap<RequestPriority, long[]>(RequestPriority.class);
+    private static final int STARTED = 0;
+    private static final int QUEUED = 1;
+    private static final int WAITED = 2;
+
+    /**
+     * Create a scheduler with the default settings
+     */
+    public RequestScheduler() {
+        this(DEFAULT_MAX_CONCURRENT, DEFAULT_BATCH_SHARE);
+    }
+
+    /**
+     * Create a scheduler
+     *
+     * @param maxConcurrent The maximum number of requests in flight
+     * @param batchShare The minimum share of the requests started that are given to waiting batch requests (e.g. 0.1 for 10%)
+     */
+    public RequestScheduler(int maxConcurrent, double batchShare) {
+        if (maxConcurrent < 1) {
+            throw new IllegalArgumentException("Maximum concurrent requests must be at least 1");
+        }
+        if (batchShare <= 0 || batchShare > 1) {
+            throw new IllegalArgumentException("Batch share must be greater than 0 and no more than 1");
+        }
+        this.maxConcurrent = maxConcurrent;
+        this.interactivePerBatch = (int) Math.max(0, Math.round((1 - batchShare) / batchShare));
+        for (RequestPriority priority : RequestPriority.values()) {
+            queues.put(priority, new ArrayDeque<Waiter>());
+            metrics.put(priority, new long[3]);
+        }
+    }
+
+    /**
+     * Set the methods whose requests are batch by default
+     *
+     * @param methods
+     * @return
+     */
+    public synchronized RequestScheduler setBatchMethods(Set<MethodBase> methods) {
+        batchMethods.clear();
+        batchMethods.addAll(methods);
+        return this;
+    }
+
+    /**
+     * Get the priority of a request to the URL
+     *
+     * @param url
+     * @return
+     */
+    public synchronized RequestPriority getPriority(URL url) {
+        RequestPriority priority = RequestContext.getPriority();
+        if (priority != null) {
+            return priority;
+        }
+
+        MethodBase method = MethodBase.fromUrl(url);
+        if ((method != null && batchMethods.contains(method)) || url.getPath().endsWith(CHANGES)) {
+            return RequestPriority.BATCH;
+        }
+        return RequestPriority.INTERACTIVE;
+    }
+
+    /**
+     * Wait for a slot to make a request.
+     * <p>
+     * Each slot acquired must be given back with {@link #release()}.
+     *
+     * @param priority The priority of the request
+     * @throws InterruptedException
+     */
+    public void acquire(RequestPriority priority) throws InterruptedException {
+        tryAcquire(priority, Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Wait for a slot to make a request, giving up after the timeout.
+     * <p>
+     * Each slot acquired must be given back with {@link #release()}.
+     *
+     * @param priority The priority of the request
+     * @param timeout The maximum time to wait
+     * @param unit The unit of the timeout
+     * @return True if the slot was acquired, false if the timeout passed first
+     * @throws InterruptedException
+     */
+    public synchronized boolean tryAcquire(RequestPriority priority, long timeout, TimeUnit unit) throws InterruptedException {
+        long[] counts = metrics.get(priority);
+        if (running < maxConcurrent && isQueueEmpty()) {
+            start(priority);
+            return true;
+        }
+
+        Waiter waiter = new Waiter();
+        queues.get(priority).add(waiter);
+        counts[QUEUED]++;
+        long queuedAt = System.nanoTime();
+        long timeoutNanos = unit.toNanos(timeout);
+        try {
+            while (!waiter.started) {
+                long remaining = timeoutNanos == Long.MAX_VALUE ? Long.MAX_VALUE : timeoutNanos - (System.nanoTime() - queuedAt);
+                if (remaining <= 0) {
+                    queues.get(priority).remove(waiter);
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            }
+            return true;
+        } catch (InterruptedException ex) {
+            if (waiter.started) {
+                // Started while being interrupted, give the slot to the next request
+                release();
+            } else {
+                queues.get(priority).remove(waiter);
+            }
+            throw ex;
+        } finally {
+            counts[WAITED] += System.nanoTime() - queuedAt;
+        }
+    }
+
+    /**
+     * Give back a slot when the request has finished
+     */
+    public synchronized void release() {
+        running--;
+        dispatch();
+    }
+
+    private boolean isQueueEmpty() {
+        for (Queue<Waiter> queue : queues.values()) {
+            if (!queue.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Start as many waiting requests as there are free slots
+     */
+    private void dispatch() {
+        boolean started = false;
+        while (running < maxConcurrent) {
+            Queue<Waiter> interactive = queues.get(RequestPriority.INTERACTIVE);
+            Queue<Waiter> batch = queues.get(RequestPriority.BATCH);
+            RequestPriority next;
+            if (!batch.isEmpty() && (interactive.isEmpty() || interactiveInRow >= interactivePerBatch)) {
+                next = RequestPriority.BATCH;
+            } else if (!interactive.isEmpty()) {
+                next = RequestPriority.INTERACTIVE;
+            } else {
+                break;
+            }
+
+            queues.get(next).poll().started = true;
+            start(next);
+            started = true;
+        }
+
+        if (started) {
+            notifyAll();
+        }
+    }
+
+    private void start(RequestPriority priority) {
+        running++;
+        metrics.get(priority)[STARTED]++;
+        if (priority == RequestPriority.INTERACTIVE && !queues.get(RequestPriority.BATCH).isEmpty()) {
+            interactiveInRow++;
+        } else {
+            interactiveInRow = 0;
+        }
+    }
+
+    /**
+     * The number of requests started with the priority
+     *
+     * @param priority
+     * @return
+     */
+    public synchronized long getStartedCount(RequestPriority priority) {
+        return metrics.get(priority)[STARTED];
+    }
+
+    /**
+     * The number of requests with the priority that had to wait for a slot
+     *
+     * @param priority
+     * @return
+     */
+    public synchronized long getQueuedCount(RequestPriority priority) {
+        return metrics.get(priority)[QUEUED];
+    }
+
+    /**
+     * The total time requests with the priority have waited for a slot
+     *
+     * @param priority
+     * @param unit
+     * @return
+     */
+    public synchronized long getWaitedTime(RequestPriority priority, TimeUnit unit) {
+        return unit.convert(metrics.get(priority)[WAITED], TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * The number of requests waiting with the priority
+     *
+     * @param priority
+     * @return
+     */
+    public synchronized int getQueueLength(RequestPriority priority) {
+        return queues.get(priority).size();
+    }
+
+    /**
+     * The number of requests in flight
+     *
+     * @return
+     */
+    public synchronized int getRunning() {
+        return running;
+    }
+
+    private static final class Waiter {
+
+        private boolean started = false;
+    }
+}
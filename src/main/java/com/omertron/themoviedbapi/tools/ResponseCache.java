@@ -0,0 +1,496 @@
+/*
+ *      Copyright (c) 2004-2015 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import java.net.URL;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * In-memory cache of parsed responses, with a time to live for each method and least recently used eviction.
+ * <p>
+ * The cache key is the request URL without the api_key parameter, so instances using different API keys share the cached
+ * responses. Methods without a time to live are not cached, by default the account, authentication and list methods, and neither are
+ * the change lists. The cached objects are shared between callers and should not be modified.
+ * <p>
+ * Expired responses can be kept for a grace period:
+ * <ul>
+ * <li>Stale-while-revalidate: the expired response is returned at once and a single background request refreshes it</li>
+ * <li>Stale-if-error: the expired response is returned if the request fails because TMDb is unavailable</li>
+ * </ul>
+ *
+ * @author Stuart
+ */
+public class ResponseCache {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ResponseCache.class);
+    public static final int DEFAULT_MAX_ENTRIES = 1000;
+    private static final String API_KEY = Param.API_KEY.getValue();
+    private static final String CHANGES = "/changes";
+    private final int maxEntries;
+    private final Map<MethodBase, Long> ttls = new EnumMap<MethodBase, Long>(MethodBase.class);
+    private volatile long staleWhileRevalidateNanos = 0;
+    private volatile long staleIfErrorNanos = 0;
+    private ExecutorService executor = null;
+    // Guarded by this
+    private final LinkedHashMap<String, Entry> entries;
+    // Metrics
+    private final AtomicLong hitCount = new AtomicLong(0);
+    private final AtomicLong missCount = new AtomicLong(0);
+    private final AtomicLong evictionCount = new AtomicLong(0);
+    private final AtomicLong expiredCount = new AtomicLong(0);
+    private final AtomicLong staleCount = new AtomicLong(0);
+    private final AtomicLong staleIfErrorCount = new AtomicLong(0);
+    private final AtomicLong revalidationCount = new AtomicLong(0);
+
+    /**
+     * Create a cache with the default size and times to live
+     */
+    public ResponseCache() {
+        this(DEFAULT_MAX_ENTRIES);
+    }
+
+    /**
+     * Create a cache with the default times to live
+     *
+     * @param maxEntries The maximum number of responses to keep, the least recently used is removed first
+     */
+    public ResponseCache(final int maxEntries) {
+        if (maxEntries < 1) {
+            throw new IllegalArgumentException("Maximum entries must be at least 1");
+        }
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, ResponseCache.Entry> eldest) {
+                if (size() > ResponseCache.this.maxEntries) {
+                    evictionCount.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+
+        // Reference data rarely changes
+        setTtl(MethodBase.CONFIGURATION, 1, TimeUnit.DAYS);
+        setTtl(MethodBase.GENRE, 1, TimeUnit.DAYS);
+        setTtl(MethodBase.JOB, 1, TimeUnit.DAYS);
+        // Entities
+        setTtl(MethodBase.MOVIE, 1, TimeUnit.HOURS);
+        setTtl(MethodBase.PERSON, 1, TimeUnit.HOURS);
+        setTtl(MethodBase.COLLECTION, 1, TimeUnit.HOURS);
+        setTtl(MethodBase.COMPANY, 1, TimeUnit.HOURS);
+        setTtl(MethodBase.KEYWORD, 1, TimeUnit.HOURS);
+        // Result lists
+        setTtl(MethodBase.SEARCH, 10, TimeUnit.MINUTES);
+        setTtl(MethodBase.DISCOVER, 10, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Set the time to live of the responses for a method
+     *
+     * @param method
+     * @param ttl The time to live, zero to stop caching the method
+     * @param unit The unit of the time to live
+     * @return
+     */
+    public final synchronized ResponseCache setTtl(MethodBase method, long ttl, TimeUnit unit) {
+        if (ttl > 0) {
+            ttls.put(method, unit.toNanos(ttl));
+        } else {
+            ttls.remove(method);
+        }
+        return this;
+    }
+
+    /**
+     * Get the time to live of the responses for a method
+     *
+     * @param method
+     * @param unit
+     * @return The time to live, zero if the method is not cached
+     */
+    public synchronized long getTtl(MethodBase method, TimeUnit unit) {
+        Long ttl = ttls.get(method);
+        return ttl == null ? 0 : unit.convert(ttl, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Return expired responses for the grace period while they are refreshed in the background
+     *
+     * @param grace How long after expiry a response can be returned, zero to disable
+     * @param unit The unit of the grace period
+     * @return
+     */
+    public ResponseCache setStaleWhileRevalidate(long grace, TimeUnit unit) {
+        this.staleWhileRevalidateNanos = Math.max(0, unit.toNanos(grace));
+        return this;
+    }
+
+    /**
+     * Return expired responses for the grace period if the request fails because TMDb is unavailable
+     *
+     * @param grace How long after expiry a response can be returned, zero to disable
+     * @param unit The unit of the grace period
+     * @return
+     */
+    public ResponseCache setStaleIfError(long grace, TimeUnit unit) {
+        this.staleIfErrorNanos = Math.max(0, unit.toNanos(grace));
+        return this;
+    }
+
+    /**
+     * Set the executor for the background refreshes. By default a small pool of daemon threads is created when first needed.
+     *
+     * @param executor
+     * @return
+     */
+    public synchronized ResponseCache setRevalidationExecutor(ExecutorService executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * Check to see if the response for the URL can be cached
+     *
+     * @param url
+     * @return
+     */
+    public boolean isCached(URL url) {
+        return getTtl(MethodBase.fromUrl(url), TimeUnit.NANOSECONDS) > 0 && !url.getPath().endsWith(CHANGES);
+    }
+
+    /**
+     * Get the cache key for the URL, which is the URL without the api_key parameter
+     *
+     * @param url
+     * @return
+     */
+    public static String getKey(URL url) {
+        String key = url.toString();
+        int start = key.indexOf(API_KEY);
+        if (start <= 0 || (key.charAt(start - 1) != '?' && key.charAt(start - 1) != '&')) {
+            return key;
+        }
+
+        int end = key.indexOf('&', start);
+        if (end < 0) {
+            // Last (or only) parameter, remove the delimiter before it too
+            return key.substring(0, start - 1);
+        }
+        return key.substring(0, start) + key.substring(end + 1);
+    }
+
+    /**
+     * Get the cached response
+     *
+     * @param key
+     * @return The response, or null if it is not cached or has expired
+     */
+    public Object get(String key) {
+        Entry entry = getEntry(key);
+        if (entry != null && entry.isExpired(0)) {
+            entry = null;
+        }
+
+        if (entry == null) {
+            missCount.incrementAndGet();
+            return null;
+        }
+        hitCount.incrementAndGet();
+        return entry.value;
+    }
+
+    /**
+     * Check to see if there is a response for the key that can be used without a request, without counting a hit or miss
+     *
+     * @param key
+     * @return True if there is a response that has not expired, or is within the stale-while-revalidate grace period
+     */
+    public boolean contains(String key) {
+        Entry entry = getEntry(key);
+        return entry != null && !entry.isExpired(staleWhileRevalidateNanos);
+    }
+
+    /**
+     * Get an expired response that is within the stale-while-revalidate grace period
+     *
+     * @param key
+     * @return The response, or null if there is none
+     */
+    public Object getStale(String key) {
+        Entry entry = getEntry(key);
+        if (entry == null || !entry.isExpired(0) || entry.isExpired(staleWhileRevalidateNanos)) {
+            return null;
+        }
+        staleCount.incrementAndGet();
+        return entry.value;
+    }
+
+    /**
+     * Get a response, even if it has expired, that is within the stale-if-error grace period
+     *
+     * @param key
+     * @return The response, or null if there is none
+     */
+    public Object getIfError(String key) {
+        Entry entry = getEntry(key);
+        if (entry == null || entry.isExpired(staleIfErrorNanos)) {
+            return null;
+        }
+        staleIfErrorCount.incrementAndGet();
+        return entry.value;
+    }
+
+    /**
+     * Get the entry, removing it if it is past all of the grace periods
+     */
+    private synchronized Entry getEntry(String key) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.isExpired(Math.max(staleWhileRevalidateNanos, staleIfErrorNanos))) {
+            entries.remove(key);
+            expiredCount.incrementAndGet();
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * Refresh an expired response in the background, unless it is already being refreshed
+     *
+     * @param key
+     * @param refresh The task that requests the response again and stores it in the cache
+     * @return True if the refresh was started
+     */
+    public boolean revalidate(final String key, final Runnable refresh) {
+        final Entry entry = getEntry(key);
+        // The entry may have been refreshed since the stale value was read
+        if (entry == null || !entry.isExpired(0) || !entry.revalidating.compareAndSet(false, true)) {
+            return false;
+        }
+
+        try {
+            getExecutor().execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        refresh.run();
+                    } finally {
+                        // Allow another attempt if the refresh failed to replace the entry
+                        entry.revalidating.set(false);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            LOG.debug("Refresh rejected for {}: {}", key, ex.getMessage());
+            entry.revalidating.set(false);
+            return false;
+        }
+        revalidationCount.incrementAndGet();
+        return true;
+    }
+
+    private synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(2, new RevalidateThreadFactory());
+        }
+        return executor;
+    }
+
+    /**
+     * Store a response with the time to live of its method
+     *
+     * @param key
+     * @param method The method of the request
+     * @param value The parsed response
+     */
+    public void put(String key, MethodBase method, Object value) {
+        long ttl = getTtl(method, TimeUnit.NANOSECONDS);
+        if (ttl <= 0 || value == null) {
+            return;
+        }
+
+        Entry entry = new Entry(value, System.nanoTime() + ttl);
+        synchronized (this) {
+            entries.put(key, entry);
+        }
+    }
+
+    /**
+     * Remove the cached response for the key
+     *
+     * @param key
+     */
+    public synchronized void remove(String key) {
+        entries.remove(key);
+    }
+
+    /**
+     * Remove all of the cached responses whose key starts with the prefix
+     *
+     * @param prefix
+     * @return The number of responses removed
+     */
+    public synchronized int removeAll(String prefix) {
+        int count = 0;
+        for (Iterator<String> iter = entries.keySet().iterator(); iter.hasNext();) {
+            if (iter.next().startsWith(prefix)) {
+                iter.remove();
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Remove all of the cached responses for the IDs of the method, e.g. all of the responses for the movies that have changed
+     *
+     * @param method The method of the responses
+     * @param ids The IDs to remove
+     * @return The number of responses removed
+     */
+    public synchronized int removeAll(MethodBase method, Set<String> ids) {
+        int count = 0;
+        for (Iterator<String> iter = entries.keySet().iterator(); iter.hasNext();) {
+            String id = ApiUrl.getId(iter.next(), method);
+            if (id != null && ids.contains(id)) {
+                iter.remove();
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Remove all of the cached responses
+     */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * The number of responses removed to keep the cache within its size
+     *
+     * @return
+     */
+    public long getEvictionCount() {
+        return evictionCount.get();
+    }
+
+    /**
+     * The number of responses removed because their time to live (and grace periods) had passed
+     *
+     * @return
+     */
+    public long getExpiredCount() {
+        return expiredCount.get();
+    }
+
+    /**
+     * The number of expired responses returned while they were refreshed
+     *
+     * @return
+     */
+    public long getStaleCount() {
+        return staleCount.get();
+    }
+
+    /**
+     * The number of expired responses returned because TMDb was unavailable
+     *
+     * @return
+     */
+    public long getStaleIfErrorCount() {
+        return staleIfErrorCount.get();
+    }
+
+    /**
+     * The number of background refreshes started
+     *
+     * @return
+     */
+    public long getRevalidationCount() {
+        return revalidationCount.get();
+    }
+
+    @Override
+    public String toString() {
+        return "ResponseCache[size=" + size() + ", hits=" + hitCount.get() + ", misses=" + missCount.get() + ", evictions="
+                + evictionCount.get() + ", expired=" + expiredCount.get() + "]";
+    }
+
+    private static final class Entry {
+
+        private final Object value;
+        private final long expires;
+        private final AtomicBoolean revalidating = new AtomicBoolean(false);
+
+        Entry(Object value, long expires) {
+            this.value = value;
+            this.expires = expires;
+        }
+
+        /**
+         * Check to see if the entry expired more than the grace period ago
+         */
+        boolean isExpired(long grace) {
+            return System.nanoTime() - expires - grace >= 0;
+        }
+    }
+
+    private static final class RevalidateThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger(0);
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "tmdb-revalidate-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
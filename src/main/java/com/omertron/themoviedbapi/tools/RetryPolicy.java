@@ -0,0 +1,215 @@
+/*
+ *      Copyright (c) 2004-2015 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+import org.apache.http.HttpStatus;
+
+/**
+ * Retry policy for idempotent (GET) requests that fail with a server error or a connection error.
+ * <p>
+ * The delay between attempts uses exponential backoff with "full jitter": a random time between zero and the exponential delay,
+ * capped at the maximum delay.
+ * <p>
+ * The policy also records how many attempts each request needed so that the settings can be tuned.
+ *
+ * @author Stuart
+ */
+public class RetryPolicy {
+
+    public static final int DEFAULT_MAX_ATTEMPTS = 3;
+    public static final long DEFAULT_BASE_DELAY_MS = 250;
+    public static final long DEFAULT_MAX_DELAY_MS = 5000;
+    // Attempt counts above this are recorded in the last slot
+    private static final int MAX_TRACKED_ATTEMPTS = 10;
+    private final int maxAttempts;
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+    // Metrics
+    private final AtomicLong successCount = new AtomicLong(0);
+    private final AtomicLong failureCount = new AtomicLong(0);
+    private final AtomicLong serverErrorRetries = new AtomicLong(0);
+    private final AtomicLong connectionErrorRetries = new AtomicLong(0);
+    private final AtomicLong retryDelayMs = new AtomicLong(0);
+    private final AtomicLongArray attemptCounts = new AtomicLongArray(MAX_TRACKED_ATTEMPTS + 1);
+
+    /**
+     * Create a retry policy with the default settings
+     */
+    public RetryPolicy() {
+        this(DEFAULT_MAX_ATTEMPTS, DEFAULT_BASE_DELAY_MS, DEFAULT_MAX_DELAY_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Create a retry policy
+     *
+     * @param maxAttempts The maximum number of attempts, including the first one
+     * @param baseDelay The delay used for the first retry
+     * @param maxDelay The maximum delay between attempts
+     * @param unit The unit of the delays
+     */
+    public RetryPolicy(int maxAttempts, long baseDelay, long maxDelay, TimeUnit unit) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("Maximum attempts must be at least 1");
+        }
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMs = unit.toMillis(baseDelay);
+        this.maxDelayMs = unit.toMillis(maxDelay);
+    }
+
+    /**
+     * Create a policy that never retries
+     *
+     * @return
+     */
+    public static RetryPolicy none() {
+        return new RetryPolicy(1, 0, 0, TimeUnit.MILLISECONDS);
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    /**
+     * Check to see if the status code is one that can be retried
+     *
+     * @param statusCode
+     * @return
+     */
+    public boolean isRetryable(int statusCode) {
+        return statusCode >= HttpStatus.SC_INTERNAL_SERVER_ERROR;
+    }
+
+    /**
+     * Check to see if there are any attempts left after the current attempt
+     *
+     * @param attempt The attempt that has just failed (starting at 1)
+     * @return
+     */
+    public boolean canRetry(int attempt) {
+        return attempt < maxAttempts;
+    }
+
+    /**
+     * Calculate the delay before the next attempt
+     *
+     * @param attempt The attempt that has just failed (starting at 1)
+     * @return The delay in milliseconds
+     */
+    public long getDelay(int attempt) {
+        long ceiling = baseDelayMs << Math.min(attempt - 1, 30);
+        if (ceiling <= 0 || ceiling > maxDelayMs) {
+            ceiling = maxDelayMs;
+        }
+        if (ceiling <= 0) {
+            return 0;
+        }
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+
+    /**
+     * Record a retry after a server error
+     *
+     * @param delay The delay before the retry in milliseconds
+     */
+    public void recordServerErrorRetry(long delay) {
+        serverErrorRetries.incrementAndGet();
+        retryDelayMs.addAndGet(delay);
+    }
+
+    /**
+     * Record a retry after a connection error
+     *
+     * @param delay The delay before the retry in milliseconds
+     */
+    public void recordConnectionErrorRetry(long delay) {
+        connectionErrorRetries.incrementAndGet();
+        retryDelayMs.addAndGet(delay);
+    }
+
+    /**
+     * Record a request that succeeded
+     *
+     * @param attempts The number of attempts the request took
+     */
+    public void recordSuccess(int attempts) {
+        successCount.incrementAndGet();
+        attemptCounts.incrementAndGet(Math.min(attempts, MAX_TRACKED_ATTEMPTS));
+    }
+
+    /**
+     * Record a request that failed after all of its attempts
+     *
+     * @param attempts The number of attempts the request took
+     */
+    public void recordFailure(int attempts) {
+        failureCount.incrementAndGet();
+        attemptCounts.incrementAndGet(Math.min(attempts, MAX_TRACKED_ATTEMPTS));
+    }
+
+    public long getSuccessCount() {
+        return successCount.get();
+    }
+
+    public long getFailureCount() {
+        return failureCount.get();
+    }
+
+    public long getServerErrorRetries() {
+        return serverErrorRetries.get();
+    }
+
+    public long getConnectionErrorRetries() {
+        return connectionErrorRetries.get();
+    }
+
+    /**
+     * The total time spent waiting between attempts
+     *
+     * @param unit
+     * @return
+     */
+    public long getRetryDelay(TimeUnit unit) {
+        return unit.convert(retryDelayMs.get(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Get the number of requests that completed (successfully or not) after the number of attempts
+     *
+     * @param attempts
+     * @return
+     */
+    public long getAttemptCount(int attempts) {
+        if (attempts < 1) {
+            return 0;
+        }
+        return attemptCounts.get(Math.min(attempts, MAX_TRACKED_ATTEMPTS));
+    }
+
+    @Override
+    public String toString() {
+        return ToStringBuilder.reflectionToString(this, ToStringStyle.SHORT_PREFIX_STYLE);
+    }
+}
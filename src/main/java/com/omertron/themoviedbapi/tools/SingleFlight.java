@@ -0,0 +1,166 @@
+/*
+ *      Copyright (c) 2004-2015 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import com.omertron.themoviedbapi.MovieDbException;
+import com.omertron.themoviedbapi.MovieDbTimeoutException;
+import java.net.URL;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import org.yamj.api.common.exception.ApiExceptionType;
+
+/**
+ * Coalesces identical requests that are in flight at the same time.
+ * <p>
+ * The first caller for a key runs the request on its own thread; any caller arriving with the same key before it completes waits
+ * for, and shares, that result (or exception) rather than making its own request. Once the request completes the key is released,
+ * so later callers make a new request.
+ * <p>
+ * The request runs under the deadline of the caller that started it, and each caller waits only until its own deadline. If the
+ * shared request fails because the deadline of the first caller passed, a caller that still has time makes the request again.
+ *
+ * @author Stuart
+ */
+public class SingleFlight {
+
+    private final ConcurrentMap<String, FutureTask<Object>> inFlight = new ConcurrentHashMap<String, FutureTask<Object>>();
+    private final AtomicLong requestCount = new AtomicLong(0);
+    private final AtomicLong sharedCount = new AtomicLong(0);
+    private final AtomicLong reissuedCount = new AtomicLong(0);
+
+    /**
+     * Run the request, or wait for the identical request that is already running
+     *
+     * @param <T>
+     * @param key The key identifying the request
+     * @param url URL for notification purposes
+     * @param request The request to run if there is none in flight
+     * @return The result of the request
+     * @throws MovieDbException
+     */
+    public <T> T execute(final String key, final URL url, final Callable<T> request) throws MovieDbException {
+        return execute(key, url.toExternalForm(), request);
+    }
+
+    /**
+     * Run the request, or wait for the identical request that is already running
+     *
+     * @param <T>
+     * @param key The key identifying the request
+     * @param url URL or description of the request for notification purposes
+     * @param request The request to run if there is none in flight
+     * @return The result of the request
+     * @throws MovieDbException
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(final String key, final String url, final Callable<T> request) throws MovieDbException {
+        for (;;) {
+            FutureTask<Object> task = new FutureTask<Object>((Callable<Object>) request);
+            FutureTask<Object> existing = inFlight.putIfAbsent(key, task);
+
+            if (existing == null) {
+                requestCount.incrementAndGet();
+                try {
+                    task.run();
+                } finally {
+                    inFlight.remove(key, task);
+                }
+            } else {
+                sharedCount.incrementAndGet();
+                task = existing;
+            }
+
+            try {
+                long remaining = RequestContext.getRemaining(TimeUnit.NANOSECONDS);
+                if (remaining == Long.MAX_VALUE) {
+                    return (T) task.get();
+                }
+                return (T) task.get(remaining, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException ex) {
+                throw new MovieDbTimeoutException("Deadline exceeded waiting for shared request", url, ex, true);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new MovieDbException(ApiExceptionType.CONNECTION_ERROR, "Interrupted waiting for shared request", url, ex);
+            } catch (ExecutionException ex) {
+                Throwable cause = ex.getCause();
+                if (existing != null && isDeadlineExceeded(cause) && RequestContext.getRemaining(TimeUnit.NANOSECONDS) > 0) {
+                    // The deadline of the caller that made the request has passed, but this caller still has time
+                    inFlight.remove(key, task);
+                    reissuedCount.incrementAndGet();
+                    continue;
+                }
+                if (cause instanceof MovieDbException) {
+                    throw (MovieDbException) cause;
+                } else if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                } else if (cause instanceof Error) {
+                    throw (Error) cause;
+                }
+                throw new MovieDbException(ApiExceptionType.UNKNOWN_CAUSE, cause.getMessage(), url, cause);
+            }
+        }
+    }
+
+    private static boolean isDeadlineExceeded(final Throwable cause) {
+        return cause instanceof MovieDbTimeoutException && ((MovieDbTimeoutException) cause).isDeadlineExceeded();
+    }
+
+    /**
+     * The number of requests that were actually made
+     *
+     * @return
+     */
+    public long getRequestCount() {
+        return requestCount.get();
+    }
+
+    /**
+     * The number of callers that shared a request made by another caller
+     *
+     * @return
+     */
+    public long getSharedCount() {
+        return sharedCount.get();
+    }
+
+    /**
+     * The number of callers that made the request again because the shared request ran out of the time of its caller
+     *
+     * @return
+     */
+    public long getReissuedCount() {
+        return reissuedCount.get();
+    }
+
+    /**
+     * The number of requests currently in flight
+     *
+     * @return
+     */
+    public int getInFlight() {
+        return inFlight.size();
+    }
+}
@@ -41,6 +41,15 @@ public class TmdbParameters {
     public TmdbParameters() {
     }
 
+    /**
+     * Construct a copy of the parameters
+     *
+     * @param other The parameters to copy
+     */
+    public TmdbParameters(TmdbParameters other) {
+        parameters.putAll(other.parameters);
+    }
+
     /**
      * Get the entry set of the parameters
      *
@@ -54,10 +63,12 @@ public class TmdbParameters {
      * Add a parameter to the collection
      *
      * @param key Parameter to add
-     * @param value The array value to use (will be converted into a comma separated list)
+     * @param value The array value to use (will be converted into a comma separated list, ignored if empty)
      */
     public void add(Param key, String[] value) {
-        parameters.put(key, toList(value));
+        if (value != null && value.length > 0) {
+            parameters.put(key, toList(value));
+        }
     }
 
     /**
@@ -0,0 +1,116 @@
+/*
+ *      Copyright (c) 2004-2015 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Byte counters for the responses read, per API method.
+ * <p>
+ * The compressed count is the number of bytes received from the HTTP client and the uncompressed count is the number of bytes passed
+ * to the JSON parser. The {@link ApacheHttpTransport} turns off the automatic decompression of the client for each request so the
+ * compressed size can be counted. If a transport decodes the content itself (including an Apache client whose configuration is not
+ * {@link org.apache.http.client.methods.Configurable}) both counts are the uncompressed size.
+ *
+ * @author Stuart
+ */
+public class TransferStatistics {
+
+    private final Map<MethodBase, AtomicLong[]> counters = new EnumMap<MethodBase, AtomicLong[]>(MethodBase.class);
+    private static final int RESPONSES = 0;
+    private static final int COMPRESSED = 1;
+    private static final int UNCOMPRESSED = 2;
+
+    public TransferStatistics() {
+        for (MethodBase method : MethodBase.values()) {
+            counters.put(method, new AtomicLong[]{new AtomicLong(0), new AtomicLong(0), new AtomicLong(0)});
+        }
+    }
+
+    /**
+     * Record a response that has been read
+     *
+     * @param method The method of the request, ignored if null
+     * @param compressed The number of bytes received
+     * @param uncompressed The number of bytes after decompression
+     */
+    public void record(MethodBase method, long compressed, long uncompressed) {
+        if (method == null) {
+            return;
+        }
+
+        AtomicLong[] counter = counters.get(method);
+        counter[RESPONSES].incrementAndGet();
+        counter[COMPRESSED].addAndGet(compressed);
+        counter[UNCOMPRESSED].addAndGet(uncompressed);
+    }
+
+    /**
+     * Get the number of responses read for the method
+     *
+     * @param method
+     * @return
+     */
+    public long getResponses(MethodBase method) {
+        return counters.get(method)[RESPONSES].get();
+    }
+
+    /**
+     * Get the number of bytes received for the method
+     *
+     * @param method
+     * @return
+     */
+    public long getCompressedBytes(MethodBase method) {
+        return counters.get(method)[COMPRESSED].get();
+    }
+
+    /**
+     * Get the number of bytes after decompression for the method
+     *
+     * @param method
+     * @return
+     */
+    public long getUncompressedBytes(MethodBase method) {
+        return counters.get(method)[UNCOMPRESSED].get();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("TransferStatistics[");
+        boolean first = true;
+        for (Map.Entry<MethodBase, AtomicLong[]> entry : counters.entrySet()) {
+            if (entry.getValue()[RESPONSES].get() == 0) {
+                continue;
+            }
+            if (!first) {
+                sb.append(", ");
+            }
+            first = false;
+            sb.append(entry.getKey()).append("=")
+                    .append(entry.getValue()[RESPONSES].get()).append("/")
+                    .append(entry.getValue()[COMPRESSED].get()).append("/")
+                    .append(entry.getValue()[UNCOMPRESSED].get());
+        }
+        return sb.append("]").toString();
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ *      Copyright (c) 2004-2015 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A response returned by a {@link HttpTransport}.
+ * <p>
+ * The response must be closed once it has been read so the connection can be reused.
+ *
+ * @author Stuart
+ */
+public interface TransportResponse extends Closeable {
+
+    /**
+     * Get the HTTP status code
+     *
+     * @return
+     */
+    int getStatusCode();
+
+    /**
+     * Get the value of a response header
+     *
+     * @param name
+     * @return The value or null if the header is not present
+     */
+    String getHeader(String name);
+
+    /**
+     * Get the body of the response as it was received
+     *
+     * @return The body stream or null if there is no body
+     * @throws IOException
+     */
+    InputStream getContent() throws IOException;
+}
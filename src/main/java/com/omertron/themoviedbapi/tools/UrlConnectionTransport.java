@@ -0,0 +1,172 @@
+/*
+ *      Copyright (c) 2004-2015 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transport using the JDK HttpURLConnection.
+ * <p>
+ * Connections are kept alive and reused by the JDK (see the "http.maxConnections" system property), so there is no connection pool
+ * to size.
+ *
+ * @author Stuart
+ */
+public class UrlConnectionTransport implements HttpTransport {
+
+    private static final Charset CHARSET = Charset.forName("UTF-8");
+    private static final String CONTENT_TYPE = "Content-Type";
+    private static final String APPLICATION_JSON = "application/json; charset=UTF-8";
+    private static final long DEFAULT_TIMEOUT_SECONDS = 30;
+    private final int connectTimeout;
+    private final int readTimeout;
+
+    /**
+     * Create a transport with the default timeouts
+     */
+    public UrlConnectionTransport() {
+        this(DEFAULT_TIMEOUT_SECONDS, DEFAULT_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Create a transport
+     *
+     * @param connectTimeout Timeout for establishing the connection
+     * @param readTimeout Timeout for reading from the connection
+     * @param unit The unit of the timeouts
+     */
+    public UrlConnectionTransport(long connectTimeout, long readTimeout, TimeUnit unit) {
+        this.connectTimeout = (int) Math.min(Integer.MAX_VALUE, unit.toMillis(connectTimeout));
+        this.readTimeout = (int) Math.min(Integer.MAX_VALUE, unit.toMillis(readTimeout));
+    }
+
+    @Override
+    public TransportResponse get(URL url, Map<String, String> headers, int timeout) throws IOException {
+        return execute(open(url, "GET", headers, timeout));
+    }
+
+    @Override
+    public TransportResponse post(URL url, Map<String, String> headers, String jsonBody, int timeout) throws IOException {
+        HttpURLConnection connection = open(url, "POST", headers, timeout);
+        if (connection.getRequestProperty(CONTENT_TYPE) == null) {
+            // Otherwise the JDK sends the body as a form
+            connection.setRequestProperty(CONTENT_TYPE, APPLICATION_JSON);
+        }
+        connection.setDoOutput(true);
+        byte[] body = jsonBody.getBytes(CHARSET);
+        connection.setFixedLengthStreamingMode(body.length);
+        OutputStream out = connection.getOutputStream();
+        try {
+            out.write(body);
+        } finally {
+            out.close();
+        }
+        return execute(connection);
+    }
+
+    @Override
+    public TransportResponse delete(URL url, Map<String, String> headers, int timeout) throws IOException {
+        return execute(open(url, "DELETE", headers, timeout));
+    }
+
+    private HttpURLConnection open(URL url, String method, Map<String, String> headers, int timeout) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod(method);
+        connection.setConnectTimeout(limit(connectTimeout, timeout));
+        connection.setReadTimeout(limit(readTimeout, timeout));
+        connection.setUseCaches(false);
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            connection.setRequestProperty(header.getKey(), header.getValue());
+        }
+        return connection;
+    }
+
+    private static int limit(int configured, int timeout) {
+        if (timeout <= 0) {
+            return configured;
+        }
+        return configured <= 0 ? timeout : Math.min(configured, timeout);
+    }
+
+    private static TransportResponse execute(final HttpURLConnection connection) throws IOException {
+        AbortSignal signal = AbortSignal.current();
+        if (signal != null) {
+            signal.onAbort(new Runnable() {
+                @Override
+                public void run() {
+                    connection.disconnect();
+                }
+            });
+        }
+        // Reading the status code sends the request
+        int statusCode = connection.getResponseCode();
+        return new UrlConnectionResponse(connection, statusCode);
+    }
+
+    /**
+     * Response read from the connection, closing it returns the connection to the keep-alive cache
+     */
+    private static final class UrlConnectionResponse implements TransportResponse {
+
+        private final HttpURLConnection connection;
+        private final int statusCode;
+        private InputStream content;
+
+        UrlConnectionResponse(HttpURLConnection connection, int statusCode) {
+            this.connection = connection;
+            this.statusCode = statusCode;
+        }
+
+        @Override
+        public int getStatusCode() {
+            return statusCode;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return connection.getHeaderField(name);
+        }
+
+        @Override
+        public InputStream getContent() throws IOException {
+            if (content == null) {
+                // Error responses are only available through the error stream
+                content = statusCode >= HttpURLConnection.HTTP_BAD_REQUEST ? connection.getErrorStream() : connection.getInputStream();
+            }
+            return content;
+        }
+
+        @Override
+        public void close() throws IOException {
+            // Closing the stream skips any unread content and returns the connection to the keep-alive cache
+            InputStream stream = getContent();
+            if (stream != null) {
+                stream.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,226 @@
+/*
+ *      Copyright (c) 2004-2015 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi;
+
+import com.omertron.themoviedbapi.model.Artwork;
+import com.omertron.themoviedbapi.model.Keyword;
+import com.omertron.themoviedbapi.model.MovieDb;
+import com.omertron.themoviedbapi.model.Person;
+import com.omertron.themoviedbapi.results.TmdbResultsList;
+import com.omertron.themoviedbapi.tools.ApiUrl;
+import com.omertron.themoviedbapi.tools.HttpTools;
+import com.omertron.themoviedbapi.tools.MethodBase;
+import com.omertron.themoviedbapi.tools.MethodSub;
+import com.omertron.themoviedbapi.tools.Param;
+import com.omertron.themoviedbapi.tools.NegativeCache;
+import com.omertron.themoviedbapi.tools.ResponseCache;
+import com.omertron.themoviedbapi.tools.StubTransport;
+import com.omertron.themoviedbapi.tools.TmdbParameters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.yamj.api.common.exception.ApiExceptionType;
+
+/**
+ * Test cases for the TheMovieDbApi methods that do not need TMDb, using a stub transport
+ *
+ * @author Stuart
+ */
+public class TheMovieDbApiOfflineTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(TheMovieDbApiOfflineTest.class);
+    private static final String FIGHT_CLUB = "{\"id\":550,\"title\":\"Fight Club\","
+            + "\"casts\":{\"cast\":[{\"id\":819,\"name\":\"Edward Norton\",\"character\":\"The Narrator\"}],\"crew\":[]},"
+            + "\"images\":{\"backdrops\":[{\"file_path\":\"/backdrop.jpg\"}],\"posters\":[{\"file_path\":\"/poster.jpg\"}]},"
+            + "\"keywords\":{\"keywords\":[{\"id\":825,\"name\":\"support group\"}]}}";
+
+    public TheMovieDbApiOfflineTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+        TestLogger.Configure();
+    }
+
+    @Test
+    public void testAppendedResponses() throws MovieDbException {
+        LOG.info("Appended Responses Test");
+        StubTransport transport = new StubTransport().respond("/movie/550?", FIGHT_CLUB);
+        TheMovieDbApi api = new TheMovieDbApi("KEY", new HttpTools(transport).setResponseCache(new ResponseCache()));
+        api.getMovieInfo(550, "en", "casts", "images", "keywords");
+
+        TmdbResultsList<Person> casts = api.getMovieCasts(550);
+        assertEquals("Wrong cast", 1, casts.getResults().size());
+        assertEquals("Wrong ID", 550, casts.getId());
+        TmdbResultsList<Artwork> images = api.getMovieImages(550, "en");
+        assertEquals("Wrong images", 2, images.getResults().size());
+        TmdbResultsList<Keyword> keywords = api.getMovieKeywords(550);
+        assertEquals("Wrong keywords", "support group", keywords.getResults().get(0).getName());
+
+        assertEquals("Sub-resources requested", 1, transport.getRequestCount("/movie/550"));
+    }
+
+    @Test
+    public void testAppendedCacheHit() throws MovieDbException {
+        LOG.info("Appended Cache Hit Test");
+        StubTransport transport = new StubTransport().respond("/movie/550?", FIGHT_CLUB);
+        ResponseCache responseCache = new ResponseCache();
+        TheMovieDbApi api = new TheMovieDbApi("KEY", new HttpTools(transport).setResponseCache(responseCache));
+        api.getMovieInfo(550, "en", "casts");
+
+        TmdbParameters parameters = new TmdbParameters();
+        parameters.add(Param.ID, 550);
+        String castsKey = ResponseCache.getKey(new ApiUrl("KEY", MethodBase.MOVIE).setSubMethod(MethodSub.CASTS).buildUrl(parameters));
+        Object marker = new Object();
+        responseCache.put(castsKey, MethodBase.MOVIE, marker);
+
+        // The movie comes from the response cache, so its sub-resources are not stored again
+        api.getMovieInfo(550, "en", "casts");
+        assertEquals("Movie requested again", 1, transport.getRequestCount("/movie/550"));
+        assertSame("Sub-resource stored from a cached response", marker, responseCache.get(castsKey));
+    }
+
+    @Test
+    public void testRequestFusion() throws Exception {
+        LOG.info("Request Fusion Test");
+        StubTransport transport = new StubTransport().respond("/movie/550?", FIGHT_CLUB);
+        final TheMovieDbApi api = new TheMovieDbApi("KEY", new HttpTools(transport));
+        api.setRequestFusion(200, TimeUnit.MILLISECONDS);
+
+        List<Callable<Integer>> calls = new ArrayList<Callable<Integer>>();
+        calls.add(new Callable<Integer>() {
+            @Override
+            public Integer call() throws MovieDbException {
+                MovieDb movie = api.getMovieInfo(550, "en");
+                return movie.getId();
+            }
+        });
+        calls.add(new Callable<Integer>() {
+            @Override
+            public Integer call() throws MovieDbException {
+                return api.getMovieCasts(550).getResults().size();
+            }
+        });
+        calls.add(new Callable<Integer>() {
+            @Override
+            public Integer call() throws MovieDbException {
+                return api.getMovieImages(550, "en").getResults().size();
+            }
+        });
+        calls.add(new Callable<Integer>() {
+            @Override
+            public Integer call() throws MovieDbException {
+                return api.getMovieKeywords(550).getResults().size();
+            }
+        });
+
+        ExecutorService executor = Executors.newFixedThreadPool(calls.size());
+        try {
+            List<Future<Integer>> results = executor.invokeAll(calls);
+            assertEquals("Wrong movie", Integer.valueOf(550), results.get(0).get());
+            assertEquals("Wrong cast", Integer.valueOf(1), results.get(1).get());
+            assertEquals("Wrong images", Integer.valueOf(2), results.get(2).get());
+            assertEquals("Wrong keywords", Integer.valueOf(1), results.get(3).get());
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals("Requests not fused", 1, transport.getRequestCount("/movie/550"));
+        String request = "";
+        for (String url : transport.getRequests()) {
+            if (url.contains("/movie/550")) {
+                request = url;
+            }
+        }
+        assertTrue("Sub-resources not appended: " + request, request.contains("casts") && request.contains("images")
+                && request.contains("keywords") && request.contains("language=en"));
+        assertEquals("Wrong fused count", 3, api.getMovieFusion().getFusedCount());
+    }
+
+    @Test
+    public void testCachedFusion() throws Exception {
+        LOG.info("Cached Fusion Test");
+        StubTransport transport = new StubTransport().respond("/movie/550?", FIGHT_CLUB);
+        TheMovieDbApi api = new TheMovieDbApi("KEY", new HttpTools(transport).setResponseCache(new ResponseCache()));
+        api.setRequestFusion(1, TimeUnit.SECONDS);
+        api.getMovieInfo(550, "en");
+
+        // A cached movie does not wait for the fusion window
+        long start = System.nanoTime();
+        assertEquals("Wrong movie", 550, api.getMovieInfo(550, "en").getId());
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue("Cached movie waited for the fusion window: " + elapsed + "ms", elapsed < 500);
+        assertEquals("Cached movie was fused", 1, api.getMovieFusion().getRequestCount());
+        assertEquals("Cached movie requested again", 1, transport.getRequestCount("/movie/550"));
+    }
+
+    @Test
+    public void testEmptyMovie() throws MovieDbException {
+        LOG.info("Empty Movie Test");
+        StubTransport transport = new StubTransport().respond("/movie/999999", "{\"id\":0}");
+        TheMovieDbApi api = new TheMovieDbApi("KEY", new HttpTools(transport).setNegativeCache(new NegativeCache()));
+        for (int i = 0; i < 2; i++) {
+            try {
+                api.getMovieInfo(999999, "en");
+                fail("No exception for an empty movie");
+            } catch (MovieDbException ex) {
+                LOG.info("Failed: {}", ex.getExceptionType());
+            }
+        }
+        assertEquals("Empty movie requested again", 1, transport.getRequestCount("/movie/999999"));
+    }
+
+    @Test
+    public void testAuthenticationMappingFailure() throws MovieDbException {
+        LOG.info("Authentication Mapping Failure Test");
+        StubTransport transport = new StubTransport()
+                .respond("/authentication/token/new", "<html>Bad Gateway</html>")
+                .respond("/authentication/guest_session/new", "<html>Bad Gateway</html>");
+        TheMovieDbApi api = new TheMovieDbApi("KEY", new HttpTools(transport));
+
+        try {
+            api.getAuthorisationToken();
+            fail("No exception for an unreadable token");
+        } catch (MovieDbException ex) {
+            assertEquals("Wrong token exception", ApiExceptionType.AUTH_FAILURE, ex.getExceptionType());
+            assertEquals("Wrong token response", "<html>Bad Gateway</html>", ex.getResponse());
+        }
+
+        try {
+            api.getGuestSessionToken();
+            fail("No exception for an unreadable guest session");
+        } catch (MovieDbException ex) {
+            assertEquals("Wrong session exception", ApiExceptionType.MAPPING_FAILED, ex.getExceptionType());
+            assertEquals("Wrong session response", "<html>Bad Gateway</html>", ex.getResponse());
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ *      Copyright (c) 2004-2015 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.cache;
+
+import com.omertron.themoviedbapi.TestLogger;
+import com.omertron.themoviedbapi.TheMovieDbApi;
+import com.omertron.themoviedbapi.model.MovieDb;
+import com.omertron.themoviedbapi.tools.HttpTools;
+import com.omertron.themoviedbapi.tools.ResponseCache;
+import com.omertron.themoviedbapi.tools.StubTransport;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Test case for ChangeInvalidator
+ *
+ * @author Stuart
+ */
+public class ChangeInvalidatorTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ChangeInvalidatorTest.class);
+
+    public ChangeInvalidatorTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+        TestLogger.Configure();
+    }
+
+    @Test
+    public void testPoll() throws Exception {
+        LOG.info("Poll Test");
+        StubTransport transport = new StubTransport()
+                .respond("/movie/changes?page=1", "{\"results\":[{\"id\":\"550\"}],\"page\":1,\"total_pages\":2}")
+                .respond("/movie/changes?page=2", "{\"results\":[{\"id\":\"551\"}],\"page\":2,\"total_pages\":2}")
+                .respond("/movie/550", "{\"id\":550,\"title\":\"Fight Club\"}")
+                .respond("/movie/551", "{\"id\":551,\"title\":\"The Poseidon Adventure\"}")
+                .respond("/movie/552", "{\"id\":552,\"title\":\"Ponette\"}");
+        HttpTools httpTools = new HttpTools(transport).setResponseCache(new ResponseCache());
+        TheMovieDbApi api = new TheMovieDbApi("KEY", httpTools);
+        api.setEntityCache(new EntityCache());
+
+        MovieDb changed = api.getMovieInfo(550, "en");
+        api.getMovieInfo(551, null, "images");
+        MovieDb unchanged = api.getMovieInfo(552, null);
+
+        ChangeInvalidator invalidator = new ChangeInvalidator(api);
+        assertEquals("Wrong number of changes", 2, invalidator.poll());
+        assertEquals("Not all pages read", 2, transport.getRequestCount("/movie/changes"));
+        // Each movie is in the entity and response caches
+        assertEquals("Wrong number removed", 4, invalidator.getRemovedCount());
+
+        assertSame("Unchanged movie removed", unchanged, api.getMovieInfo(552, null));
+        assertNotSame("Changed movie not removed", changed, api.getMovieInfo(550, "en"));
+        assertEquals("Changed movie not requested again", 2, transport.getRequestCount("/movie/550"));
+    }
+
+    @Test
+    public void testRefresh() throws Exception {
+        LOG.info("Refresh Test");
+        StubTransport transport = new StubTransport()
+                .respond("/movie/changes", "{\"results\":[{\"id\":\"550\"}],\"page\":1,\"total_pages\":1}")
+                .respond("/movie/550", "{\"id\":550,\"title\":\"Fight Club\"}");
+        TheMovieDbApi api = new TheMovieDbApi("KEY", new HttpTools(transport));
+        api.setEntityCache(new EntityCache());
+        api.getMovieInfo(550, "en", "images", "casts");
+
+        ChangeInvalidator invalidator = new ChangeInvalidator(api).setRefresh(true);
+        invalidator.poll();
+        assertEquals("Not refreshed", 1, invalidator.getRefreshedCount());
+        assertEquals("Wrong requests", 2, transport.getRequestCount("/movie/550?"));
+
+        api.getMovieInfo(550, "en", "casts", "images");
+        assertEquals("Refreshed movie not cached", 2, transport.getRequestCount("/movie/550"));
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ *      Copyright (c) 2004-2015 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.cache;
+
+import com.omertron.themoviedbapi.MovieDbException;
+import com.omertron.themoviedbapi.TestLogger;
+import com.omertron.themoviedbapi.TheMovieDbApi;
+import com.omertron.themoviedbapi.model.TmdbConfiguration;
+import com.omertron.themoviedbapi.tools.HttpTools;
+import com.omertron.themoviedbapi.tools.ResponseCache;
+import com.omertron.themoviedbapi.tools.RetryPolicy;
+import com.omertron.themoviedbapi.tools.StubTransport;
+import com.omertron.themoviedbapi.wrapper.WrapperConfig;
+import java.io.File;
+import java.net.URL;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Test case for ConfigurationCache
+ *
+ * @author Stuart
+ */
+public class ConfigurationCacheTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ConfigurationCacheTest.class);
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    public ConfigurationCacheTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+        TestLogger.Configure();
+    }
+
+    @Test
+    public void testUnavailable() throws Exception {
+        LOG.info("Unavailable Test");
+        StubTransport transport = new StubTransport().setAvailable(false);
+        HttpTools httpTools = new HttpTools(transport).setRetryPolicy(RetryPolicy.none());
+        // The constructor must not fail or wait when TMDb is unavailable
+        TheMovieDbApi api = new TheMovieDbApi("KEY", httpTools);
+        assertEquals("Configuration requested by the constructor", 0, transport.getRequests().size());
+        try {
+            api.createImageUrl("/poster.jpg", "original");
+            fail("No exception without a configuration");
+        } catch (MovieDbException ex) {
+            LOG.info("Expected exception: {}", ex.getMessage());
+        }
+
+        transport.setAvailable(true);
+        assertEquals("http://image.tmdb.org/t/p/original/poster.jpg", api.createImageUrl("/poster.jpg", "original").toString());
+    }
+
+    @Test
+    public void testSnapshot() throws Exception {
+        LOG.info("Snapshot Test");
+        File snapshot = new File(folder.getRoot(), "configuration.json");
+        StubTransport transport = new StubTransport();
+        HttpTools httpTools = new HttpTools(transport).setRetryPolicy(RetryPolicy.none());
+        ConfigurationCache cache = new ConfigurationCache(httpTools, "KEY").setSnapshot(snapshot);
+        TmdbConfiguration loaded = cache.get();
+        assertTrue("Snapshot not written", snapshot.isFile());
+
+        // A new cache is seeded from the snapshot without a request
+        transport.setAvailable(false);
+        ConfigurationCache seeded = new ConfigurationCache(httpTools, "KEY").setSnapshot(snapshot);
+        TmdbConfiguration config = seeded.get();
+        assertNotNull("Snapshot not read", config);
+        assertEquals("Wrong base URL", loaded.getBaseUrl(), config.getBaseUrl());
+        assertEquals("Wrong poster sizes", loaded.getPosterSizes(), config.getPosterSizes());
+        assertEquals("Wrong number of requests", 1, transport.getRequestCount("/configuration"));
+
+        // A failed refresh keeps the last known configuration
+        try {
+            seeded.load();
+            fail("No exception when TMDb is unavailable");
+        } catch (MovieDbException ex) {
+            assertSame("Configuration not kept", config, seeded.getLastKnown());
+        }
+    }
+
+    @Test
+    public void testRefresh() throws Exception {
+        LOG.info("Refresh Test");
+        StubTransport transport = new StubTransport();
+        HttpTools httpTools = new HttpTools(transport).setRetryPolicy(RetryPolicy.none()).setResponseCache(new ResponseCache());
+        ConfigurationCache cache = new ConfigurationCache(httpTools, "KEY");
+        cache.get();
+        httpTools.getRequest(new URL("http://api.themoviedb.org/3/configuration?api_key=KEY"), WrapperConfig.class);
+        assertEquals("Configuration not cached", 1, transport.getRequestCount("/configuration"));
+
+        transport.respond("/configuration", "{\"images\":{\"base_url\":\"http://images.example.com/\"}}");
+        TmdbConfiguration refreshed = cache.load();
+        assertEquals("Refresh used the cached response", 2, transport.getRequestCount("/configuration"));
+        assertEquals("Wrong base URL", "http://images.example.com/", refreshed.getBaseUrl());
+        assertSame("Configuration not replaced", refreshed, cache.get());
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ *      Copyright (c) 2004-2015 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.cache;
+
+import com.omertron.themoviedbapi.TestLogger;
+import com.omertron.themoviedbapi.model.MovieDb;
+import com.omertron.themoviedbapi.model.Person;
+import java.util.concurrent.TimeUnit;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Test case for EntityCache
+ *
+ * @author Stuart
+ */
+public class EntityCacheTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(EntityCacheTest.class);
+
+    public EntityCacheTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+        TestLogger.Configure();
+    }
+
+    @Test
+    public void testKey() {
+        LOG.info("Key Test");
+        assertEquals("Append order changed key",
+                EntityKey.of(MovieDb.class, 550, "en", "images", "casts"),
+                EntityKey.of(MovieDb.class, 550, "en", "casts", "images"));
+        assertTrue("Language ignored", !EntityKey.of(MovieDb.class, 550, "en").equals(EntityKey.of(MovieDb.class, 550, "de")));
+        assertTrue("Type ignored", !EntityKey.of(MovieDb.class, 550, null).equals(EntityKey.of(Person.class, 550, null)));
+    }
+
+    @Test
+    public void testGetPut() {
+        LOG.info("Get/Put Test");
+        EntityCache cache = new EntityCache(10);
+        EntityKey key = EntityKey.of(MovieDb.class, 550, "en");
+        assertNull("Value before put", cache.get(key));
+
+        MovieDb movie = new MovieDb();
+        cache.put(key, movie);
+        MovieDb cached = cache.get(key);
+        assertSame("Wrong instance", movie, cached);
+        assertEquals("Wrong hit count", 1, cache.getHitCount());
+        assertEquals("Wrong miss count", 1, cache.getMissCount());
+
+        cache.put(EntityKey.of(MovieDb.class, 550, "de", "casts"), new MovieDb());
+        assertEquals("Wrong number removed", 2, cache.removeAll(MovieDb.class, 550));
+        assertEquals("Cache not empty", 0, cache.size());
+    }
+
+    @Test
+    public void testExpiry() throws Exception {
+        LOG.info("Expiry Test");
+        assertEquals("Wrong default time to live", 60, new EntityCache().getTtl(TimeUnit.MINUTES));
+
+        EntityCache cache = new EntityCache(10, 50, TimeUnit.MILLISECONDS);
+        EntityKey key = EntityKey.of(MovieDb.class, 550, "en");
+        MovieDb movie = new MovieDb();
+        cache.put(key, movie);
+        assertSame("Entry expired early", movie, cache.get(key));
+
+        Thread.sleep(60);
+        assertNull("Entry not expired", cache.get(key));
+        assertEquals("Wrong expired count", 1, cache.getExpiredCount());
+        assertEquals("Expired entry kept", 0, cache.size());
+
+        // Adding the entity again starts a new time to live
+        cache.put(key, movie);
+        assertSame("Entry not replaced", movie, cache.get(key));
+    }
+
+    @Test
+    public void testAdmission() {
+        LOG.info("Admission Test");
+        EntityCache cache = new EntityCache(100);
+        // Make a set of popular entries
+        for (int round = 0; round < 5; round++) {
+            for (int id = 0; id < 50; id++) {
+                EntityKey key = EntityKey.of(MovieDb.class, id, null);
+                if (cache.get(key) == null) {
+                    cache.put(key, new MovieDb());
+                }
+            }
+        }
+
+        // Scan a large number of entries that are only used once
+        for (int id = 1000; id < 5000; id++) {
+            EntityKey key = EntityKey.of(MovieDb.class, id, null);
+            if (cache.get(key) == null) {
+                cache.put(key, new MovieDb());
+            }
+        }
+
+        int found = 0;
+        for (int id = 0; id < 50; id++) {
+            if (cache.get(EntityKey.of(MovieDb.class, id, null)) != null) {
+                found++;
+            }
+        }
+        LOG.info("Popular entries kept: {}, rejected: {}", found, cache.getRejectedCount());
+        assertTrue("Popular entries were flushed by the scan: " + found, found >= 45);
+        assertTrue("Cache too large", cache.size() <= cache.getMaxEntries());
+        assertTrue("Nothing rejected", cache.getRejectedCount() > 0);
+    }
+}
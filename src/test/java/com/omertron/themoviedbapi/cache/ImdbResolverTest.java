@@ -0,0 +1,133 @@
+/*
+ *      Copyright (c) 2004-2015 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.cache;
+
+import com.omertron.themoviedbapi.MovieDbException;
+import com.omertron.themoviedbapi.TestLogger;
+import com.omertron.themoviedbapi.TheMovieDbApi;
+import com.omertron.themoviedbapi.TheMovieDbApiAsync;
+import com.omertron.themoviedbapi.model.MovieDb;
+import com.omertron.themoviedbapi.results.BulkResults;
+import com.omertron.themoviedbapi.tools.HttpTools;
+import com.omertron.themoviedbapi.tools.RetryPolicy;
+import com.omertron.themoviedbapi.tools.StubTransport;
+import java.io.File;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Test case for ImdbResolver
+ *
+ * @author Stuart
+ */
+public class ImdbResolverTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ImdbResolverTest.class);
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    public ImdbResolverTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+        TestLogger.Configure();
+    }
+
+    private static StubTransport createTransport() {
+        return new StubTransport()
+                .respond("/movie/tt0137523", "{\"id\":550,\"imdb_id\":\"tt0137523\",\"title\":\"Fight Club\"}")
+                .respond("/movie/tt0083658", "{\"id\":78,\"imdb_id\":\"tt0083658\",\"title\":\"Blade Runner\"}");
+    }
+
+    @Test
+    public void testStore() throws Exception {
+        LOG.info("Store Test");
+        File store = new File(folder.getRoot(), "imdb.txt");
+        StubTransport transport = createTransport();
+        TheMovieDbApi api = new TheMovieDbApi("KEY", new HttpTools(transport).setRetryPolicy(RetryPolicy.none()));
+        api.setEntityCache(new EntityCache(100));
+        ImdbResolver resolver = new ImdbResolver(api).setStore(store);
+
+        assertEquals("Wrong TMDb ID", 550, resolver.resolve("tt0137523"));
+        assertEquals("Wrong TMDb ID", 550, resolver.resolve("tt0137523"));
+        assertEquals("Lookup not cached", 1, transport.getRequestCount("/movie/tt0137523"));
+        assertNotNull("Movie not cached", api.getEntityCache().get(EntityKey.of(MovieDb.class, 550, null)));
+        resolver.close();
+
+        // A new resolver reads the mapping from the store without a request
+        StubTransport unavailable = createTransport().setAvailable(false);
+        ImdbResolver reopened = new ImdbResolver(new TheMovieDbApi("KEY", new HttpTools(unavailable))).setStore(store);
+        assertEquals("Mapping not stored", Integer.valueOf(550), reopened.getCached("tt0137523"));
+        assertEquals("Wrong TMDb ID", 550, reopened.resolve("tt0137523"));
+        assertNull("Unknown mapping", reopened.getCached("tt0083658"));
+        reopened.close();
+    }
+
+    @Test
+    public void testBulk() throws Exception {
+        LOG.info("Bulk Test");
+        StubTransport transport = createTransport();
+        TheMovieDbApi api = new TheMovieDbApi("KEY", new HttpTools(transport).setRetryPolicy(RetryPolicy.none()));
+        ImdbResolver resolver = new ImdbResolver(api);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final Map<String, Integer> resolved = new ConcurrentHashMap<String, Integer>();
+            List<String> imdbIds = Arrays.asList("tt0137523", "tt0083658", "tt0137523", "tt9999999", "tt0083658");
+            BulkResults<String, Integer> bulk = new TheMovieDbApiAsync(api, executor).bulk(imdbIds, 4, false,
+                    new BulkResults.Callback<String, Integer>() {
+                @Override
+                public void onResult(String id, Integer result) {
+                    resolved.put(id, result);
+                }
+
+                @Override
+                public void onFailure(String id, MovieDbException error) {
+                    LOG.info("Failed to resolve {}: {}", id, error.getMessage());
+                }
+            }, resolver);
+
+            assertTrue("Bulk resolve not done", bulk.await(10, TimeUnit.SECONDS));
+            assertEquals("Wrong TMDb ID", Integer.valueOf(550), resolved.get("tt0137523"));
+            assertEquals("Wrong TMDb ID", Integer.valueOf(78), resolved.get("tt0083658"));
+            assertEquals("Wrong failures", 1, bulk.getFailed());
+            assertEquals("Duplicate lookups", 1, transport.getRequestCount("/movie/tt0137523"));
+            assertEquals("Duplicate lookups", 1, transport.getRequestCount("/movie/tt0083658"));
+            assertEquals("Failure stored", 2, resolver.size());
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
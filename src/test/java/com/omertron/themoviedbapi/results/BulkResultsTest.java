@@ -0,0 +1,232 @@
+/*
+ *      Copyright (c) 2004-2015 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.results;
+
+import com.omertron.themoviedbapi.MovieDbException;
+import com.omertron.themoviedbapi.TestLogger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.yamj.api.common.exception.ApiExceptionType;
+
+/**
+ * Test case for BulkResults
+ *
+ * @author Stuart
+ */
+public class BulkResultsTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(BulkResultsTest.class);
+
+    public BulkResultsTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+        TestLogger.Configure();
+    }
+
+    @Test
+    public void testCompletionOrder() throws InterruptedException {
+        LOG.info("Completion Order Test");
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            FakeLoader loader = new FakeLoader();
+            RecordingCallback callback = new RecordingCallback();
+            BulkResults<Integer, String> bulk = new BulkResults<Integer, String>(ids(100), loader, callback, false).start(executor, 4);
+
+            assertTrue("Bulk load not done", bulk.await(10, TimeUnit.SECONDS));
+            assertEquals("Wrong succeeded", 90, bulk.getSucceeded());
+            assertEquals("Wrong failed", 10, bulk.getFailed());
+            assertEquals("Wrong failure", ApiExceptionType.HTTP_404_ERROR, bulk.getFailures().get(7).getExceptionType());
+            assertEquals("Wrong results", 90, callback.results.size());
+            assertEquals("Wrong failures", 10, callback.failures.size());
+            assertTrue("Too many in flight: " + loader.maxActive.get(), loader.maxActive.get() <= 4);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testInputOrder() throws InterruptedException {
+        LOG.info("Input Order Test");
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            FakeLoader loader = new FakeLoader();
+            RecordingCallback callback = new RecordingCallback();
+            BulkResults<Integer, String> bulk = new BulkResults<Integer, String>(ids(100), loader, callback, true).start(executor, 8);
+
+            assertTrue("Bulk load not done", bulk.await(10, TimeUnit.SECONDS));
+            assertEquals("Results out of order", ids(100), callback.order);
+            assertEquals("Wrong succeeded", 90, bulk.getSucceeded());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testSlowCallback() throws InterruptedException {
+        LOG.info("Slow Callback Test");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        final CountDownLatch blocked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger loaded = new AtomicInteger(0);
+        final RecordingCallback recording = new RecordingCallback();
+        try {
+            BulkResults.Loader<Integer, String> loader = new BulkResults.Loader<Integer, String>() {
+                @Override
+                public String load(Integer id) throws MovieDbException {
+                    try {
+                        // Load the rest once the callback for the first ID is blocked
+                        if (id >= 4 && !blocked.await(5, TimeUnit.SECONDS)) {
+                            throw new MovieDbException(ApiExceptionType.UNKNOWN_CAUSE, "Callback not called", String.valueOf(id));
+                        }
+                    } catch (InterruptedException ex) {
+                        throw new MovieDbException(ApiExceptionType.CONNECTION_ERROR, "Interrupted", String.valueOf(id), ex);
+                    }
+                    loaded.incrementAndGet();
+                    return "Movie " + id;
+                }
+            };
+            BulkResults.Callback<Integer, String> callback = new BulkResults.Callback<Integer, String>() {
+                @Override
+                public void onResult(Integer id, String result) {
+                    if (id == 0) {
+                        blocked.countDown();
+                        try {
+                            release.await(5, TimeUnit.SECONDS);
+                        } catch (InterruptedException ex) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                    recording.onResult(id, result);
+                }
+
+                @Override
+                public void onFailure(Integer id, MovieDbException error) {
+                    recording.onFailure(id, error);
+                }
+            };
+            BulkResults<Integer, String> bulk = new BulkResults<Integer, String>(ids(20), loader, callback, true).start(executor, 4);
+
+            // The other workers keep loading while the callback for the first ID is blocked
+            long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+            while (loaded.get() < 10 && System.nanoTime() < end) {
+                Thread.sleep(5);
+            }
+            assertTrue("Workers blocked by the callback: " + loaded.get(), loaded.get() >= 10);
+            release.countDown();
+
+            assertTrue("Bulk load not done", bulk.await(10, TimeUnit.SECONDS));
+            assertEquals("Results out of order", ids(20), recording.order);
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testEmpty() throws InterruptedException {
+        LOG.info("Empty Test");
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            BulkResults<Integer, String> bulk = new BulkResults<Integer, String>(new ArrayList<Integer>(), new FakeLoader(),
+                    new RecordingCallback(), true).start(executor, 4);
+            assertTrue("Empty bulk load not done", bulk.isDone());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static List<Integer> ids(int count) {
+        List<Integer> ids = new ArrayList<Integer>();
+        for (int id = 0; id < count; id++) {
+            ids.add(id);
+        }
+        return ids;
+    }
+
+    /**
+     * Loads each ID after a random delay, failing every tenth one
+     */
+    private static class FakeLoader implements BulkResults.Loader<Integer, String> {
+
+        private final Random random = new Random(42);
+        private final AtomicInteger active = new AtomicInteger(0);
+        private final AtomicInteger maxActive = new AtomicInteger(0);
+
+        @Override
+        public String load(Integer id) throws MovieDbException {
+            int now = active.incrementAndGet();
+            try {
+                int max;
+                while (now > (max = maxActive.get()) && !maxActive.compareAndSet(max, now)) {
+                    // Try again
+                }
+
+                int delay;
+                synchronized (random) {
+                    delay = random.nextInt(5);
+                }
+                Thread.sleep(delay);
+
+                if (id % 10 == 7) {
+                    throw new MovieDbException(ApiExceptionType.HTTP_404_ERROR, "Not found", String.valueOf(id));
+                }
+                return "Movie " + id;
+            } catch (InterruptedException ex) {
+                throw new MovieDbException(ApiExceptionType.CONNECTION_ERROR, "Interrupted", String.valueOf(id), ex);
+            } finally {
+                active.decrementAndGet();
+            }
+        }
+    }
+
+    private static class RecordingCallback implements BulkResults.Callback<Integer, String> {
+
+        private final List<String> results = Collections.synchronizedList(new ArrayList<String>());
+        private final List<Integer> failures = Collections.synchronizedList(new ArrayList<Integer>());
+        private final List<Integer> order = Collections.synchronizedList(new ArrayList<Integer>());
+
+        @Override
+        public void onResult(Integer id, String result) {
+            results.add(result);
+            order.add(id);
+        }
+
+        @Override
+        public void onFailure(Integer id, MovieDbException error) {
+            failures.add(id);
+            order.add(id);
+        }
+    }
+}
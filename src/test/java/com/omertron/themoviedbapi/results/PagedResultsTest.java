@@ -0,0 +1,131 @@
+/*
+ *      Copyright (c) 2004-2015 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.results;
+
+import com.omertron.themoviedbapi.MovieDbException;
+import com.omertron.themoviedbapi.TestLogger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Test case for PagedResults
+ *
+ * @author Stuart
+ */
+public class PagedResultsTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(PagedResultsTest.class);
+
+    public PagedResultsTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+        TestLogger.Configure();
+    }
+
+    @Test
+    public void testPaging() throws MovieDbException {
+        LOG.info("Paging Test");
+        FakeLoader loader = new FakeLoader(3, 3);
+        PagedResults<Integer> pages = new PagedResults<Integer>(loader);
+
+        List<Integer> results = new ArrayList<Integer>();
+        while (pages.hasNext()) {
+            results.add(pages.next());
+        }
+        assertEquals("Wrong results", Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9), results);
+        assertEquals("Wrong pages loaded", Arrays.asList(1, 2, 3), loader.loaded);
+    }
+
+    @Test
+    public void testPrefetch() throws MovieDbException {
+        LOG.info("Prefetch Test");
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            FakeLoader loader = new FakeLoader(4, 2);
+            PagedResults<Integer> pages = new PagedResults<Integer>(loader, executor);
+
+            assertEquals("Wrong first page", Arrays.asList(1, 2), pages.nextPage().getResults());
+            assertEquals("Wrong second page", Arrays.asList(3, 4), pages.nextPage().getResults());
+            assertEquals("Wrong total pages", 4, pages.getTotalPages());
+            pages.cancel();
+            assertFalse("Pages after cancel", pages.hasNextPage());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testEmptyPage() throws MovieDbException {
+        LOG.info("Empty Page Test");
+        // The total pages is wrong, paging stops at the first empty page
+        FakeLoader loader = new FakeLoader(5, 2);
+        loader.lastPage = 2;
+        PagedResults<Integer> pages = new PagedResults<Integer>(loader);
+
+        int count = 0;
+        while (pages.hasNext()) {
+            pages.next();
+            count++;
+        }
+        assertEquals("Wrong result count", 4, count);
+        assertEquals("Wrong pages loaded", Arrays.asList(1, 2, 3), loader.loaded);
+    }
+
+    private static final class FakeLoader implements PagedResults.PageLoader<Integer> {
+
+        private final int totalPages;
+        private final int pageSize;
+        private int lastPage;
+        private final List<Integer> loaded = Collections.synchronizedList(new ArrayList<Integer>());
+
+        FakeLoader(int totalPages, int pageSize) {
+            this.totalPages = totalPages;
+            this.pageSize = pageSize;
+            this.lastPage = totalPages;
+        }
+
+        @Override
+        public TmdbResultsList<Integer> getPage(int page) {
+            loaded.add(page);
+            List<Integer> values = new ArrayList<Integer>();
+            if (page <= lastPage) {
+                for (int i = 1; i <= pageSize; i++) {
+                    values.add((page - 1) * pageSize + i);
+                }
+            }
+            TmdbResultsList<Integer> results = new TmdbResultsList<Integer>(values);
+            results.setPage(page);
+            results.setTotalPages(totalPages);
+            return results;
+        }
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ *      Copyright (c) 2004-2015 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import com.omertron.themoviedbapi.MovieDbException;
+import com.omertron.themoviedbapi.model.MovieDb;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.http.HttpHeaders;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Test cases shared by the transports, run against a {@link LocalServer}
+ *
+ * @author Stuart
+ */
+public abstract class AbstractTransportTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AbstractTransportTest.class);
+    private static final Charset CHARSET = Charset.forName("UTF-8");
+    private static final String MOVIE = "/3/movie/550";
+    private static final String FIGHT_CLUB = "{\"id\":550,\"title\":\"Fight Club\",\"overview\":\""
+            + StringUtils.repeat("A ticking-time-bomb insomniac and a slippery soap salesman. ", 20) + "\"}";
+    private static LocalServer server;
+
+    @BeforeClass
+    public static void setUpServer() throws IOException {
+        server = new LocalServer();
+    }
+
+    @AfterClass
+    public static void tearDownServer() {
+        server.stop();
+    }
+
+    /**
+     * Get the transport to test
+     *
+     * @return
+     */
+    protected abstract HttpTransport getTransport();
+
+    @Test
+    public void testGet() throws IOException {
+        LOG.info("Get Test");
+        server.respond(MOVIE, 200, FIGHT_CLUB).header(MOVIE, HttpHeaders.ETAG, "\"v1\"");
+
+        TransportResponse response = getTransport().get(server.getUrl(MOVIE), getHeaders(), 0);
+        try {
+            assertEquals("Wrong status", 200, response.getStatusCode());
+            assertEquals("Wrong ETag", "\"v1\"", response.getHeader(HttpHeaders.ETAG));
+            assertEquals("Missing header not null", null, response.getHeader("X-Missing"));
+            assertEquals("Wrong body", FIGHT_CLUB, new String(read(response), CHARSET));
+        } finally {
+            response.close();
+        }
+        assertEquals("Wrong method", "GET", server.getLastMethod());
+        assertEquals("Request header not sent", "application/json", server.getLastHeaders().get("accept"));
+    }
+
+    @Test
+    public void testPost() throws IOException {
+        LOG.info("Post Test");
+        server.respond("/3/movie/550/rating", 201, "{\"status_code\":1}");
+
+        TransportResponse response = getTransport().post(server.getUrl("/3/movie/550/rating"), getHeaders(), "{\"value\":8.5}", 0);
+        try {
+            assertEquals("Wrong status", 201, response.getStatusCode());
+            assertEquals("Wrong body", "{\"status_code\":1}", new String(read(response), CHARSET));
+        } finally {
+            response.close();
+        }
+        assertEquals("Wrong method", "POST", server.getLastMethod());
+        assertEquals("Wrong request body", "{\"value\":8.5}", server.getLastBody());
+        String contentType = server.getLastHeaders().get("content-type");
+        assertTrue("Wrong content type: " + contentType, contentType != null && contentType.startsWith("application/json"));
+    }
+
+    @Test
+    public void testDelete() throws IOException {
+        LOG.info("Delete Test");
+        server.respond("/3/list/509ec17b19c2950a0600050d", 200, "{\"status_code\":13}");
+
+        TransportResponse response = getTransport().delete(server.getUrl("/3/list/509ec17b19c2950a0600050d"), getHeaders(), 0);
+        try {
+            assertEquals("Wrong status", 200, response.getStatusCode());
+            assertEquals("Wrong body", "{\"status_code\":13}", new String(read(response), CHARSET));
+        } finally {
+            response.close();
+        }
+        assertEquals("Wrong method", "DELETE", server.getLastMethod());
+    }
+
+    @Test
+    public void testErrorStatus() throws IOException {
+        LOG.info("Error Status Test");
+        server.respond("/3/movie/0", 404, "{\"status_code\":34}");
+        server.respond("/3/movie/1", 503, "{\"status_code\":11}");
+
+        TransportResponse response = getTransport().get(server.getUrl("/3/movie/0"), getHeaders(), 0);
+        try {
+            assertEquals("Wrong status", 404, response.getStatusCode());
+            assertEquals("Wrong error body", "{\"status_code\":34}", new String(read(response), CHARSET));
+        } finally {
+            response.close();
+        }
+
+        response = getTransport().get(server.getUrl("/3/movie/1"), getHeaders(), 0);
+        try {
+            assertEquals("Wrong status", 503, response.getStatusCode());
+            assertEquals("Wrong error body", "{\"status_code\":11}", new String(read(response), CHARSET));
+        } finally {
+            response.close();
+        }
+    }
+
+    @Test
+    public void testGzip() throws IOException, MovieDbException {
+        LOG.info("Gzip Test");
+        byte[] body = gzip(FIGHT_CLUB);
+        server.respond(MOVIE, 200, body).header(MOVIE, HttpHeaders.CONTENT_ENCODING, "gzip");
+
+        // The content is returned as it was received, for HttpTools to decode
+        TransportResponse response = getTransport().get(server.getUrl(MOVIE), getHeaders(), 0);
+        try {
+            assertEquals("Wrong encoding", "gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+            assertTrue("Content decoded by the transport", Arrays.equals(body, read(response)));
+        } finally {
+            response.close();
+        }
+
+        HttpTools httpTools = new HttpTools(getTransport()).setRetryPolicy(RetryPolicy.none());
+        MovieDb movie = httpTools.getRequest(server.getUrl(MOVIE), MovieDb.class);
+        assertEquals("Wrong title", "Fight Club", movie.getTitle());
+        TransferStatistics statistics = httpTools.getTransferStatistics();
+        assertEquals("Wrong compressed bytes", body.length, statistics.getCompressedBytes(MethodBase.MOVIE));
+        assertEquals("Wrong uncompressed bytes", FIGHT_CLUB.getBytes(CHARSET).length, statistics.getUncompressedBytes(MethodBase.MOVIE));
+    }
+
+    @Test
+    public void testCloseUnread() throws Exception {
+        LOG.info("Close Unread Test");
+        TransportResponse response = getTransport().get(server.getUrl(LocalServer.LARGE), getHeaders(), 0);
+        InputStream content = response.getContent();
+        assertTrue("No content", content.read(new byte[1024]) > 0);
+        long start = System.nanoTime();
+        response.close();
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        long sent = server.awaitLarge(10, TimeUnit.SECONDS);
+        LOG.info("Closed in {}ms after {} of {} bytes were sent", elapsed, sent, LocalServer.LARGE_SIZE);
+        assertTrue("Large response not ended", sent >= 0);
+        assertTrue("Unread content was downloaded: " + sent + " bytes", sent < LocalServer.LARGE_SIZE);
+
+        // The transport can still be used after the connection is dropped
+        server.respond(MOVIE, 200, FIGHT_CLUB);
+        response = getTransport().get(server.getUrl(MOVIE), getHeaders(), 0);
+        try {
+            assertEquals("Wrong body after close", FIGHT_CLUB, new String(read(response), CHARSET));
+        } finally {
+            response.close();
+        }
+    }
+
+    private static Map<String, String> getHeaders() {
+        Map<String, String> headers = new HashMap<String, String>();
+        headers.put(HttpHeaders.ACCEPT, "application/json");
+        return headers;
+    }
+
+    private static byte[] read(TransportResponse response) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        InputStream content = response.getContent();
+        byte[] buffer = new byte[4096];
+        int count;
+        while ((count = content.read(buffer)) >= 0) {
+            out.write(buffer, 0, count);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] gzip(String content) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        GZIPOutputStream gzip = new GZIPOutputStream(out);
+        try {
+            gzip.write(content.getBytes(CHARSET));
+        } finally {
+            gzip.close();
+        }
+        return out.toByteArray();
+    }
+}
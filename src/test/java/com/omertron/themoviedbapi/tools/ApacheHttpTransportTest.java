@@ -0,0 +1,58 @@
+/*
+ *      Copyright (c) 2004-2015 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import com.omertron.themoviedbapi.TestLogger;
+import java.io.IOException;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+
+/**
+ * Test case for ApacheHttpTransport
+ *
+ * @author Stuart
+ */
+public class ApacheHttpTransportTest extends AbstractTransportTest {
+
+    private static CloseableHttpClient httpClient;
+    private static ApacheHttpTransport transport;
+
+    public ApacheHttpTransportTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+        TestLogger.Configure();
+        httpClient = HttpClientBuilder.create().build();
+        transport = new ApacheHttpTransport(httpClient);
+    }
+
+    @AfterClass
+    public static void tearDownClass() throws IOException {
+        httpClient.close();
+    }
+
+    @Override
+    protected HttpTransport getTransport() {
+        return transport;
+    }
+}
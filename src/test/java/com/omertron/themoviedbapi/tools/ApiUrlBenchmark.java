@@ -0,0 +1,158 @@
+/*
+ *      Copyright (c) 2004-2015 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import java.io.UnsupportedEncodingException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.MalformedURLException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.util.Map;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.builder.ToStringBuilder;
+import org.apache.commons.lang3.builder.ToStringStyle;
+
+/**
+ * Benchmark of the allocations made building an API URL.
+ * <p>
+ * Compares the previous URL building (rebuilt from scratch, with the parameters reflected for the trace log) with the templates in
+ * {@link ApiUrl}. Both sides convert the URL to a URI, as {@link ApacheHttpTransport} does for every request. Run with:
+ * <pre>
+ * mvn test-compile exec:java -Dexec.mainClass=com.omertron.themoviedbapi.tools.ApiUrlBenchmark -Dexec.classpathScope=test
+ * </pre> The allocation counts need a HotSpot JVM.
+ *
+ * @author Stuart
+ */
+public final class ApiUrlBenchmark {
+
+    private static final String APIKEY = "0123456789abcdef0123456789abcdef";
+    private static final int WARMUP = 200000;
+    private static final int ITERATIONS = 1000000;
+    // Stops the JIT from removing the work
+    private static int sink = 0;
+
+    private ApiUrlBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        final TmdbParameters params = new TmdbParameters();
+        params.add(Param.ID, 550);
+        params.add(Param.LANGUAGE, "en");
+        params.add(Param.APPEND, new String[]{"casts", "images"});
+
+        Runnable legacy = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    sink += legacyBuildUrl(params).toURI().hashCode();
+                } catch (URISyntaxException ex) {
+                    throw new IllegalStateException(ex);
+                }
+            }
+        };
+        Runnable template = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    sink += new ApiUrl(APIKEY, MethodBase.MOVIE).buildUrl(params).toURI().hashCode();
+                } catch (URISyntaxException ex) {
+                    throw new IllegalStateException(ex);
+                }
+            }
+        };
+
+        if (!legacyBuildUrl(params).toString().equals(new ApiUrl(APIKEY, MethodBase.MOVIE).buildUrl(params).toString())) {
+            throw new IllegalStateException("URLs do not match");
+        }
+
+        report("Before (URL + toURI)", legacy);
+        report("After (templates + toURI)", template);
+    }
+
+    private static void report(String name, Runnable task) {
+        for (int i = 0; i < WARMUP; i++) {
+            task.run();
+        }
+
+        long bytes = allocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            task.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        bytes = allocatedBytes() - bytes;
+
+        System.out.println(String.format("%-25s %8d bytes/url %8d ns/url", name, bytes / ITERATIONS, elapsed / ITERATIONS));
+    }
+
+    private static long allocatedBytes() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+
+    /**
+     * The URL building used before the templates, including the reflection for the trace log that was always evaluated
+     */
+    private static URL legacyBuildUrl(TmdbParameters params) {
+        StringBuilder urlString = new StringBuilder("http://api.themoviedb.org/3/");
+        String submethod = StringUtils.EMPTY;
+        sink += ToStringBuilder.reflectionToString(params, ToStringStyle.SHORT_PREFIX_STYLE).length();
+        urlString.append(MethodBase.MOVIE.getValue());
+
+        if (params.has(Param.QUERY)) {
+            if (StringUtils.isNotBlank(submethod)) {
+                urlString.append("/").append(submethod);
+            }
+            urlString.append("?").append(Param.API_KEY.getValue()).append(APIKEY);
+            urlString.append("&").append(Param.QUERY.getValue());
+            try {
+                urlString.append(URLEncoder.encode((String) params.get(Param.QUERY), "UTF-8"));
+            } catch (UnsupportedEncodingException ex) {
+                urlString.append(params.get(Param.QUERY));
+            }
+        } else {
+            if (params.has(Param.ID)) {
+                urlString.append("/").append(params.get(Param.ID));
+            }
+            if (StringUtils.isNotBlank(submethod)) {
+                urlString.append("/").append(submethod);
+            }
+            urlString.append("?").append(Param.API_KEY.getValue()).append(APIKEY);
+        }
+
+        for (Map.Entry<Param, String> argEntry : params.getEntries()) {
+            if (argEntry.getKey() == Param.ID || argEntry.getKey() == Param.QUERY) {
+                continue;
+            }
+            urlString.append("&").append(argEntry.getKey().getValue()).append(argEntry.getValue());
+        }
+
+        try {
+            return new URL(urlString.toString());
+        } catch (MalformedURLException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
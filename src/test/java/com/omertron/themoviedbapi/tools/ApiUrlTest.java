@@ -24,6 +24,7 @@ import java.net.URL;
 import org.junit.After;
 import org.junit.AfterClass;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import org.junit.Before;
 import org.junit.BeforeClass;
 import org.junit.Test;
@@ -139,4 +140,14 @@ public class ApiUrlTest {
         assertEquals("Wrong Query Extra URL", expResult, result.toString());
     }
 
+    @Test
+    public void testGetId() {
+        LOG.info("Get ID Test");
+        assertEquals("550", ApiUrl.getId("http://api.themoviedb.org/3/movie/550", MethodBase.MOVIE));
+        assertEquals("550", ApiUrl.getId("http://api.themoviedb.org/3/movie/550?language=en", MethodBase.MOVIE));
+        assertEquals("550", ApiUrl.getId("http://api.themoviedb.org/3/movie/550/images", MethodBase.MOVIE));
+        assertNull("Wrong method", ApiUrl.getId("http://api.themoviedb.org/3/person/550", MethodBase.MOVIE));
+        assertNull("No ID", ApiUrl.getId("http://api.themoviedb.org/3/movie", MethodBase.MOVIE));
+        assertNull("No ID", ApiUrl.getId("http://api.themoviedb.org/3/movie?page=1", MethodBase.MOVIE));
+    }
 }
@@ -0,0 +1,85 @@
+/*
+ *      Copyright (c) 2004-2015 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import com.omertron.themoviedbapi.TestLogger;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Test case for CapturingInputStream
+ *
+ * @author Stuart
+ */
+public class CapturingInputStreamTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CapturingInputStreamTest.class);
+    private static final Charset CHARSET = Charset.forName("UTF-8");
+
+    public CapturingInputStreamTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+        TestLogger.Configure();
+    }
+
+    @Test
+    public void testShortContent() throws IOException {
+        LOG.info("Short Content Test");
+        CapturingInputStream stream = new CapturingInputStream(new ByteArrayInputStream("{\"id\":550}".getBytes(CHARSET)), 16);
+        byte[] buffer = new byte[64];
+        int count = stream.read(buffer, 0, buffer.length);
+        assertEquals("Content changed", "{\"id\":550}", new String(buffer, 0, count, CHARSET));
+        assertEquals("Wrong capture", "{\"id\":550}", stream.getCaptured(CHARSET));
+        assertFalse("Short content truncated", stream.isTruncated());
+    }
+
+    @Test
+    public void testCaptureLimit() throws IOException {
+        LOG.info("Capture Limit Test");
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            content.append(i).append(',');
+        }
+        CapturingInputStream stream = new CapturingInputStream(new ByteArrayInputStream(content.toString().getBytes(CHARSET)), 100);
+
+        // Mix single byte and block reads
+        StringBuilder read = new StringBuilder();
+        read.append((char) stream.read());
+        byte[] buffer = new byte[64];
+        int count;
+        while ((count = stream.read(buffer, 0, buffer.length)) > 0) {
+            read.append(new String(buffer, 0, count, CHARSET));
+        }
+
+        assertEquals("Content changed", content.toString(), read.toString());
+        assertEquals("Capture not stopped at the limit", content.substring(0, 100), stream.getCaptured(CHARSET));
+        assertTrue("Long content not truncated", stream.isTruncated());
+    }
+}
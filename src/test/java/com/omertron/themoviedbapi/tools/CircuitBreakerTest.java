@@ -0,0 +1,97 @@
+/*
+ *      Copyright (c) 2004-2015 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import com.omertron.themoviedbapi.TestLogger;
+import java.util.concurrent.TimeUnit;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Test case for CircuitBreaker
+ *
+ * @author Stuart
+ */
+public class CircuitBreakerTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CircuitBreakerTest.class);
+
+    public CircuitBreakerTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+        TestLogger.Configure();
+    }
+
+    @Test
+    public void testOpen() {
+        LOG.info("Open Test");
+        CircuitBreaker breaker = new CircuitBreaker("test", 3, 1, TimeUnit.HOURS, 1);
+
+        for (int i = 0; i < 2; i++) {
+            assertTrue("Request rejected", breaker.allowRequest());
+            breaker.recordFailure();
+        }
+        // A success resets the count of consecutive failures
+        breaker.recordSuccess();
+        assertEquals("Wrong state", CircuitBreaker.State.CLOSED, breaker.getState());
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue("Request rejected", breaker.allowRequest());
+            breaker.recordFailure();
+        }
+        assertEquals("Wrong state", CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse("Request allowed", breaker.allowRequest());
+        assertEquals("Wrong opened count", 1, breaker.getOpenedCount());
+        assertEquals("Wrong rejected count", 1, breaker.getRejectedCount());
+    }
+
+    @Test
+    public void testHalfOpen() throws InterruptedException {
+        LOG.info("Half Open Test");
+        CircuitBreaker breaker = new CircuitBreaker("test", 1, 50, TimeUnit.MILLISECONDS, 1);
+        breaker.allowRequest();
+        breaker.recordFailure();
+        assertFalse("Request allowed", breaker.allowRequest());
+
+        TimeUnit.MILLISECONDS.sleep(100);
+        assertTrue("Probe rejected", breaker.allowRequest());
+        assertEquals("Wrong state", CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertFalse("Second probe allowed", breaker.allowRequest());
+
+        // A failed probe opens the breaker again
+        breaker.recordFailure();
+        assertEquals("Wrong state", CircuitBreaker.State.OPEN, breaker.getState());
+
+        TimeUnit.MILLISECONDS.sleep(100);
+        assertTrue("Probe rejected", breaker.allowRequest());
+        breaker.recordSuccess();
+        assertEquals("Wrong state", CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals("Wrong opened count", 2, breaker.getOpenedCount());
+        assertEquals("Wrong half opened count", 2, breaker.getHalfOpenedCount());
+        assertEquals("Wrong closed count", 1, breaker.getClosedCount());
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ *      Copyright (c) 2004-2015 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import com.omertron.themoviedbapi.TestLogger;
+import com.omertron.themoviedbapi.wrapper.WrapperGenres;
+import java.net.URL;
+import java.util.Map;
+import org.apache.http.HttpHeaders;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Test case for ConditionalCache and the conditional requests made by HttpTools
+ *
+ * @author Stuart
+ */
+public class ConditionalCacheTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ConditionalCacheTest.class);
+    private static final String GENRES = "{\"genres\":[{\"id\":28,\"name\":\"Action\"}]}";
+
+    public ConditionalCacheTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+        TestLogger.Configure();
+    }
+
+    @Test
+    public void testEtag() throws Exception {
+        LOG.info("ETag Test");
+        StubTransport transport = new StubTransport().respond("/genre/list", GENRES).header("/genre/list", HttpHeaders.ETAG, "\"v1\"");
+        HttpTools httpTools = new HttpTools(transport);
+        URL url = new URL("http://api.themoviedb.org/3/genre/list?api_key=KEY");
+
+        WrapperGenres first = httpTools.getRequest(url, WrapperGenres.class);
+        assertEquals("Response not stored", 1, httpTools.getConditionalCache().getStoredCount());
+        assertFalse("Conditional header on first request", lastHeaders(transport).containsKey(HttpHeaders.IF_NONE_MATCH));
+
+        WrapperGenres second = httpTools.getRequest(url, WrapperGenres.class);
+        assertEquals("Wrong If-None-Match", "\"v1\"", lastHeaders(transport).get(HttpHeaders.IF_NONE_MATCH));
+        assertSame("Cached object not returned after 304", first, second);
+        assertEquals("Wrong not modified count", 1, httpTools.getConditionalCache().getNotModifiedCount());
+        assertEquals("Wrong requests", 2, transport.getRequestCount("/genre/list"));
+    }
+
+    @Test
+    public void testLastModified() throws Exception {
+        LOG.info("Last-Modified Test");
+        String lastModified = "Wed, 21 Oct 2015 07:28:00 GMT";
+        StubTransport transport = new StubTransport().respond("/genre/list", GENRES).header("/genre/list", HttpHeaders.LAST_MODIFIED, lastModified);
+        HttpTools httpTools = new HttpTools(transport);
+        URL url = new URL("http://api.themoviedb.org/3/genre/list?api_key=KEY");
+
+        WrapperGenres first = httpTools.getRequest(url, WrapperGenres.class);
+        WrapperGenres second = httpTools.getRequest(url, WrapperGenres.class);
+        assertEquals("Wrong If-Modified-Since", lastModified, lastHeaders(transport).get(HttpHeaders.IF_MODIFIED_SINCE));
+        assertFalse("Unexpected If-None-Match", lastHeaders(transport).containsKey(HttpHeaders.IF_NONE_MATCH));
+        assertSame("Cached object not returned after 304", first, second);
+    }
+
+    @Test
+    public void testNoValidators() throws Exception {
+        LOG.info("No Validators Test");
+        StubTransport transport = new StubTransport().respond("/genre/list", GENRES);
+        HttpTools httpTools = new HttpTools(transport);
+        URL url = new URL("http://api.themoviedb.org/3/genre/list?api_key=KEY");
+
+        WrapperGenres first = httpTools.getRequest(url, WrapperGenres.class);
+        WrapperGenres second = httpTools.getRequest(url, WrapperGenres.class);
+        assertEquals("Response without validators stored", 0, httpTools.getConditionalCache().size());
+        assertFalse("Conditional header without validators", lastHeaders(transport).containsKey(HttpHeaders.IF_NONE_MATCH));
+        assertNotSame("Response not downloaded again", first, second);
+    }
+
+    private static Map<String, String> lastHeaders(StubTransport transport) {
+        return transport.getRequestHeaders().get(transport.getRequestHeaders().size() - 1);
+    }
+}
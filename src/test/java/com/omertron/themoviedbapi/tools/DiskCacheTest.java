@@ -0,0 +1,143 @@
+/*
+ *      Copyright (c) 2004-2015 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import com.omertron.themoviedbapi.TestLogger;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.concurrent.TimeUnit;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Test case for DiskCache
+ *
+ * @author Stuart
+ */
+public class DiskCacheTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DiskCacheTest.class);
+    private static final int SEGMENT_SIZE = 8192;
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    public DiskCacheTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+        TestLogger.Configure();
+    }
+
+    @Test
+    public void testReopen() throws IOException {
+        LOG.info("Reopen Test");
+        File directory = folder.newFolder();
+        DiskCache cache = new DiskCache(directory, SEGMENT_SIZE, SEGMENT_SIZE * 4L);
+        cache.put("movie/550", MethodBase.MOVIE, "{\"id\":550}");
+        cache.put("movie/551", MethodBase.MOVIE, "{\"id\":551}");
+        cache.put("account", MethodBase.ACCOUNT, "{}");
+        cache.remove("movie/551");
+        assertEquals("{\"id\":550}", cache.get("movie/550"));
+        assertNull("Removed value returned", cache.get("movie/551"));
+        assertNull("Uncached method stored", cache.get("account"));
+        cache.close();
+
+        cache = new DiskCache(directory, SEGMENT_SIZE, SEGMENT_SIZE * 4L);
+        assertEquals("Wrong size after reopen", 1, cache.size());
+        assertEquals("{\"id\":550}", cache.get("movie/550"));
+        assertNull("Removed value restored", cache.get("movie/551"));
+        cache.close();
+    }
+
+    @Test
+    public void testDamagedRecord() throws IOException {
+        LOG.info("Damaged Record Test");
+        File directory = folder.newFolder();
+        DiskCache cache = new DiskCache(directory, SEGMENT_SIZE, SEGMENT_SIZE * 4L);
+        cache.put("movie/550", MethodBase.MOVIE, "{\"id\":550}");
+        cache.put("movie/551", MethodBase.MOVIE, "{\"id\":551}");
+        cache.close();
+
+        // Corrupt the value of the second record, as if the write was interrupted
+        RandomAccessFile raf = new RandomAccessFile(new File(directory, "segment-0.dat"), "rw");
+        try {
+            raf.seek(24 + 9 + 10 + 24 + 9 + 2);
+            raf.write('X');
+        } finally {
+            raf.close();
+        }
+
+        cache = new DiskCache(directory, SEGMENT_SIZE, SEGMENT_SIZE * 4L);
+        assertEquals("{\"id\":550}", cache.get("movie/550"));
+        assertNull("Damaged value returned", cache.get("movie/551"));
+        cache.put("movie/552", MethodBase.MOVIE, "{\"id\":552}");
+        cache.close();
+
+        cache = new DiskCache(directory, SEGMENT_SIZE, SEGMENT_SIZE * 4L);
+        assertEquals("{\"id\":552}", cache.get("movie/552"));
+        cache.close();
+    }
+
+    @Test
+    public void testCompaction() throws IOException {
+        LOG.info("Compaction Test");
+        File directory = folder.newFolder();
+        DiskCache cache = new DiskCache(directory, SEGMENT_SIZE, SEGMENT_SIZE * 3L);
+        String value = String.format("%0500d", 0);
+        cache.put("popular", MethodBase.MOVIE, value);
+        for (int i = 0; i < 100; i++) {
+            // Keep reading the popular entry so it is copied when its segment is compacted
+            assertEquals("Popular entry lost", value, cache.get("popular"));
+            cache.put("movie/" + i, MethodBase.MOVIE, value);
+        }
+
+        assertTrue("No compaction", cache.getCompactionCount() > 0);
+        assertTrue("Too many segments", cache.getSegmentCount() <= 3);
+        assertEquals("Wrong number of files", cache.getSegmentCount(), directory.list().length);
+        assertNull("Old entry not evicted", cache.get("movie/0"));
+        assertEquals("movie/99 missing", value, cache.get("movie/99"));
+        cache.close();
+
+        cache = new DiskCache(directory, SEGMENT_SIZE, SEGMENT_SIZE * 3L);
+        assertEquals("Popular entry lost after reopen", value, cache.get("popular"));
+        cache.close();
+    }
+
+    @Test
+    public void testExpiry() throws Exception {
+        LOG.info("Expiry Test");
+        File directory = folder.newFolder();
+        DiskCache cache = new DiskCache(directory, SEGMENT_SIZE, SEGMENT_SIZE * 4L).setTtl(MethodBase.MOVIE, 50, TimeUnit.MILLISECONDS);
+        cache.put("movie/550", MethodBase.MOVIE, "{}");
+        assertEquals("{}", cache.get("movie/550"));
+        TimeUnit.MILLISECONDS.sleep(100);
+        assertNull("Expired value returned", cache.get("movie/550"));
+        cache.close();
+    }
+}
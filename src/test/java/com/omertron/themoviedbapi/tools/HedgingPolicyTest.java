@@ -0,0 +1,167 @@
+/*
+ *      Copyright (c) 2004-2015 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import com.omertron.themoviedbapi.TestLogger;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Test case for HedgingPolicy
+ *
+ * @author Stuart
+ */
+public class HedgingPolicyTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HedgingPolicyTest.class);
+    private static URL url;
+
+    public HedgingPolicyTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        TestLogger.Configure();
+        url = new URL("http://api.themoviedb.org/3/movie/550?api_key=KEY");
+    }
+
+    @Test
+    public void testDelay() {
+        LOG.info("Delay Test");
+        HedgingPolicy policy = new HedgingPolicy(95, 0.05, 0, 1000, TimeUnit.MILLISECONDS);
+        assertEquals("Maximum delay not used without samples", TimeUnit.MILLISECONDS.toNanos(1000), policy.getDelay());
+
+        for (int ms = 1; ms <= 100; ms++) {
+            policy.recordResponseTime(TimeUnit.MILLISECONDS.toNanos(ms));
+        }
+        assertEquals("Wrong percentile delay", TimeUnit.MILLISECONDS.toNanos(95), policy.getDelay());
+
+        HedgingPolicy limited = new HedgingPolicy(95, 0.05, 200, 1000, TimeUnit.MILLISECONDS);
+        for (int ms = 1; ms <= 100; ms++) {
+            limited.recordResponseTime(TimeUnit.MILLISECONDS.toNanos(ms));
+        }
+        assertEquals("Minimum delay not applied", TimeUnit.MILLISECONDS.toNanos(200), limited.getDelay());
+        policy.shutdown();
+        limited.shutdown();
+    }
+
+    @Test
+    public void testBudget() throws Exception {
+        LOG.info("Budget Test");
+        HedgingPolicy policy = new HedgingPolicy(95, 0.5, 10, 10, TimeUnit.MILLISECONDS);
+        try {
+            for (int request = 0; request < 4; request++) {
+                policy.execute(respond(new Response(), 200), respond(new Response(), 0), url).close();
+            }
+            assertEquals("Wrong requests", 4, policy.getRequestCount());
+            assertEquals("Budget not applied", 2, policy.getHedgeCount());
+            assertEquals("Wrong hedge wins", 2, policy.getHedgeWinCount());
+        } finally {
+            policy.shutdown();
+        }
+    }
+
+    @Test
+    public void testFirstResponseWins() throws Exception {
+        LOG.info("First Response Wins Test");
+        HedgingPolicy policy = new HedgingPolicy(95, 1.0, 20, 20, TimeUnit.MILLISECONDS);
+        final CountDownLatch aborted = new CountDownLatch(1);
+        final AtomicReference<RequestPriority> hedgePriority = new AtomicReference<RequestPriority>();
+        Callable<TransportResponse> slow = new Callable<TransportResponse>() {
+            @Override
+            public TransportResponse call() throws IOException, InterruptedException {
+                // Blocks like a socket read until the request is aborted
+                AbortSignal.current().onAbort(new Runnable() {
+                    @Override
+                    public void run() {
+                        aborted.countDown();
+                    }
+                });
+                aborted.await(5, TimeUnit.SECONDS);
+                throw new IOException("Aborted");
+            }
+        };
+        final Response fast = new Response();
+        Callable<TransportResponse> hedge = new Callable<TransportResponse>() {
+            @Override
+            public TransportResponse call() {
+                hedgePriority.set(RequestContext.getPriority());
+                return fast;
+            }
+        };
+
+        RequestContext.setPriority(RequestPriority.BATCH);
+        try {
+            assertSame("Hedged response not used", fast, policy.execute(slow, hedge, url));
+            assertTrue("Losing attempt not aborted", aborted.await(1, TimeUnit.SECONDS));
+            assertEquals("Request context not used by the hedge", RequestPriority.BATCH, hedgePriority.get());
+            assertEquals("Wrong hedge wins", 1, policy.getHedgeWinCount());
+        } finally {
+            RequestContext.clear();
+            policy.shutdown();
+        }
+    }
+
+    private static Callable<TransportResponse> respond(final TransportResponse response, final long delay) {
+        return new Callable<TransportResponse>() {
+            @Override
+            public TransportResponse call() throws InterruptedException {
+                Thread.sleep(delay);
+                return response;
+            }
+        };
+    }
+
+    private static final class Response implements TransportResponse {
+
+        @Override
+        public int getStatusCode() {
+            return 200;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return null;
+        }
+
+        @Override
+        public InputStream getContent() {
+            return new ByteArrayInputStream(new byte[0]);
+        }
+
+        @Override
+        public void close() {
+            // Nothing to release
+        }
+    }
+}
@@ -0,0 +1,319 @@
+/*
+ *      Copyright (c) 2004-2015 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import com.omertron.themoviedbapi.MovieDbException;
+import com.omertron.themoviedbapi.MovieDbRateLimitException;
+import com.omertron.themoviedbapi.MovieDbTimeoutException;
+import com.omertron.themoviedbapi.TestLogger;
+import com.omertron.themoviedbapi.model.MovieDb;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.http.HttpHeaders;
+import org.apache.http.client.utils.DateUtils;
+import org.slf4j.LoggerFactory;
+import org.yamj.api.common.exception.ApiExceptionType;
+
+/**
+ * Test case for the deadline, circuit breaker, throttling, decoding and mapping handling of HttpTools
+ *
+ * @author Stuart
+ */
+public class HttpToolsTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(HttpToolsTest.class);
+    private static final Charset CHARSET = Charset.forName("UTF-8");
+    private static final String FIGHT_CLUB = "{\"id\":550,\"title\":\"Fight Club\",\"overview\":\""
+            + StringUtils.repeat("A ticking-time-bomb insomniac and a slippery soap salesman. ", 20) + "\"}";
+    private static URL url;
+
+    public HttpToolsTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        TestLogger.Configure();
+        url = new URL("http://api.themoviedb.org/3/movie/550?api_key=KEY");
+    }
+
+    @After
+    public void tearDown() {
+        RequestContext.clear();
+    }
+
+    @Test
+    public void testDeadline() throws Exception {
+        LOG.info("Deadline Test");
+        StubTransport transport = new StubTransport().respond("/movie/550", "{\"id\":550}");
+        HttpTools httpTools = new HttpTools(transport).setRetryPolicy(RetryPolicy.none());
+
+        RequestContext.setTimeout(500, TimeUnit.MILLISECONDS);
+        httpTools.getRequest(url);
+        int timeout = transport.getTimeouts().get(0);
+        assertTrue("Transport timeout not taken from the deadline: " + timeout, timeout > 0 && timeout <= 500);
+
+        transport.setDelay(1, TimeUnit.SECONDS);
+        RequestContext.setTimeout(50, TimeUnit.MILLISECONDS);
+        long start = System.nanoTime();
+        assertDeadlineExceeded(httpTools);
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue("Request not ended at the deadline: " + elapsed + "ms", elapsed < 500);
+
+        // Nothing is sent once the deadline has passed
+        Thread.sleep(60);
+        assertDeadlineExceeded(httpTools);
+        assertEquals("Request sent after the deadline", 2, transport.getRequests().size());
+    }
+
+    @Test
+    public void testCircuitBreakerOutcome() throws Exception {
+        LOG.info("Circuit Breaker Outcome Test");
+        StubTransport transport = new StubTransport();
+        CircuitBreaker breaker = new CircuitBreaker("test", 3, 1, TimeUnit.HOURS, 1);
+        HttpTools httpTools = new HttpTools(transport).setRetryPolicy(RetryPolicy.none()).setCircuitBreaker(breaker);
+
+        transport.setAvailable(false);
+        assertFails(httpTools);
+        assertEquals("Unavailable server not recorded", 1, breaker.getConsecutiveFailures());
+
+        // A missed deadline says nothing about the server
+        transport.setAvailable(true).setDelay(1, TimeUnit.SECONDS);
+        RequestContext.setTimeout(50, TimeUnit.MILLISECONDS);
+        assertDeadlineExceeded(httpTools);
+        assertEquals("Deadline recorded as an outcome", 1, breaker.getConsecutiveFailures());
+        RequestContext.clear();
+
+        // Any response, even an error, shows the server is available
+        transport.setDelay(0, TimeUnit.MILLISECONDS);
+        assertFails(httpTools);
+        assertEquals("Response not recorded as a success", 0, breaker.getConsecutiveFailures());
+    }
+
+    @Test
+    public void testQueuedTimeout() throws Exception {
+        LOG.info("Queued Timeout Test");
+        StubTransport transport = new StubTransport();
+        CircuitBreaker breaker = new CircuitBreaker("test", 3, 1, TimeUnit.HOURS, 1);
+        RequestScheduler scheduler = new RequestScheduler(1, 0.5);
+        HttpTools httpTools = new HttpTools(transport).setRetryPolicy(RetryPolicy.none()).setCircuitBreaker(breaker)
+                .setScheduler(scheduler);
+
+        transport.setAvailable(false);
+        assertFails(httpTools);
+        transport.setAvailable(true);
+
+        scheduler.acquire(RequestPriority.INTERACTIVE);
+        try {
+            RequestContext.setTimeout(50, TimeUnit.MILLISECONDS);
+            assertDeadlineExceeded(httpTools);
+        } finally {
+            scheduler.release();
+        }
+        assertEquals("Queued request was sent", 1, transport.getRequests().size());
+        assertEquals("Queued timeout recorded as an outcome", 1, breaker.getConsecutiveFailures());
+    }
+
+    @Test
+    public void testHalfOpenDeadline() throws Exception {
+        LOG.info("Half Open Deadline Test");
+        StubTransport transport = new StubTransport().respond("/movie/550", "{\"id\":550}");
+        CircuitBreaker breaker = new CircuitBreaker("test", 1, 50, TimeUnit.MILLISECONDS, 1);
+        HttpTools httpTools = new HttpTools(transport).setRetryPolicy(RetryPolicy.none()).setCircuitBreaker(breaker);
+
+        transport.setAvailable(false);
+        assertFails(httpTools);
+        assertEquals("Breaker not opened", CircuitBreaker.State.OPEN, breaker.getState());
+        Thread.sleep(60);
+
+        // The probe that missed its deadline must give its slot back
+        transport.setAvailable(true).setDelay(1, TimeUnit.SECONDS);
+        RequestContext.setTimeout(50, TimeUnit.MILLISECONDS);
+        assertDeadlineExceeded(httpTools);
+        RequestContext.clear();
+        assertEquals("Breaker changed by the deadline", CircuitBreaker.State.HALF_OPEN, breaker.getState());
+
+        transport.setDelay(0, TimeUnit.MILLISECONDS);
+        httpTools.getRequest(url);
+        assertEquals("Breaker not closed by the probe", CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void testMappingFailure() throws Exception {
+        LOG.info("Mapping Failure Test");
+        String body = "{\"id\":550,\"title\":\"" + StringUtils.repeat('x', 10000);
+        StubTransport transport = new StubTransport().respond("/movie/550", body);
+        HttpTools httpTools = new HttpTools(transport).setRetryPolicy(RetryPolicy.none());
+
+        try {
+            httpTools.getRequest(url, MovieDb.class);
+            fail("No exception for a malformed body");
+        } catch (MovieDbException ex) {
+            assertEquals("Wrong exception", ApiExceptionType.MAPPING_FAILED, ex.getExceptionType());
+            assertEquals("Response not limited to the captured prefix", body.substring(0, 4096), ex.getResponse());
+        }
+    }
+
+    @Test
+    public void testRetryAfter() throws Exception {
+        LOG.info("Retry After Test");
+        assertEquals("Wrong delta-seconds delay", 120000L, getRetryAfter("120"));
+        assertEquals("Wrong padded delay", 5000L, getRetryAfter(" 5 "));
+
+        long delay = getRetryAfter(DateUtils.formatDate(new Date(System.currentTimeMillis() + 30000)));
+        assertTrue("Wrong HTTP-date delay: " + delay, delay > 28000 && delay <= 30000);
+        assertEquals("Past HTTP-date not zero", 0L, getRetryAfter(DateUtils.formatDate(new Date(0))));
+
+        assertEquals("Wrong delay for a missing header", 1000L, getRetryAfter(null));
+        assertEquals("Wrong delay for an empty header", 1000L, getRetryAfter(""));
+        assertEquals("Wrong delay for an invalid header", 1000L, getRetryAfter("soon"));
+        assertEquals("Wrong delay for a negative header", 1000L, getRetryAfter("-5"));
+    }
+
+    @Test
+    public void testThrottleExhausted() throws Exception {
+        LOG.info("Throttle Exhausted Test");
+        StubTransport transport = new StubTransport().respond("/movie/550", 429, "{\"status_code\":25}")
+                .header("/movie/550", HttpHeaders.RETRY_AFTER, "2");
+        CircuitBreaker breaker = new CircuitBreaker("test", 1, 1, TimeUnit.HOURS, 1);
+        HttpTools httpTools = new HttpTools(transport).setRetryPolicy(RetryPolicy.none()).setCircuitBreaker(breaker);
+
+        try {
+            httpTools.getRequest(url);
+            fail("No exception for a throttled request");
+        } catch (MovieDbRateLimitException ex) {
+            assertEquals("Wrong response code", 429, ex.getResponseCode());
+            assertEquals("Wrong retry after", 2000L, ex.getRetryAfter());
+            assertEquals("Wrong response", "{\"status_code\":25}", ex.getResponse());
+        } catch (MovieDbException ex) {
+            fail("Wrong exception: " + ex.getExceptionType() + " " + ex.getMessage());
+        }
+        assertEquals("Wrong number of throttle retries", 4, transport.getRequestCount("/movie/550"));
+        assertEquals("Rate limit recorded as unavailable", CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    public void testGzipContent() throws Exception {
+        LOG.info("Gzip Content Test");
+        assertDecoded("gzip", gzip(FIGHT_CLUB));
+    }
+
+    @Test
+    public void testDeflateContent() throws Exception {
+        LOG.info("Deflate Content Test");
+        assertDecoded("deflate", deflate(FIGHT_CLUB));
+    }
+
+    @Test
+    public void testCompressedError() throws Exception {
+        LOG.info("Compressed Error Test");
+        String error = "{\"status_code\":6,\"status_message\":\"Invalid id\"}";
+        StubTransport transport = new StubTransport().respond("/movie/550", 404, gzip(error))
+                .header("/movie/550", HttpHeaders.CONTENT_ENCODING, "gzip");
+        HttpTools httpTools = new HttpTools(transport).setRetryPolicy(RetryPolicy.none());
+
+        try {
+            httpTools.getRequest(url, MovieDb.class);
+            fail("No exception for an error response");
+        } catch (MovieDbException ex) {
+            assertEquals("Wrong exception", ApiExceptionType.HTTP_404_ERROR, ex.getExceptionType());
+            assertEquals("Error response not decoded", error, ex.getResponse());
+        }
+    }
+
+    private static void assertDecoded(String encoding, byte[] body) throws MovieDbException {
+        StubTransport transport = new StubTransport().respond("/movie/550", 200, body)
+                .header("/movie/550", HttpHeaders.CONTENT_ENCODING, encoding);
+        HttpTools httpTools = new HttpTools(transport).setRetryPolicy(RetryPolicy.none());
+
+        MovieDb movie = httpTools.getRequest(url, MovieDb.class);
+        assertEquals("Wrong ID", 550, movie.getId());
+        assertEquals("Wrong title", "Fight Club", movie.getTitle());
+
+        TransferStatistics statistics = httpTools.getTransferStatistics();
+        assertEquals("Wrong responses", 1, statistics.getResponses(MethodBase.MOVIE));
+        assertEquals("Wrong compressed bytes", body.length, statistics.getCompressedBytes(MethodBase.MOVIE));
+        assertEquals("Wrong uncompressed bytes", FIGHT_CLUB.getBytes(CHARSET).length, statistics.getUncompressedBytes(MethodBase.MOVIE));
+        assertTrue("Content not compressed", body.length < FIGHT_CLUB.length());
+    }
+
+    private static byte[] gzip(String content) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        compress(new GZIPOutputStream(out), content);
+        return out.toByteArray();
+    }
+
+    private static byte[] deflate(String content) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        compress(new DeflaterOutputStream(out), content);
+        return out.toByteArray();
+    }
+
+    private static void compress(OutputStream out, String content) throws IOException {
+        try {
+            out.write(content.getBytes(CHARSET));
+        } finally {
+            out.close();
+        }
+    }
+
+    private static long getRetryAfter(String value) throws Exception {
+        StubTransport transport = new StubTransport().respond("/movie/550", 429, "");
+        if (value != null) {
+            transport.header("/movie/550", HttpHeaders.RETRY_AFTER, value);
+        }
+        return HttpTools.getRetryAfter(transport.get(url, Collections.<String, String>emptyMap(), 0));
+    }
+
+    private static void assertDeadlineExceeded(HttpTools httpTools) {
+        try {
+            httpTools.getRequest(url);
+            fail("Deadline not exceeded");
+        } catch (MovieDbTimeoutException ex) {
+            assertTrue("Not a deadline timeout", ex.isDeadlineExceeded());
+        } catch (MovieDbException ex) {
+            fail("Wrong exception: " + ex.getMessage());
+        }
+    }
+
+    private static void assertFails(HttpTools httpTools) {
+        try {
+            httpTools.getRequest(url);
+            fail("Request did not fail");
+        } catch (MovieDbException ex) {
+            LOG.info("Failed: {}", ex.getExceptionType());
+        }
+    }
+}
@@ -0,0 +1,247 @@
+/*
+ *      Copyright (c) 2004-2015 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * HTTP server on the loopback address, for testing the transports against real connections.
+ * <p>
+ * Each response is registered against a path. Unregistered paths return a 404. The "/large" path streams a body of
+ * {@link #LARGE_SIZE} bytes and records how much of it was sent before the client went away.
+ *
+ * @author Stuart
+ */
+public class LocalServer {
+
+    public static final String LARGE = "/large";
+    public static final long LARGE_SIZE = 64L * 1024 * 1024;
+    private static final Charset CHARSET = Charset.forName("UTF-8");
+    private static final int CHUNK = 64 * 1024;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final Map<String, Reply> replies = new HashMap<String, Reply>();
+    private volatile String lastMethod;
+    private volatile String lastBody;
+    private volatile Map<String, String> lastHeaders;
+    private final AtomicLong largeSent = new AtomicLong(0);
+    private volatile CountDownLatch largeDone = new CountDownLatch(1);
+
+    /**
+     * Start the server on a free port
+     *
+     * @throws IOException
+     */
+    public LocalServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                try {
+                    record(exchange);
+                    if (LARGE.equals(exchange.getRequestURI().getPath())) {
+                        sendLarge(exchange);
+                    } else {
+                        send(exchange);
+                    }
+                } finally {
+                    exchange.close();
+                }
+            }
+        });
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * Stop the server
+     */
+    public void stop() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * Get the URL for the path on the server
+     *
+     * @param path
+     * @return
+     * @throws IOException
+     */
+    public URL getUrl(String path) throws IOException {
+        return new URL("http", "127.0.0.1", server.getAddress().getPort(), path);
+    }
+
+    /**
+     * Return the status code and body for the path
+     *
+     * @param path
+     * @param statusCode
+     * @param body
+     * @return
+     */
+    public LocalServer respond(String path, int statusCode, String body) {
+        return respond(path, statusCode, body.getBytes(CHARSET));
+    }
+
+    /**
+     * Return the status code and raw body, such as compressed content, for the path
+     *
+     * @param path
+     * @param statusCode
+     * @param body
+     * @return
+     */
+    public synchronized LocalServer respond(String path, int statusCode, byte[] body) {
+        replies.put(path, new Reply(statusCode, body));
+        return this;
+    }
+
+    /**
+     * Add a header to the response registered for the path
+     *
+     * @param path
+     * @param name
+     * @param value
+     * @return
+     */
+    public synchronized LocalServer header(String path, String name, String value) {
+        replies.get(path).headers.put(name, value);
+        return this;
+    }
+
+    public String getLastMethod() {
+        return lastMethod;
+    }
+
+    public String getLastBody() {
+        return lastBody;
+    }
+
+    /**
+     * Get the headers of the last request, with the names in lower case
+     *
+     * @return
+     */
+    public Map<String, String> getLastHeaders() {
+        return lastHeaders;
+    }
+
+    /**
+     * Wait for the large response to end, either complete or stopped by the client
+     *
+     * @param timeout
+     * @param unit
+     * @return The number of bytes sent, or -1 if it did not end in time
+     * @throws InterruptedException
+     */
+    public long awaitLarge(long timeout, TimeUnit unit) throws InterruptedException {
+        if (!largeDone.await(timeout, unit)) {
+            return -1;
+        }
+        return largeSent.get();
+    }
+
+    private void record(HttpExchange exchange) throws IOException {
+        Map<String, String> headers = new HashMap<String, String>();
+        for (String name : exchange.getRequestHeaders().keySet()) {
+            headers.put(name.toLowerCase(Locale.ENGLISH), exchange.getRequestHeaders().getFirst(name));
+        }
+        lastHeaders = headers;
+        lastMethod = exchange.getRequestMethod();
+        lastBody = new String(readAll(exchange.getRequestBody()), CHARSET);
+    }
+
+    private void send(HttpExchange exchange) throws IOException {
+        Reply reply;
+        synchronized (this) {
+            reply = replies.get(exchange.getRequestURI().getPath());
+        }
+        if (reply == null) {
+            reply = new Reply(404, "{\"status_code\":34}".getBytes(CHARSET));
+        }
+        for (Map.Entry<String, String> header : reply.headers.entrySet()) {
+            exchange.getResponseHeaders().set(header.getKey(), header.getValue());
+        }
+        exchange.sendResponseHeaders(reply.statusCode, reply.body.length == 0 ? -1 : reply.body.length);
+        OutputStream out = exchange.getResponseBody();
+        out.write(reply.body);
+        out.close();
+    }
+
+    private void sendLarge(HttpExchange exchange) throws IOException {
+        largeSent.set(0);
+        largeDone = new CountDownLatch(1);
+        try {
+            exchange.sendResponseHeaders(200, LARGE_SIZE);
+            OutputStream out = exchange.getResponseBody();
+            byte[] chunk = new byte[CHUNK];
+            while (largeSent.get() < LARGE_SIZE) {
+                out.write(chunk);
+                largeSent.addAndGet(chunk.length);
+            }
+            out.close();
+        } catch (IOException ex) {
+            // The client closed the connection
+        } finally {
+            largeDone.countDown();
+        }
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[CHUNK];
+        int read;
+        while ((read = in.read(buffer)) >= 0) {
+            out.write(buffer, 0, read);
+        }
+        return out.toByteArray();
+    }
+
+    private static final class Reply {
+
+        private final int statusCode;
+        private final byte[] body;
+        private final Map<String, String> headers = new HashMap<String, String>();
+
+        Reply(int statusCode, byte[] body) {
+            this.statusCode = statusCode;
+            this.body = body;
+        }
+    }
+}
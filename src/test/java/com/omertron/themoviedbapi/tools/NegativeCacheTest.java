@@ -0,0 +1,133 @@
+/*
+ *      Copyright (c) 2004-2015 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import com.omertron.themoviedbapi.MovieDbException;
+import com.omertron.themoviedbapi.TestLogger;
+import java.net.URL;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Test case for NegativeCache
+ *
+ * @author Stuart
+ */
+public class NegativeCacheTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(NegativeCacheTest.class);
+
+    public NegativeCacheTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+        TestLogger.Configure();
+    }
+
+    @Test
+    public void testBloomFilter() {
+        LOG.info("Bloom Filter Test");
+        BloomFilter filter = new BloomFilter(1000, 0.01);
+        for (int i = 0; i < 1000; i++) {
+            filter.put("movie/" + i);
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < 1000; i++) {
+            assertTrue("Added value not found", filter.mightContain("movie/" + i));
+            if (filter.mightContain("person/" + i)) {
+                falsePositives++;
+            }
+        }
+        LOG.info("False positives: {}", falsePositives);
+        assertTrue("Too many false positives: " + falsePositives, falsePositives < 30);
+    }
+
+    @Test
+    public void testMissing() throws Exception {
+        LOG.info("Missing Test");
+        NegativeCache cache = new NegativeCache(100, 50, TimeUnit.MILLISECONDS);
+        cache.put(new URL("http://api.themoviedb.org/3/movie/999999?api_key=KEY"));
+        assertTrue("ID not missing", cache.isMissing(new URL("http://api.themoviedb.org/3/movie/999999?api_key=KEY")));
+        assertTrue("Sub-resource not missing", cache.isMissing(new URL("http://api.themoviedb.org/3/movie/999999/images?api_key=KEY")));
+        assertFalse("Other ID missing", cache.isMissing(new URL("http://api.themoviedb.org/3/movie/550?api_key=KEY")));
+        assertFalse("Other method missing", cache.isMissing(new URL("http://api.themoviedb.org/3/person/999999?api_key=KEY")));
+
+        TimeUnit.MILLISECONDS.sleep(100);
+        assertFalse("Expired ID missing", cache.isMissing(new URL("http://api.themoviedb.org/3/movie/999999?api_key=KEY")));
+
+        cache.put(new URL("http://api.themoviedb.org/3/movie/999998?api_key=KEY"));
+        assertEquals("Wrong number removed", 1, cache.removeAll(MethodBase.MOVIE, Collections.singleton("999998")));
+        assertFalse("Removed ID missing", cache.isMissing(new URL("http://api.themoviedb.org/3/movie/999998?api_key=KEY")));
+    }
+
+    @Test
+    public void testRequest() throws Exception {
+        LOG.info("Request Test");
+        StubTransport transport = new StubTransport();
+        HttpTools httpTools = new HttpTools(transport).setNegativeCache(new NegativeCache());
+        URL url = new URL("http://api.themoviedb.org/3/movie/999999?api_key=KEY");
+        for (int i = 0; i < 3; i++) {
+            try {
+                httpTools.getRequest(url);
+                fail("No exception for missing ID");
+            } catch (MovieDbException ex) {
+                assertEquals("Wrong response code", 404, ex.getResponseCode());
+            }
+        }
+        assertEquals("Missing ID requested again", 1, transport.getRequestCount("/movie/999999"));
+        assertEquals("Wrong hit count", 2, httpTools.getNegativeCache().getHitCount());
+    }
+
+    @Test
+    public void testFull() throws Exception {
+        LOG.info("Full Test");
+        NegativeCache cache = new NegativeCache(10, 1, TimeUnit.HOURS);
+        for (int id = 0; id < 20; id++) {
+            cache.put(new URL("http://api.themoviedb.org/3/movie/" + id + "?api_key=KEY"));
+            assertTrue("Added ID not missing", cache.isMissing(new URL("http://api.themoviedb.org/3/movie/" + id + "?api_key=KEY")));
+        }
+        assertEquals("Cache over its size", 10, cache.size());
+        assertEquals("Wrong eviction count", 10, cache.getEvictionCount());
+    }
+
+    @Test
+    public void testSubResource() throws Exception {
+        LOG.info("Sub-resource Test");
+        HttpTools httpTools = new HttpTools(new StubTransport()).setNegativeCache(new NegativeCache());
+        try {
+            httpTools.getRequest(new URL("http://api.themoviedb.org/3/movie/550/unknown?api_key=KEY"));
+            fail("No exception for missing sub-resource");
+        } catch (MovieDbException ex) {
+            assertEquals("Wrong response code", 404, ex.getResponseCode());
+        }
+        assertFalse("ID missing after a sub-resource 404",
+                httpTools.getNegativeCache().isMissing(new URL("http://api.themoviedb.org/3/movie/550?api_key=KEY")));
+        assertEquals("Wrong size", 0, httpTools.getNegativeCache().size());
+    }
+}
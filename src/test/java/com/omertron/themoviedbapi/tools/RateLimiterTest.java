@@ -0,0 +1,88 @@
+/*
+ *      Copyright (c) 2004-2015 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import com.omertron.themoviedbapi.TestLogger;
+import java.util.concurrent.TimeUnit;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Test case for RateLimiter
+ *
+ * @author Stuart
+ */
+public class RateLimiterTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RateLimiterTest.class);
+
+    public RateLimiterTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+        TestLogger.Configure();
+    }
+
+    @Test
+    public void testBurst() throws InterruptedException {
+        LOG.info("Burst Test");
+        RateLimiter limiter = new RateLimiter(10, 1, TimeUnit.HOURS);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 10; i++) {
+            limiter.acquire();
+        }
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue("Burst should not wait: " + elapsed + "ms", elapsed < 500);
+        assertEquals("Wrong waited time", 0, limiter.getWaitedTime(TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void testRate() throws InterruptedException {
+        LOG.info("Rate Test");
+        RateLimiter limiter = new RateLimiter(2, 200, TimeUnit.MILLISECONDS);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 4; i++) {
+            limiter.acquire();
+        }
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        // Two permits are available straight away, the other two are spaced 100ms apart
+        assertTrue("Requests were not limited: " + elapsed + "ms", elapsed >= 150);
+    }
+
+    @Test
+    public void testBackOff() throws InterruptedException {
+        LOG.info("Back Off Test");
+        RateLimiter limiter = new RateLimiter(100, 1, TimeUnit.SECONDS);
+        limiter.backOff(200, TimeUnit.MILLISECONDS);
+
+        long start = System.nanoTime();
+        limiter.acquire();
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue("Back off was ignored: " + elapsed + "ms", elapsed >= 150);
+        assertEquals("Wrong throttled count", 1, limiter.getThrottledCount());
+    }
+}
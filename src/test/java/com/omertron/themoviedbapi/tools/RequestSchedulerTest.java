@@ -0,0 +1,118 @@
+/*
+ *      Copyright (c) 2004-2015 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import com.omertron.themoviedbapi.TestLogger;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import static org.junit.Assert.assertEquals;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Test case for RequestScheduler
+ *
+ * @author Stuart
+ */
+public class RequestSchedulerTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RequestSchedulerTest.class);
+
+    public RequestSchedulerTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+        TestLogger.Configure();
+    }
+
+    @Test
+    public void testPriority() throws Exception {
+        LOG.info("Priority Test");
+        RequestScheduler scheduler = new RequestScheduler(1, 0.25);
+        final List<RequestPriority> order = Collections.synchronizedList(new ArrayList<RequestPriority>());
+
+        // Hold the only slot while the other requests queue up
+        scheduler.acquire(RequestPriority.INTERACTIVE);
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < 2; i++) {
+            threads.add(start(scheduler, RequestPriority.BATCH, order));
+        }
+        for (int i = 0; i < 6; i++) {
+            threads.add(start(scheduler, RequestPriority.INTERACTIVE, order));
+        }
+        while (scheduler.getQueueLength(RequestPriority.INTERACTIVE) < 6 || scheduler.getQueueLength(RequestPriority.BATCH) < 2) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        scheduler.release();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // Interactive requests go first, but one batch request is started after every three interactive ones
+        List<RequestPriority> expected = new ArrayList<RequestPriority>();
+        for (int i = 0; i < 2; i++) {
+            expected.add(RequestPriority.INTERACTIVE);
+            expected.add(RequestPriority.INTERACTIVE);
+            expected.add(RequestPriority.INTERACTIVE);
+            expected.add(RequestPriority.BATCH);
+        }
+        assertEquals("Wrong order", expected, order);
+        assertEquals("Slots not released", 0, scheduler.getRunning());
+    }
+
+    @Test
+    public void testDefaultPriority() throws Exception {
+        LOG.info("Default Priority Test");
+        RequestScheduler scheduler = new RequestScheduler();
+        assertEquals(RequestPriority.INTERACTIVE, scheduler.getPriority(new URL("http://api.themoviedb.org/3/movie/550")));
+        assertEquals(RequestPriority.BATCH, scheduler.getPriority(new URL("http://api.themoviedb.org/3/movie/changes")));
+        assertEquals(RequestPriority.BATCH, scheduler.getPriority(new URL("http://api.themoviedb.org/3/discover/movie")));
+
+        RequestContext.setPriority(RequestPriority.BATCH);
+        try {
+            assertEquals(RequestPriority.BATCH, scheduler.getPriority(new URL("http://api.themoviedb.org/3/movie/550")));
+        } finally {
+            RequestContext.clear();
+        }
+    }
+
+    private static Thread start(final RequestScheduler scheduler, final RequestPriority priority, final List<RequestPriority> order) {
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    scheduler.acquire(priority);
+                    order.add(priority);
+                    scheduler.release();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        thread.start();
+        return thread;
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ *      Copyright (c) 2004-2015 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import com.omertron.themoviedbapi.TestLogger;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Test case for ResponseCache
+ *
+ * @author Stuart
+ */
+public class ResponseCacheTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ResponseCacheTest.class);
+
+    public ResponseCacheTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+        TestLogger.Configure();
+    }
+
+    @Test
+    public void testKey() throws Exception {
+        LOG.info("Key Test");
+        assertEquals("http://api.themoviedb.org/3/movie/550",
+                ResponseCache.getKey(new URL("http://api.themoviedb.org/3/movie/550?api_key=KEY")));
+        assertEquals("http://api.themoviedb.org/3/movie/550?language=en",
+                ResponseCache.getKey(new URL("http://api.themoviedb.org/3/movie/550?api_key=KEY&language=en")));
+        assertEquals("http://api.themoviedb.org/3/movie/550?language=en",
+                ResponseCache.getKey(new URL("http://api.themoviedb.org/3/movie/550?language=en&api_key=KEY")));
+    }
+
+    @Test
+    public void testCached() throws Exception {
+        LOG.info("Cached Test");
+        ResponseCache cache = new ResponseCache();
+        assertTrue("Movie not cached", cache.isCached(new URL("http://api.themoviedb.org/3/movie/550?api_key=KEY")));
+        assertFalse("Changes cached", cache.isCached(new URL("http://api.themoviedb.org/3/movie/changes?api_key=KEY")));
+        assertFalse("Account cached", cache.isCached(new URL("http://api.themoviedb.org/3/account?api_key=KEY")));
+    }
+
+    @Test
+    public void testExpiry() throws InterruptedException {
+        LOG.info("Expiry Test");
+        ResponseCache cache = new ResponseCache().setTtl(MethodBase.MOVIE, 50, TimeUnit.MILLISECONDS);
+        cache.put("key", MethodBase.MOVIE, "value");
+        assertEquals("value", cache.get("key"));
+
+        TimeUnit.MILLISECONDS.sleep(100);
+        assertNull("Expired value returned", cache.get("key"));
+        assertEquals("Wrong hit count", 1, cache.getHitCount());
+        assertEquals("Wrong miss count", 1, cache.getMissCount());
+        assertEquals("Wrong expired count", 1, cache.getExpiredCount());
+    }
+
+    @Test
+    public void testEviction() {
+        LOG.info("Eviction Test");
+        ResponseCache cache = new ResponseCache(2);
+        cache.put("a", MethodBase.MOVIE, "a");
+        cache.put("b", MethodBase.MOVIE, "b");
+        // Use "a" so "b" is the least recently used
+        cache.get("a");
+        cache.put("c", MethodBase.MOVIE, "c");
+
+        assertEquals("a", cache.get("a"));
+        assertNull("LRU entry not evicted", cache.get("b"));
+        assertEquals("Wrong eviction count", 1, cache.getEvictionCount());
+    }
+
+    @Test
+    public void testStaleWhileRevalidate() throws Exception {
+        LOG.info("Stale While Revalidate Test");
+        StubTransport transport = new StubTransport().respond("/movie/550", "{\"id\":550}");
+        ResponseCache cache = new ResponseCache().setTtl(MethodBase.MOVIE, 500, TimeUnit.MILLISECONDS)
+                .setStaleWhileRevalidate(1, TimeUnit.MINUTES);
+        HttpTools httpTools = new HttpTools(transport).setResponseCache(cache);
+        URL url = new URL("http://api.themoviedb.org/3/movie/550?api_key=KEY");
+
+        String first = httpTools.getRequest(url);
+        TimeUnit.MILLISECONDS.sleep(600);
+        // Only the first stale read starts a refresh, the others return the stale value or the refreshed one
+        assertSame("Stale value not returned", first, httpTools.getRequest(url));
+        for (int i = 0; i < 5; i++) {
+            httpTools.getRequest(url);
+        }
+
+        // Wait for the background refresh
+        for (int i = 0; i < 100 && cache.get(ResponseCache.getKey(url)) == null; i++) {
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        assertEquals("Wrong number of refreshes", 1, cache.getRevalidationCount());
+        assertEquals("Wrong number of requests", 2, transport.getRequestCount("/movie/550"));
+        assertNotSame("Refreshed value not returned", first, httpTools.getRequest(url));
+    }
+
+    @Test
+    public void testStaleIfError() throws Exception {
+        LOG.info("Stale If Error Test");
+        StubTransport transport = new StubTransport().respond("/movie/550", "{\"id\":550}");
+        ResponseCache cache = new ResponseCache().setTtl(MethodBase.MOVIE, 50, TimeUnit.MILLISECONDS)
+                .setStaleIfError(1, TimeUnit.MINUTES);
+        HttpTools httpTools = new HttpTools(transport).setResponseCache(cache).setRetryPolicy(RetryPolicy.none());
+        URL url = new URL("http://api.themoviedb.org/3/movie/550?api_key=KEY");
+
+        String first = httpTools.getRequest(url);
+        TimeUnit.MILLISECONDS.sleep(100);
+        transport.setAvailable(false);
+        assertSame("Stale value not returned", first, httpTools.getRequest(url));
+        assertEquals("Wrong stale count", 1, cache.getStaleIfErrorCount());
+
+        transport.setAvailable(true);
+        assertNotSame("Refreshed value not returned", first, httpTools.getRequest(url));
+    }
+}
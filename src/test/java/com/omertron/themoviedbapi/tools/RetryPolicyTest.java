@@ -0,0 +1,149 @@
+/*
+ *      Copyright (c) 2004-2015 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import com.omertron.themoviedbapi.MovieDbException;
+import com.omertron.themoviedbapi.TestLogger;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.yamj.api.common.exception.ApiExceptionType;
+
+/**
+ * Test case for RetryPolicy and the retries made by HttpTools
+ *
+ * @author Stuart
+ */
+public class RetryPolicyTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RetryPolicyTest.class);
+    private static URL url;
+
+    public RetryPolicyTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() throws Exception {
+        TestLogger.Configure();
+        url = new URL("http://api.themoviedb.org/3/movie/550?api_key=KEY");
+    }
+
+    @Test
+    public void testServerErrorRetried() throws MovieDbException {
+        LOG.info("Server Error Retried Test");
+        StubTransport transport = new StubTransport().respond("/movie/550", "{\"id\":550}").failNext(1);
+        RetryPolicy retryPolicy = new RetryPolicy(3, 10, 50, TimeUnit.MILLISECONDS);
+        HttpTools httpTools = new HttpTools(transport).setRetryPolicy(retryPolicy);
+
+        assertEquals("Wrong response", "{\"id\":550}", httpTools.getRequest(url));
+        assertEquals("Wrong number of requests", 2, transport.getRequestCount("/movie/550"));
+        assertEquals("Success not recorded", 1, retryPolicy.getSuccessCount());
+        assertEquals("Failure recorded", 0, retryPolicy.getFailureCount());
+        assertEquals("Retry not recorded", 1, retryPolicy.getServerErrorRetries());
+        assertEquals("Connection retry recorded", 0, retryPolicy.getConnectionErrorRetries());
+        assertEquals("Second attempt not recorded", 1, retryPolicy.getAttemptCount(2));
+        assertEquals("First attempt recorded", 0, retryPolicy.getAttemptCount(1));
+    }
+
+    @Test
+    public void testNotFoundNotRetried() {
+        LOG.info("Not Found Not Retried Test");
+        StubTransport transport = new StubTransport();
+        RetryPolicy retryPolicy = new RetryPolicy(3, 10, 50, TimeUnit.MILLISECONDS);
+        HttpTools httpTools = new HttpTools(transport).setRetryPolicy(retryPolicy);
+
+        try {
+            httpTools.getRequest(url);
+            fail("No exception for a missing movie");
+        } catch (MovieDbException ex) {
+            assertEquals("Wrong exception", ApiExceptionType.HTTP_404_ERROR, ex.getExceptionType());
+        }
+        assertEquals("Not found was retried", 1, transport.getRequestCount("/movie/550"));
+        assertEquals("Failure not recorded", 1, retryPolicy.getFailureCount());
+        assertEquals("Retry recorded", 0, retryPolicy.getServerErrorRetries());
+        assertEquals("First attempt not recorded", 1, retryPolicy.getAttemptCount(1));
+    }
+
+    @Test
+    public void testMaxAttempts() {
+        LOG.info("Max Attempts Test");
+        StubTransport transport = new StubTransport().setAvailable(false);
+        RetryPolicy retryPolicy = new RetryPolicy(3, 5, 20, TimeUnit.MILLISECONDS);
+        HttpTools httpTools = new HttpTools(transport).setRetryPolicy(retryPolicy);
+
+        try {
+            httpTools.getRequest(url);
+            fail("No exception for an unavailable server");
+        } catch (MovieDbException ex) {
+            assertEquals("Wrong exception", ApiExceptionType.HTTP_503_ERROR, ex.getExceptionType());
+            assertEquals("Wrong response code", 503, ex.getResponseCode());
+        }
+        assertEquals("Attempts not stopped at the maximum", 3, transport.getRequestCount("/movie/550"));
+        assertEquals("Failure not recorded", 1, retryPolicy.getFailureCount());
+        assertEquals("Wrong number of retries", 2, retryPolicy.getServerErrorRetries());
+        assertEquals("Third attempt not recorded", 1, retryPolicy.getAttemptCount(3));
+        long delay = retryPolicy.getRetryDelay(TimeUnit.MILLISECONDS);
+        assertTrue("Retry delay over the caps: " + delay, delay >= 0 && delay <= 5 + 10);
+    }
+
+    @Test
+    public void testDelay() {
+        LOG.info("Delay Test");
+        RetryPolicy retryPolicy = new RetryPolicy(10, 100, 1000, TimeUnit.MILLISECONDS);
+        for (int attempt = 1; attempt <= 10; attempt++) {
+            long ceiling = Math.min(100L << (attempt - 1), 1000L);
+            long min = Long.MAX_VALUE;
+            long max = Long.MIN_VALUE;
+            for (int i = 0; i < 1000; i++) {
+                long delay = retryPolicy.getDelay(attempt);
+                assertTrue("Delay " + delay + " outside [0, " + ceiling + "] for attempt " + attempt, delay >= 0 && delay <= ceiling);
+                min = Math.min(min, delay);
+                max = Math.max(max, delay);
+            }
+            // Full jitter spreads the delays over the whole range
+            assertTrue("Delays not jittered for attempt " + attempt + ": " + min + "-" + max, min < ceiling / 4 && max > ceiling * 3 / 4);
+        }
+
+        assertEquals("Delay without a base", 0, RetryPolicy.none().getDelay(1));
+        assertEquals("Delay for a huge attempt not capped", 0, new RetryPolicy(3, 0, 0, TimeUnit.MILLISECONDS).getDelay(100));
+        long delay = retryPolicy.getDelay(100);
+        assertTrue("Delay for a huge attempt over the cap: " + delay, delay >= 0 && delay <= 1000);
+    }
+
+    @Test
+    public void testRetryable() {
+        LOG.info("Retryable Test");
+        RetryPolicy retryPolicy = new RetryPolicy(3, 10, 50, TimeUnit.MILLISECONDS);
+        assertTrue("500 not retryable", retryPolicy.isRetryable(500));
+        assertTrue("503 not retryable", retryPolicy.isRetryable(503));
+        assertFalse("404 retryable", retryPolicy.isRetryable(404));
+        assertFalse("429 retryable", retryPolicy.isRetryable(429));
+        assertTrue("Second attempt not allowed", retryPolicy.canRetry(2));
+        assertFalse("Fourth attempt allowed", retryPolicy.canRetry(3));
+        assertFalse("No retry policy retries", RetryPolicy.none().canRetry(1));
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ *      Copyright (c) 2004-2015 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import com.omertron.themoviedbapi.MovieDbException;
+import com.omertron.themoviedbapi.MovieDbTimeoutException;
+import com.omertron.themoviedbapi.TestLogger;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.yamj.api.common.exception.ApiExceptionType;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Test case for SingleFlight
+ *
+ * @author Stuart
+ */
+public class SingleFlightTest {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SingleFlightTest.class);
+    private static final int THREADS = 8;
+
+    public SingleFlightTest() {
+    }
+
+    @BeforeClass
+    public static void setUpClass() {
+        TestLogger.Configure();
+    }
+
+    @Test
+    public void testShared() throws Exception {
+        LOG.info("Shared Test");
+        final SingleFlight singleFlight = new SingleFlight();
+        final URL url = new URL("http://localhost/3/movie/1");
+        final AtomicInteger calls = new AtomicInteger(0);
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Object>> results = new ArrayList<Future<Object>>();
+            results.add(executor.submit(new Callable<Object>() {
+                @Override
+                public Object call() throws Exception {
+                    return singleFlight.execute("key", url, new Callable<Object>() {
+                        @Override
+                        public Object call() throws Exception {
+                            calls.incrementAndGet();
+                            started.countDown();
+                            release.await();
+                            return new Object();
+                        }
+                    });
+                }
+            }));
+            started.await();
+
+            for (int i = 1; i < THREADS; i++) {
+                results.add(executor.submit(new Callable<Object>() {
+                    @Override
+                    public Object call() throws Exception {
+                        return singleFlight.execute("key", url, new Callable<Object>() {
+                            @Override
+                            public Object call() {
+                                calls.incrementAndGet();
+                                return new Object();
+                            }
+                        });
+                    }
+                }));
+            }
+            // Wait for the other callers to join the request in flight
+            while (singleFlight.getSharedCount() < THREADS - 1) {
+                TimeUnit.MILLISECONDS.sleep(10);
+            }
+            release.countDown();
+
+            Object first = results.get(0).get();
+            for (Future<Object> result : results) {
+                assertSame("Result was not shared", first, result.get());
+            }
+            assertEquals("Wrong number of requests", 1, calls.get());
+            assertEquals("Request still in flight", 0, singleFlight.getInFlight());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test(expected = MovieDbException.class)
+    public void testException() throws Exception {
+        LOG.info("Exception Test");
+        SingleFlight singleFlight = new SingleFlight();
+        final URL url = new URL("http://localhost/3/movie/1");
+        singleFlight.execute("key", url, new Callable<Object>() {
+            @Override
+            public Object call() throws MovieDbException {
+                throw new MovieDbException(ApiExceptionType.ID_NOT_FOUND, "Not found", url);
+            }
+        });
+    }
+
+    @Test
+    public void testLeaderDeadline() throws Exception {
+        LOG.info("Leader Deadline Test");
+        final SingleFlight singleFlight = new SingleFlight();
+        final URL url = new URL("http://localhost/3/movie/1");
+        final AtomicInteger calls = new AtomicInteger(0);
+        final Object expected = new Object();
+        // Takes longer than the deadline of the leader, as a slow server would
+        final Callable<Object> request = new Callable<Object>() {
+            @Override
+            public Object call() throws Exception {
+                calls.incrementAndGet();
+                long remaining = RequestContext.getRemaining(TimeUnit.MILLISECONDS);
+                if (remaining < 200) {
+                    TimeUnit.MILLISECONDS.sleep(Math.max(0, remaining));
+                    throw new MovieDbTimeoutException("Deadline exceeded", url, null, true);
+                }
+                TimeUnit.MILLISECONDS.sleep(200);
+                return expected;
+            }
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Object> leader = executor.submit(new Callable<Object>() {
+                @Override
+                public Object call() throws Exception {
+                    RequestContext.setTimeout(100, TimeUnit.MILLISECONDS);
+                    try {
+                        return singleFlight.execute("key", url, request);
+                    } finally {
+                        RequestContext.clear();
+                    }
+                }
+            });
+            while (singleFlight.getInFlight() == 0) {
+                TimeUnit.MILLISECONDS.sleep(1);
+            }
+            Future<Object> follower = executor.submit(new Callable<Object>() {
+                @Override
+                public Object call() throws Exception {
+                    return singleFlight.execute("key", url, request);
+                }
+            });
+
+            try {
+                leader.get();
+                fail("Leader deadline not exceeded");
+            } catch (ExecutionException ex) {
+                assertTrue("Wrong exception for the leader", ex.getCause() instanceof MovieDbTimeoutException);
+            }
+            assertSame("Follower failed with the leader's deadline", expected, follower.get());
+            assertEquals("Follower did not make the request again", 1, singleFlight.getReissuedCount());
+            assertEquals("Wrong number of requests", 2, calls.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,301 @@
+/*
+ *      Copyright (c) 2004-2015 Stuart Boston
+ *
+ *      This file is part of TheMovieDB API.
+ *
+ *      TheMovieDB API is free software: you can redistribute it and/or modify
+ *      it under the terms of the GNU General Public License as published by
+ *      the Free Software Foundation, either version 3 of the License, or
+ *      any later version.
+ *
+ *      TheMovieDB API is distributed in the hope that it will be useful,
+ *      but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *      MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *      GNU General Public License for more details.
+ *
+ *      You should have received a copy of the GNU General Public License
+ *      along with TheMovieDB API.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ */
+package com.omertron.themoviedbapi.tools;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.http.HttpHeaders;
+
+/**
+ * Transport that returns fixed responses without a network connection, for the tests.
+ * <p>
+ * Each response is registered against a part of the URL (path and query, without the api_key), the first match wins. Unmatched
+ * requests return a 404. A response with an ETag or Last-Modified header is answered with a 304 when the request has a matching
+ * If-None-Match or If-Modified-Since header. A delay longer than the timeout of the request ends with a read timeout, as it
+ * would on a socket.
+ *
+ * @author Stuart
+ */
+public class StubTransport implements HttpTransport {
+
+    private static final Charset CHARSET = Charset.forName("UTF-8");
+    private static final String CONFIGURATION = "{\"images\":{\"base_url\":\"http://image.tmdb.org/t/p/\","
+            + "\"poster_sizes\":[\"original\"],\"backdrop_sizes\":[\"original\"],\"profile_sizes\":[\"original\"],"
+            + "\"logo_sizes\":[\"original\"],\"still_sizes\":[\"original\"]}}";
+    private final Map<String, Stub> responses = new LinkedHashMap<String, Stub>();
+    private final List<String> requests = Collections.synchronizedList(new ArrayList<String>());
+    private final List<Map<String, String>> requestHeaders = Collections.synchronizedList(new ArrayList<Map<String, String>>());
+    private final List<Integer> timeouts = Collections.synchronizedList(new ArrayList<Integer>());
+    private final AtomicInteger failures = new AtomicInteger(0);
+    private volatile boolean available = true;
+    private volatile long delay = 0;
+
+    /**
+     * Create the transport with a response for the configuration, which is read by the API constructor
+     */
+    public StubTransport() {
+        respond("/configuration", CONFIGURATION);
+    }
+
+    /**
+     * Return the body for any URL that contains the text
+     *
+     * @param contains
+     * @param body
+     * @return
+     */
+    public final StubTransport respond(String contains, String body) {
+        return respond(contains, 200, body);
+    }
+
+    /**
+     * Return the status code and body for any URL that contains the text
+     *
+     * @param contains
+     * @param statusCode
+     * @param body
+     * @return
+     */
+    public final StubTransport respond(String contains, int statusCode, String body) {
+        return respond(contains, statusCode, body.getBytes(CHARSET));
+    }
+
+    /**
+     * Return the status code and raw body, such as compressed content, for any URL that contains the text
+     *
+     * @param contains
+     * @param statusCode
+     * @param body
+     * @return
+     */
+    public final synchronized StubTransport respond(String contains, int statusCode, byte[] body) {
+        responses.put(contains, new Stub(statusCode, body));
+        return this;
+    }
+
+    /**
+     * Add a header to the response registered for the text
+     *
+     * @param contains
+     * @param name
+     * @param value
+     * @return
+     */
+    public synchronized StubTransport header(String contains, String name, String value) {
+        responses.get(contains).headers.put(name, value);
+        return this;
+    }
+
+    /**
+     * Wait before each response, as a slow server would
+     *
+     * @param delay
+     * @param unit
+     * @return
+     */
+    public StubTransport setDelay(long delay, TimeUnit unit) {
+        this.delay = unit.toMillis(delay);
+        return this;
+    }
+
+    /**
+     * Return a 503 for every request while TMDb is "unavailable"
+     *
+     * @param available
+     * @return
+     */
+    public StubTransport setAvailable(boolean available) {
+        this.available = available;
+        return this;
+    }
+
+    /**
+     * Return a 503 for the next requests, then respond as normal
+     *
+     * @param requests The number of requests to fail
+     * @return
+     */
+    public StubTransport failNext(int requests) {
+        failures.set(requests);
+        return this;
+    }
+
+    /**
+     * Get the requests made, as the URL without the api_key
+     *
+     * @return
+     */
+    public List<String> getRequests() {
+        return requests;
+    }
+
+    /**
+     * Get the headers sent with each request, in the same order as the requests
+     *
+     * @return
+     */
+    public List<Map<String, String>> getRequestHeaders() {
+        return requestHeaders;
+    }
+
+    /**
+     * Get the timeout passed with each request, in the same order as the requests
+     *
+     * @return
+     */
+    public List<Integer> getTimeouts() {
+        return timeouts;
+    }
+
+    /**
+     * Get the number of requests made that contain the text
+     *
+     * @param contains
+     * @return
+     */
+    public int getRequestCount(String contains) {
+        int count = 0;
+        synchronized (requests) {
+            for (String request : requests) {
+                if (request.contains(contains)) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public TransportResponse get(URL url, Map<String, String> headers, int timeout) throws IOException {
+        String key = ResponseCache.getKey(url);
+        synchronized (requests) {
+            requests.add(key);
+            requestHeaders.add(new HashMap<String, String>(headers));
+            timeouts.add(timeout);
+        }
+        if (delay > 0) {
+            try {
+                if (timeout > 0 && delay > timeout) {
+                    Thread.sleep(timeout);
+                    throw new SocketTimeoutException("Read timed out");
+                }
+                Thread.sleep(delay);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted");
+            }
+        }
+        if (!available || (failures.get() > 0 && failures.getAndDecrement() > 0)) {
+            return new Response(503, "{\"status_code\":11}".getBytes(CHARSET), null);
+        }
+
+        Stub stub = null;
+        synchronized (this) {
+            for (Map.Entry<String, Stub> entry : responses.entrySet()) {
+                if (key.contains(entry.getKey())) {
+                    stub = entry.getValue();
+                    break;
+                }
+            }
+        }
+        if (stub == null) {
+            return new Response(404, "{\"status_code\":34}".getBytes(CHARSET), null);
+        }
+        if (stub.isNotModified(headers)) {
+            return new Response(304, new byte[0], stub.headers);
+        }
+        return new Response(stub.statusCode, stub.body, stub.headers);
+    }
+
+    @Override
+    public TransportResponse post(URL url, Map<String, String> headers, String jsonBody, int timeout) throws IOException {
+        return get(url, headers, timeout);
+    }
+
+    @Override
+    public TransportResponse delete(URL url, Map<String, String> headers, int timeout) throws IOException {
+        return get(url, headers, timeout);
+    }
+
+    private static final class Stub {
+
+        private final int statusCode;
+        private final byte[] body;
+        private final Map<String, String> headers = new HashMap<String, String>();
+
+        Stub(int statusCode, byte[] body) {
+            this.statusCode = statusCode;
+            this.body = body;
+        }
+
+        boolean isNotModified(Map<String, String> request) {
+            String etag = headers.get(HttpHeaders.ETAG);
+            String lastModified = headers.get(HttpHeaders.LAST_MODIFIED);
+            return (etag != null && etag.equals(request.get(HttpHeaders.IF_NONE_MATCH)))
+                    || (lastModified != null && lastModified.equals(request.get(HttpHeaders.IF_MODIFIED_SINCE)));
+        }
+    }
+
+    private static final class Response implements TransportResponse {
+
+        private final int statusCode;
+        private final InputStream content;
+        private final Map<String, String> headers;
+
+        Response(int statusCode, byte[] body, Map<String, String> headers) {
+            this.statusCode = statusCode;
+            this.content = new ByteArrayInputStream(body);
+            this.headers = headers == null ? new HashMap<String, String>() : new HashMap<String, String>(headers);
+        }
+
+        @Override
+        public int getStatusCode() {
+            return statusCode;
+        }
+
+        @Override
+        public String getHeader(String name) {
+            return headers.get(name);
+        }
+
+        @Override
+        public InputStream getContent() {
+            return content;
+        }
+
+        @Override
+        public void close() {
+            // Nothing to release
+        }
+    }
+}